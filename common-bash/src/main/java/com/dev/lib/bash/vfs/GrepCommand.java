@@ -3,7 +3,7 @@ package com.dev.lib.bash.vfs;
 import com.dev.lib.bash.ExecuteContext;
 import com.dev.lib.storage.Vfs;
 import com.dev.lib.storage.domain.model.VfsContext;
-import com.dev.lib.storage.domain.model.VfsNode;
+import com.dev.lib.storage.domain.service.virtual.search.VfsContentSearcher;
 
 import java.util.ArrayList;
 import java.util.LinkedHashSet;
@@ -35,10 +35,6 @@ public class GrepCommand extends VfsCommand<String> {
         String patternText = parsed.getString(0);
         VfsContext vfsCtx = toVfsContext(ctx);
 
-        // 收集目标文件
-        List<String> files = collectTargetFiles(vfsCtx, parsed, recursive);
-        boolean showFileName = files.size() > 1;
-
         // 编译正则（非固定字符串模式）
         Pattern regex = null;
         if (!fixedString) {
@@ -46,36 +42,35 @@ public class GrepCommand extends VfsCommand<String> {
                     ? Pattern.compile(patternText, Pattern.CASE_INSENSITIVE)
                     : Pattern.compile(patternText);
         }
-
-        // 逐文件搜索
+        Pattern compiled = regex;
+        VfsContentSearcher.Query query = new VfsContentSearcher.Query(
+                line -> isMatch(line, patternText, compiled, ignoreCase, fixedString),
+                fixedString || isLiteral(patternText) ? patternText : null,
+                ignoreCase,
+                filesOnly,
+                0
+        );
+
+        // 逐个操作数搜索，目录交给 VFS 并发扫描整棵子树
         List<String> output = new ArrayList<>();
         Set<String> matchedFiles = new LinkedHashSet<>();
+        List<Target> targets = collectTargets(vfsCtx, parsed, recursive);
+        boolean showFileName = targets.size() > 1 || targets.stream().anyMatch(Target::directory);
 
-        for (String file : files) {
-            String content;
-            try {
-                content = Vfs.path(vfsCtx, file).cat().executeAsString();
-            } catch (Exception e) {
-                throw new RuntimeException("grep: failed to read file: " + file, e);
-            }
-
-            String[] lines = content.split("\n", -1);
-            for (int lineNum = 1; lineNum <= lines.length; lineNum++) {
-                String line = lines[lineNum - 1];
-                if (!isMatch(line, patternText, regex, ignoreCase, fixedString)) {
-                    continue;
-                }
-
+        for (Target target : targets) {
+            for (VfsContentSearcher.FileMatch match : Vfs.path(vfsCtx, target.operand()).grep(query)) {
+                String file = target.directory() ? match.path() : target.operand();
                 matchedFiles.add(file);
                 if (filesOnly) {
-                    break;
+                    continue;
+                }
+                for (VfsContentSearcher.LineMatch line : match.lines()) {
+                    StringBuilder sb = new StringBuilder();
+                    if (showFileName) sb.append(file).append(":");
+                    if (showLineNum) sb.append(line.lineNumber()).append(":");
+                    sb.append(line.line());
+                    output.add(sb.toString());
                 }
-
-                StringBuilder sb = new StringBuilder();
-                if (showFileName) sb.append(file).append(":");
-                if (showLineNum) sb.append(lineNum).append(":");
-                sb.append(line);
-                output.add(sb.toString());
             }
         }
 
@@ -85,25 +80,37 @@ public class GrepCommand extends VfsCommand<String> {
         return output.isEmpty() ? "" : String.join("\n", output) + "\n";
     }
 
-    private List<String> collectTargetFiles(VfsContext ctx, ParsedArgs parsed, boolean recursive) {
-        List<String> files = new ArrayList<>();
+    private record Target(String operand, boolean directory) {}
+
+    private List<Target> collectTargets(VfsContext ctx, ParsedArgs parsed, boolean recursive) {
+        List<Target> targets = new ArrayList<>();
         for (int i = 1; i < parsed.positionalCount(); i++) {
             String operand = parsed.getString(i);
             if (Vfs.path(ctx, operand).isDirectory()) {
                 if (!recursive) {
                     throw new IllegalArgumentException("grep: " + operand + ": Is a directory");
                 }
-                List<VfsNode> nodes = Vfs.path(ctx, operand).find("*");
-                for (VfsNode node : nodes) {
-                    if (!Boolean.TRUE.equals(node.getIsDirectory())) {
-                        files.add(node.getPath());
-                    }
-                }
+                targets.add(new Target(operand, true));
             } else {
-                files.add(operand);
+                if (!Vfs.path(ctx, operand).exists()) {
+                    throw new IllegalArgumentException("grep: " + operand + ": No such file or directory");
+                }
+                targets.add(new Target(operand, false));
+            }
+        }
+        return targets;
+    }
+
+    /**
+     * 不含正则元字符的模式等价于固定字符串，可用于内容索引剪枝
+     */
+    private boolean isLiteral(String patternText) {
+        for (int i = 0; i < patternText.length(); i++) {
+            if ("\\^$.|?*+()[]{}".indexOf(patternText.charAt(i)) >= 0) {
+                return false;
             }
         }
-        return files;
+        return true;
     }
 
     private boolean isMatch(String line, String patternText, Pattern pattern,
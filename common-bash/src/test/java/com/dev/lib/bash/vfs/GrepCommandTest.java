@@ -0,0 +1,120 @@
+package com.dev.lib.bash.vfs;
+
+import com.dev.lib.bash.ExecuteContext;
+import com.dev.lib.storage.Vfs;
+import com.dev.lib.storage.config.StorageAutoConfig;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.context.runner.WebApplicationContextRunner;
+import org.springframework.context.annotation.Import;
+
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GrepCommandTest {
+
+    @TempDir
+    Path storageRoot;
+
+    private WebApplicationContextRunner contextRunner() {
+
+        return new WebApplicationContextRunner()
+                .withUserConfiguration(TestApplication.class)
+                .withPropertyValues(
+                        "spring.datasource.url=jdbc:h2:mem:bash_grep;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                        "spring.datasource.driver-class-name=org.h2.Driver",
+                        "spring.datasource.username=sa",
+                        "spring.datasource.password=",
+                        "spring.jpa.hibernate.ddl-auto=create-drop",
+                        "spring.jpa.open-in-view=false",
+                        "spring.application.name=bash-grep",
+                        "app.storage.type=local",
+                        "app.storage.local.path=" + storageRoot,
+                        "app.storage.vfs.content-index-enabled=true"
+                );
+    }
+
+    @Test
+    void shouldFormatMatchesForFileAndDirectoryOperands() {
+
+        contextRunner().run(context -> {
+            assertThat(context).hasNotFailed();
+            seed();
+            GrepCommand grep = new GrepCommand();
+
+            // 单个文件：不带文件名前缀；-n 后跟参数时会被当作取值，放在末尾
+            assertThat(grep.execute(command("grep ERROR /logs/app.log -n")))
+                    .isEqualTo("2:ERROR disk full\n");
+
+            // 递归目录：带文件名与行号，忽略大小写
+            assertThat(grep.execute(command("grep -inr error /logs")).lines())
+                    .containsExactlyInAnyOrder(
+                            "/logs/app.log:2:ERROR disk full",
+                            "/logs/nested/worker.log:1:error lower",
+                            "/logs/nested/worker.log:2:ERROR again"
+                    );
+
+            // -l 只输出命中文件，每个文件一次
+            assertThat(grep.execute(command("grep -rl ERROR /logs")).lines())
+                    .containsExactlyInAnyOrder("/logs/app.log", "/logs/nested/worker.log");
+
+            // 正则与固定字符串
+            assertThat(grep.execute(command("grep -r ^INFO /logs")).lines())
+                    .containsExactlyInAnyOrder("/logs/app.log:INFO start", "/logs/app.log:INFO done");
+            assertThat(grep.execute(command("grep -F disk /logs/app.log /logs/readme.txt")))
+                    .isEqualTo("/logs/app.log:ERROR disk full\n");
+            assertThat(grep.execute(command("grep -r absent /logs"))).isEmpty();
+        });
+    }
+
+    @Test
+    void shouldRejectDirectoryWithoutRecursiveFlag() {
+
+        contextRunner().run(context -> {
+            assertThat(context).hasNotFailed();
+            seed();
+
+            assertThatThrownBy(() -> new GrepCommand().execute(command("grep ERROR /logs")))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("grep: /logs: Is a directory");
+            assertThatThrownBy(() -> new GrepCommand().execute(command("grep ERROR /logs/none.log")))
+                    .hasMessage("grep: /logs/none.log: No such file or directory");
+        });
+    }
+
+    private static void seed() {
+
+        Vfs.path("/logs/app.log").write("INFO start\nERROR disk full\nINFO done\n");
+        Vfs.path("/logs/nested/worker.log").write("error lower\nERROR again\n");
+        Vfs.path("/logs/readme.txt").write("nothing here\n");
+    }
+
+    private static ExecuteContext command(String commandLine) {
+
+        return new ExecuteContext() {
+
+            @Override
+            public String getRoot() {
+
+                return null;
+            }
+
+            @Override
+            public String getCommand() {
+
+                return commandLine;
+            }
+        };
+    }
+
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    @Import(StorageAutoConfig.class)
+    static class TestApplication {
+    }
+
+}
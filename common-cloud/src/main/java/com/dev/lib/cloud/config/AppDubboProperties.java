@@ -2,6 +2,8 @@ package com.dev.lib.cloud.config;
 
 import lombok.Data;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Set;
 
 @Data
@@ -9,4 +11,49 @@ public class AppDubboProperties {
 
     private Set<String> scanPackages;
 
+    /**
+     * 服务端虚拟线程执行器（protocol.threadpool=virtual）
+     */
+    private Executor executor = new Executor();
+
+    @Data
+    public static class Executor {
+
+        /**
+         * 同时执行的任务上限，许可在任务结束时归还；协议 URL 上的 threads 参数优先
+         */
+        private int maxConcurrency = 1000;
+
+        /**
+         * 等待许可的任务上限，超出时提交即拒绝；协议 URL 上的 queues 参数优先
+         */
+        private int maxQueued = 2000;
+
+        /**
+         * 排队时长预算（毫秒），超出后任务不再执行，应小于调用方超时；0 表示不限制
+         */
+        private long queueTimeoutMs = 3000;
+
+        /**
+         * 按接口或方法隔离的并发舱，key 为接口全名或 接口全名#方法名，方法级优先
+         */
+        private Map<String, Bulkhead> bulkheads = new LinkedHashMap<>();
+
+    }
+
+    @Data
+    public static class Bulkhead {
+
+        /**
+         * 该接口/方法同时执行的请求上限
+         */
+        private int maxConcurrency = 100;
+
+        /**
+         * 舱满时的最长等待（毫秒），同时受排队时长预算约束，0 表示立即拒绝
+         */
+        private long maxWaitMs = 0;
+
+    }
+
 }
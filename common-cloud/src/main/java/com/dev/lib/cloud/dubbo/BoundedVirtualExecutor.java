@@ -0,0 +1,246 @@
+package com.dev.lib.cloud.dubbo;
+
+import org.jspecify.annotations.NonNull;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * 有界虚拟线程执行器
+ * <p>
+ * - 每个任务一个虚拟线程，许可从任务开始持有到任务结束，真正限制同时执行的请求数
+ * - 许可用尽时任务进入排队，排队数超过上限直接抛出 RejectedExecutionException，由 Dubbo 转换为线程池耗尽错误返回调用方
+ * - 排队超过时长预算的任务不再执行并计入拒绝数：submit 返回的 Future 被取消，其余任务交给 onExpired（默认丢弃，Dubbo 调用方按自身超时失败）
+ * - 拿到许可时已略超预算的请求由 {@code ProviderAdmissionFilter} 在进入业务前快速失败
+ */
+public final class BoundedVirtualExecutor extends AbstractExecutorService {
+
+    private static final ThreadLocal<QueueTime> QUEUE_TIME = new ThreadLocal<>();
+
+    private final String name;
+
+    private final int maxConcurrency;
+
+    private final int maxQueued;
+
+    private final long queueTimeoutNanos;
+
+    private final Semaphore permits;
+
+    private final ExecutorService virtual;
+
+    private final Consumer<Runnable> onExpired;
+
+    private final AtomicInteger active = new AtomicInteger();
+
+    private final AtomicInteger queued = new AtomicInteger();
+
+    private final LongAdder rejected = new LongAdder();
+
+    private volatile boolean shutdown = false;
+
+    public BoundedVirtualExecutor(String name, int maxConcurrency, int maxQueued, long queueTimeoutMs) {
+
+        this(name, maxConcurrency, maxQueued, queueTimeoutMs, command -> {
+        });
+    }
+
+    /**
+     * @param onExpired 排队超出预算、未执行的非 Future 任务，在该任务的虚拟线程上回调
+     */
+    public BoundedVirtualExecutor(
+            String name,
+            int maxConcurrency,
+            int maxQueued,
+            long queueTimeoutMs,
+            Consumer<Runnable> onExpired
+    ) {
+
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("maxConcurrency 必须大于 0");
+        }
+        this.name = name;
+        this.maxConcurrency = maxConcurrency;
+        this.maxQueued = Math.max(maxQueued, 0);
+        this.queueTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(queueTimeoutMs, 0));
+        this.permits = new Semaphore(maxConcurrency);
+        this.virtual = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(name + "-", 0).factory());
+        this.onExpired = onExpired;
+    }
+
+    /**
+     * 当前线程所执行任务的排队情况，不在本执行器线程上时返回 null
+     */
+    public static QueueTime queueTime() {
+
+        return QUEUE_TIME.get();
+    }
+
+    @Override
+    public void execute(@NonNull Runnable command) {
+
+        if (shutdown) {
+            rejected.increment();
+            throw new RejectedExecutionException("Dubbo executor [" + name + "] is shut down");
+        }
+        long submittedAt = System.nanoTime();
+        if (permits.tryAcquire()) {
+            start(command, submittedAt, true);
+            return;
+        }
+        if (queued.incrementAndGet() > maxQueued) {
+            queued.decrementAndGet();
+            rejected.increment();
+            throw new RejectedExecutionException(String.format(
+                    "Dubbo executor [%s] exhausted: active=%d/%d, queued=%d/%d",
+                    name, active.get(), maxConcurrency, queued.get(), maxQueued
+            ));
+        }
+        start(command, submittedAt, false);
+    }
+
+    private void start(Runnable command, long submittedAt, boolean acquired) {
+
+        try {
+            virtual.execute(() -> run(command, submittedAt, acquired));
+        } catch (RejectedExecutionException e) {
+            if (acquired) {
+                permits.release();
+            } else {
+                queued.decrementAndGet();
+            }
+            rejected.increment();
+            throw e;
+        }
+    }
+
+    private void run(Runnable command, long submittedAt, boolean acquired) {
+
+        if (!acquired) {
+            try {
+                acquired = awaitPermit(submittedAt);
+            } finally {
+                queued.decrementAndGet();
+            }
+            if (!acquired) {
+                expire(command);
+                return;
+            }
+        }
+        active.incrementAndGet();
+        try {
+            runWith(new QueueTime(System.nanoTime() - submittedAt, queueTimeoutNanos), command);
+        } finally {
+            active.decrementAndGet();
+            permits.release();
+        }
+    }
+
+    /**
+     * 在 {@link #queueTime()} 可见的情况下执行任务
+     */
+    static void runWith(QueueTime queueTime, Runnable command) {
+
+        QUEUE_TIME.set(queueTime);
+        try {
+            command.run();
+        } finally {
+            QUEUE_TIME.remove();
+        }
+    }
+
+    private void expire(Runnable command) {
+
+        rejected.increment();
+        if (command instanceof Future<?> future) {
+            future.cancel(false);
+        } else {
+            onExpired.accept(command);
+        }
+    }
+
+    private boolean awaitPermit(long submittedAt) {
+
+        if (queueTimeoutNanos == 0) {
+            permits.acquireUninterruptibly();
+            return true;
+        }
+        long remaining = queueTimeoutNanos - (System.nanoTime() - submittedAt);
+        try {
+            return remaining > 0 && permits.tryAcquire(remaining, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    public Stats stats() {
+
+        return new Stats(name, maxConcurrency, active.get(), queued.get(), rejected.sum());
+    }
+
+    @Override
+    public void shutdown() {
+
+        shutdown = true;
+        virtual.shutdown();
+        DubboExecutors.unregister(this);
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+
+        shutdown = true;
+        DubboExecutors.unregister(this);
+        return virtual.shutdownNow();
+    }
+
+    @Override
+    public boolean isShutdown() {
+
+        return shutdown;
+    }
+
+    @Override
+    public boolean isTerminated() {
+
+        return virtual.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+
+        return virtual.awaitTermination(timeout, unit);
+    }
+
+    /**
+     * 任务开始执行前的排队耗时与预算，预算为 0 表示不限制
+     */
+    public record QueueTime(long waitedNanos, long budgetNanos) {
+
+        public boolean exceeded() {
+
+            return budgetNanos > 0 && waitedNanos > budgetNanos;
+        }
+
+        public long remainingNanos() {
+
+            return budgetNanos == 0 ? Long.MAX_VALUE : Math.max(budgetNanos - waitedNanos, 0);
+        }
+
+    }
+
+    public record Stats(String name, int maxConcurrency, int active, int queued, long rejected) {
+
+    }
+
+}
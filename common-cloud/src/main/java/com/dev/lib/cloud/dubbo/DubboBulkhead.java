@@ -0,0 +1,83 @@
+package com.dev.lib.cloud.dubbo;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 接口/方法级并发舱，避免单个慢接口占满整个执行器
+ */
+public final class DubboBulkhead {
+
+    private final String key;
+
+    private final int maxConcurrency;
+
+    private final long maxWaitNanos;
+
+    private final Semaphore permits;
+
+    private final AtomicInteger active = new AtomicInteger();
+
+    private final LongAdder rejected = new LongAdder();
+
+    DubboBulkhead(String key, int maxConcurrency, long maxWaitMs) {
+
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("bulkhead [" + key + "] maxConcurrency 必须大于 0");
+        }
+        this.key = key;
+        this.maxConcurrency = maxConcurrency;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(maxWaitMs, 0));
+        this.permits = new Semaphore(maxConcurrency);
+    }
+
+    public String key() {
+
+        return key;
+    }
+
+    public int maxConcurrency() {
+
+        return maxConcurrency;
+    }
+
+    /**
+     * 获取许可，最多等待 min(maxWait, budgetNanos)；成功后必须调用 {@link #exit()}
+     */
+    public boolean tryEnter(long budgetNanos) {
+
+        long wait = Math.min(maxWaitNanos, budgetNanos);
+        boolean acquired;
+        try {
+            acquired = wait > 0 ? permits.tryAcquire(wait, TimeUnit.NANOSECONDS) : permits.tryAcquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (acquired) {
+            active.incrementAndGet();
+        } else {
+            rejected.increment();
+        }
+        return acquired;
+    }
+
+    public void exit() {
+
+        active.decrementAndGet();
+        permits.release();
+    }
+
+    public int active() {
+
+        return active.get();
+    }
+
+    public long rejected() {
+
+        return rejected.sum();
+    }
+
+}
@@ -0,0 +1,57 @@
+package com.dev.lib.cloud.dubbo;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.stereotype.Component;
+
+/**
+ * 执行器与并发舱指标，classpath 上有 Micrometer 且容器中有 MeterRegistry 时注册
+ * <p>
+ * dubbo.executor.active / queued / rejected 为所有执行器汇总；dubbo.bulkhead.* 按 bulkhead 标签区分
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnClass(name = "io.micrometer.core.instrument.MeterRegistry")
+public class DubboExecutorMetrics implements InitializingBean {
+
+    /**
+     * 依赖它保证并发舱配置已加载
+     */
+    private final DubboExecutors executors;
+
+    private final ObjectProvider<MeterRegistry> registry;
+
+    @Override
+    public void afterPropertiesSet() {
+
+        registry.ifAvailable(this::bind);
+    }
+
+    private void bind(MeterRegistry registry) {
+
+        Gauge.builder("dubbo.executor.active", () -> DubboExecutors.stats().active())
+                .description("Dubbo provider tasks holding an executor permit")
+                .register(registry);
+        Gauge.builder("dubbo.executor.queued", () -> DubboExecutors.stats().queued())
+                .description("Dubbo provider tasks waiting for an executor permit")
+                .register(registry);
+        FunctionCounter.builder("dubbo.executor.rejected", executors, it -> DubboExecutors.stats().rejected())
+                .description("Dubbo provider tasks rejected or expired in queue")
+                .register(registry);
+
+        for (DubboBulkhead bulkhead : DubboExecutors.bulkheads()) {
+            Gauge.builder("dubbo.bulkhead.active", bulkhead, DubboBulkhead::active)
+                    .tag("bulkhead", bulkhead.key())
+                    .register(registry);
+            FunctionCounter.builder("dubbo.bulkhead.rejected", bulkhead, DubboBulkhead::rejected)
+                    .tag("bulkhead", bulkhead.key())
+                    .register(registry);
+        }
+    }
+
+}
@@ -0,0 +1,101 @@
+package com.dev.lib.cloud.dubbo;
+
+import com.dev.lib.cloud.config.AppDubboProperties;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Dubbo 执行器配置与运行状态入口
+ * <p>
+ * ThreadPool / Filter 由 Dubbo SPI 创建，无法注入 Bean，这里在容器启动时把 app.dubbo.executor 配置写入静态字段；
+ * Dubbo 在容器刷新完成后才导出服务，此时配置已就绪。
+ */
+@Component
+@RequiredArgsConstructor
+public class DubboExecutors implements InitializingBean {
+
+    private static final List<BoundedVirtualExecutor> EXECUTORS = new CopyOnWriteArrayList<>();
+
+    private static volatile AppDubboProperties.Executor settings = new AppDubboProperties.Executor();
+
+    private static volatile Map<String, DubboBulkhead> bulkheads = Map.of();
+
+    private final AppDubboProperties properties;
+
+    @Override
+    public void afterPropertiesSet() {
+
+        configure(properties.getExecutor());
+    }
+
+    static void configure(AppDubboProperties.Executor executor) {
+
+        AppDubboProperties.Executor next = executor == null ? new AppDubboProperties.Executor() : executor;
+        Map<String, DubboBulkhead> compiled = new HashMap<>();
+        next.getBulkheads().forEach((key, bulkhead) -> compiled.put(
+                key, new DubboBulkhead(key, bulkhead.getMaxConcurrency(), bulkhead.getMaxWaitMs())
+        ));
+        settings = next;
+        bulkheads = Map.copyOf(compiled);
+    }
+
+    public static AppDubboProperties.Executor settings() {
+
+        return settings;
+    }
+
+    /**
+     * 方法级配置优先，其次接口级，未配置返回 null
+     */
+    public static DubboBulkhead bulkhead(String interfaceName, String methodName) {
+
+        Map<String, DubboBulkhead> current = bulkheads;
+        if (current.isEmpty()) {
+            return null;
+        }
+        DubboBulkhead bulkhead = current.get(interfaceName + "#" + methodName);
+        return bulkhead != null ? bulkhead : current.get(interfaceName);
+    }
+
+    public static Collection<DubboBulkhead> bulkheads() {
+
+        return bulkheads.values();
+    }
+
+    /**
+     * 所有存活执行器的汇总状态
+     */
+    public static BoundedVirtualExecutor.Stats stats() {
+
+        int maxConcurrency = 0;
+        int active = 0;
+        int queued = 0;
+        long rejected = 0;
+        for (BoundedVirtualExecutor executor : EXECUTORS) {
+            BoundedVirtualExecutor.Stats stats = executor.stats();
+            maxConcurrency += stats.maxConcurrency();
+            active += stats.active();
+            queued += stats.queued();
+            rejected += stats.rejected();
+        }
+        return new BoundedVirtualExecutor.Stats("all", maxConcurrency, active, queued, rejected);
+    }
+
+    static void register(BoundedVirtualExecutor executor) {
+
+        EXECUTORS.add(executor);
+    }
+
+    static void unregister(BoundedVirtualExecutor executor) {
+
+        EXECUTORS.remove(executor);
+    }
+
+}
@@ -1,73 +1,31 @@
 package com.dev.lib.cloud.dubbo;
 
-import com.dev.lib.util.limiter.ConcurrencyLimiter;
+import com.dev.lib.cloud.config.AppDubboProperties;
 import org.apache.dubbo.common.URL;
+import org.apache.dubbo.common.constants.CommonConstants;
 import org.apache.dubbo.common.threadpool.ThreadPool;
-import org.jspecify.annotations.NonNull;
 
-import java.util.List;
-import java.util.concurrent.*;
+import java.util.concurrent.Executor;
 
+/**
+ * protocol.threadpool=virtual
+ * <p>
+ * 并发上限、排队上限取协议 URL 的 threads / queues 参数，未配置时取 app.dubbo.executor
+ */
 public class VirtualThreadPool implements ThreadPool {
 
-    private final ConcurrencyLimiter limiter = ConcurrencyLimiter.builder()
-            .maxConcurrency(1000)
-            .build();
-
     @Override
     public Executor getExecutor(URL url) {
 
-        return new VirtualThreadExecutorService();
-    }
-
-    private class VirtualThreadExecutorService extends AbstractExecutorService {
-
-        private final    ExecutorService virtual  = Executors.newVirtualThreadPerTaskExecutor();
-
-        private volatile boolean         shutdown = false;
-
-        @Override
-        public void execute(@NonNull Runnable command) {
-
-            try {
-                limiter.executeVoid(() -> virtual.execute(command));
-            } catch (Exception e) {
-                Thread.currentThread().interrupt();
-            }
-        }
-
-        @Override
-        public void shutdown() {
-
-            shutdown = true;
-            virtual.shutdown();
-        }
-
-        @Override
-        public List<Runnable> shutdownNow() {
-
-            shutdown = true;
-            return virtual.shutdownNow();
-        }
-
-        @Override
-        public boolean isShutdown() {
-
-            return shutdown;
-        }
-
-        @Override
-        public boolean isTerminated() {
-
-            return virtual.isTerminated();
-        }
-
-        @Override
-        public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
-
-            return virtual.awaitTermination(timeout, unit);
-        }
-
+        AppDubboProperties.Executor settings = DubboExecutors.settings();
+        BoundedVirtualExecutor executor = new BoundedVirtualExecutor(
+                url.getParameter(CommonConstants.THREAD_NAME_KEY, CommonConstants.DEFAULT_THREAD_NAME),
+                url.getParameter(CommonConstants.THREADS_KEY, settings.getMaxConcurrency()),
+                url.getParameter(CommonConstants.QUEUES_KEY, settings.getMaxQueued()),
+                settings.getQueueTimeoutMs()
+        );
+        DubboExecutors.register(executor);
+        return executor;
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,54 @@
+package com.dev.lib.cloud.filter;
+
+import com.dev.lib.cloud.dubbo.BoundedVirtualExecutor;
+import com.dev.lib.cloud.dubbo.DubboBulkhead;
+import com.dev.lib.cloud.dubbo.DubboExecutors;
+import org.apache.dubbo.common.constants.CommonConstants;
+import org.apache.dubbo.common.extension.Activate;
+import org.apache.dubbo.rpc.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 服务端准入：排队超出预算或接口/方法并发舱已满时，在进入业务前返回 LIMIT_EXCEEDED 错误
+ */
+@Activate(group = CommonConstants.PROVIDER, order = -10000)
+public class ProviderAdmissionFilter implements Filter {
+
+    @Override
+    public Result invoke(Invoker<?> invoker, Invocation invocation) throws RpcException {
+
+        BoundedVirtualExecutor.QueueTime queueTime = BoundedVirtualExecutor.queueTime();
+        if (queueTime != null && queueTime.exceeded()) {
+            throw new RpcException(RpcException.LIMIT_EXCEEDED_EXCEPTION, String.format(
+                    "Request %s#%s waited %d ms in queue, exceeds budget %d ms",
+                    invoker.getInterface().getName(),
+                    invocation.getMethodName(),
+                    TimeUnit.NANOSECONDS.toMillis(queueTime.waitedNanos()),
+                    TimeUnit.NANOSECONDS.toMillis(queueTime.budgetNanos())
+            ));
+        }
+
+        DubboBulkhead bulkhead = DubboExecutors.bulkhead(invoker.getInterface().getName(), invocation.getMethodName());
+        if (bulkhead == null) {
+            return invoker.invoke(invocation);
+        }
+        long budget = queueTime == null ? Long.MAX_VALUE : queueTime.remainingNanos();
+        if (!bulkhead.tryEnter(budget)) {
+            throw new RpcException(RpcException.LIMIT_EXCEEDED_EXCEPTION, String.format(
+                    "Bulkhead [%s] exceeded limit of %d", bulkhead.key(), bulkhead.maxConcurrency()
+            ));
+        }
+
+        Result result;
+        try {
+            result = invoker.invoke(invocation);
+        } catch (RuntimeException e) {
+            bulkhead.exit();
+            throw e;
+        }
+        // 异步结果在完成时才归还许可
+        return result.whenCompleteWithContext((r, t) -> bulkhead.exit());
+    }
+
+}
@@ -0,0 +1,377 @@
+package com.dev.lib.cloud.filter;
+
+import com.dev.lib.security.model.UserStatus;
+import com.dev.lib.security.model.UserType;
+import com.dev.lib.security.util.UserDetails;
+import com.dev.lib.util.Jsons;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Dubbo 用户上下文二进制编码
+ * <p>
+ * - 每次调用携带：版本、用户 id / 租户 / 部门等基础字段、请求级客户端信息、权限集指纹
+ * - 权限、角色、数据权限部门、扩展属性编码为 Profile，按指纹缓存在服务端，只在服务端未命中时随调用传输
+ * - 字符串按 UTF-8 写入，整数使用 zigzag varint；整体 Base64(URL safe) 后作为 attachment
+ */
+final class UserContextCodec {
+
+    static final String ATTACHMENT = "uctx";
+
+    /**
+     * 服务端未命中权限集时的错误标记，调用方据此补发 Profile 重试
+     */
+    static final String PROFILE_MISS = "USER_CONTEXT_PROFILE_MISS";
+
+    private static final byte VERSION = 1;
+
+    private static final int FLAG_PROFILE = 1;
+
+    private UserContextCodec() {
+
+    }
+
+    /**
+     * 权限集指纹，SHA-256 截取前 128 位
+     */
+    record Fingerprint(long high, long low) {
+
+        static Fingerprint of(byte[] profile) {
+
+            try {
+                ByteBuffer digest = ByteBuffer.wrap(MessageDigest.getInstance("SHA-256").digest(profile));
+                return new Fingerprint(digest.getLong(), digest.getLong());
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public String toString() {
+
+            return Long.toHexString(high) + Long.toHexString(low);
+        }
+
+    }
+
+    /**
+     * 低频变化的用户资料，解码后集合不可变，可在多个请求间共享
+     */
+    record Profile(
+            List<String> permissions,
+            List<String> roles,
+            Set<Long> deptIds,
+            Map<String, Object> extra
+    ) {
+
+        static Profile of(UserDetails user) {
+
+            return new Profile(
+                    user.getPermissions(),
+                    user.getRoles(),
+                    user.getDeptIds(),
+                    user.getExtra()
+            );
+        }
+
+        byte[] encode() {
+
+            Writer out = new Writer();
+            out.strings(permissions);
+            out.strings(roles);
+            if (deptIds == null) {
+                out.varint(0);
+            } else {
+                out.varint(deptIds.size() + 1L);
+                for (Long id : deptIds) {
+                    out.nullableLong(id);
+                }
+            }
+            out.string(extra == null ? null : Jsons.toJson(extra));
+            return out.toByteArray();
+        }
+
+        @SuppressWarnings("unchecked")
+        static Profile decode(byte[] bytes) {
+
+            Reader in = new Reader(ByteBuffer.wrap(bytes));
+            List<String> permissions = in.strings();
+            List<String> roles = in.strings();
+            Set<Long> deptIds = null;
+            long deptCount = in.varint();
+            if (deptCount > 0) {
+                Set<Long> ids = new LinkedHashSet<>();
+                for (long i = 1; i < deptCount; i++) {
+                    ids.add(in.nullableLong());
+                }
+                deptIds = Collections.unmodifiableSet(ids);
+            }
+            String extra = in.string();
+            return new Profile(
+                    permissions, roles, deptIds,
+                    extra == null ? null : Collections.unmodifiableMap(Jsons.parse(extra, Map.class))
+            );
+        }
+
+        void applyTo(UserDetails user) {
+
+            user.setPermissions(permissions)
+                    .setRoles(roles)
+                    .setDeptIds(deptIds)
+                    .setExtra(extra);
+        }
+
+    }
+
+    /**
+     * 调用方缓存的已编码 Profile，字段引用全部未变时可复用
+     */
+    record EncodedProfile(Object[] sources, byte[] bytes, Fingerprint fingerprint) {
+
+        static EncodedProfile of(UserDetails user) {
+
+            byte[] bytes = Profile.of(user).encode();
+            return new EncodedProfile(sources(user), bytes, Fingerprint.of(bytes));
+        }
+
+        boolean matches(UserDetails user) {
+
+            Object[] current = sources(user);
+            for (int i = 0; i < current.length; i++) {
+                if (current[i] != sources[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static Object[] sources(UserDetails user) {
+
+            return new Object[]{user.getPermissions(), user.getRoles(), user.getDeptIds(), user.getExtra()};
+        }
+
+    }
+
+    /**
+     * 解码结果，profile 为 null 表示调用方未携带，需从缓存取
+     *
+     * @param profileBytes 随调用携带的 Profile 原始字节，用于校验指纹
+     */
+    record Decoded(UserDetails header, Fingerprint fingerprint, byte[] profileBytes, Profile profile) {
+
+        /**
+         * 携带的 Profile 与声明的指纹一致；不一致的 Profile 不能写入按指纹共享的缓存，
+         * 否则一次伪造即可让其他用户的调用解析到错误的权限集
+         */
+        boolean profileMatchesFingerprint() {
+
+            return profileBytes != null && Fingerprint.of(profileBytes).equals(fingerprint);
+        }
+
+    }
+
+    static String encode(UserDetails user, EncodedProfile profile, boolean includeProfile) {
+
+        Writer out = new Writer();
+        out.write(VERSION);
+        out.write(includeProfile ? FLAG_PROFILE : 0);
+        out.nullableLong(user.getId());
+        out.nullableLong(user.getTenant());
+        out.nullableLong(user.getDeptId());
+        out.string(user.getUsername());
+        out.string(user.getRealName());
+        out.string(user.getDeptName());
+        out.string(user.getEmail());
+        out.string(user.getPhone());
+        out.string(user.getUserType() == null ? null : user.getUserType().name());
+        out.string(user.getStatus() == null ? null : user.getStatus().name());
+        out.write(user.getValidated() == null ? 0 : user.getValidated() ? 2 : 1);
+        out.string(user.getTokenId());
+        out.nullableLong(user.getLoginTime());
+        out.nullableLong(user.getExpireTime());
+        out.string(user.getClientIp());
+        out.string(user.getClientType());
+        out.string(user.getDeviceId());
+        out.longValue(profile.fingerprint().high());
+        out.longValue(profile.fingerprint().low());
+        if (includeProfile) {
+            out.varint(profile.bytes().length);
+            out.writeBytes(profile.bytes());
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(out.toByteArray());
+    }
+
+    static Decoded decode(String encoded) {
+
+        Reader in = new Reader(ByteBuffer.wrap(Base64.getUrlDecoder().decode(encoded)));
+        byte version = in.buffer.get();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("不支持的用户上下文版本: " + version);
+        }
+        int flags = in.buffer.get();
+        UserDetails user = new UserDetails()
+                .setId(in.nullableLong())
+                .setTenant(in.nullableLong())
+                .setDeptId(in.nullableLong())
+                .setUsername(in.string())
+                .setRealName(in.string())
+                .setDeptName(in.string())
+                .setEmail(in.string())
+                .setPhone(in.string());
+        String userType = in.string();
+        String status = in.string();
+        byte validated = in.buffer.get();
+        user.setUserType(userType == null ? null : UserType.valueOf(userType))
+                .setStatus(status == null ? null : UserStatus.valueOf(status))
+                .setValidated(validated == 0 ? null : validated == 2)
+                .setTokenId(in.string())
+                .setLoginTime(in.nullableLong())
+                .setExpireTime(in.nullableLong())
+                .setClientIp(in.string())
+                .setClientType(in.string())
+                .setDeviceId(in.string());
+        Fingerprint fingerprint = new Fingerprint(in.buffer.getLong(), in.buffer.getLong());
+        byte[] bytes = null;
+        Profile profile = null;
+        if ((flags & FLAG_PROFILE) != 0) {
+            bytes = new byte[(int) in.varint()];
+            in.buffer.get(bytes);
+            profile = Profile.decode(bytes);
+        }
+        return new Decoded(user, fingerprint, bytes, profile);
+    }
+
+    static boolean isProfileMiss(Throwable error) {
+
+        for (Throwable t = error; t != null; t = t.getCause()) {
+            if (t.getMessage() != null && t.getMessage().contains(PROFILE_MISS)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // ==================== 内部实现 ====================
+
+    private static final class Writer extends ByteArrayOutputStream {
+
+        Writer() {
+
+            super(128);
+        }
+
+        void varint(long value) {
+
+            while ((value & ~0x7FL) != 0) {
+                write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            write((int) value);
+        }
+
+        void longValue(long value) {
+
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                write((int) (value >>> shift));
+            }
+        }
+
+        /**
+         * 0 表示 null，否则 zigzag(value) + 1
+         */
+        void nullableLong(Long value) {
+
+            varint(value == null ? 0 : ((value << 1) ^ (value >> 63)) + 1);
+        }
+
+        /**
+         * 0 表示 null，否则 UTF-8 字节数 + 1
+         */
+        void string(String value) {
+
+            if (value == null) {
+                varint(0);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            varint(bytes.length + 1L);
+            write(bytes, 0, bytes.length);
+        }
+
+        void strings(Collection<String> values) {
+
+            if (values == null) {
+                varint(0);
+                return;
+            }
+            varint(values.size() + 1L);
+            for (String value : values) {
+                string(value);
+            }
+        }
+
+    }
+
+    private record Reader(ByteBuffer buffer) {
+
+        long varint() {
+
+            long value = 0;
+            for (int shift = 0; ; shift += 7) {
+                byte b = buffer.get();
+                value |= (long) (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+        }
+
+        Long nullableLong() {
+
+            long raw = varint();
+            if (raw == 0) {
+                return null;
+            }
+            long zigzag = raw - 1;
+            return (zigzag >>> 1) ^ -(zigzag & 1);
+        }
+
+        String string() {
+
+            long length = varint();
+            if (length == 0) {
+                return null;
+            }
+            byte[] bytes = new byte[(int) (length - 1)];
+            buffer.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        List<String> strings() {
+
+            long size = varint();
+            if (size == 0) {
+                return null;
+            }
+            List<String> values = new ArrayList<>((int) (size - 1));
+            for (long i = 1; i < size; i++) {
+                values.add(string());
+            }
+            return Collections.unmodifiableList(values);
+        }
+
+    }
+
+}
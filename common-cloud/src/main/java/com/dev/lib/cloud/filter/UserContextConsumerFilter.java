@@ -2,22 +2,88 @@ package com.dev.lib.cloud.filter;
 
 import com.dev.lib.security.util.SecurityContextHolder;
 import com.dev.lib.security.util.UserDetails;
-import com.dev.lib.util.Jsons;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import org.apache.dubbo.common.constants.CommonConstants;
 import org.apache.dubbo.common.extension.Activate;
 import org.apache.dubbo.rpc.*;
+import org.apache.dubbo.rpc.support.RpcUtils;
+
+import java.time.Duration;
 
 @Activate(group = CommonConstants.CONSUMER)
 public class UserContextConsumerFilter implements Filter {
 
+    /**
+     * 按 UserDetails 实例缓存编码结果，一次请求扇出多次调用只编码一次
+     */
+    private static final Cache<UserDetails, UserContextCodec.EncodedProfile> PROFILES = Caffeine.newBuilder()
+            .weakKeys()
+            .maximumSize(10_000)
+            .build();
+
+    /**
+     * 已向哪些服务端地址发送过哪些权限集；有效期短于服务端缓存，过期后重新携带
+     */
+    private static final Cache<String, Boolean> DELIVERED = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfterWrite(Duration.ofMinutes(10))
+            .build();
+
     @Override
     public Result invoke(Invoker<?> invoker, Invocation invocation) throws RpcException {
         // 把当前登录用户信息传递给下游服务
-        if (SecurityContextHolder.isLogin()) {
-            UserDetails user = SecurityContextHolder.get();
-            RpcContext.getClientAttachment().setAttachment("user", Jsons.toJson(user));
+        if (!SecurityContextHolder.isLogin()) {
+            return invoker.invoke(invocation);
+        }
+        UserDetails user = SecurityContextHolder.get();
+        UserContextCodec.EncodedProfile profile = PROFILES.getIfPresent(user);
+        if (profile == null || !profile.matches(user)) {
+            profile = UserContextCodec.EncodedProfile.of(user);
+            PROFILES.put(user, profile);
+        }
+
+        // 异步调用在这里拿不到结果，无法在未命中时重试，始终携带 Profile
+        boolean sync = RpcUtils.getInvokeMode(invoker.getUrl(), invocation) == InvokeMode.SYNC;
+        String delivered = invoker.getUrl().getAddress() + "/" + profile.fingerprint();
+        boolean compact = sync && DELIVERED.getIfPresent(delivered) != null;
+
+        Result result = send(invoker, invocation, user, profile, !compact);
+        if (compact && isProfileMiss(result)) {
+            // 服务端重启或淘汰了该权限集，补发一次
+            result = send(invoker, invocation, user, profile, true);
+        }
+        if (sync && !isProfileMiss(result)) {
+            DELIVERED.put(delivered, Boolean.TRUE);
         }
-        return invoker.invoke(invocation);
+        return result;
+    }
+
+    private static Result send(
+            Invoker<?> invoker,
+            Invocation invocation,
+            UserDetails user,
+            UserContextCodec.EncodedProfile profile,
+            boolean includeProfile
+    ) {
+
+        RpcContext.getClientAttachment().setAttachment(
+                UserContextCodec.ATTACHMENT,
+                UserContextCodec.encode(user, profile, includeProfile)
+        );
+        try {
+            return invoker.invoke(invocation);
+        } catch (RpcException e) {
+            if (includeProfile || !UserContextCodec.isProfileMiss(e)) {
+                throw e;
+            }
+            return AsyncRpcResult.newDefaultAsyncResult(e, invocation);
+        }
+    }
+
+    private static boolean isProfileMiss(Result result) {
+
+        return result.hasException() && UserContextCodec.isProfileMiss(result.getException());
     }
 
 }
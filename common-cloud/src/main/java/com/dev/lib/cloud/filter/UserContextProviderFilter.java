@@ -3,20 +3,30 @@ package com.dev.lib.cloud.filter;
 import com.dev.lib.security.util.SecurityContextHolder;
 import com.dev.lib.security.util.UserDetails;
 import com.dev.lib.util.Jsons;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import org.apache.dubbo.common.constants.CommonConstants;
 import org.apache.dubbo.common.extension.Activate;
 import org.apache.dubbo.rpc.*;
 
+import java.time.Duration;
+
 @Activate(group = CommonConstants.PROVIDER)
 public class UserContextProviderFilter implements Filter {
 
+    /**
+     * 权限集指纹 → Profile，调用方只在未发送过时携带完整 Profile
+     */
+    private static final Cache<UserContextCodec.Fingerprint, UserContextCodec.Profile> PROFILES = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfterAccess(Duration.ofMinutes(30))
+            .build();
+
     @Override
     public Result invoke(Invoker<?> invoker, Invocation invocation) throws RpcException {
 
         try {
-            String userJson = RpcContext.getServerAttachment().getAttachment("user");
-            UserDetails user = userJson == null ? null : Jsons.parse(userJson, UserDetails.class);
-
+            UserDetails user = resolve();
             if (user != null) {
                 // 恢复用户上下文，B 服务就能直接用 SecurityContextHolder.get()
                 SecurityContextHolder.set(user);
@@ -27,4 +37,32 @@ public class UserContextProviderFilter implements Filter {
         }
     }
 
+    private static UserDetails resolve() {
+
+        String encoded = RpcContext.getServerAttachment().getAttachment(UserContextCodec.ATTACHMENT);
+        if (encoded == null) {
+            // 兼容未升级的调用方
+            String userJson = RpcContext.getServerAttachment().getAttachment("user");
+            return userJson == null ? null : Jsons.parse(userJson, UserDetails.class);
+        }
+
+        UserContextCodec.Decoded decoded = UserContextCodec.decode(encoded);
+        UserContextCodec.Profile profile = decoded.profile();
+        if (profile != null) {
+            // 指纹由调用方声明，写入缓存前按实际字节重新计算
+            if (!decoded.profileMatchesFingerprint()) {
+                throw new RpcException("用户上下文权限集指纹不匹配: " + decoded.fingerprint());
+            }
+            PROFILES.put(decoded.fingerprint(), profile);
+        } else {
+            profile = PROFILES.getIfPresent(decoded.fingerprint());
+            if (profile == null) {
+                throw new RpcException(UserContextCodec.PROFILE_MISS + ": " + decoded.fingerprint());
+            }
+        }
+        UserDetails user = decoded.header();
+        profile.applyTo(user);
+        return user;
+    }
+
 }
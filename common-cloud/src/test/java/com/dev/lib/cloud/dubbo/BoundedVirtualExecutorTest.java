@@ -0,0 +1,146 @@
+package com.dev.lib.cloud.dubbo;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BoundedVirtualExecutorTest {
+
+    private BoundedVirtualExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void shouldHoldPermitUntilTaskCompletes() throws Exception {
+
+        executor = new BoundedVirtualExecutor("test", 1, 1, 0);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch secondStarted = new CountDownLatch(1);
+
+        executor.execute(() -> await(release));
+        awaitUntil(() -> executor.stats().active() == 1);
+        executor.execute(secondStarted::countDown);
+
+        // 第一个任务阻塞期间许可不归还，第二个任务只能排队
+        assertThat(secondStarted.await(100, TimeUnit.MILLISECONDS)).isFalse();
+        assertThat(executor.stats().queued()).isEqualTo(1);
+
+        release.countDown();
+        assertThat(secondStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        awaitUntil(() -> executor.stats().active() == 0 && executor.stats().queued() == 0);
+        assertThat(executor.stats().rejected()).isZero();
+    }
+
+    @Test
+    void shouldRejectWhenQueueIsFull() {
+
+        executor = new BoundedVirtualExecutor("test", 1, 1, 0);
+        CountDownLatch release = new CountDownLatch(1);
+        executor.execute(() -> await(release));
+        executor.execute(() -> {
+        });
+
+        assertThatThrownBy(() -> executor.execute(() -> {
+        }))
+                .isInstanceOf(RejectedExecutionException.class)
+                .hasMessageContaining("exhausted");
+        assertThat(executor.stats().rejected()).isEqualTo(1);
+        assertThat(executor.stats().queued()).isEqualTo(1);
+
+        release.countDown();
+    }
+
+    @Test
+    void shouldCancelExpiredFutureWithoutRunningIt() throws Exception {
+
+        executor = new BoundedVirtualExecutor("test", 1, 1, 50);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean ran = new AtomicBoolean();
+        executor.execute(() -> await(release));
+
+        Future<?> expired = executor.submit(() -> ran.set(true));
+
+        awaitUntil(expired::isDone);
+        assertThatThrownBy(expired::get).isInstanceOf(CancellationException.class);
+        release.countDown();
+        awaitUntil(() -> executor.stats().active() == 0);
+        assertThat(ran).isFalse();
+        assertThat(executor.stats().rejected()).isEqualTo(1);
+        assertThat(executor.stats().queued()).isZero();
+    }
+
+    @Test
+    void shouldHandOverExpiredRunnableWithoutRunningIt() {
+
+        List<Runnable> expired = new CopyOnWriteArrayList<>();
+        executor = new BoundedVirtualExecutor("test", 1, 1, 50, expired::add);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean ran = new AtomicBoolean();
+        Runnable task = () -> ran.set(true);
+        executor.execute(() -> await(release));
+
+        executor.execute(task);
+
+        awaitUntil(() -> !expired.isEmpty());
+        assertThat(expired).containsExactly(task);
+        release.countDown();
+        awaitUntil(() -> executor.stats().active() == 0);
+        assertThat(ran).isFalse();
+        assertThat(executor.stats().rejected()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldExposeQueueTimeOnlyWhileTaskRuns() {
+
+        executor = new BoundedVirtualExecutor("test", 1, 1, 1_000);
+        AtomicReference<BoundedVirtualExecutor.QueueTime> seen = new AtomicReference<>();
+
+        executor.execute(() -> seen.set(BoundedVirtualExecutor.queueTime()));
+
+        awaitUntil(() -> seen.get() != null);
+        assertThat(seen.get().budgetNanos()).isEqualTo(TimeUnit.SECONDS.toNanos(1));
+        assertThat(seen.get().exceeded()).isFalse();
+        assertThat(BoundedVirtualExecutor.queueTime()).isNull();
+    }
+
+    private static void await(CountDownLatch latch) {
+
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    static void awaitUntil(BooleanSupplier condition) {
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("condition not met in time");
+            }
+            LockSupport.parkNanos(1_000_000);
+        }
+    }
+
+}
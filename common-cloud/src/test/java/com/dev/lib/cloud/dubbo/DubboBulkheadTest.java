@@ -0,0 +1,41 @@
+package com.dev.lib.cloud.dubbo;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DubboBulkheadTest {
+
+    @Test
+    void shouldRejectWhenFullAndAdmitAfterExit() {
+
+        DubboBulkhead bulkhead = new DubboBulkhead("demo", 2, 0);
+
+        assertThat(bulkhead.tryEnter(Long.MAX_VALUE)).isTrue();
+        assertThat(bulkhead.tryEnter(Long.MAX_VALUE)).isTrue();
+        assertThat(bulkhead.tryEnter(Long.MAX_VALUE)).isFalse();
+        assertThat(bulkhead.active()).isEqualTo(2);
+        assertThat(bulkhead.rejected()).isEqualTo(1);
+
+        bulkhead.exit();
+        assertThat(bulkhead.tryEnter(Long.MAX_VALUE)).isTrue();
+        assertThat(bulkhead.active()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldWaitNoLongerThanRemainingBudget() {
+
+        DubboBulkhead bulkhead = new DubboBulkhead("demo", 1, 10_000);
+        bulkhead.tryEnter(Long.MAX_VALUE);
+
+        long start = System.nanoTime();
+        assertThat(bulkhead.tryEnter(TimeUnit.MILLISECONDS.toNanos(50))).isFalse();
+
+        // 等待受排队预算约束，而不是舱配置的 10 秒
+        assertThat(System.nanoTime() - start).isLessThan(TimeUnit.SECONDS.toNanos(5));
+        assertThat(bulkhead.rejected()).isEqualTo(1);
+    }
+
+}
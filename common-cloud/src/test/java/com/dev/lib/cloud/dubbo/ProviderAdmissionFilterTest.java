@@ -0,0 +1,116 @@
+package com.dev.lib.cloud.dubbo;
+
+import com.dev.lib.cloud.config.AppDubboProperties;
+import com.dev.lib.cloud.filter.ProviderAdmissionFilter;
+import org.apache.dubbo.rpc.AppResponse;
+import org.apache.dubbo.rpc.AsyncRpcResult;
+import org.apache.dubbo.rpc.Invoker;
+import org.apache.dubbo.rpc.Result;
+import org.apache.dubbo.rpc.RpcException;
+import org.apache.dubbo.rpc.RpcInvocation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 过滤器依赖执行器线程上的排队信息与 {@link DubboExecutors} 的静态配置，与二者放在同一包下测试
+ */
+class ProviderAdmissionFilterTest {
+
+    private final ProviderAdmissionFilter filter = new ProviderAdmissionFilter();
+
+    private final RpcInvocation invocation = new RpcInvocation("find", DemoService.class.getName(), "", new Class<?>[0], new Object[0]);
+
+    @AfterEach
+    void tearDown() {
+
+        DubboExecutors.configure(null);
+    }
+
+    @Test
+    void shouldFailWithLimitExceededWhenQueueBudgetIsSpent() {
+
+        Invoker<DemoService> invoker = invoker();
+        AtomicReference<Throwable> thrown = new AtomicReference<>();
+        BoundedVirtualExecutor.QueueTime spent = new BoundedVirtualExecutor.QueueTime(
+                TimeUnit.MILLISECONDS.toNanos(150), TimeUnit.MILLISECONDS.toNanos(100)
+        );
+
+        BoundedVirtualExecutor.runWith(spent, () -> thrown.set(catchThrowable(() -> filter.invoke(invoker, invocation))));
+
+        assertThat(thrown.get()).isInstanceOf(RpcException.class).hasMessageContaining("waited 150 ms");
+        assertThat(((RpcException) thrown.get()).getCode()).isEqualTo(RpcException.LIMIT_EXCEEDED_EXCEPTION);
+        verify(invoker, never()).invoke(any());
+    }
+
+    @Test
+    void shouldReleaseBulkheadWhenAsyncResultCompletes() {
+
+        configureBulkhead(DemoService.class.getName() + "#find", 1);
+        DubboBulkhead bulkhead = DubboExecutors.bulkhead(DemoService.class.getName(), "find");
+        CompletableFuture<AppResponse> response = new CompletableFuture<>();
+        Invoker<DemoService> invoker = invoker();
+        when(invoker.invoke(any())).thenReturn(new AsyncRpcResult(response, invocation));
+
+        Result result = filter.invoke(invoker, invocation);
+
+        // 业务方法已返回但结果未完成，许可仍被占用
+        assertThat(bulkhead.active()).isEqualTo(1);
+        assertThatThrownBy(() -> filter.invoke(invoker, invocation))
+                .isInstanceOf(RpcException.class)
+                .satisfies(e -> assertThat(((RpcException) e).getCode()).isEqualTo(RpcException.LIMIT_EXCEEDED_EXCEPTION))
+                .hasMessageContaining("Bulkhead [" + DemoService.class.getName() + "#find]");
+
+        response.complete(new AppResponse("ok"));
+        assertThat(result.getValue()).isEqualTo("ok");
+        assertThat(bulkhead.active()).isZero();
+    }
+
+    @Test
+    void shouldReleaseBulkheadWhenInvokerThrows() {
+
+        configureBulkhead(DemoService.class.getName(), 1);
+        Invoker<DemoService> invoker = invoker();
+        when(invoker.invoke(any())).thenThrow(new RpcException("boom"));
+
+        assertThatThrownBy(() -> filter.invoke(invoker, invocation)).hasMessage("boom");
+
+        assertThat(DubboExecutors.bulkhead(DemoService.class.getName(), "find").active()).isZero();
+    }
+
+    private static void configureBulkhead(String key, int maxConcurrency) {
+
+        AppDubboProperties.Executor settings = new AppDubboProperties.Executor();
+        AppDubboProperties.Bulkhead bulkhead = new AppDubboProperties.Bulkhead();
+        bulkhead.setMaxConcurrency(maxConcurrency);
+        settings.getBulkheads().put(key, bulkhead);
+        DubboExecutors.configure(settings);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Invoker<DemoService> invoker() {
+
+        Invoker<DemoService> invoker = mock(Invoker.class);
+        when(invoker.getInterface()).thenReturn(DemoService.class);
+        return invoker;
+    }
+
+    interface DemoService {
+
+        String find();
+
+    }
+
+}
@@ -0,0 +1,109 @@
+package com.dev.lib.cloud.filter;
+
+import com.dev.lib.security.model.UserStatus;
+import com.dev.lib.security.model.UserType;
+import com.dev.lib.security.util.UserDetails;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class UserContextCodecTest {
+
+    @Test
+    void shouldRoundTripUserWithAllFieldsNull() {
+
+        UserDetails user = new UserDetails();
+
+        UserContextCodec.Decoded decoded = roundTrip(user, true);
+
+        assertThat(decoded.header()).usingRecursiveComparison().isEqualTo(user);
+        assertThat(decoded.profile()).isEqualTo(new UserContextCodec.Profile(null, null, null, null));
+        assertThat(decoded.profileMatchesFingerprint()).isTrue();
+    }
+
+    @Test
+    void shouldRoundTripCollectionsAndNonAsciiText() {
+
+        UserDetails user = new UserDetails()
+                .setId(1001L)
+                .setTenant(-7L)
+                .setDeptId(Long.MAX_VALUE)
+                .setUsername("张三")
+                .setRealName("Zoë 😀 ñ")
+                .setDeptName("研发部/平台组")
+                .setEmail("")
+                .setPhone("+86 138")
+                .setUserType(UserType.SYSTEM_ADMINISTRATOR)
+                .setStatus(UserStatus.ACTIVE)
+                .setValidated(false)
+                .setTokenId("t-1")
+                .setLoginTime(1_700_000_000_000L)
+                .setExpireTime(Long.MIN_VALUE)
+                .setClientIp("10.0.0.1")
+                .setClientType("WEB")
+                .setDeviceId("设备-1")
+                .setPermissions(Arrays.asList("user:read", null, "订单:导出"))
+                .setRoles(List.of())
+                .setDeptIds(new LinkedHashSet<>(Arrays.asList(3L, null, -1L, 0L)))
+                .setExtra(Map.of("nick", "小明", "level", 3, "tags", List.of("a", "βeta")));
+
+        UserContextCodec.Decoded decoded = roundTrip(user, true);
+
+        UserDetails restored = decoded.header();
+        decoded.profile().applyTo(restored);
+        assertThat(restored).usingRecursiveComparison().isEqualTo(user);
+        assertThat(restored.getDeptIds()).containsExactly(3L, null, -1L, 0L);
+        assertThat(decoded.profileMatchesFingerprint()).isTrue();
+    }
+
+    @Test
+    void shouldCarryOnlyFingerprintWithoutProfile() {
+
+        UserDetails user = new UserDetails().setId(1L).setPermissions(List.of("a")).setRoles(List.of("r"));
+        UserContextCodec.EncodedProfile profile = UserContextCodec.EncodedProfile.of(user);
+
+        UserContextCodec.Decoded decoded = UserContextCodec.decode(UserContextCodec.encode(user, profile, false));
+
+        assertThat(decoded.profile()).isNull();
+        assertThat(decoded.profileBytes()).isNull();
+        assertThat(decoded.fingerprint()).isEqualTo(profile.fingerprint());
+        assertThat(decoded.header().getId()).isEqualTo(1L);
+        assertThat(decoded.header().getPermissions()).isNull();
+    }
+
+    @Test
+    void shouldDetectProfileNotMatchingDeclaredFingerprint() {
+
+        UserDetails victim = new UserDetails().setPermissions(List.of("user:read"));
+        UserDetails forged = new UserDetails().setPermissions(List.of("*"));
+        UserContextCodec.EncodedProfile declared = UserContextCodec.EncodedProfile.of(victim);
+        byte[] carried = UserContextCodec.Profile.of(forged).encode();
+        UserContextCodec.EncodedProfile tampered = new UserContextCodec.EncodedProfile(null, carried, declared.fingerprint());
+
+        UserContextCodec.Decoded decoded = UserContextCodec.decode(UserContextCodec.encode(forged, tampered, true));
+
+        assertThat(decoded.fingerprint()).isEqualTo(declared.fingerprint());
+        assertThat(decoded.profileMatchesFingerprint()).isFalse();
+    }
+
+    @Test
+    void shouldRejectUnknownVersion() {
+
+        assertThatThrownBy(() -> UserContextCodec.decode("Ag"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("版本");
+    }
+
+    private static UserContextCodec.Decoded roundTrip(UserDetails user, boolean includeProfile) {
+
+        UserContextCodec.EncodedProfile profile = UserContextCodec.EncodedProfile.of(user);
+        return UserContextCodec.decode(UserContextCodec.encode(user, profile, includeProfile));
+    }
+
+}
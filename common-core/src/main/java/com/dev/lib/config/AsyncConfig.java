@@ -1,14 +1,13 @@
 package com.dev.lib.config;
 
+import com.dev.lib.util.context.RequestContext;
 import org.jspecify.annotations.NonNull;
-import org.slf4j.MDC;
 import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.core.task.TaskDecorator;
 import org.springframework.core.task.TaskExecutor;
 import org.springframework.scheduling.annotation.AsyncConfigurer;
 import org.springframework.stereotype.Component;
 
-import java.util.Map;
 import java.util.concurrent.Executor;
 
 @Component
@@ -21,7 +20,7 @@ public class AsyncConfig implements AsyncConfigurer {
         SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("async-");
         executor.setVirtualThreads(true);
         executor.setConcurrencyLimit(600);
-        executor.setTaskDecorator(new MdcTaskDecorator());
+        executor.setTaskDecorator(new ContextTaskDecorator());
         return executor;
     }
 
@@ -31,32 +30,17 @@ public class AsyncConfig implements AsyncConfigurer {
         return EXECUTOR;
     }
 
-    static class MdcTaskDecorator implements TaskDecorator {
+    /**
+     * 携带提交线程的用户、MDC 与请求级缓存
+     */
+    static class ContextTaskDecorator implements TaskDecorator {
 
         @Override
         public @NonNull Runnable decorate(@NonNull Runnable runnable) {
 
-            Map<String, String> parent = MDC.getCopyOfContextMap();
-            return () -> {
-                Map<String, String> old = MDC.getCopyOfContextMap();
-                try {
-                    if (parent != null) {
-                        MDC.setContextMap(parent);
-                    } else {
-                        MDC.clear();
-                    }
-                    runnable.run();
-                } finally {
-                    if (old != null) {
-                        MDC.setContextMap(old);
-                    } else {
-                        MDC.clear();
-                    }
-                }
-            };
+            return RequestContext.wrap(runnable);
         }
 
     }
 
 }
-
@@ -0,0 +1,255 @@
+package com.dev.lib.entity.dsl.agg;
+
+import org.springframework.util.ReflectionUtils;
+
+import java.beans.ConstructorProperties;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Parameter;
+import java.lang.reflect.RecordComponent;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 聚合结果行 -> 目标对象映射，JPA / OpenSearch 聚合执行器共用
+ * <p>
+ * 支持无参构造 + setter/字段、Record 构造、@ConstructorProperties 构造，数值类型按目标字段自动转换。
+ */
+public final class AggregateResultMapper {
+
+    private static final Map<Class<?>, Map<String, Field>> AGG_TARGET_FIELD_CACHE = new ConcurrentHashMap<>(128);
+
+    private static final Map<Class<?>, Map<String, Method>> AGG_TARGET_SETTER_CACHE = new ConcurrentHashMap<>(128);
+
+    private static final Map<Class<?>, AggregateCtorPlan> AGG_TARGET_CTOR_PLAN_CACHE = new ConcurrentHashMap<>(128);
+
+    private AggregateResultMapper() {
+
+    }
+
+    /**
+     * @param valueByField 目标字段名 -> 聚合值
+     */
+    public static <R> R map(Class<R> targetClass, Map<String, Object> valueByField) {
+
+        AggregateCtorPlan ctorPlan = getAggregateCtorPlan(targetClass);
+        return switch (ctorPlan.type()) {
+            case NO_ARGS -> mapByNoArgsCtor(targetClass, valueByField, ctorPlan.constructor());
+            case ALL_ARGS -> mapByArgsCtor(targetClass, valueByField, ctorPlan);
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <R> R mapByNoArgsCtor(Class<R> targetClass, Map<String, Object> valueByField, Constructor<?> constructor) {
+
+        R instance;
+        try {
+            instance = (R) constructor.newInstance();
+        } catch (Exception e) {
+            throw new IllegalStateException("聚合结果对象构造失败: " + targetClass.getName(), e);
+        }
+
+        Map<String, Method> setters = getAggTargetSetters(targetClass);
+        Map<String, Field> fields = getAggTargetFields(targetClass);
+        for (Map.Entry<String, Object> entry : valueByField.entrySet()) {
+            String fieldName = entry.getKey();
+            Object value = entry.getValue();
+
+            Method setter = setters.get(fieldName);
+            if (setter != null) {
+                ReflectionUtils.invokeMethod(
+                        setter,
+                        instance,
+                        convertAggregateValue(value, setter.getParameterTypes()[0])
+                );
+                continue;
+            }
+
+            Field field = fields.get(fieldName);
+            if (field != null) {
+                ReflectionUtils.setField(field, instance, convertAggregateValue(value, field.getType()));
+            }
+        }
+        return instance;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <R> R mapByArgsCtor(Class<R> targetClass, Map<String, Object> valueByField, AggregateCtorPlan plan) {
+
+        try {
+            Constructor<?> constructor = plan.constructor();
+            String[] names = plan.argNames();
+            Class<?>[] argTypes = constructor.getParameterTypes();
+            Object[] args = new Object[argTypes.length];
+            for (int i = 0; i < argTypes.length; i++) {
+                args[i] = convertAggregateValue(valueByField.get(names[i]), argTypes[i]);
+            }
+            return (R) constructor.newInstance(args);
+        } catch (Exception e) {
+            throw new IllegalStateException("聚合结果对象构造失败: " + targetClass.getName(), e);
+        }
+    }
+
+    private static AggregateCtorPlan getAggregateCtorPlan(Class<?> targetClass) {
+
+        return AGG_TARGET_CTOR_PLAN_CACHE.computeIfAbsent(targetClass, AggregateResultMapper::buildAggregateCtorPlan);
+    }
+
+    private static AggregateCtorPlan buildAggregateCtorPlan(Class<?> targetClass) {
+
+        try {
+            Constructor<?> constructor = targetClass.getDeclaredConstructor();
+            ReflectionUtils.makeAccessible(constructor);
+            return new AggregateCtorPlan(AggregateCtorPlanType.NO_ARGS, constructor, new String[0]);
+        } catch (NoSuchMethodException ignored) {
+            // fall through to other strategies
+        }
+
+        if (targetClass.isRecord()) {
+            return buildRecordCtorPlan(targetClass);
+        }
+
+        Constructor<?>[] constructors = targetClass.getDeclaredConstructors();
+        for (Constructor<?> constructor : constructors) {
+            ConstructorProperties properties = constructor.getAnnotation(ConstructorProperties.class);
+            if (properties != null) {
+                String[] names = properties.value();
+                if (names.length == constructor.getParameterCount()) {
+                    ReflectionUtils.makeAccessible(constructor);
+                    return new AggregateCtorPlan(AggregateCtorPlanType.ALL_ARGS, constructor, names);
+                }
+            }
+        }
+
+        if (constructors.length == 1 && constructors[0].getParameterCount() > 0) {
+            Constructor<?> constructor = constructors[0];
+            String[] names = Arrays.stream(constructor.getParameters()).map(Parameter::getName).toArray(String[]::new);
+            boolean hasRealNames = Arrays.stream(names).noneMatch(name -> name.startsWith("arg"));
+            if (hasRealNames) {
+                ReflectionUtils.makeAccessible(constructor);
+                return new AggregateCtorPlan(AggregateCtorPlanType.ALL_ARGS, constructor, names);
+            }
+        }
+
+        throw new IllegalStateException("聚合结果类型必须有无参构造、Record 构造或 @ConstructorProperties 构造: " + targetClass.getName());
+    }
+
+    private static AggregateCtorPlan buildRecordCtorPlan(Class<?> targetClass) {
+
+        try {
+            RecordComponent[] components = targetClass.getRecordComponents();
+            Class<?>[] argTypes = Arrays.stream(components).map(RecordComponent::getType).toArray(Class[]::new);
+            String[] argNames = Arrays.stream(components).map(RecordComponent::getName).toArray(String[]::new);
+            Constructor<?> constructor = targetClass.getDeclaredConstructor(argTypes);
+            ReflectionUtils.makeAccessible(constructor);
+            return new AggregateCtorPlan(AggregateCtorPlanType.ALL_ARGS, constructor, argNames);
+        } catch (Exception e) {
+            throw new IllegalStateException("Record 聚合结果构造解析失败: " + targetClass.getName(), e);
+        }
+    }
+
+    private static Map<String, Method> getAggTargetSetters(Class<?> targetClass) {
+
+        return AGG_TARGET_SETTER_CACHE.computeIfAbsent(targetClass, clazz -> {
+            Map<String, Method> setters = new HashMap<>();
+            for (Class<?> current = clazz; current != null && current != Object.class; current = current.getSuperclass()) {
+                for (Method method : current.getDeclaredMethods()) {
+                    if (method.getParameterCount() != 1 || !method.getName().startsWith("set") || method.getName().length() <= 3) {
+                        continue;
+                    }
+                    String name = Character.toLowerCase(method.getName().charAt(3)) + method.getName().substring(4);
+                    ReflectionUtils.makeAccessible(method);
+                    setters.putIfAbsent(name, method);
+                }
+            }
+            return setters;
+        });
+    }
+
+    private static Object convertAggregateValue(Object value, Class<?> rawTargetType) {
+
+        if (value == null) {
+            return null;
+        }
+        Class<?> targetType = boxed(rawTargetType);
+        if (targetType.isInstance(value)) {
+            return value;
+        }
+        if (targetType == Long.class && value instanceof Number number) {
+            return number.longValue();
+        }
+        if (targetType == Integer.class && value instanceof Number number) {
+            return number.intValue();
+        }
+        if (targetType == Double.class && value instanceof Number number) {
+            return number.doubleValue();
+        }
+        if (targetType == Float.class && value instanceof Number number) {
+            return number.floatValue();
+        }
+        if (targetType == Short.class && value instanceof Number number) {
+            return number.shortValue();
+        }
+        if (targetType == Byte.class && value instanceof Number number) {
+            return number.byteValue();
+        }
+        if (targetType == BigDecimal.class) {
+            if (value instanceof BigDecimal) {
+                return value;
+            }
+            if (value instanceof Number number) {
+                return new BigDecimal(number.toString());
+            }
+        }
+        if (targetType == String.class) {
+            return value.toString();
+        }
+        return value;
+    }
+
+    private static Map<String, Field> getAggTargetFields(Class<?> targetClass) {
+
+        return AGG_TARGET_FIELD_CACHE.computeIfAbsent(targetClass, clazz -> {
+            Map<String, Field> fields = new HashMap<>();
+            for (Class<?> current = clazz; current != null && current != Object.class; current = current.getSuperclass()) {
+                for (Field field : current.getDeclaredFields()) {
+                    if (Modifier.isStatic(field.getModifiers()) || Modifier.isTransient(field.getModifiers())) {
+                        continue;
+                    }
+                    ReflectionUtils.makeAccessible(field);
+                    fields.putIfAbsent(field.getName(), field);
+                }
+            }
+            return fields;
+        });
+    }
+
+    private static Class<?> boxed(Class<?> type) {
+
+        if (!type.isPrimitive()) {
+            return type;
+        }
+        if (type == int.class) return Integer.class;
+        if (type == long.class) return Long.class;
+        if (type == double.class) return Double.class;
+        if (type == float.class) return Float.class;
+        if (type == short.class) return Short.class;
+        if (type == byte.class) return Byte.class;
+        if (type == boolean.class) return Boolean.class;
+        if (type == char.class) return Character.class;
+        return type;
+    }
+
+    private enum AggregateCtorPlanType {
+        NO_ARGS,
+        ALL_ARGS
+    }
+
+    private record AggregateCtorPlan(AggregateCtorPlanType type, Constructor<?> constructor, String[] argNames) {
+    }
+}
@@ -56,6 +56,16 @@ public interface TokenManager {
 
     void refreshToken(String tokenKey, Map<String, Object> metadata);
 
+    /**
+     * 批量刷新过期时间
+     *
+     * @param expireTimes token key -> 过期时间戳（毫秒）
+     */
+    default void refreshTokens(Map<String, Long> expireTimes) {
+
+        expireTimes.forEach(this::refreshToken);
+    }
+
     /**
      * 删除 token
      *
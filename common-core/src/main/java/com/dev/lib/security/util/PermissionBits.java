@@ -0,0 +1,112 @@
+package com.dev.lib.security.util;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Objects;
+
+/**
+ * 不可变的权限 / 角色位图，下标来自 {@link PermissionDictionary}
+ * <p>
+ * 用户持有的集合与接口要求的集合各编译一次，校验只做按字 AND。
+ */
+public final class PermissionBits {
+
+    public static final PermissionBits EMPTY = new PermissionBits(new long[0], new String[0]);
+
+    private final long[] words;
+
+    /**
+     * 编译时复制的编码（不含 null）
+     */
+    private final String[] codes;
+
+    private PermissionBits(long[] words, String[] codes) {
+
+        this.words = words;
+        this.codes = codes;
+    }
+
+    public static PermissionBits of(String... codes) {
+
+        return codes == null || codes.length == 0 ? EMPTY : compile(Arrays.asList(codes));
+    }
+
+    public static PermissionBits of(Collection<String> codes) {
+
+        return codes == null || codes.isEmpty() ? EMPTY : compile(codes);
+    }
+
+    private static PermissionBits compile(Collection<String> codes) {
+
+        long[] words = new long[0];
+        for (String code : codes) {
+            if (code == null) {
+                continue;
+            }
+            int index = PermissionDictionary.intern(code);
+            int word = index >>> 6;
+            if (word >= words.length) {
+                words = Arrays.copyOf(words, word + 1);
+            }
+            words[word] |= 1L << index;
+        }
+        return new PermissionBits(words, codes.stream().filter(Objects::nonNull).toArray(String[]::new));
+    }
+
+    /**
+     * 是否包含任一位
+     */
+    public boolean intersects(PermissionBits other) {
+
+        int n = Math.min(words.length, other.words.length);
+        for (int i = 0; i < n; i++) {
+            if ((words[i] & other.words[i]) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 是否包含全部位
+     */
+    public boolean containsAll(PermissionBits other) {
+
+        for (int i = 0; i < other.words.length; i++) {
+            long mine = i < words.length ? words[i] : 0L;
+            if ((mine & other.words[i]) != other.words[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public boolean contains(String code) {
+
+        int index = code == null ? -1 : PermissionDictionary.indexOf(code);
+        if (index < 0) {
+            return false;
+        }
+        int word = index >>> 6;
+        return word < words.length && (words[word] & (1L << index)) != 0;
+    }
+
+    public boolean isEmpty() {
+
+        for (long word : words) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 原始编码，供自定义 PermissionService 回退到字符串比较
+     */
+    public String[] codes() {
+
+        return codes.clone();
+    }
+
+}
@@ -0,0 +1,48 @@
+package com.dev.lib.security.util;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 权限 / 角色编码的全局字典，将编码映射为位图下标
+ * <p>
+ * 下标只增不减，进程内稳定；编码集合来自权限配置，规模有限
+ */
+public final class PermissionDictionary {
+
+    private static final Map<String, Integer> INDEX = new ConcurrentHashMap<>();
+
+    private static final AtomicInteger NEXT = new AtomicInteger();
+
+    private PermissionDictionary() {
+
+    }
+
+    /**
+     * 编码对应的下标，首次出现时分配
+     */
+    public static int intern(String code) {
+
+        Integer index = INDEX.get(code);
+        if (index != null) {
+            return index;
+        }
+        return INDEX.computeIfAbsent(code, it -> NEXT.getAndIncrement());
+    }
+
+    /**
+     * 编码对应的下标，未登记时返回 -1
+     */
+    public static int indexOf(String code) {
+
+        Integer index = INDEX.get(code);
+        return index == null ? -1 : index;
+    }
+
+    public static int size() {
+
+        return NEXT.get();
+    }
+
+}
@@ -1,9 +1,14 @@
 package com.dev.lib.security.util;
 
+import com.dev.lib.util.context.RequestContext;
+
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
+/**
+ * 当前用户上下文：本线程显式设置的用户优先，其次是提交任务时经 {@link RequestContext} 绑定的用户
+ */
 public class SecurityContextHolder {
 
     private static final ThreadLocal<UserDetails> holder = new ThreadLocal<>();
@@ -26,18 +31,24 @@ public class SecurityContextHolder {
 
     public static UserDetails get() {
 
-        return holder.get();
+        UserDetails user = holder.get();
+        if (user != null) {
+            return user;
+        }
+        RequestContext bound = RequestContext.bound();
+        return bound == null ? null : bound.user();
     }
 
     // ===== 便捷方法 =====
     public static boolean isLogin() {
 
-        return holder.get() != null && !UserDetails.Anonymous.equals(holder.get());
+        UserDetails user = get();
+        return user != null && !UserDetails.Anonymous.equals(user);
     }
 
     public static boolean validated() {
 
-        return isLogin() && holder.get().getValidated();
+        return isLogin() && get().getValidated();
     }
 
     public static void with(UserDetails userDetails, Runnable task) {
@@ -47,7 +58,11 @@ public class SecurityContextHolder {
         try {
             task.run();
         } finally {
-            holder.set(older);
+            if (older == null) {
+                holder.remove();
+            } else {
+                holder.set(older);
+            }
         }
     }
 
@@ -71,7 +86,7 @@ public class SecurityContextHolder {
      */
     public static UserDetails current() {
 
-        return Optional.ofNullable(holder.get())
+        return Optional.ofNullable(get())
                 .orElse(UserDetails.Anonymous);
     }
 
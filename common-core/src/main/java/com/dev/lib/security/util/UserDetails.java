@@ -3,20 +3,26 @@ package com.dev.lib.security.util;
 import com.dev.lib.entity.EntityStatus;
 import com.dev.lib.security.model.UserStatus;
 import com.dev.lib.security.model.UserType;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
 import lombok.experimental.Accessors;
 
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 @Accessors(chain = true)
@@ -133,6 +139,19 @@ public class UserDetails implements Serializable {
     // ===== 扩展字段 =====
     private Map<String, Object> extra;  // 扩展属性(避免频繁改 UserContext)
 
+    // ===== 位图缓存(列表被替换后失效,不参与序列化) =====
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private transient PermissionBits permissionBits;
+
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private transient PermissionBits roleBits;
+
     // ===== 工具方法 =====
 
     /**
@@ -148,7 +167,7 @@ public class UserDetails implements Serializable {
      */
     public boolean hasPermission(String permission) {
 
-        return permissions != null && permissions.contains(permission);
+        return permissionBits().contains(permission);
     }
 
     /**
@@ -156,7 +175,49 @@ public class UserDetails implements Serializable {
      */
     public boolean hasRole(String role) {
 
-        return roles != null && roles.contains(role);
+        return roleBits().contains(role);
+    }
+
+    /**
+     * 权限位图，首次访问时编译一次；编译时权限列表换成不可变副本，之后只能通过 setPermissions 整体替换
+     */
+    public PermissionBits permissionBits() {
+
+        PermissionBits bits = permissionBits;
+        if (bits == null) {
+            permissions = freeze(permissions);
+            bits = PermissionBits.of(permissions);
+            permissionBits = bits;
+        }
+        return bits;
+    }
+
+    /**
+     * 角色位图，首次访问时编译一次；编译时角色列表换成不可变副本，之后只能通过 setRoles 整体替换
+     */
+    public PermissionBits roleBits() {
+
+        PermissionBits bits = roleBits;
+        if (bits == null) {
+            roles = freeze(roles);
+            bits = PermissionBits.of(roles);
+            roleBits = bits;
+        }
+        return bits;
+    }
+
+    public UserDetails setPermissions(List<String> permissions) {
+
+        this.permissions = permissions;
+        this.permissionBits = null;
+        return this;
+    }
+
+    public UserDetails setRoles(List<String> roles) {
+
+        this.roles = roles;
+        this.roleBits = null;
+        return this;
     }
 
     /**
@@ -199,4 +260,31 @@ public class UserDetails implements Serializable {
         return this.id != null && this.id > 0;
     }
 
-}
\ No newline at end of file
+    private static List<String> freeze(List<String> codes) {
+
+        // 允许 null 元素，不能用 List.copyOf
+        return codes == null ? null : Collections.unmodifiableList(new ArrayList<>(codes));
+    }
+
+    /**
+     * toBuilder 会带上已编译的位图，替换列表时一并丢弃
+     */
+    public static class UserDetailsBuilder {
+
+        public UserDetailsBuilder permissions(List<String> permissions) {
+
+            this.permissions = permissions;
+            this.permissionBits = null;
+            return this;
+        }
+
+        public UserDetailsBuilder roles(List<String> roles) {
+
+            this.roles = roles;
+            this.roleBits = null;
+            return this;
+        }
+
+    }
+
+}
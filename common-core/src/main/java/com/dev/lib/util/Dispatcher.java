@@ -1,11 +1,15 @@
 package com.dev.lib.util;
 
+import com.dev.lib.util.context.RequestContext;
 import org.springframework.beans.factory.DisposableBean;
 import org.springframework.stereotype.Component;
 
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
+/**
+ * 库内共享执行器，提交的任务自动携带提交线程的 {@link RequestContext}
+ */
 @Component
 public class Dispatcher implements DisposableBean {
 
@@ -17,13 +21,13 @@ public class Dispatcher implements DisposableBean {
      * IO密集：数据库、RPC、文件
      */
     public static final ExecutorService IO =
-            Executors.newVirtualThreadPerTaskExecutor();
+            RequestContext.propagating(Executors.newVirtualThreadPerTaskExecutor());
 
     /**
      * CPU密集：计算、序列化
      */
     public static final ExecutorService DEFAULT =
-            Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors() + 1);
+            RequestContext.propagating(Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors() + 1));
 
     @Override
     public void destroy() {
@@ -2,6 +2,7 @@ package com.dev.lib.util;
 
 import com.dev.lib.config.JacksonSupport;
 import tools.jackson.core.JacksonException;
+import tools.jackson.core.JsonParser;
 import tools.jackson.core.type.TypeReference;
 import tools.jackson.databind.DefaultTyping;
 import tools.jackson.databind.JavaType;
@@ -118,6 +119,25 @@ public final class Jsons {
         }
     }
 
+    /**
+     * 是否为单个完整的 JSON 值，只做流式扫描，不构建对象
+     */
+    public static boolean isWellFormed(String json) {
+
+        if (json == null || json.isBlank()) {
+            return false;
+        }
+        try (JsonParser parser = MAPPER.createParser(json)) {
+            if (parser.nextToken() == null) {
+                return false;
+            }
+            parser.skipChildren();
+            return parser.nextToken() == null;
+        } catch (JacksonException e) {
+            return false;
+        }
+    }
+
     public static JsonNode readTree(String json) {
 
         try {
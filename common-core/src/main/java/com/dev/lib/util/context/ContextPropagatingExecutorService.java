@@ -0,0 +1,58 @@
+package com.dev.lib.util.context;
+
+import org.jspecify.annotations.NonNull;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 提交时捕获 {@link RequestContext} 的执行器包装，submit / invokeAll 均经由 execute
+ */
+final class ContextPropagatingExecutorService extends AbstractExecutorService {
+
+    private final ExecutorService delegate;
+
+    ContextPropagatingExecutorService(ExecutorService delegate) {
+
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void execute(@NonNull Runnable command) {
+
+        delegate.execute(RequestContext.wrap(command));
+    }
+
+    @Override
+    public void shutdown() {
+
+        delegate.shutdown();
+    }
+
+    @Override
+    public @NonNull List<Runnable> shutdownNow() {
+
+        return delegate.shutdownNow();
+    }
+
+    @Override
+    public boolean isShutdown() {
+
+        return delegate.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+
+        return delegate.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, @NonNull TimeUnit unit) throws InterruptedException {
+
+        return delegate.awaitTermination(timeout, unit);
+    }
+
+}
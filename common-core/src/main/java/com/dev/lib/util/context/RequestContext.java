@@ -0,0 +1,182 @@
+package com.dev.lib.util.context;
+
+import com.dev.lib.security.util.SecurityContextHolder;
+import com.dev.lib.security.util.UserDetails;
+import com.dev.lib.web.serialize.PopulateContextHolder;
+import org.slf4j.MDC;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Supplier;
+
+/**
+ * 请求上下文快照：当前用户、MDC、PopulateContextHolder 请求级缓存
+ * <p>
+ * - 在提交任务的线程上 {@link #capture()}，任务执行期间以 ScopedValue 绑定，工作线程不为用户和缓存分配 ThreadLocal
+ * - SecurityContextHolder / PopulateContextHolder 先读本线程 ThreadLocal，未设置时回退到绑定的快照
+ * - MDC 仍写入工作线程（日志框架只读 ThreadLocal），任务结束后恢复
+ * - 库内创建的执行器经 {@link #propagating} 包装，提交即自动携带，无需调用方 SecurityContextHolder.with
+ */
+public final class RequestContext {
+
+    private static final ScopedValue<RequestContext> CURRENT = ScopedValue.newInstance();
+
+    public static final RequestContext EMPTY = new RequestContext(null, null, null);
+
+    private final UserDetails user;
+
+    private final Map<String, String> mdc;
+
+    private final Map<String, Map<Object, Object>> populate;
+
+    private RequestContext(UserDetails user, Map<String, String> mdc, Map<String, Map<Object, Object>> populate) {
+
+        this.user = user;
+        this.mdc = mdc;
+        this.populate = populate;
+    }
+
+    /**
+     * 捕获当前线程的上下文；什么都没有时返回 {@link #EMPTY}
+     */
+    public static RequestContext capture() {
+
+        UserDetails user = SecurityContextHolder.get();
+        Map<String, String> mdc = MDC.getCopyOfContextMap();
+        Map<String, Map<Object, Object>> populate = PopulateContextHolder.snapshot();
+        if (user == null && (mdc == null || mdc.isEmpty()) && populate == null) {
+            return EMPTY;
+        }
+        return new RequestContext(user, mdc == null || mdc.isEmpty() ? null : mdc, populate);
+    }
+
+    /**
+     * 当前线程绑定的快照，未绑定返回 null
+     */
+    public static RequestContext bound() {
+
+        return CURRENT.isBound() ? CURRENT.get() : null;
+    }
+
+    public UserDetails user() {
+
+        return user;
+    }
+
+    /**
+     * 提交方请求级缓存在捕获时的不可变快照
+     */
+    public Map<String, Map<Object, Object>> populate() {
+
+        return populate;
+    }
+
+    public void run(Runnable task) {
+
+        if (this == EMPTY) {
+            task.run();
+            return;
+        }
+        Map<String, String> previous = applyMdc();
+        try {
+            ScopedValue.where(CURRENT, this).run(task);
+        } finally {
+            restoreMdc(previous);
+        }
+    }
+
+    public <T> T call(Callable<T> task) throws Exception {
+
+        if (this == EMPTY) {
+            return task.call();
+        }
+        Map<String, String> previous = applyMdc();
+        try {
+            return ScopedValue.where(CURRENT, this).call(task::call);
+        } finally {
+            restoreMdc(previous);
+        }
+    }
+
+    public <T> T supply(Supplier<T> task) {
+
+        if (this == EMPTY) {
+            return task.get();
+        }
+        Map<String, String> previous = applyMdc();
+        try {
+            return ScopedValue.where(CURRENT, this).call(task::get);
+        } finally {
+            restoreMdc(previous);
+        }
+    }
+
+    // ==================== 任务包装 ====================
+
+    public static Runnable wrap(Runnable task) {
+
+        RequestContext context = capture();
+        return context == EMPTY ? task : () -> context.run(task);
+    }
+
+    public static <T> Callable<T> wrap(Callable<T> task) {
+
+        RequestContext context = capture();
+        return context == EMPTY ? task : () -> context.call(task);
+    }
+
+    public static <T> Supplier<T> wrap(Supplier<T> task) {
+
+        RequestContext context = capture();
+        if (context == EMPTY) {
+            return task;
+        }
+        return () -> context.supply(task);
+    }
+
+    /**
+     * 包装执行器，execute 时捕获提交线程的上下文；已包装的直接返回
+     */
+    public static ExecutorService propagating(ExecutorService executor) {
+
+        return executor instanceof ContextPropagatingExecutorService
+               ? executor
+               : new ContextPropagatingExecutorService(executor);
+    }
+
+    public static Executor propagating(Executor executor) {
+
+        if (executor instanceof ContextPropagatingExecutorService) {
+            return executor;
+        }
+        if (executor instanceof ExecutorService service) {
+            return propagating(service);
+        }
+        return command -> executor.execute(wrap(command));
+    }
+
+    private Map<String, String> applyMdc() {
+
+        if (mdc == null) {
+            return null;
+        }
+        Map<String, String> previous = MDC.getCopyOfContextMap();
+        MDC.setContextMap(mdc);
+        return previous;
+    }
+
+    private void restoreMdc(Map<String, String> previous) {
+
+        if (mdc == null) {
+            return;
+        }
+        if (previous == null) {
+            MDC.clear();
+        } else {
+            MDC.setContextMap(previous);
+        }
+    }
+
+}
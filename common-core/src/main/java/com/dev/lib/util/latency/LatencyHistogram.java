@@ -0,0 +1,201 @@
+package com.dev.lib.util.latency;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 滑动窗口延迟直方图（HdrHistogram 风格的对数-线性分桶）
+ * <p>
+ * - 以微秒计，每个 2 的幂区间再均分 16 个子桶，相对误差约 6%，上限约 71 分钟
+ * - 记录只做原子自增，无锁、不分配对象；窗口由若干时间片组成，进入新时间片时整片替换（每片一次分配）
+ * - 时间片切换瞬间极少量并发样本可能落入被替换的旧片，分位数按近似值使用
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 4;
+
+    private static final int SUB_BUCKET_HALF = 1 << SUB_BUCKET_BITS;
+
+    private static final int SUB_BUCKET_COUNT = SUB_BUCKET_HALF << 1;
+
+    private static final long MAX_MICROS = (1L << 32) - 1;
+
+    static final int BUCKETS = index(MAX_MICROS) + 1;
+
+    /**
+     * 快照缓存时长，避免同一次抓取对每个分位数重复合并
+     */
+    private static final long SNAPSHOT_TTL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final long sliceMillis;
+
+    private final AtomicReferenceArray<Slice> slices;
+
+    private volatile CachedSnapshot cached;
+
+    public LatencyHistogram(long windowMillis, int sliceCount) {
+
+        if (windowMillis <= 0 || sliceCount <= 0) {
+            throw new IllegalArgumentException("windowMillis and sliceCount must be positive");
+        }
+        this.sliceMillis = Math.max(1, windowMillis / sliceCount);
+        this.slices = new AtomicReferenceArray<>(sliceCount);
+    }
+
+    public void record(long nanos) {
+
+        recordMicros(TimeUnit.NANOSECONDS.toMicros(nanos));
+    }
+
+    public void recordMicros(long micros) {
+
+        long value = Math.clamp(micros, 0, MAX_MICROS);
+        slice(System.currentTimeMillis() / sliceMillis).record(value);
+    }
+
+    /**
+     * 当前窗口的分布
+     */
+    public LatencySnapshot snapshot() {
+
+        long now = System.nanoTime();
+        CachedSnapshot current = cached;
+        if (current != null && now - current.createdAt < SNAPSHOT_TTL_NANOS) {
+            return current.snapshot;
+        }
+        LatencySnapshot snapshot = compute(System.currentTimeMillis() / sliceMillis);
+        cached = new CachedSnapshot(now, snapshot);
+        return snapshot;
+    }
+
+    private Slice slice(long epoch) {
+
+        int slot = (int) (epoch % slices.length());
+        Slice slice = slices.get(slot);
+        while (slice == null || slice.epoch != epoch) {
+            if (slice != null && slice.epoch > epoch) {
+                // 时钟回拨，计入较新的片
+                return slice;
+            }
+            Slice fresh = new Slice(epoch);
+            if (slices.compareAndSet(slot, slice, fresh)) {
+                return fresh;
+            }
+            slice = slices.get(slot);
+        }
+        return slice;
+    }
+
+    private LatencySnapshot compute(long epoch) {
+
+        long[] merged = new long[BUCKETS];
+        long count = 0;
+        long sum = 0;
+        long max = 0;
+        for (int i = 0; i < slices.length(); i++) {
+            Slice slice = slices.get(i);
+            if (slice == null || slice.epoch <= epoch - slices.length() || slice.epoch > epoch) {
+                continue;
+            }
+            for (int b = 0; b < BUCKETS; b++) {
+                merged[b] += slice.counts.get(b);
+            }
+            count += slice.count.sum();
+            sum += slice.sum.sum();
+            max = Math.max(max, slice.max.get());
+        }
+        if (count == 0) {
+            return LatencySnapshot.EMPTY;
+        }
+        return new LatencySnapshot(
+                count,
+                millis(sum / (double) count),
+                millis(percentile(merged, count, 0.50)),
+                millis(percentile(merged, count, 0.90)),
+                millis(percentile(merged, count, 0.99)),
+                millis(percentile(merged, count, 0.999)),
+                millis(max)
+        );
+    }
+
+    private static double percentile(long[] counts, long total, double quantile) {
+
+        long rank = Math.max(1, (long) Math.ceil(total * quantile));
+        long seen = 0;
+        for (int b = 0; b < counts.length; b++) {
+            seen += counts[b];
+            if (seen >= rank) {
+                return midpoint(b);
+            }
+        }
+        return midpoint(counts.length - 1);
+    }
+
+    private static double millis(double micros) {
+
+        return micros / 1000.0;
+    }
+
+    static int index(long micros) {
+
+        if (micros < SUB_BUCKET_COUNT) {
+            return (int) micros;
+        }
+        int highestBit = 63 - Long.numberOfLeadingZeros(micros);
+        int shift = highestBit - SUB_BUCKET_BITS;
+        int top = (int) (micros >>> shift);
+        return SUB_BUCKET_COUNT + (shift - 1) * SUB_BUCKET_HALF + (top - SUB_BUCKET_HALF);
+    }
+
+    /**
+     * 桶的代表值（区间中点）
+     */
+    static double midpoint(int index) {
+
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int offset = index - SUB_BUCKET_COUNT;
+        int shift = offset / SUB_BUCKET_HALF + 1;
+        long lower = (long) (SUB_BUCKET_HALF + offset % SUB_BUCKET_HALF) << shift;
+        return lower + (1L << shift) / 2.0;
+    }
+
+    private static final class Slice {
+
+        final long epoch;
+
+        final AtomicIntegerArray counts = new AtomicIntegerArray(BUCKETS);
+
+        final LongAdder count = new LongAdder();
+
+        final LongAdder sum = new LongAdder();
+
+        final AtomicLong max = new AtomicLong();
+
+        Slice(long epoch) {
+
+            this.epoch = epoch;
+        }
+
+        void record(long micros) {
+
+            counts.incrementAndGet(index(micros));
+            count.increment();
+            sum.add(micros);
+            long current = max.get();
+            while (micros > current && !max.compareAndSet(current, micros)) {
+                current = max.get();
+            }
+        }
+
+    }
+
+    private record CachedSnapshot(long createdAt, LatencySnapshot snapshot) {
+
+    }
+
+}
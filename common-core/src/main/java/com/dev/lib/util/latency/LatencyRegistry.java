@@ -0,0 +1,222 @@
+package com.dev.lib.util.latency;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 按名称分组的延迟直方图，例如 http 接口、SQL 指纹
+ * <p>
+ * - 已存在的 key 查找只读一次 ConcurrentHashMap，不分配对象
+ * - 每组 key 数量有上限，超出的样本计入 {@link #OVERFLOW_KEY}，避免指标基数失控
+ * - 指标导出等通过 {@link #addListener} 感知新出现的 key
+ */
+public final class LatencyRegistry {
+
+    public static final String OVERFLOW_KEY = "__other__";
+
+    public static final int DEFAULT_MAX_KEYS = 500;
+
+    public static final long DEFAULT_WINDOW_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    public static final int DEFAULT_SLICES = 6;
+
+    private static final int MAX_CALL_SITES = 5;
+
+    private static final int MAX_TAG_LENGTH = 64;
+
+    private static final Map<String, LatencyRegistry> REGISTRIES = new ConcurrentHashMap<>();
+
+    private static final List<Listener> LISTENERS = new CopyOnWriteArrayList<>();
+
+    private final String name;
+
+    private final int maxKeys;
+
+    private final long windowMillis;
+
+    private final int slices;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private LatencyRegistry(String name, int maxKeys, long windowMillis, int slices) {
+
+        this.name = name;
+        this.maxKeys = maxKeys;
+        this.windowMillis = windowMillis;
+        this.slices = slices;
+    }
+
+    public static LatencyRegistry of(String name) {
+
+        return of(name, DEFAULT_MAX_KEYS, DEFAULT_WINDOW_MILLIS, DEFAULT_SLICES);
+    }
+
+    /**
+     * 获取或创建分组，同名分组以首次创建时的参数为准
+     */
+    public static LatencyRegistry of(String name, int maxKeys, long windowMillis, int slices) {
+
+        LatencyRegistry registry = REGISTRIES.get(name);
+        if (registry != null) {
+            return registry;
+        }
+        return REGISTRIES.computeIfAbsent(name, n -> new LatencyRegistry(n, maxKeys, windowMillis, slices));
+    }
+
+    public static Collection<LatencyRegistry> all() {
+
+        return Collections.unmodifiableCollection(REGISTRIES.values());
+    }
+
+    /**
+     * 注册监听并回放已有的 key；与并发创建交错时同一 key 可能通知两次，监听需幂等
+     */
+    public static void addListener(Listener listener) {
+
+        LISTENERS.add(listener);
+        for (LatencyRegistry registry : REGISTRIES.values()) {
+            for (Entry entry : registry.entries.values()) {
+                listener.onCreate(registry, entry);
+            }
+        }
+    }
+
+    public static void removeListener(Listener listener) {
+
+        LISTENERS.remove(listener);
+    }
+
+    public String name() {
+
+        return name;
+    }
+
+    public void record(String key, long nanos) {
+
+        entry(key).histogram().record(nanos);
+    }
+
+    public Entry entry(String key) {
+
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            return entry;
+        }
+        if (entries.size() >= maxKeys) {
+            key = OVERFLOW_KEY;
+            entry = entries.get(key);
+            if (entry != null) {
+                return entry;
+            }
+        }
+        Entry fresh = new Entry(key, new LatencyHistogram(windowMillis, slices));
+        entry = entries.putIfAbsent(key, fresh);
+        if (entry != null) {
+            return entry;
+        }
+        for (Listener listener : LISTENERS) {
+            listener.onCreate(this, fresh);
+        }
+        return fresh;
+    }
+
+    public Collection<Entry> entries() {
+
+        return Collections.unmodifiableCollection(entries.values());
+    }
+
+    /**
+     * 按窗口内 p99 从高到低取前 n 个；每个 key 只做一次快照，排序与返回使用同一份
+     */
+    public List<Ranked> top(int n) {
+
+        List<Ranked> ranked = new ArrayList<>(entries.size());
+        for (Entry entry : entries.values()) {
+            ranked.add(new Ranked(entry, entry.histogram().snapshot()));
+        }
+        ranked.sort(Comparator.comparingDouble((Ranked r) -> r.snapshot().p99()).reversed());
+        return ranked.subList(0, Math.min(Math.max(n, 0), ranked.size()));
+    }
+
+    /**
+     * 排序时取得的快照
+     */
+    public record Ranked(Entry entry, LatencySnapshot snapshot) {
+
+    }
+
+    public static final class Entry {
+
+        private final String key;
+
+        private final String tag;
+
+        private final LatencyHistogram histogram;
+
+        private final Set<String> callSites = ConcurrentHashMap.newKeySet();
+
+        Entry(String key, LatencyHistogram histogram) {
+
+            this.key = key;
+            this.tag = key.length() <= MAX_TAG_LENGTH
+                       ? key
+                       : key.substring(0, MAX_TAG_LENGTH - 10) + "~" + Integer.toHexString(key.hashCode());
+            this.histogram = histogram;
+        }
+
+        public String key() {
+
+            return key;
+        }
+
+        /**
+         * 适合作为指标标签的短名称，过长的 key 截断并附哈希
+         */
+        public String tag() {
+
+            return tag;
+        }
+
+        public LatencyHistogram histogram() {
+
+            return histogram;
+        }
+
+        /**
+         * 记录调用位置，最多保留前几个不同的位置
+         */
+        public void addCallSite(String callSite) {
+
+            if (callSite != null && callSites.size() < MAX_CALL_SITES) {
+                callSites.add(callSite);
+            }
+        }
+
+        public boolean hasCallSite() {
+
+            return !callSites.isEmpty();
+        }
+
+        public Set<String> callSites() {
+
+            return Collections.unmodifiableSet(callSites);
+        }
+
+    }
+
+    @FunctionalInterface
+    public interface Listener {
+
+        void onCreate(LatencyRegistry registry, Entry entry);
+
+    }
+
+}
@@ -0,0 +1,18 @@
+package com.dev.lib.util.latency;
+
+/**
+ * 窗口内的延迟分布，时间单位为毫秒
+ *
+ * @param count 样本数
+ * @param mean  平均值
+ * @param p50   中位数
+ * @param p90   90 分位
+ * @param p99   99 分位
+ * @param p999  99.9 分位
+ * @param max   最大值
+ */
+public record LatencySnapshot(long count, double mean, double p50, double p90, double p99, double p999, double max) {
+
+    public static final LatencySnapshot EMPTY = new LatencySnapshot(0, 0, 0, 0, 0, 0, 0);
+
+}
@@ -1,6 +1,7 @@
 package com.dev.lib.util.parallel;
 
 import com.dev.lib.util.Dispatcher;
+import com.dev.lib.util.context.RequestContext;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 
@@ -23,8 +24,9 @@ public final class ParallelExecutor {
 
     public static <T1, T2> Tuple2<T1, T2> with(Supplier<T1> task1, Supplier<T2> task2, Executor executor) {
 
-        CompletableFuture<T1> f1 = CompletableFuture.supplyAsync(task1, executor);
-        CompletableFuture<T2> f2 = CompletableFuture.supplyAsync(task2, executor);
+        Executor propagating = RequestContext.propagating(executor);
+        CompletableFuture<T1> f1 = CompletableFuture.supplyAsync(task1, propagating);
+        CompletableFuture<T2> f2 = CompletableFuture.supplyAsync(task2, propagating);
         return new Tuple2<>(f1.join(), f2.join());
     }
 
@@ -35,9 +37,10 @@ public final class ParallelExecutor {
 
     public static <T1, T2, T3> Tuple3<T1, T2, T3> with(Supplier<T1> t1, Supplier<T2> t2, Supplier<T3> t3, Executor ex) {
 
-        CompletableFuture<T1> f1 = CompletableFuture.supplyAsync(t1, ex);
-        CompletableFuture<T2> f2 = CompletableFuture.supplyAsync(t2, ex);
-        CompletableFuture<T3> f3 = CompletableFuture.supplyAsync(t3, ex);
+        Executor propagating = RequestContext.propagating(ex);
+        CompletableFuture<T1> f1 = CompletableFuture.supplyAsync(t1, propagating);
+        CompletableFuture<T2> f2 = CompletableFuture.supplyAsync(t2, propagating);
+        CompletableFuture<T3> f3 = CompletableFuture.supplyAsync(t3, propagating);
         return new Tuple3<>(f1.join(), f2.join(), f3.join());
     }
 
@@ -50,10 +53,11 @@ public final class ParallelExecutor {
     public static <T1, T2, T3, T4> Tuple4<T1, T2, T3, T4> with(
             Supplier<T1> t1, Supplier<T2> t2, Supplier<T3> t3, Supplier<T4> t4, Executor ex) {
 
-        CompletableFuture<T1> f1 = CompletableFuture.supplyAsync(t1, ex);
-        CompletableFuture<T2> f2 = CompletableFuture.supplyAsync(t2, ex);
-        CompletableFuture<T3> f3 = CompletableFuture.supplyAsync(t3, ex);
-        CompletableFuture<T4> f4 = CompletableFuture.supplyAsync(t4, ex);
+        Executor propagating = RequestContext.propagating(ex);
+        CompletableFuture<T1> f1 = CompletableFuture.supplyAsync(t1, propagating);
+        CompletableFuture<T2> f2 = CompletableFuture.supplyAsync(t2, propagating);
+        CompletableFuture<T3> f3 = CompletableFuture.supplyAsync(t3, propagating);
+        CompletableFuture<T4> f4 = CompletableFuture.supplyAsync(t4, propagating);
         return new Tuple4<>(f1.join(), f2.join(), f3.join(), f4.join());
     }
 
@@ -66,11 +70,12 @@ public final class ParallelExecutor {
     public static <T1, T2, T3, T4, T5> Tuple5<T1, T2, T3, T4, T5> with(
             Supplier<T1> t1, Supplier<T2> t2, Supplier<T3> t3, Supplier<T4> t4, Supplier<T5> t5, Executor ex) {
 
-        CompletableFuture<T1> f1 = CompletableFuture.supplyAsync(t1, ex);
-        CompletableFuture<T2> f2 = CompletableFuture.supplyAsync(t2, ex);
-        CompletableFuture<T3> f3 = CompletableFuture.supplyAsync(t3, ex);
-        CompletableFuture<T4> f4 = CompletableFuture.supplyAsync(t4, ex);
-        CompletableFuture<T5> f5 = CompletableFuture.supplyAsync(t5, ex);
+        Executor propagating = RequestContext.propagating(ex);
+        CompletableFuture<T1> f1 = CompletableFuture.supplyAsync(t1, propagating);
+        CompletableFuture<T2> f2 = CompletableFuture.supplyAsync(t2, propagating);
+        CompletableFuture<T3> f3 = CompletableFuture.supplyAsync(t3, propagating);
+        CompletableFuture<T4> f4 = CompletableFuture.supplyAsync(t4, propagating);
+        CompletableFuture<T5> f5 = CompletableFuture.supplyAsync(t5, propagating);
         return new Tuple5<>(f1.join(), f2.join(), f3.join(), f4.join(), f5.join());
     }
 
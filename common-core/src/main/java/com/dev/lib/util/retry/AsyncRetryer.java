@@ -1,10 +1,12 @@
 package com.dev.lib.util.retry;
 
+import com.dev.lib.util.context.RequestContext;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 import java.time.Duration;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
@@ -29,13 +31,13 @@ public class AsyncRetryer {
     }
 
     /**
-     * 异步执行带重试的操作
+     * 异步执行带重试的操作，任务携带调用线程的 {@link RequestContext}
      */
     public <T> CompletableFuture<T> executeAsync(Supplier<T> supplier) {
 
         return CompletableFuture.supplyAsync(
                 () -> retryer.execute(supplier::get),
-                scheduler
+                RequestContext.propagating((Executor) scheduler)
         );
     }
 
@@ -46,14 +48,14 @@ public class AsyncRetryer {
 
         CompletableFuture<T> future = new CompletableFuture<>();
         scheduler.schedule(
-                () -> {
+                RequestContext.wrap(() -> {
                     try {
                         T result = retryer.execute(supplier::get);
                         future.complete(result);
                     } catch (Exception e) {
                         future.completeExceptionally(e);
                     }
-                },
+                }),
                 initialDelay.toMillis(),
                 TimeUnit.MILLISECONDS
         );
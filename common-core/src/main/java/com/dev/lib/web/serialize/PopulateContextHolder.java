@@ -1,13 +1,18 @@
 package com.dev.lib.web.serialize;
 
+import com.dev.lib.util.context.RequestContext;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
 
 /**
  * 请求级缓存，按 loader 名称隔离
+ * <p>
+ * 首次写入时才为线程分配缓存；异步任务经 {@link RequestContext} 读取提交时的不可变快照，新加载的值写入任务自己的线程。
+ * 快照在两次 preload 之间只构建一次，由多次捕获共享；未变化的 loader 沿用上一份快照中的副本
  */
 @Slf4j
 public abstract class PopulateContextHolder {
@@ -16,9 +21,7 @@ public abstract class PopulateContextHolder {
 
     }
 
-    // Map<loaderName, Map<key, value>>
-    private static final ThreadLocal<Map<String, Map<Object, Object>>> CACHE =
-            ThreadLocal.withInitial(HashMap::new);
+    private static final ThreadLocal<Cache> CACHE = new ThreadLocal<>();
 
     /**
      * 批量预加载
@@ -29,19 +32,28 @@ public abstract class PopulateContextHolder {
 
         if (keys == null || keys.isEmpty()) return;
 
-        Map<Object, Object> loaderCache = CACHE.get().computeIfAbsent(
+        Cache cache = CACHE.get();
+        if (cache == null) {
+            cache = new Cache();
+            CACHE.set(cache);
+        }
+        Map<Object, Object> loaderCache = cache.values.computeIfAbsent(
                 loaderName,
                 k -> new HashMap<>()
         );
+        Map<Object, Object> inherited = inherited(loaderName);
 
         Set<K> toLoad = keys.stream()
-                .filter(key -> key != null && !loaderCache.containsKey(key))
+                .filter(key -> key != null
+                        && !loaderCache.containsKey(key)
+                        && (inherited == null || !inherited.containsKey(key)))
                 .collect(java.util.stream.Collectors.toSet());
 
         if (!toLoad.isEmpty()) {
             Map<K, V> loaded = loader.batchLoad(toLoad);
-            if (loaded != null) {
+            if (loaded != null && !loaded.isEmpty()) {
                 loaderCache.putAll(loaded);
+                cache.changed(loaderName);
             }
         }
     }
@@ -53,8 +65,29 @@ public abstract class PopulateContextHolder {
     public static <V> V get(String loaderName, Object key) {
 
         if (key == null) return null;
-        Map<Object, Object> loaderCache = CACHE.get().get(loaderName);
-        return loaderCache != null ? (V) loaderCache.get(key) : null;
+        Cache cache = CACHE.get();
+        Map<Object, Object> loaderCache = cache == null ? null : cache.values.get(loaderName);
+        if (loaderCache != null && loaderCache.containsKey(key)) {
+            return (V) loaderCache.get(key);
+        }
+        Map<Object, Object> inherited = inherited(loaderName);
+        return inherited != null ? (V) inherited.get(key) : null;
+    }
+
+    /**
+     * 当前可见缓存的不可变快照（本线程优先，其次是绑定的快照），供 {@link RequestContext#capture()} 使用
+     * <p>
+     * 本线程的缓存只由本线程写入，快照在 preload 写入新值后才重建，之后的捕获共享同一份；
+     * 已绑定的快照本身不可变，直接返回
+     */
+    public static Map<String, Map<Object, Object>> snapshot() {
+
+        Cache cache = CACHE.get();
+        if (cache != null) {
+            return cache.snapshot();
+        }
+        RequestContext bound = RequestContext.bound();
+        return bound == null ? null : bound.populate();
     }
 
     /**
@@ -65,4 +98,47 @@ public abstract class PopulateContextHolder {
         CACHE.remove();
     }
 
-}
\ No newline at end of file
+    private static Map<Object, Object> inherited(String loaderName) {
+
+        RequestContext bound = RequestContext.bound();
+        if (bound == null || bound.populate() == null) {
+            return null;
+        }
+        return bound.populate().get(loaderName);
+    }
+
+    /**
+     * 线程内缓存：可写的 loader 缓存 + 按 loader 冻结的副本
+     */
+    private static final class Cache {
+
+        // Map<loaderName, Map<key, value>>
+        private final Map<String, Map<Object, Object>> values = new HashMap<>();
+
+        private final Map<String, Map<Object, Object>> frozen = new HashMap<>();
+
+        private Map<String, Map<Object, Object>> snapshot;
+
+        void changed(String loaderName) {
+
+            frozen.remove(loaderName);
+            snapshot = null;
+        }
+
+        Map<String, Map<Object, Object>> snapshot() {
+
+            if (snapshot == null) {
+                Map<String, Map<Object, Object>> copy = new HashMap<>(values.size() * 2);
+                // loader 可能返回 null 值，不能用 Map.copyOf
+                values.forEach((loaderName, loaded) -> copy.put(
+                        loaderName,
+                        frozen.computeIfAbsent(loaderName, k -> Collections.unmodifiableMap(new HashMap<>(loaded)))
+                ));
+                snapshot = Collections.unmodifiableMap(copy);
+            }
+            return snapshot;
+        }
+
+    }
+
+}
@@ -0,0 +1,117 @@
+package com.dev.lib.security.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PermissionBitsTest {
+
+    /**
+     * 字典为进程级共享，编码加随机前缀避免与其他用例互相影响
+     */
+    private final String prefix = UUID.randomUUID() + ":";
+
+    @Test
+    void shouldTestMembershipAcrossWords() {
+
+        // 超过 64 个编码，位图跨多个 long
+        List<String> granted = codes(0, 130);
+        PermissionBits bits = PermissionBits.of(granted);
+
+        assertThat(bits.contains(code(0))).isTrue();
+        assertThat(bits.contains(code(64))).isTrue();
+        assertThat(bits.contains(code(129))).isTrue();
+        assertThat(bits.contains(code(130))).isFalse();
+        assertThat(bits.contains(prefix + "never-interned")).isFalse();
+        assertThat(bits.contains(null)).isFalse();
+        assertThat(bits.isEmpty()).isFalse();
+        assertThat(bits.codes()).containsExactlyElementsOf(granted);
+    }
+
+    @Test
+    void shouldIntersectAndContainAll() {
+
+        PermissionBits user = PermissionBits.of(code(1), code(2), code(100));
+        PermissionBits anyOf = PermissionBits.of(code(3), code(100));
+        PermissionBits allOf = PermissionBits.of(code(1), code(100));
+        PermissionBits missing = PermissionBits.of(code(1), code(200));
+
+        assertThat(user.intersects(anyOf)).isTrue();
+        assertThat(user.intersects(PermissionBits.of(code(3), code(4)))).isFalse();
+        assertThat(user.containsAll(allOf)).isTrue();
+        assertThat(user.containsAll(missing)).isFalse();
+        // 要求集合的位图比用户的更长时，超出部分按 0 处理
+        assertThat(PermissionBits.of(code(1)).containsAll(PermissionBits.of(code(1), code(300)))).isFalse();
+        assertThat(user.containsAll(PermissionBits.EMPTY)).isTrue();
+        assertThat(user.intersects(PermissionBits.EMPTY)).isFalse();
+    }
+
+    @Test
+    void shouldSkipNullsAndReturnEmptyForNoCodes() {
+
+        assertThat(PermissionBits.of((String[]) null)).isSameAs(PermissionBits.EMPTY);
+        assertThat(PermissionBits.of(List.of())).isSameAs(PermissionBits.EMPTY);
+        PermissionBits bits = PermissionBits.of(Arrays.asList(code(1), null, code(2)));
+        assertThat(bits.codes()).containsExactly(code(1), code(2));
+        assertThat(PermissionBits.EMPTY.isEmpty()).isTrue();
+    }
+
+    @Test
+    void shouldCompileUserBitsOnceAndRecompileOnlyAfterReplacement() {
+
+        List<String> permissions = new ArrayList<>(List.of(code(1)));
+        List<String> roles = new ArrayList<>(List.of(code(10)));
+        UserDetails user = UserDetails.builder().id(1L).permissions(permissions).roles(roles).build();
+
+        assertThat(user.hasPermission(code(1))).isTrue();
+        assertThat(user.hasRole(code(10))).isTrue();
+        PermissionBits compiled = user.permissionBits();
+        assertThat(user.permissionBits()).isSameAs(compiled);
+
+        // 编译后持有的是副本，原列表的修改不影响已编译的位图，副本本身不可修改
+        permissions.set(0, code(2));
+        assertThat(user.hasPermission(code(1))).isTrue();
+        assertThat(user.getPermissions()).containsExactly(code(1));
+        assertThatThrownBy(() -> user.getRoles().add(code(11))).isInstanceOf(UnsupportedOperationException.class);
+
+        user.setPermissions(List.of(code(2)));
+        assertThat(user.hasPermission(code(1))).isFalse();
+        assertThat(user.hasPermission(code(2))).isTrue();
+
+        user.setPermissions(null);
+        assertThat(user.hasPermission(code(2))).isFalse();
+        assertThat(user.permissionBits()).isSameAs(PermissionBits.EMPTY);
+    }
+
+    @Test
+    void shouldShareBitsWithCopiesAndDropThemWhenBuilderReplacesList() {
+
+        UserDetails user = UserDetails.builder().id(1L).permissions(List.of(code(1))).roles(List.of(code(10))).build();
+        PermissionBits compiled = user.permissionBits();
+
+        assertThat(user.toBuilder().build().permissionBits()).isSameAs(compiled);
+
+        UserDetails replaced = user.toBuilder().permissions(List.of(code(2))).roles(List.of()).build();
+        assertThat(replaced.hasPermission(code(1))).isFalse();
+        assertThat(replaced.hasPermission(code(2))).isTrue();
+        assertThat(replaced.hasRole(code(10))).isFalse();
+    }
+
+    private List<String> codes(int from, int to) {
+
+        return IntStream.range(from, to).mapToObj(this::code).toList();
+    }
+
+    private String code(int i) {
+
+        return prefix + "perm:" + i;
+    }
+
+}
@@ -0,0 +1,63 @@
+package com.dev.lib.security.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PermissionDictionaryTest {
+
+    private final String prefix = UUID.randomUUID() + ":";
+
+    @Test
+    void shouldAssignStableIndexesOnFirstIntern() {
+
+        String code = prefix + "order:read";
+        assertThat(PermissionDictionary.indexOf(code)).isEqualTo(-1);
+
+        int index = PermissionDictionary.intern(code);
+
+        assertThat(index).isGreaterThanOrEqualTo(0).isLessThan(PermissionDictionary.size());
+        assertThat(PermissionDictionary.intern(code)).isEqualTo(index);
+        assertThat(PermissionDictionary.indexOf(code)).isEqualTo(index);
+        assertThat(PermissionDictionary.intern(prefix + "order:write")).isNotEqualTo(index);
+    }
+
+    @Test
+    void shouldAssignOneIndexPerCodeUnderConcurrency() throws Exception {
+
+        int codes = 500;
+        int threads = 8;
+        List<Future<int[]>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            for (int t = 0; t < threads; t++) {
+                results.add(executor.submit(() -> {
+                    int[] indexes = new int[codes];
+                    for (int i = 0; i < codes; i++) {
+                        indexes[i] = PermissionDictionary.intern(prefix + i);
+                    }
+                    return indexes;
+                }));
+            }
+        }
+
+        int[] expected = results.getFirst().get();
+        for (Future<int[]> result : results) {
+            assertThat(result.get()).containsExactly(expected);
+        }
+        Set<Integer> distinct = new HashSet<>();
+        for (int index : expected) {
+            distinct.add(index);
+        }
+        assertThat(distinct).hasSize(codes);
+    }
+
+}
@@ -0,0 +1,87 @@
+package com.dev.lib.util.context;
+
+import com.dev.lib.security.util.SecurityContextHolder;
+import com.dev.lib.security.util.UserDetails;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.MDC;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 1M 次虚拟线程提交的上下文传播开销：裸执行器（不传播）、调用方手动 SecurityContextHolder.with（ThreadLocal）、
+ * RequestContext 包装（ScopedValue）。每个任务读取一次当前用户。
+ * <p>
+ * 默认跳过，执行：mvn -pl common-core test -Dbenchmark=true -Dtest=RequestContextBenchmarkTest
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class RequestContextBenchmarkTest {
+
+    private static final int TASKS = 1_000_000;
+
+    private static final int ROUNDS = 3;
+
+    private static final UserDetails USER = new UserDetails().setId(42L).setTenant(7L).setUsername("alice");
+
+    @Test
+    void millionVirtualThreadSubmissions() throws Exception {
+
+        SecurityContextHolder.set(USER);
+        MDC.put("trace_id", "bench");
+        try {
+            long bare = measure(Mode.BARE);
+            long manual = measure(Mode.MANUAL);
+            long scoped = measure(Mode.SCOPED);
+
+            System.out.printf("bare executor (no context):      %,d ns/task%n", bare / TASKS);
+            System.out.printf("manual SecurityContextHolder.with: %,d ns/task%n", manual / TASKS);
+            System.out.printf("RequestContext.propagating:      %,d ns/task%n", scoped / TASKS);
+        } finally {
+            SecurityContextHolder.clear();
+            MDC.clear();
+        }
+    }
+
+    private long measure(Mode mode) throws Exception {
+
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            LongAdder seen = new LongAdder();
+            CountDownLatch done = new CountDownLatch(TASKS);
+            ExecutorService raw = Executors.newVirtualThreadPerTaskExecutor();
+            ExecutorService executor = mode == Mode.SCOPED ? RequestContext.propagating(raw) : raw;
+
+            long start = System.nanoTime();
+            for (int i = 0; i < TASKS; i++) {
+                Runnable task = () -> {
+                    if (SecurityContextHolder.get() != null) {
+                        seen.increment();
+                    }
+                    done.countDown();
+                };
+                if (mode == Mode.MANUAL) {
+                    UserDetails user = SecurityContextHolder.get();
+                    executor.execute(() -> SecurityContextHolder.with(user, task));
+                } else {
+                    executor.execute(task);
+                }
+            }
+            done.await();
+            best = Math.min(best, System.nanoTime() - start);
+            raw.close();
+
+            assertThat(seen.sum()).isEqualTo(mode == Mode.BARE ? 0 : TASKS);
+        }
+        return best;
+    }
+
+    private enum Mode {
+        BARE, MANUAL, SCOPED
+    }
+
+}
@@ -0,0 +1,151 @@
+package com.dev.lib.util.context;
+
+import com.dev.lib.security.util.SecurityContextHolder;
+import com.dev.lib.security.util.UserDetails;
+import com.dev.lib.util.Dispatcher;
+import com.dev.lib.util.parallel.ParallelExecutor;
+import com.dev.lib.web.serialize.PopulateContextHolder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RequestContextTest {
+
+    private static final UserDetails USER = new UserDetails().setId(42L).setTenant(7L).setUsername("alice");
+
+    @AfterEach
+    void tearDown() {
+
+        SecurityContextHolder.clear();
+        PopulateContextHolder.clear();
+        MDC.clear();
+    }
+
+    @Test
+    void shouldCarryUserMdcAndPopulateCacheIntoDispatcherTasks() throws Exception {
+
+        SecurityContextHolder.set(USER);
+        MDC.put("trace_id", "t-1");
+        PopulateContextHolder.preload("dept", Set.of(1L), keys -> Map.of(1L, "R&D"));
+
+        String seen = Dispatcher.IO.submit(() -> SecurityContextHolder.getUserId()
+                + "/" + MDC.get("trace_id")
+                + "/" + PopulateContextHolder.get("dept", 1L)
+        ).get();
+
+        assertThat(seen).isEqualTo("42/t-1/R&D");
+    }
+
+    @Test
+    void shouldCarryContextThroughParallelExecutorWithForeignExecutor() {
+
+        SecurityContextHolder.set(USER);
+        try (var executor = Executors.newFixedThreadPool(2)) {
+            ParallelExecutor.Tuple2<Long, Long> result = ParallelExecutor.with(
+                    SecurityContextHolder::getTenantId,
+                    SecurityContextHolder::getUserId,
+                    executor
+            );
+
+            assertThat(result.getValue1()).isEqualTo(7L);
+            assertThat(result.getValue2()).isEqualTo(42L);
+        }
+    }
+
+    @Test
+    void shouldRestoreWorkerStateAfterTask() throws Exception {
+
+        MDC.put("trace_id", "t-2");
+        var executor = RequestContext.propagating(Executors.newSingleThreadExecutor());
+        try {
+            executor.submit(() -> assertThat(MDC.get("trace_id")).isEqualTo("t-2")).get();
+
+            MDC.clear();
+            String leaked = executor.submit(() -> MDC.get("trace_id")).get();
+            assertThat(leaked).isNull();
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void shouldPreferExplicitUserOverPropagatedOne() throws Exception {
+
+        SecurityContextHolder.set(USER);
+
+        Long id = Dispatcher.IO.submit(() -> {
+            Long[] inner = new Long[1];
+            SecurityContextHolder.withSystem(() -> inner[0] = SecurityContextHolder.getUserId());
+            return inner[0];
+        }).get();
+
+        assertThat(id).isEqualTo(UserDetails.System.getId());
+    }
+
+    @Test
+    void shouldNotReloadKeysAlreadyLoadedBySubmitter() throws Exception {
+
+        AtomicInteger loads = new AtomicInteger();
+        PopulateContextHolder.preload("dept", Set.of(1L), keys -> {
+            loads.incrementAndGet();
+            return Map.of(1L, "R&D");
+        });
+
+        Dispatcher.IO.submit(() -> PopulateContextHolder.preload("dept", Set.of(1L), keys -> {
+            loads.incrementAndGet();
+            return Map.of(1L, "R&D");
+        })).get();
+
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void shouldCaptureImmutableCopyOfSubmitterCache() {
+
+        PopulateContextHolder.preload("dept", Set.of(1L), keys -> Map.of(1L, "R&D"));
+        RequestContext context = RequestContext.capture();
+
+        // 捕获之后提交方继续加载，不影响已交给任务的快照
+        PopulateContextHolder.preload("dept", Set.of(2L), keys -> Map.of(2L, "Ops"));
+        PopulateContextHolder.preload("user", Set.of(9L), keys -> Map.of(9L, "bob"));
+
+        assertThat(context.populate()).containsOnlyKeys("dept");
+        assertThat(context.populate().get("dept")).containsOnlyKeys(1L);
+        assertThatThrownBy(() -> context.populate().get("dept").put(3L, "x"))
+                .isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(() -> context.populate().put("role", Map.of()))
+                .isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    void shouldShareSnapshotBetweenCapturesUntilCacheChanges() {
+
+        PopulateContextHolder.preload("dept", Set.of(1L), keys -> Map.of(1L, "R&D"));
+        PopulateContextHolder.preload("user", Set.of(9L), keys -> Map.of(9L, "bob"));
+        Map<String, Map<Object, Object>> first = RequestContext.capture().populate();
+
+        // 没有新值时多次捕获共享同一份快照
+        assertThat(RequestContext.capture().populate()).isSameAs(first);
+        PopulateContextHolder.preload("dept", Set.of(1L), keys -> Map.of(1L, "R&D"));
+        PopulateContextHolder.preload("dept", Set.of(5L), keys -> Map.of());
+        assertThat(RequestContext.capture().populate()).isSameAs(first);
+
+        // 写入新值后重建，未变化的 loader 沿用原副本
+        PopulateContextHolder.preload("dept", Set.of(2L), keys -> Map.of(2L, "Ops"));
+        Map<String, Map<Object, Object>> second = RequestContext.capture().populate();
+
+        assertThat(second).isNotSameAs(first);
+        assertThat(second.get("dept")).containsOnlyKeys(1L, 2L);
+        assertThat(second.get("user")).isSameAs(first.get("user"));
+        assertThat(first.get("dept")).containsOnlyKeys(1L);
+    }
+
+}
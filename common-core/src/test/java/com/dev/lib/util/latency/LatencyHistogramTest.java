@@ -0,0 +1,62 @@
+package com.dev.lib.util.latency;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class LatencyHistogramTest {
+
+    @Test
+    void bucketIndexIsContinuousAndMidpointFallsInsideBucket() {
+
+        int previous = -1;
+        for (long micros = 0; micros < 1 << 20; micros++) {
+            int index = LatencyHistogram.index(micros);
+            assertThat(index).isBetween(previous, previous + 1);
+            previous = index;
+        }
+        assertThat(LatencyHistogram.index((1L << 32) - 1)).isEqualTo(LatencyHistogram.BUCKETS - 1);
+        for (int index = 0; index < LatencyHistogram.BUCKETS; index++) {
+            assertThat(LatencyHistogram.index((long) LatencyHistogram.midpoint(index))).isEqualTo(index);
+        }
+    }
+
+    @Test
+    void percentilesStayWithinBucketError() {
+
+        LatencyHistogram histogram = new LatencyHistogram(TimeUnit.MINUTES.toMillis(1), 6);
+        for (int ms = 1; ms <= 1000; ms++) {
+            histogram.record(TimeUnit.MILLISECONDS.toNanos(ms));
+        }
+
+        LatencySnapshot snapshot = histogram.snapshot();
+
+        assertThat(snapshot.count()).isEqualTo(1000);
+        assertThat(snapshot.mean()).isCloseTo(500.5, within(0.01));
+        assertThat(snapshot.p50()).isCloseTo(500, within(500 * 0.07));
+        assertThat(snapshot.p99()).isCloseTo(990, within(990 * 0.07));
+        assertThat(snapshot.max()).isEqualTo(1000);
+    }
+
+    @Test
+    void emptyHistogramReturnsEmptySnapshot() {
+
+        assertThat(new LatencyHistogram(1000, 4).snapshot()).isEqualTo(LatencySnapshot.EMPTY);
+    }
+
+    @Test
+    void registryRoutesExtraKeysToOverflow() {
+
+        LatencyRegistry registry = LatencyRegistry.of("test-overflow", 2, 60_000, 6);
+        registry.record("a", 1_000);
+        registry.record("b", 1_000);
+        registry.record("c", 1_000);
+
+        assertThat(registry.entries()).extracting(LatencyRegistry.Entry::key)
+                .containsExactlyInAnyOrder("a", "b", LatencyRegistry.OVERFLOW_KEY);
+    }
+
+}
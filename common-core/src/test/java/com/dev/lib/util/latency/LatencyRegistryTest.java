@@ -0,0 +1,51 @@
+package com.dev.lib.util.latency;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LatencyRegistryTest {
+
+    @Test
+    void topRanksByP99AndReturnsTheSnapshotUsedForRanking() {
+
+        LatencyRegistry registry = LatencyRegistry.of("top-" + System.nanoTime());
+        record(registry, "fast", 1);
+        record(registry, "slow", 500);
+        record(registry, "medium", 50);
+
+        List<LatencyRegistry.Ranked> top = registry.top(2);
+
+        assertThat(top).extracting(it -> it.entry().key()).containsExactly("slow", "medium");
+        assertThat(top.getFirst().snapshot().count()).isEqualTo(10);
+        assertThat(top.getFirst().snapshot().p99()).isGreaterThan(top.get(1).snapshot().p99());
+        assertThat(registry.top(10)).hasSize(3);
+        assertThat(registry.top(-1)).isEmpty();
+    }
+
+    @Test
+    void keysBeyondLimitAreRecordedUnderOverflowKey() {
+
+        LatencyRegistry registry = LatencyRegistry.of("overflow-" + System.nanoTime(), 2, TimeUnit.MINUTES.toMillis(1), 6);
+        record(registry, "a", 1);
+        record(registry, "b", 1);
+        record(registry, "c", 1);
+        record(registry, "d", 1);
+
+        assertThat(registry.entries())
+                .extracting(LatencyRegistry.Entry::key)
+                .containsExactlyInAnyOrder("a", "b", LatencyRegistry.OVERFLOW_KEY);
+        assertThat(registry.entry(LatencyRegistry.OVERFLOW_KEY).histogram().snapshot().count()).isEqualTo(20);
+    }
+
+    private static void record(LatencyRegistry registry, String key, long millis) {
+
+        for (int i = 0; i < 10; i++) {
+            registry.record(key, TimeUnit.MILLISECONDS.toNanos(millis));
+        }
+    }
+
+}
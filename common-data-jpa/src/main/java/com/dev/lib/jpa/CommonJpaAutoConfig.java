@@ -7,12 +7,15 @@ import com.dev.lib.jpa.config.FinalSlowQueryLoggingListener;
 import com.dev.lib.jpa.config.JpaHikariDefaultsProperties;
 import com.dev.lib.jpa.config.SingleDatasourceOnlyHibernatePropertiesCustomizer;
 import com.dev.lib.jpa.config.SlowQueryProperties;
+import com.dev.lib.jpa.entity.change.EntityChangeListener;
+import com.dev.lib.jpa.entity.change.EntityChangeListenerRegistrar;
 import com.dev.lib.jpa.entity.write.RepositoryWriteContext;
 import com.dev.lib.jpa.entity.write.RepositoryWritePlugin;
 import com.dev.lib.jpa.entity.write.RepositoryWritePluginRegistrar;
 import com.dev.lib.jpa.multiple.JpaManagedDatasourceGroup;
 import com.dev.lib.jpa.multiple.JpaManagedHikariDefaultsBeanPostProcessor;
 import com.dev.lib.jpa.multiple.SingleDatasourceRepositoryRegistrar;
+import com.dev.lib.util.latency.LatencyRegistry;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import jakarta.persistence.EntityManager;
 import net.ttddyy.dsproxy.listener.QueryExecutionListener;
@@ -53,6 +56,12 @@ public class CommonJpaAutoConfig {
         return new RepositoryWritePluginRegistrar(plugins);
     }
 
+    @Bean
+    public static EntityChangeListenerRegistrar entityChangeListenerRegistrar(ObjectProvider<EntityChangeListener> listeners) {
+
+        return new EntityChangeListenerRegistrar(listeners);
+    }
+
     @Bean
     @ConditionalOnMissingBean
     public JPAQueryFactory jpaQueryFactory(EntityManager entityManager) {
@@ -85,7 +94,15 @@ public class CommonJpaAutoConfig {
 
         return new FinalSlowQueryLoggingListener(
                 slowQueryProperties.getThreshold(),
-                slowQueryProperties.getLoggerName()
+                slowQueryProperties.getLoggerName(),
+                slowQueryProperties.isHistogram()
+                ? LatencyRegistry.of(
+                        FinalSlowQueryLoggingListener.LATENCY_GROUP,
+                        slowQueryProperties.getMaxFingerprints(),
+                        LatencyRegistry.DEFAULT_WINDOW_MILLIS,
+                        LatencyRegistry.DEFAULT_SLICES
+                )
+                : null
         );
     }
 
@@ -1,5 +1,8 @@
 package com.dev.lib.jpa.config;
 
+import com.dev.lib.util.latency.LatencyRegistry;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import net.ttddyy.dsproxy.ExecutionInfo;
 import net.ttddyy.dsproxy.QueryInfo;
 import net.ttddyy.dsproxy.listener.QueryExecutionListener;
@@ -10,30 +13,97 @@ import org.slf4j.LoggerFactory;
 import java.time.Duration;
 import java.util.List;
 
+/**
+ * 慢 SQL 日志与 SQL 延迟分布
+ * <p>
+ * 每条 SQL 按指纹计入 {@link LatencyRegistry}；指纹首次出现或超过阈值时记录业务调用位置，超过阈值再打日志
+ */
 public class FinalSlowQueryLoggingListener implements QueryExecutionListener {
 
+    public static final String LATENCY_GROUP = "sql";
+
+    private static final ThreadLocal<long[]> START = ThreadLocal.withInitial(() -> new long[1]);
+
+    private static final StackWalker WALKER = StackWalker.getInstance();
+
+    private static final String[] FRAMEWORK_PACKAGES = {
+            "java.", "jdk.", "sun.", "jakarta.", "org.hibernate.", "org.springframework.", "net.ttddyy.",
+            "com.zaxxer.", "com.querydsl.", "org.h2.", "com.dev.lib.jpa."
+    };
+
     private final long thresholdMillis;
     private final Logger logger;
     private final DefaultQueryLogEntryCreator entryCreator;
+    private final LatencyRegistry registry;
+    private final Cache<String, String> fingerprints;
 
     public FinalSlowQueryLoggingListener(Duration threshold, String loggerName) {
 
+        this(threshold, loggerName, null);
+    }
+
+    /**
+     * @param registry 为 null 时只打慢日志，不记录分布
+     */
+    public FinalSlowQueryLoggingListener(Duration threshold, String loggerName, LatencyRegistry registry) {
+
         this.thresholdMillis = threshold.toMillis();
         this.logger = LoggerFactory.getLogger(loggerName);
         this.entryCreator = new DefaultQueryLogEntryCreator();
         this.entryCreator.setMultiline(true);
+        this.registry = registry;
+        this.fingerprints = Caffeine.newBuilder().maximumSize(2048).build();
     }
 
     @Override
     public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+
+        if (registry != null) {
+            START.get()[0] = System.nanoTime();
+        }
     }
 
     @Override
     public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
 
-        if (execInfo.getElapsedTime() < thresholdMillis) {
+        boolean slow = execInfo.getElapsedTime() >= thresholdMillis;
+        if (registry != null && !queryInfoList.isEmpty()) {
+            long nanos = System.nanoTime() - START.get()[0];
+            String fingerprint = fingerprints.get(queryInfoList.getFirst().getQuery(), SqlFingerprint::of);
+            LatencyRegistry.Entry entry = registry.entry(fingerprint);
+            entry.histogram().record(nanos);
+            if (slow || !entry.hasCallSite()) {
+                entry.addCallSite(callSite());
+            }
+        }
+        if (!slow) {
             return;
         }
         logger.warn("SlowQuery {}", entryCreator.getLogEntry(execInfo, queryInfoList, true, true, false));
     }
+
+    /**
+     * 第一个不属于框架/本库持久层的栈帧
+     */
+    private static String callSite() {
+
+        return WALKER.walk(frames -> frames
+                .filter(frame -> !isFramework(frame.getClassName()))
+                .findFirst()
+                .map(frame -> frame.getClassName() + "." + frame.getMethodName() + ":" + frame.getLineNumber())
+                .orElse(null));
+    }
+
+    private static boolean isFramework(String className) {
+
+        if (className.contains("$$")) {
+            return true;
+        }
+        for (String prefix : FRAMEWORK_PACKAGES) {
+            if (className.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
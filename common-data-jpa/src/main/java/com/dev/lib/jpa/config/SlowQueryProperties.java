@@ -22,4 +22,14 @@ public class SlowQueryProperties {
 
     private String loggerName = "com.dev.lib.jpa.slow-query";
 
+    /**
+     * 是否按 SQL 指纹记录延迟分布
+     */
+    private boolean histogram = true;
+
+    /**
+     * 记录分布的指纹数量上限，超出的计入同一个溢出项
+     */
+    private int maxFingerprints = 500;
+
 }
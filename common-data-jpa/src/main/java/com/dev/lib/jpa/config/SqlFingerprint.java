@@ -0,0 +1,79 @@
+package com.dev.lib.jpa.config;
+
+import java.util.regex.Pattern;
+
+/**
+ * SQL 指纹：字面量替换为 ?，空白折叠，IN 列表合并为 (?)，同一语句不同参数得到同一指纹
+ */
+final class SqlFingerprint {
+
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+
+    private static final int MAX_LENGTH = 2000;
+
+    private SqlFingerprint() {
+
+    }
+
+    static String of(String sql) {
+
+        if (sql == null) {
+            return "";
+        }
+        int length = sql.length();
+        StringBuilder out = new StringBuilder(Math.min(length, MAX_LENGTH));
+        boolean space = false;
+        for (int i = 0; i < length && out.length() < MAX_LENGTH; i++) {
+            char c = sql.charAt(i);
+            if (Character.isWhitespace(c)) {
+                space = true;
+                continue;
+            }
+            if (space && !out.isEmpty()) {
+                out.append(' ');
+            }
+            space = false;
+            if (c == '\'') {
+                i = skipString(sql, i);
+                out.append('?');
+            } else if (Character.isDigit(c) && !inIdentifier(out)) {
+                while (i + 1 < length && (Character.isLetterOrDigit(sql.charAt(i + 1)) || sql.charAt(i + 1) == '.')) {
+                    i++;
+                }
+                out.append('?');
+            } else {
+                out.append(c);
+            }
+        }
+        return IN_LIST.matcher(out).replaceAll("(?)");
+    }
+
+    /**
+     * 返回字符串字面量结束引号的位置，'' 视为转义
+     */
+    private static int skipString(String sql, int quote) {
+
+        int i = quote + 1;
+        while (i < sql.length()) {
+            if (sql.charAt(i) == '\'') {
+                if (i + 1 < sql.length() && sql.charAt(i + 1) == '\'') {
+                    i += 2;
+                    continue;
+                }
+                return i;
+            }
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean inIdentifier(StringBuilder out) {
+
+        if (out.isEmpty()) {
+            return false;
+        }
+        char last = out.charAt(out.length() - 1);
+        return Character.isLetterOrDigit(last) || last == '_' || last == '$';
+    }
+
+}
@@ -3,6 +3,7 @@ package com.dev.lib.jpa.entity.aggregate;
 import com.dev.lib.entity.dsl.QueryType;
 import com.dev.lib.entity.dsl.agg.AggJoinStrategy;
 import com.dev.lib.entity.dsl.agg.AggType;
+import com.dev.lib.entity.dsl.agg.AggregateResultMapper;
 import com.dev.lib.entity.dsl.agg.AggregateSpec;
 import com.dev.lib.jpa.entity.JpaEntity;
 import com.querydsl.core.BooleanBuilder;
@@ -25,18 +26,11 @@ import jakarta.persistence.OneToMany;
 import jakarta.persistence.OneToOne;
 import org.springframework.util.ReflectionUtils;
 
-import java.beans.ConstructorProperties;
-import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
-import java.lang.reflect.Method;
-import java.lang.reflect.Modifier;
-import java.lang.reflect.Parameter;
 import java.lang.reflect.ParameterizedType;
-import java.lang.reflect.RecordComponent;
 import java.lang.reflect.Type;
 import java.math.BigDecimal;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -44,16 +38,9 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
 
 public final class AggregateExecutor<T extends JpaEntity> {
 
-    private static final Map<Class<?>, Map<String, Field>> AGG_TARGET_FIELD_CACHE = new ConcurrentHashMap<>(128);
-
-    private static final Map<Class<?>, Map<String, Method>> AGG_TARGET_SETTER_CACHE = new ConcurrentHashMap<>(128);
-
-    private static final Map<Class<?>, AggregateCtorPlan> AGG_TARGET_CTOR_PLAN_CACHE = new ConcurrentHashMap<>(128);
-
     private final EntityManager entityManager;
 
     private final EntityPath<T> path;
@@ -396,196 +383,7 @@ public final class AggregateExecutor<T extends JpaEntity> {
             valueByField.put(aliasedExpression.targetField(), value);
         }
 
-        AggregateCtorPlan ctorPlan = getAggregateCtorPlan(spec.getTargetClass());
-        return switch (ctorPlan.type()) {
-            case NO_ARGS -> mapByNoArgsCtor(spec.getTargetClass(), valueByField, ctorPlan.constructor());
-            case ALL_ARGS -> mapByArgsCtor(spec.getTargetClass(), valueByField, ctorPlan);
-        };
-    }
-
-    @SuppressWarnings("unchecked")
-    private static <R> R mapByNoArgsCtor(Class<R> targetClass, Map<String, Object> valueByField, Constructor<?> constructor) {
-
-        R instance;
-        try {
-            instance = (R) constructor.newInstance();
-        } catch (Exception e) {
-            throw new IllegalStateException("聚合结果对象构造失败: " + targetClass.getName(), e);
-        }
-
-        Map<String, Method> setters = getAggTargetSetters(targetClass);
-        Map<String, Field> fields = getAggTargetFields(targetClass);
-        for (Map.Entry<String, Object> entry : valueByField.entrySet()) {
-            String fieldName = entry.getKey();
-            Object value = entry.getValue();
-
-            Method setter = setters.get(fieldName);
-            if (setter != null) {
-                ReflectionUtils.invokeMethod(
-                        setter,
-                        instance,
-                        convertAggregateValue(value, setter.getParameterTypes()[0])
-                );
-                continue;
-            }
-
-            Field field = fields.get(fieldName);
-            if (field != null) {
-                ReflectionUtils.setField(field, instance, convertAggregateValue(value, field.getType()));
-            }
-        }
-        return instance;
-    }
-
-    @SuppressWarnings("unchecked")
-    private static <R> R mapByArgsCtor(Class<R> targetClass, Map<String, Object> valueByField, AggregateCtorPlan plan) {
-
-        try {
-            Constructor<?> constructor = plan.constructor();
-            String[] names = plan.argNames();
-            Class<?>[] argTypes = constructor.getParameterTypes();
-            Object[] args = new Object[argTypes.length];
-            for (int i = 0; i < argTypes.length; i++) {
-                args[i] = convertAggregateValue(valueByField.get(names[i]), argTypes[i]);
-            }
-            return (R) constructor.newInstance(args);
-        } catch (Exception e) {
-            throw new IllegalStateException("聚合结果对象构造失败: " + targetClass.getName(), e);
-        }
-    }
-
-    private static AggregateCtorPlan getAggregateCtorPlan(Class<?> targetClass) {
-
-        return AGG_TARGET_CTOR_PLAN_CACHE.computeIfAbsent(targetClass, AggregateExecutor::buildAggregateCtorPlan);
-    }
-
-    private static AggregateCtorPlan buildAggregateCtorPlan(Class<?> targetClass) {
-
-        try {
-            Constructor<?> constructor = targetClass.getDeclaredConstructor();
-            ReflectionUtils.makeAccessible(constructor);
-            return new AggregateCtorPlan(AggregateCtorPlanType.NO_ARGS, constructor, new String[0]);
-        } catch (NoSuchMethodException ignored) {
-            // fall through to other strategies
-        }
-
-        if (targetClass.isRecord()) {
-            return buildRecordCtorPlan(targetClass);
-        }
-
-        Constructor<?>[] constructors = targetClass.getDeclaredConstructors();
-        for (Constructor<?> constructor : constructors) {
-            ConstructorProperties properties = constructor.getAnnotation(ConstructorProperties.class);
-            if (properties != null) {
-                String[] names = properties.value();
-                if (names.length == constructor.getParameterCount()) {
-                    ReflectionUtils.makeAccessible(constructor);
-                    return new AggregateCtorPlan(AggregateCtorPlanType.ALL_ARGS, constructor, names);
-                }
-            }
-        }
-
-        if (constructors.length == 1 && constructors[0].getParameterCount() > 0) {
-            Constructor<?> constructor = constructors[0];
-            String[] names = Arrays.stream(constructor.getParameters()).map(Parameter::getName).toArray(String[]::new);
-            boolean hasRealNames = Arrays.stream(names).noneMatch(name -> name.startsWith("arg"));
-            if (hasRealNames) {
-                ReflectionUtils.makeAccessible(constructor);
-                return new AggregateCtorPlan(AggregateCtorPlanType.ALL_ARGS, constructor, names);
-            }
-        }
-
-        throw new IllegalStateException("聚合结果类型必须有无参构造、Record 构造或 @ConstructorProperties 构造: " + targetClass.getName());
-    }
-
-    private static AggregateCtorPlan buildRecordCtorPlan(Class<?> targetClass) {
-
-        try {
-            RecordComponent[] components = targetClass.getRecordComponents();
-            Class<?>[] argTypes = Arrays.stream(components).map(RecordComponent::getType).toArray(Class[]::new);
-            String[] argNames = Arrays.stream(components).map(RecordComponent::getName).toArray(String[]::new);
-            Constructor<?> constructor = targetClass.getDeclaredConstructor(argTypes);
-            ReflectionUtils.makeAccessible(constructor);
-            return new AggregateCtorPlan(AggregateCtorPlanType.ALL_ARGS, constructor, argNames);
-        } catch (Exception e) {
-            throw new IllegalStateException("Record 聚合结果构造解析失败: " + targetClass.getName(), e);
-        }
-    }
-
-    private static Map<String, Method> getAggTargetSetters(Class<?> targetClass) {
-
-        return AGG_TARGET_SETTER_CACHE.computeIfAbsent(targetClass, clazz -> {
-            Map<String, Method> setters = new HashMap<>();
-            for (Class<?> current = clazz; current != null && current != Object.class; current = current.getSuperclass()) {
-                for (Method method : current.getDeclaredMethods()) {
-                    if (method.getParameterCount() != 1 || !method.getName().startsWith("set") || method.getName().length() <= 3) {
-                        continue;
-                    }
-                    String name = Character.toLowerCase(method.getName().charAt(3)) + method.getName().substring(4);
-                    ReflectionUtils.makeAccessible(method);
-                    setters.putIfAbsent(name, method);
-                }
-            }
-            return setters;
-        });
-    }
-
-    private static Object convertAggregateValue(Object value, Class<?> rawTargetType) {
-
-        if (value == null) {
-            return null;
-        }
-        Class<?> targetType = boxed(rawTargetType);
-        if (targetType.isInstance(value)) {
-            return value;
-        }
-        if (targetType == Long.class && value instanceof Number number) {
-            return number.longValue();
-        }
-        if (targetType == Integer.class && value instanceof Number number) {
-            return number.intValue();
-        }
-        if (targetType == Double.class && value instanceof Number number) {
-            return number.doubleValue();
-        }
-        if (targetType == Float.class && value instanceof Number number) {
-            return number.floatValue();
-        }
-        if (targetType == Short.class && value instanceof Number number) {
-            return number.shortValue();
-        }
-        if (targetType == Byte.class && value instanceof Number number) {
-            return number.byteValue();
-        }
-        if (targetType == BigDecimal.class) {
-            if (value instanceof BigDecimal) {
-                return value;
-            }
-            if (value instanceof Number number) {
-                return new BigDecimal(number.toString());
-            }
-        }
-        if (targetType == String.class) {
-            return value.toString();
-        }
-        return value;
-    }
-
-    private static Map<String, Field> getAggTargetFields(Class<?> targetClass) {
-
-        return AGG_TARGET_FIELD_CACHE.computeIfAbsent(targetClass, clazz -> {
-            Map<String, Field> fields = new HashMap<>();
-            for (Class<?> current = clazz; current != null && current != Object.class; current = current.getSuperclass()) {
-                for (Field field : current.getDeclaredFields()) {
-                    if (Modifier.isStatic(field.getModifiers()) || Modifier.isTransient(field.getModifiers())) {
-                        continue;
-                    }
-                    ReflectionUtils.makeAccessible(field);
-                    fields.putIfAbsent(field.getName(), field);
-                }
-            }
-            return fields;
-        });
+        return AggregateResultMapper.map(spec.getTargetClass(), valueByField);
     }
 
     private static Field findField(Class<?> type, String name) {
@@ -671,12 +469,4 @@ public final class AggregateExecutor<T extends JpaEntity> {
             this(query, joinStrategy, new LinkedHashMap<>());
         }
     }
-
-    private enum AggregateCtorPlanType {
-        NO_ARGS,
-        ALL_ARGS
-    }
-
-    private record AggregateCtorPlan(AggregateCtorPlanType type, Constructor<?> constructor, String[] argNames) {
-    }
 }
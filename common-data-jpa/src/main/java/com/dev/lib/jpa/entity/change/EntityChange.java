@@ -0,0 +1,23 @@
+package com.dev.lib.jpa.entity.change;
+
+import com.dev.lib.jpa.entity.JpaEntity;
+
+import java.time.LocalDateTime;
+
+/**
+ * 事务内的一次实体变更，同一事务内同一实体的多次变更已合并为最后一次
+ *
+ * @param entityClass 实体类型
+ * @param id          主键
+ * @param bizId       业务 ID
+ * @param type        变更类型，逻辑删除（deleted=true）记为 DELETE
+ * @param updatedAt   变更后的 updatedAt（未设置时取 createdAt），物理删除时为删除前最后一次写入的时间，可作为版本号
+ */
+public record EntityChange(Class<? extends JpaEntity> entityClass, Long id, String bizId, Type type, LocalDateTime updatedAt) {
+
+    public enum Type {
+        UPSERT,
+        DELETE
+    }
+
+}
@@ -0,0 +1,88 @@
+package com.dev.lib.jpa.entity.change;
+
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 单个事务内的实体变更收集器
+ * <p>
+ * 以 (实体类型, id) 为键合并，同一实体多次变更只保留最后一次；
+ * 作为事务资源绑定在当前 Spring 事务上，随事务同步一起注册与解绑。
+ * 提交前先 flush 让尚未写出的变更产生事件，再分发给监听器，
+ * 监听器写入的数据随后再 flush 一次，与业务数据同事务提交。
+ */
+@Slf4j
+final class EntityChangeCollector implements TransactionSynchronization {
+
+    /**
+     * 监听器写入的实体若又产生受关注的变更，最多再分发的轮数
+     */
+    private static final int MAX_DISPATCH_ROUNDS = 3;
+
+    private static final Object TX_KEY = new Object();
+
+    private final EntityManager entityManager;
+
+    private final Map<ChangeKey, EntityChange> changes = new LinkedHashMap<>();
+
+    private record ChangeKey(Class<?> entityClass, Long id) {}
+
+    private EntityChangeCollector(EntityManager entityManager) {
+
+        this.entityManager = entityManager;
+    }
+
+    static void collect(EntityManager entityManager, EntityChange change) {
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()
+                || !TransactionSynchronizationManager.isActualTransactionActive()) {
+            log.debug("No active transaction, entity change ignored: {}#{}", change.entityClass().getSimpleName(), change.id());
+            return;
+        }
+        EntityChangeCollector collector = (EntityChangeCollector) TransactionSynchronizationManager.getResource(TX_KEY);
+        if (collector == null) {
+            collector = new EntityChangeCollector(entityManager);
+            TransactionSynchronizationManager.bindResource(TX_KEY, collector);
+            TransactionSynchronizationManager.registerSynchronization(collector);
+        }
+        collector.add(change);
+    }
+
+    private void add(EntityChange change) {
+
+        changes.put(new ChangeKey(change.entityClass(), change.id()), change);
+    }
+
+    @Override
+    public void beforeCommit(boolean readOnly) {
+
+        // 提交流程的 flush 晚于此回调，先写出未 flush 的变更以收齐事件
+        entityManager.flush();
+        for (int round = 0; round < MAX_DISPATCH_ROUNDS && !changes.isEmpty(); round++) {
+            ArrayList<EntityChange> snapshot = new ArrayList<>(changes.values());
+            changes.clear();
+            EntityChangeListenerRegistry.getInstance().dispatch(snapshot);
+            // 监听器在此阶段写入的实体（如 outbox）随本事务提交
+            entityManager.flush();
+        }
+        if (!changes.isEmpty()) {
+            // 监听器之间相互触发，继续分发可能无法收敛，回滚而不是丢弃变更
+            throw new IllegalStateException("Entity change listeners kept producing changes after "
+                    + MAX_DISPATCH_ROUNDS + " rounds: " + changes.size() + " pending");
+        }
+    }
+
+    @Override
+    public void afterCompletion(int status) {
+
+        TransactionSynchronizationManager.unbindResourceIfPossible(TX_KEY);
+        changes.clear();
+    }
+
+}
@@ -0,0 +1,61 @@
+package com.dev.lib.jpa.entity.change;
+
+import com.dev.lib.jpa.entity.JpaEntity;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+
+import java.time.LocalDateTime;
+
+/**
+ * 捕获 JpaEntity 的插入 / 更新 / 删除，交给当前事务的 {@link EntityChangeCollector}
+ * 没有监听器关注的实体类型直接跳过
+ */
+class EntityChangeEventListener implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+
+        record(event.getSession(), event.getEntity(), false);
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+
+        record(event.getSession(), event.getEntity(), false);
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+
+        record(event.getSession(), event.getEntity(), true);
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+
+        return false;
+    }
+
+    private static void record(EventSource session, Object entity, boolean deleted) {
+
+        if (!(entity instanceof JpaEntity jpaEntity)) {
+            return;
+        }
+        Class<? extends JpaEntity> entityClass = jpaEntity.getClass();
+        if (!EntityChangeListenerRegistry.getInstance().supports(entityClass)) {
+            return;
+        }
+        EntityChange.Type type = deleted || Boolean.TRUE.equals(jpaEntity.getDeleted())
+                ? EntityChange.Type.DELETE
+                : EntityChange.Type.UPSERT;
+        LocalDateTime updatedAt = jpaEntity.getUpdatedAt() != null ? jpaEntity.getUpdatedAt() : jpaEntity.getCreatedAt();
+        EntityChangeCollector.collect(session, new EntityChange(entityClass, jpaEntity.getId(), jpaEntity.getBizId(), type, updatedAt));
+    }
+
+}
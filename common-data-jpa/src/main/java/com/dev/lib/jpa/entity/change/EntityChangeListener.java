@@ -0,0 +1,21 @@
+package com.dev.lib.jpa.entity.change;
+
+import java.util.List;
+
+/**
+ * 实体变更监听器
+ * <p>
+ * 在事务最后一次 flush 之后、提交之前回调，回调内的写入与业务数据同事务提交；
+ * 抛出异常会导致整个事务回滚。通过 UpdateBuilder 等批量 SQL 的变更不会触发回调，
+ * 仓储的逻辑删除除外（删除前按条件取出 id，记为 DELETE）。
+ * 变更收集绑定在 Spring 事务同步上，非 Spring 管理的事务内的变更不会回调。
+ */
+public interface EntityChangeListener {
+
+    boolean supports(Class<?> entityClass);
+
+    /**
+     * @param changes 本事务内 supports 的实体变更，已按实体合并
+     */
+    void onChanges(List<EntityChange> changes);
+}
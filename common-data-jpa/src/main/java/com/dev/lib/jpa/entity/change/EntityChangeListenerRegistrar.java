@@ -0,0 +1,35 @@
+package com.dev.lib.jpa.entity.change;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class EntityChangeListenerRegistrar implements SmartInitializingSingleton, DisposableBean {
+
+    private final ObjectProvider<EntityChangeListener> listeners;
+
+    private final List<EntityChangeListenerRegistry.Registration> registrations = new ArrayList<>();
+
+    public EntityChangeListenerRegistrar(ObjectProvider<EntityChangeListener> listeners) {
+
+        this.listeners = listeners;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+
+        listeners.orderedStream()
+                .map(EntityChangeListenerRegistry.getInstance()::register)
+                .forEach(registrations::add);
+    }
+
+    @Override
+    public void destroy() {
+
+        registrations.forEach(EntityChangeListenerRegistry.Registration::unregister);
+        registrations.clear();
+    }
+}
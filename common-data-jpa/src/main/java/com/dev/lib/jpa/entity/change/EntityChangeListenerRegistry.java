@@ -0,0 +1,86 @@
+package com.dev.lib.jpa.entity.change;
+
+import jakarta.persistence.EntityManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 实体变更监听器注册表
+ * Hibernate 事件监听器由 Integrator 创建、不受 Spring 管理，通过该单例获取 Spring 注册的监听器
+ */
+public final class EntityChangeListenerRegistry {
+
+    private static final EntityChangeListenerRegistry INSTANCE = new EntityChangeListenerRegistry();
+
+    private final CopyOnWriteArrayList<EntityChangeListener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * 实体类型 -> 是否有监听器关注，事件热路径上避免逐个调用 supports
+     */
+    private final Map<Class<?>, Boolean> supportCache = new ConcurrentHashMap<>();
+
+    private EntityChangeListenerRegistry() {
+
+    }
+
+    public static EntityChangeListenerRegistry getInstance() {
+
+        return INSTANCE;
+    }
+
+    public Registration register(EntityChangeListener listener) {
+
+        if (listener == null) {
+            return () -> {
+            };
+        }
+        listeners.addIfAbsent(listener);
+        supportCache.clear();
+        return () -> {
+            listeners.remove(listener);
+            supportCache.clear();
+        };
+    }
+
+    public boolean supports(Class<?> entityClass) {
+
+        if (listeners.isEmpty()) {
+            return false;
+        }
+        return supportCache.computeIfAbsent(
+                entityClass,
+                type -> listeners.stream().anyMatch(listener -> listener.supports(type))
+        );
+    }
+
+    /**
+     * 记录不经过 Hibernate 实体事件的变更（批量逻辑删除等），与事件捕获的变更一起合并、分发
+     */
+    public void record(EntityManager entityManager, EntityChange change) {
+
+        if (supports(change.entityClass())) {
+            EntityChangeCollector.collect(entityManager, change);
+        }
+    }
+
+    void dispatch(List<EntityChange> changes) {
+
+        for (EntityChangeListener listener : listeners) {
+            List<EntityChange> matched = changes.stream()
+                    .filter(change -> listener.supports(change.entityClass()))
+                    .toList();
+            if (!matched.isEmpty()) {
+                listener.onChanges(matched);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    public interface Registration {
+
+        void unregister();
+    }
+}
@@ -5,9 +5,12 @@ import com.dev.lib.jpa.entity.BaseRepositoryImpl;
 import com.dev.lib.jpa.entity.JpaEntity;
 import com.dev.lib.jpa.entity.QueryContext;
 import com.dev.lib.jpa.entity.batch.BatchHelper;
+import com.dev.lib.jpa.entity.change.EntityChange;
+import com.dev.lib.jpa.entity.change.EntityChangeListenerRegistry;
 import com.dev.lib.jpa.entity.query.RepositoryPredicateSupport;
 import com.dev.lib.security.util.SecurityContextHolder;
 import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.Tuple;
 import com.querydsl.core.types.CollectionExpression;
 import com.querydsl.core.types.EntityPath;
 import com.querydsl.core.types.Path;
@@ -15,6 +18,7 @@ import com.querydsl.core.types.Predicate;
 import com.querydsl.core.types.dsl.BooleanExpression;
 import com.querydsl.core.types.dsl.NumberPath;
 import com.querydsl.core.types.dsl.PathBuilder;
+import com.querydsl.core.types.dsl.StringPath;
 import com.querydsl.jpa.JPAExpressions;
 import com.querydsl.jpa.JPQLSubQuery;
 import jakarta.persistence.ManyToOne;
@@ -156,9 +160,19 @@ public final class CascadeSoftDeleteSupport {
 
     private static long executeSoftDeleteUpdate(BaseRepositoryImpl<?> repository, EntityPath<?> path, PathBuilder<?> pathBuilder, Predicate condition) {
 
+        // 批量 UPDATE 不触发实体事件，有监听器关注时先取出将被删除的行
+        List<Tuple> deleting = changeListened(pathBuilder.getType())
+                               ? repository.getQueryFactory()
+                                       .select(pathBuilder.getNumber("id", Long.class), pathBuilder.getString("bizId"))
+                                       .from(path)
+                                       .where(condition)
+                                       .fetch()
+                               : List.of();
+
+        LocalDateTime now = LocalDateTime.now();
         long affected = repository.getQueryFactory().update(path)
                 .set(pathBuilder.getBoolean("deleted"), true)
-                .set(pathBuilder.getDateTime("updatedAt", LocalDateTime.class), LocalDateTime.now())
+                .set(pathBuilder.getDateTime("updatedAt", LocalDateTime.class), now)
                 .set(pathBuilder.getNumber("modifierId", Long.class), SecurityContextHolder.getUserId())
                 .where(condition)
                 .execute();
@@ -166,10 +180,32 @@ public final class CascadeSoftDeleteSupport {
         if (affected > 0) {
             repository.getEntityManager().flush();
             repository.getEntityManager().clear();
+            // 条件已带 deleted=false，取出的行即本次 UPDATE 删除的行（同事务内读写一致）
+            recordDeletes(repository, pathBuilder, deleting, now);
         }
         return affected;
     }
 
+    private static boolean changeListened(Class<?> entityClass) {
+
+        return JpaEntity.class.isAssignableFrom(entityClass)
+                && EntityChangeListenerRegistry.getInstance().supports(entityClass);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void recordDeletes(BaseRepositoryImpl<?> repository, PathBuilder<?> pathBuilder, List<Tuple> deleted, LocalDateTime updatedAt) {
+
+        Class<? extends JpaEntity> entityClass = (Class<? extends JpaEntity>) pathBuilder.getType();
+        NumberPath<Long> idPath = pathBuilder.getNumber("id", Long.class);
+        StringPath bizIdPath = pathBuilder.getString("bizId");
+        for (Tuple row : deleted) {
+            EntityChangeListenerRegistry.getInstance().record(
+                    repository.getEntityManager(),
+                    new EntityChange(entityClass, row.get(idPath), row.get(bizIdPath), EntityChange.Type.DELETE, updatedAt)
+            );
+        }
+    }
+
     private static void cascadeSoftDeleteChildren(
             BaseRepositoryImpl<?> repository,
             Class<?> sourceClass,
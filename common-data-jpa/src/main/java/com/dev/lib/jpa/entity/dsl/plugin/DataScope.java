@@ -0,0 +1,23 @@
+package com.dev.lib.jpa.entity.dsl.plugin;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 部门数据权限
+ * <p>
+ * 标注的实体在查询时只返回当前用户所在部门及其下级部门的数据，由注册到 {@link QueryPluginChain} 的插件追加条件，
+ * 按 {@link #deptField()} 关联部门表的路径过滤；部门移动时只需改写部门表，业务表无需同步
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface DataScope {
+
+    /**
+     * 部门 ID 字段
+     */
+    String deptField() default "deptId";
+
+}
@@ -0,0 +1,24 @@
+package com.dev.lib.jpa.config;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SqlFingerprintTest {
+
+    @Test
+    void shouldReplaceLiteralsAndCollapseWhitespace() {
+
+        assertThat(SqlFingerprint.of("select *\n  from t_user u1 where u1.name = 'O''Brien' and u1.age > 18.5"))
+                .isEqualTo("select * from t_user u1 where u1.name = ? and u1.age > ?");
+    }
+
+    @Test
+    void shouldMergeInListsSoDifferentSizesShareFingerprint() {
+
+        assertThat(SqlFingerprint.of("select id from t where id in (?, ?, ?)"))
+                .isEqualTo(SqlFingerprint.of("select id from t where id in (1,2)"))
+                .isEqualTo("select id from t where id in (?)");
+    }
+
+}
@@ -0,0 +1,176 @@
+package org.example.commonlib.jpa.change;
+
+import com.dev.lib.jpa.entity.BaseRepository;
+import com.dev.lib.jpa.entity.JpaEntity;
+import com.dev.lib.jpa.entity.change.EntityChange;
+import com.dev.lib.jpa.entity.change.EntityChangeListener;
+import jakarta.persistence.Entity;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.context.runner.WebApplicationContextRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EntityChangeListenerIntegrationTest {
+
+    private final WebApplicationContextRunner contextRunner = new WebApplicationContextRunner()
+            .withUserConfiguration(EntityChangeApplication.class)
+            .withPropertyValues(
+                    "spring.datasource.url=jdbc:h2:mem:entity_change;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                    "spring.datasource.driver-class-name=org.h2.Driver",
+                    "spring.datasource.username=sa",
+                    "spring.datasource.password=",
+                    "spring.jpa.hibernate.ddl-auto=create-drop",
+                    "spring.jpa.open-in-view=false",
+                    "spring.application.name=entity-change-test"
+            );
+
+    @Test
+    void shouldCoalesceChangesPerEntityAndWriteOutboxInSameTransaction() {
+
+        contextRunner.run(context -> {
+            assertThat(context).hasNotFailed();
+
+            ChangedThingRepo repo = context.getBean(ChangedThingRepo.class);
+            OutboxRowRepo outbox = context.getBean(OutboxRowRepo.class);
+            RecordingListener listener = context.getBean(RecordingListener.class);
+            TransactionTemplate transactionTemplate = context.getBean(TransactionTemplate.class);
+
+            transactionTemplate.executeWithoutResult(status -> {
+                ChangedThing thing = repo.saveAndFlush(new ChangedThing("v1"));
+                thing.setName("v2");
+                repo.saveAndFlush(thing);
+                thing.setName("v3");
+            });
+
+            assertThat(listener.batches).singleElement().satisfies(batch -> {
+                assertThat(batch).singleElement().satisfies(change -> {
+                    assertThat(change.entityClass()).isEqualTo(ChangedThing.class);
+                    assertThat(change.type()).isEqualTo(EntityChange.Type.UPSERT);
+                });
+            });
+            assertThat(outbox.findAll()).singleElement()
+                    .extracting(OutboxRow::getPayload)
+                    .isEqualTo(listener.batches.getFirst().getFirst().bizId());
+        });
+    }
+
+    @Test
+    void shouldSkipRolledBackTransactionsAndReportDeletes() {
+
+        contextRunner.run(context -> {
+            assertThat(context).hasNotFailed();
+
+            ChangedThingRepo repo = context.getBean(ChangedThingRepo.class);
+            RecordingListener listener = context.getBean(RecordingListener.class);
+            TransactionTemplate transactionTemplate = context.getBean(TransactionTemplate.class);
+
+            transactionTemplate.executeWithoutResult(status -> {
+                repo.saveAndFlush(new ChangedThing("rolled-back"));
+                status.setRollbackOnly();
+            });
+            assertThat(listener.batches).isEmpty();
+
+            ChangedThing saved = transactionTemplate.execute(status -> repo.save(new ChangedThing("to-delete")));
+            listener.batches.clear();
+
+            transactionTemplate.executeWithoutResult(status -> repo.deleteById(saved.getId()));
+
+            assertThat(listener.batches).singleElement().satisfies(batch ->
+                    assertThat(batch).singleElement().satisfies(change -> {
+                        assertThat(change.id()).isEqualTo(saved.getId());
+                        assertThat(change.type()).isEqualTo(EntityChange.Type.DELETE);
+                        assertThat(change.updatedAt()).isAfterOrEqualTo(saved.getUpdatedAt());
+                    })
+            );
+        });
+    }
+
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    static class EntityChangeApplication {
+
+        @Bean
+        RecordingListener recordingListener(OutboxRowRepo outbox) {
+
+            return new RecordingListener(outbox);
+        }
+
+    }
+
+    static class RecordingListener implements EntityChangeListener {
+
+        private final List<List<EntityChange>> batches = new CopyOnWriteArrayList<>();
+
+        private final OutboxRowRepo outbox;
+
+        RecordingListener(OutboxRowRepo outbox) {
+
+            this.outbox = outbox;
+        }
+
+        @Override
+        public boolean supports(Class<?> entityClass) {
+
+            return entityClass == ChangedThing.class;
+        }
+
+        @Override
+        public void onChanges(List<EntityChange> changes) {
+
+            batches.add(changes);
+            changes.forEach(change -> outbox.save(new OutboxRow(change.bizId())));
+        }
+
+    }
+}
+
+@Entity
+class ChangedThing extends JpaEntity {
+
+    private String name;
+
+    public ChangedThing() {
+    }
+
+    ChangedThing(String name) {
+
+        this.name = name;
+    }
+
+    void setName(String name) {
+
+        this.name = name;
+    }
+}
+
+@Entity
+class OutboxRow extends JpaEntity {
+
+    private String payload;
+
+    public OutboxRow() {
+    }
+
+    OutboxRow(String payload) {
+
+        this.payload = payload;
+    }
+
+    String getPayload() {
+
+        return payload;
+    }
+}
+
+interface ChangedThingRepo extends BaseRepository<ChangedThing> {
+}
+
+interface OutboxRowRepo extends BaseRepository<OutboxRow> {
+}
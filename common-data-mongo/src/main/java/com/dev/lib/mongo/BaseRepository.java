@@ -13,6 +13,7 @@ import org.springframework.data.querydsl.QuerydslPredicateExecutor;
 import org.springframework.data.repository.NoRepositoryBean;
 
 import java.util.*;
+import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
 @NoRepositoryBean
@@ -21,6 +22,16 @@ public interface BaseRepository<T extends MongoEntity>
 
     int BATCH_SIZE = 256;
 
+    /**
+     * bulkUpsert 默认每批文档数
+     */
+    int BULK_BATCH_SIZE = 1000;
+
+    /**
+     * stream 默认每次从游标拉取的文档数
+     */
+    int STREAM_BATCH_SIZE = 500;
+
     // ==================== 批量写入（分批）====================
 
     @Override
@@ -50,11 +61,20 @@ public interface BaseRepository<T extends MongoEntity>
     @Override
     default void deleteAllById(Iterable<? extends String> ids) {
 
-        for (String id : ids) {
-            if (id != null) {
-                deleteById(id);
-            }
-        }
+        MongoRepositoryHelper.deleteAllById(MongoRepositoryHelper.domainType(this), ids, BATCH_SIZE);
+    }
+
+    /**
+     * 按 bizId 无序批量 upsert，适用于事件流水等高吞吐写入；不做乐观锁校验
+     */
+    default MongoBulkResult bulkUpsert(Iterable<? extends T> entities) {
+
+        return bulkUpsert(entities, BULK_BATCH_SIZE);
+    }
+
+    default MongoBulkResult bulkUpsert(Iterable<? extends T> entities, int batchSize) {
+
+        return MongoRepositoryHelper.bulkUpsert(MongoRepositoryHelper.<T>domainType(this), entities, batchSize);
     }
 
     // ==================== DSL 查询 ====================
@@ -72,27 +92,65 @@ public interface BaseRepository<T extends MongoEntity>
         ensureNonAggregateQuery(query, "loads");
         Predicate predicate = toPredicate(query, expressions);
 
-        if (query != null && query.getLimit() != null) {
-            return findAll(predicate, query.toPageable(getAllowedFields(query))).getContent();
-        }
+        // 结果集较大时加密字段在查询返回后并行解密
+        return MongoEncryptionCallback.deferDecryption(() -> {
+            if (query != null && query.getLimit() != null) {
+                return findAll(predicate, query.toPageable(getAllowedFields(query))).getContent();
+            }
 
-        Iterable<T> result = query != null
-                             ? findAll(predicate, query.toSort(getAllowedFields(query)))
-                             : findAll(predicate);
+            Iterable<T> result = query != null
+                                 ? findAll(predicate, query.toSort(getAllowedFields(query)))
+                                 : findAll(predicate);
 
-        return StreamSupport.stream(result.spliterator(), false).toList();
+            return StreamSupport.stream(result.spliterator(), false).toList();
+        });
+    }
+
+    /**
+     * 游标流式查询，内存占用与结果总数无关；返回的 Stream 需关闭（try-with-resources）
+     */
+    default Stream<T> stream(DslQuery<T> query, BooleanExpression... expressions) {
+
+        return stream(query, List.of(), STREAM_BATCH_SIZE, expressions);
+    }
+
+    /**
+     * @param includes 只返回的字段（投影下推到服务端），为空返回全部字段
+     */
+    default Stream<T> stream(DslQuery<T> query, List<String> includes, BooleanExpression... expressions) {
+
+        return stream(query, includes, STREAM_BATCH_SIZE, expressions);
+    }
+
+    default Stream<T> stream(DslQuery<T> query, List<String> includes, int batchSize, BooleanExpression... expressions) {
+
+        ensureNonAggregateQuery(query, "stream");
+        Predicate predicate = toPredicate(query, expressions);
+        return MongoRepositoryHelper.stream(
+                MongoRepositoryHelper.<T>domainType(this),
+                predicate,
+                q -> {
+                    if (query != null && query.getLimit() != null) {
+                        q.with(query.toPageable(getAllowedFields(query)));
+                    } else if (query != null) {
+                        q.with(query.toSort(getAllowedFields(query)));
+                    }
+                },
+                includes,
+                batchSize
+        );
     }
 
     default Page<T> page(DslQuery<T> query, BooleanExpression... expressions) {
 
         ensureNonAggregateQuery(query, "page");
-        return findAll(
+        return MongoEncryptionCallback.deferDecryption(() -> findAll(
                 toPredicate(
                         query,
                         expressions
                 ),
                 query.toPageable(getAllowedFields(query))
-        );
+        ));
     }
 
     default boolean exists(DslQuery<T> query, BooleanExpression... expressions) {
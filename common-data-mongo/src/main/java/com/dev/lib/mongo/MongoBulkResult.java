@@ -0,0 +1,27 @@
+package com.dev.lib.mongo;
+
+import java.util.List;
+
+/**
+ * 无序批量写入结果，单条失败不影响同批其他文档
+ *
+ * @param upserted 新插入的文档数
+ * @param matched  命中已有文档数
+ * @param modified 实际修改的文档数
+ * @param failures 逐条失败明细
+ */
+public record MongoBulkResult(long upserted, long matched, long modified, List<Failure> failures) {
+
+    /**
+     * @param bizId   失败文档的业务 ID
+     * @param code    MongoDB 错误码
+     * @param message 错误信息
+     */
+    public record Failure(String bizId, int code, String message) {}
+
+    public boolean hasFailures() {
+
+        return !failures.isEmpty();
+    }
+
+}
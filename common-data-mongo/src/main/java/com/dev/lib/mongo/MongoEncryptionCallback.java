@@ -1,7 +1,7 @@
 package com.dev.lib.mongo;
 
-import com.dev.lib.entity.encrypt.Encrypt;
 import com.dev.lib.entity.encrypt.EncryptionService;
+import com.dev.lib.util.Dispatcher;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.core.Ordered;
@@ -9,12 +9,18 @@ import org.springframework.data.mongodb.core.mapping.event.AfterConvertCallback;
 import org.springframework.data.mongodb.core.mapping.event.AfterSaveCallback;
 import org.springframework.data.mongodb.core.mapping.event.BeforeConvertCallback;
 import org.springframework.stereotype.Component;
-import org.springframework.util.ReflectionUtils;
 
-import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
 /**
  * 等效于 JPA 的 EncryptionListener
+ * <p>
+ * 字段访问计划按类缓存（见 {@link MongoEncryptionPlan}），无加密字段的类直接跳过。
+ * 在 {@link #deferDecryption(Supplier)} 内执行的查询，解密推迟到查询返回后批量进行，
+ * 结果较多时分片并行。
  */
 @Slf4j
 @Component
@@ -25,6 +31,15 @@ public class MongoEncryptionCallback implements
         AfterSaveCallback<Object>,
         Ordered {
 
+    /**
+     * 达到该数量才并行解密，少量文档的线程切换开销大于收益
+     */
+    static final int PARALLEL_THRESHOLD = 256;
+
+    private static final int PARALLEL_CHUNK = 128;
+
+    private static final ThreadLocal<List<Runnable>> DEFERRED = new ThreadLocal<>();
+
     private final EncryptionService encryptionService;
 
     /**
@@ -33,10 +48,10 @@ public class MongoEncryptionCallback implements
     @Override
     public Object onBeforeConvert(Object entity, String collection) {
 
-        processFields(
-                entity,
-                true
-        );
+        MongoEncryptionPlan plan = MongoEncryptionPlan.of(entity.getClass());
+        if (!plan.isEmpty()) {
+            plan.apply(entity, encryptionService::encrypt);
+        }
         return entity;
     }
 
@@ -46,10 +61,16 @@ public class MongoEncryptionCallback implements
     @Override
     public Object onAfterConvert(Object entity, org.bson.Document document, String collection) {
 
-        processFields(
-                entity,
-                false
-        );
+        MongoEncryptionPlan plan = MongoEncryptionPlan.of(entity.getClass());
+        if (plan.isEmpty()) {
+            return entity;
+        }
+        List<Runnable> deferred = DEFERRED.get();
+        if (deferred != null) {
+            deferred.add(() -> plan.apply(entity, encryptionService::decrypt));
+        } else {
+            plan.apply(entity, encryptionService::decrypt);
+        }
         return entity;
     }
 
@@ -60,45 +81,53 @@ public class MongoEncryptionCallback implements
     @Override
     public Object onAfterSave(Object entity, org.bson.Document document, String collection) {
 
-        processFields(
-                entity,
-                false
-        );
+        MongoEncryptionPlan plan = MongoEncryptionPlan.of(entity.getClass());
+        if (!plan.isEmpty()) {
+            plan.apply(entity, encryptionService::decrypt);
+        }
         return entity;
     }
 
-    private void processFields(Object entity, boolean isEncrypt) {
-
-        Arrays.stream(entity.getClass().getDeclaredFields())
-                .filter(field -> field.isAnnotationPresent(Encrypt.class))
-                .forEach(field -> {
-                    ReflectionUtils.makeAccessible(field);
-                    try {
-                        String value = (String) field.get(entity);
-                        if (value != null && !value.isEmpty()) {
-                            String processed = isEncrypt
-                                               ? encryptionService.encrypt(value)
-                                               : encryptionService.decrypt(value);
-                            ReflectionUtils.setField(
-                                    field,
-                                    entity,
-                                    processed
-                            );
-                        }
-                    } catch (Exception e) {
-                        log.warn(
-                                "Failed to process field: {}",
-                                field.getName(),
-                                e
-                        );
-                    }
-                });
-    }
-
     @Override
     public int getOrder() {
 
         return 200;
     }
 
+    /**
+     * 执行查询并在返回后批量解密结果；嵌套调用时由最外层统一解密
+     */
+    public static <R> R deferDecryption(Supplier<R> query) {
+
+        if (DEFERRED.get() != null) {
+            return query.get();
+        }
+        List<Runnable> deferred = new ArrayList<>();
+        DEFERRED.set(deferred);
+        R result;
+        try {
+            result = query.get();
+        } finally {
+            DEFERRED.remove();
+        }
+        runAll(deferred);
+        return result;
+    }
+
+    private static void runAll(List<Runnable> tasks) {
+
+        if (tasks.size() < PARALLEL_THRESHOLD) {
+            tasks.forEach(Runnable::run);
+            return;
+        }
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        // 首个分片由调用线程执行，其余分片交给计算线程池
+        for (int from = PARALLEL_CHUNK; from < tasks.size(); from += PARALLEL_CHUNK) {
+            List<Runnable> chunk = tasks.subList(from, Math.min(tasks.size(), from + PARALLEL_CHUNK));
+            futures.add(CompletableFuture.runAsync(() -> chunk.forEach(Runnable::run), Dispatcher.DEFAULT));
+        }
+        tasks.subList(0, PARALLEL_CHUNK).forEach(Runnable::run);
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+    }
+
 }
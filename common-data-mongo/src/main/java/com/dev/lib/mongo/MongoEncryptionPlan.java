@@ -0,0 +1,97 @@
+package com.dev.lib.mongo;
+
+import com.dev.lib.entity.encrypt.Encrypt;
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
+
+/**
+ * 实体类的加密字段访问计划，每个类只扫描一次
+ * <p>
+ * - 包含父类中声明的 @Encrypt 字段
+ * - 字段读写使用 VarHandle，避免每次 Field.get / set 的访问检查
+ * - 没有加密字段的类返回 {@link #EMPTY}，调用方据此直接跳过
+ */
+@Slf4j
+final class MongoEncryptionPlan {
+
+    static final MongoEncryptionPlan EMPTY = new MongoEncryptionPlan(new String[0], new VarHandle[0]);
+
+    private static final Map<Class<?>, MongoEncryptionPlan> PLAN_CACHE = new ConcurrentHashMap<>();
+
+    private final String[] names;
+
+    private final VarHandle[] handles;
+
+    private MongoEncryptionPlan(String[] names, VarHandle[] handles) {
+
+        this.names = names;
+        this.handles = handles;
+    }
+
+    static MongoEncryptionPlan of(Class<?> entityClass) {
+
+        return PLAN_CACHE.computeIfAbsent(entityClass, MongoEncryptionPlan::compile);
+    }
+
+    boolean isEmpty() {
+
+        return handles.length == 0;
+    }
+
+    /**
+     * 对非空字段值执行 transform 并写回，单个字段失败只记录日志
+     */
+    void apply(Object entity, UnaryOperator<String> transform) {
+
+        for (int i = 0; i < handles.length; i++) {
+            try {
+                String value = (String) handles[i].get(entity);
+                if (value != null && !value.isEmpty()) {
+                    handles[i].set(entity, transform.apply(value));
+                }
+            } catch (RuntimeException e) {
+                log.warn("Failed to process field: {}", names[i], e);
+            }
+        }
+    }
+
+    private static MongoEncryptionPlan compile(Class<?> entityClass) {
+
+        List<String> names = new ArrayList<>();
+        List<VarHandle> handles = new ArrayList<>();
+        for (Class<?> type = entityClass; type != null && type != Object.class; type = type.getSuperclass()) {
+            for (Field field : type.getDeclaredFields()) {
+                if (!field.isAnnotationPresent(Encrypt.class)) {
+                    continue;
+                }
+                int modifiers = field.getModifiers();
+                if (Modifier.isStatic(modifiers) || Modifier.isFinal(modifiers) || field.getType() != String.class) {
+                    log.warn("@Encrypt ignored on {}.{}: only non-final String instance fields are supported",
+                            type.getSimpleName(), field.getName());
+                    continue;
+                }
+                try {
+                    MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+                    handles.add(lookup.unreflectVarHandle(field));
+                    names.add(field.getName());
+                } catch (IllegalAccessException e) {
+                    throw new IllegalStateException("无法访问加密字段: " + type.getName() + "." + field.getName(), e);
+                }
+            }
+        }
+        if (handles.isEmpty()) {
+            return EMPTY;
+        }
+        return new MongoEncryptionPlan(names.toArray(String[]::new), handles.toArray(VarHandle[]::new));
+    }
+
+}
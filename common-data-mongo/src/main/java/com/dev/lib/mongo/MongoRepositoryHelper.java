@@ -0,0 +1,256 @@
+package com.dev.lib.mongo;
+
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.querydsl.core.types.Predicate;
+import org.bson.Document;
+import org.springframework.beans.BeansException;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationContextAware;
+import org.springframework.core.ResolvableType;
+import org.springframework.data.mapping.callback.EntityCallbacks;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveCallback;
+import org.springframework.data.mongodb.core.mapping.event.BeforeConvertCallback;
+import org.springframework.data.mongodb.core.mapping.event.BeforeSaveCallback;
+import org.springframework.data.mongodb.core.query.BasicQuery;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.repository.support.SpringDataMongodbSerializer;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * BaseRepository 默认方法访问 MongoOperations 的入口（仓库接口无法注入 Bean）
+ */
+@Component
+public class MongoRepositoryHelper implements ApplicationContextAware {
+
+    /**
+     * 插入时才写入的字段，已存在的文档保持原值
+     */
+    private static final Set<String> INSERT_ONLY_FIELDS = Set.of("_id", "bizId", "createdAt", "creatorId");
+
+    private static final String VERSION_FIELD = "reversion";
+
+    private static final Map<Class<?>, Class<?>> DOMAIN_TYPE_CACHE = new ConcurrentHashMap<>();
+
+    private static MongoOperations operations;
+
+    private static EntityCallbacks callbacks;
+
+    private static MongoEncryptionCallback encryption;
+
+    @Override
+    public void setApplicationContext(ApplicationContext ctx) throws BeansException {
+
+        MongoRepositoryHelper.operations = ctx.getBean(MongoOperations.class);
+        MongoRepositoryHelper.callbacks = EntityCallbacks.create(ctx);
+        MongoRepositoryHelper.encryption = ctx.getBeanProvider(MongoEncryptionCallback.class).getIfAvailable();
+    }
+
+    // ==================== 批量写入 ====================
+
+    /**
+     * 按 bizId 无序批量 upsert
+     * <p>
+     * - 每 batchSize 条一次 bulkWrite（unordered），服务端可并行写入，单条失败不中断
+     * - 实体已有 bizId 时保留（业务自然键），否则按新实体生成 id / bizId
+     * - _id / bizId / createdAt / creatorId 仅在插入时写入，版本号自增；不做乐观锁校验
+     * - 只对写入成功的实体触发 AfterSaveCallback；失败的实体只把加密字段恢复为明文，可直接重试
+     */
+    static <T extends MongoEntity> MongoBulkResult bulkUpsert(
+            Class<T> entityClass,
+            Iterable<? extends T> entities,
+            int batchSize
+    ) {
+
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize 必须大于 0");
+        }
+        String collection = operations.getCollectionName(entityClass);
+        long[] counters = new long[3];
+        List<MongoBulkResult.Failure> failures = new ArrayList<>();
+        List<T> batch = new ArrayList<>(batchSize);
+        Consumer<List<T>> flush = items -> writeBatch(entityClass, collection, items, counters, failures);
+        for (T entity : entities) {
+            if (entity == null) {
+                continue;
+            }
+            batch.add(entity);
+            if (batch.size() >= batchSize) {
+                flush.accept(batch);
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+        if (!batch.isEmpty()) {
+            flush.accept(batch);
+        }
+        return new MongoBulkResult(counters[0], counters[1], counters[2], List.copyOf(failures));
+    }
+
+    /**
+     * 按主键分批删除，每批一次 deleteMany；字符串主键由 QueryMapper 转换为实体 id 类型
+     */
+    static long deleteAllById(Class<?> entityClass, Iterable<?> ids, int batchSize) {
+
+        long deleted = 0;
+        List<Object> batch = new ArrayList<>(batchSize);
+        for (Object id : ids) {
+            if (id == null) {
+                continue;
+            }
+            batch.add(id);
+            if (batch.size() >= batchSize) {
+                deleted += operations.remove(Query.query(Criteria.where("_id").in(batch)), entityClass).getDeletedCount();
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+        if (!batch.isEmpty()) {
+            deleted += operations.remove(Query.query(Criteria.where("_id").in(batch)), entityClass).getDeletedCount();
+        }
+        return deleted;
+    }
+
+    // ==================== 游标遍历 ====================
+
+    /**
+     * 基于游标的流式查询，每次从服务端拉取 batchSize 条；includes 非空时只返回指定字段
+     * <p>
+     * 返回的 Stream 持有服务端游标，需在 try-with-resources 中使用。
+     */
+    static <T> Stream<T> stream(
+            Class<T> entityClass,
+            Predicate predicate,
+            Consumer<Query> customizer,
+            Collection<String> includes,
+            int batchSize
+    ) {
+
+        Document filter = predicate == null
+                          ? new Document()
+                          : (Document) new SpringDataMongodbSerializer(operations.getConverter()).handle(predicate);
+        Query query = new BasicQuery(filter);
+        if (includes != null && !includes.isEmpty()) {
+            includes.forEach(query.fields()::include);
+        }
+        customizer.accept(query);
+        query.cursorBatchSize(batchSize);
+        return operations.stream(query, entityClass);
+    }
+
+    // ==================== 内部实现 ====================
+
+    /**
+     * 解析仓库代理对应的实体类型
+     */
+    @SuppressWarnings("unchecked")
+    static <T> Class<T> domainType(Object repository) {
+
+        return (Class<T>) DOMAIN_TYPE_CACHE.computeIfAbsent(repository.getClass(), proxyClass -> {
+            for (Class<?> candidate : ClassUtils.getAllInterfacesForClassAsSet(proxyClass)) {
+                if (candidate != BaseRepository.class && BaseRepository.class.isAssignableFrom(candidate)) {
+                    Class<?> resolved = ResolvableType.forClass(candidate).as(BaseRepository.class).getGeneric(0).resolve();
+                    if (resolved != null) {
+                        return resolved;
+                    }
+                }
+            }
+            throw new IllegalStateException("无法解析仓库实体类型: " + proxyClass.getName());
+        });
+    }
+
+    private static <T extends MongoEntity> void writeBatch(
+            Class<T> entityClass,
+            String collection,
+            List<T> items,
+            long[] counters,
+            List<MongoBulkResult.Failure> failures
+    ) {
+
+        BulkOperations bulk = operations.bulkOps(BulkOperations.BulkMode.UNORDERED, entityClass);
+        List<Document> documents = new ArrayList<>(items.size());
+        for (T entity : items) {
+            String naturalKey = entity.getBizId();
+            T prepared = callbacks.callback(BeforeConvertCallback.class, entity, collection);
+            if (naturalKey != null) {
+                prepared.setBizId(naturalKey);
+            }
+            Document document = new Document();
+            operations.getConverter().write(prepared, document);
+            prepared = callbacks.callback(BeforeSaveCallback.class, prepared, document, collection);
+            documents.add(document);
+            bulk.upsert(Query.query(Criteria.where("bizId").is(prepared.getBizId())), toUpdate(document));
+        }
+
+        BulkWriteResult result;
+        Set<Integer> failed = new HashSet<>();
+        try {
+            result = bulk.execute();
+        } catch (BulkOperationException e) {
+            result = e.getResult();
+            for (BulkWriteError error : e.getErrors()) {
+                failed.add(error.getIndex());
+                failures.add(new MongoBulkResult.Failure(
+                        items.get(error.getIndex()).getBizId(), error.getCode(), error.getMessage()
+                ));
+            }
+        } catch (RuntimeException e) {
+            items.forEach(MongoRepositoryHelper::restorePlaintext);
+            throw e;
+        }
+        counters[0] += result.getUpserts().size();
+        counters[1] += result.getMatchedCount();
+        counters[2] += result.getModifiedCount();
+
+        for (int i = 0; i < items.size(); i++) {
+            if (failed.contains(i)) {
+                restorePlaintext(items.get(i));
+            } else {
+                // 回调中加密的字段恢复为明文，与 save 行为一致
+                callbacks.callback(AfterSaveCallback.class, items.get(i), documents.get(i), collection);
+            }
+        }
+    }
+
+    /**
+     * 未写入的实体不触发 AfterSaveCallback，但 BeforeConvert 已原地加密的字段需要还原
+     */
+    private static void restorePlaintext(Object entity) {
+
+        if (encryption != null) {
+            encryption.onAfterSave(entity, null, null);
+        }
+    }
+
+    static Update toUpdate(Document document) {
+
+        Update update = new Update();
+        document.forEach((field, value) -> {
+            if (VERSION_FIELD.equals(field)) {
+                return;
+            }
+            if (INSERT_ONLY_FIELDS.contains(field)) {
+                update.setOnInsert(field, value);
+            } else {
+                update.set(field, value);
+            }
+        });
+        update.inc(VERSION_FIELD, 1);
+        return update;
+    }
+
+}
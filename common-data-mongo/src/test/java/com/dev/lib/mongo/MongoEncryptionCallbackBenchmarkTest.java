@@ -0,0 +1,147 @@
+package com.dev.lib.mongo;
+
+import com.dev.lib.entity.encrypt.Encrypt;
+import com.dev.lib.entity.encrypt.EncryptionService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 加解密回调基准：分别测量无加密字段 / 含加密字段文档的单文档 convert 开销，
+ * 以及批量结果逐条解密与延迟并行解密的耗时。
+ * <p>
+ * 默认跳过，执行：mvn -pl common-data-mongo test -Dbenchmark=true -Dtest=MongoEncryptionCallbackBenchmarkTest
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class MongoEncryptionCallbackBenchmarkTest {
+
+    private static final int DOCUMENTS = 200_000;
+
+    private static final int ROUNDS = 5;
+
+    /**
+     * 模拟 AES 的 CPU 开销
+     */
+    private final EncryptionService encryptionService = new EncryptionService() {
+
+        @Override
+        public String encrypt(String dbValue) {
+
+            return burn(dbValue);
+        }
+
+        @Override
+        public String decrypt(String dbValue) {
+
+            return burn(dbValue);
+        }
+
+    };
+
+    private final MongoEncryptionCallback callback = new MongoEncryptionCallback(encryptionService);
+
+    @Test
+    void convertOverheadPerDocument() {
+
+        long plainNanos = measure(PlainDoc::new);
+        long encryptedNanos = measure(() -> {
+            SecretDoc doc = new SecretDoc();
+            doc.phone = "13800000000";
+            doc.email = "someone@example.com";
+            return doc;
+        });
+
+        System.out.printf("plain document:     %,d ns/doc%n", plainNanos / DOCUMENTS);
+        System.out.printf("encrypted document: %,d ns/doc%n", encryptedNanos / DOCUMENTS);
+        assertThat(plainNanos).isLessThan(encryptedNanos);
+    }
+
+    @Test
+    void deferredParallelDecryptionShouldBeatSequential() {
+
+        long sequential = Long.MAX_VALUE;
+        long deferred = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            List<SecretDoc> docs = secretDocs();
+            long start = System.nanoTime();
+            docs.forEach(doc -> callback.onAfterConvert(doc, null, "secret"));
+            sequential = Math.min(sequential, System.nanoTime() - start);
+
+            List<SecretDoc> batch = secretDocs();
+            start = System.nanoTime();
+            MongoEncryptionCallback.deferDecryption(() -> {
+                batch.forEach(doc -> callback.onAfterConvert(doc, null, "secret"));
+                return batch;
+            });
+            deferred = Math.min(deferred, System.nanoTime() - start);
+        }
+
+        System.out.printf("sequential decrypt: %,d ms%n", sequential / 1_000_000);
+        System.out.printf("deferred parallel:  %,d ms%n", deferred / 1_000_000);
+        assertThat(deferred).isLessThan(sequential);
+    }
+
+    private long measure(Supplier<Object> factory) {
+
+        List<Object> docs = new ArrayList<>(DOCUMENTS);
+        for (int i = 0; i < DOCUMENTS; i++) {
+            docs.add(factory.get());
+        }
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (Object doc : docs) {
+                callback.onAfterConvert(doc, null, "bench");
+            }
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+
+    private static List<SecretDoc> secretDocs() {
+
+        List<SecretDoc> docs = new ArrayList<>(DOCUMENTS);
+        for (int i = 0; i < DOCUMENTS; i++) {
+            SecretDoc doc = new SecretDoc();
+            doc.phone = "1380000" + i;
+            doc.email = i + "@example.com";
+            docs.add(doc);
+        }
+        return docs;
+    }
+
+    private static String burn(String value) {
+
+        int h = 0;
+        for (int i = 0; i < 64; i++) {
+            h = 31 * h + value.hashCode() + i;
+        }
+        return h == 42 ? value + h : value;
+    }
+
+    static class PlainDoc {
+
+        private String name = "plain";
+
+        private Long amount = 1L;
+
+    }
+
+    static class SecretDoc {
+
+        @Encrypt
+        private String phone;
+
+        @Encrypt
+        private String email;
+
+        private String name = "secret";
+
+    }
+
+}
@@ -0,0 +1,148 @@
+package com.dev.lib.mongo;
+
+import com.dev.lib.entity.encrypt.Encrypt;
+import com.dev.lib.entity.encrypt.EncryptionService;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MongoEncryptionCallbackTest {
+
+    private final CountingEncryptionService encryptionService = new CountingEncryptionService();
+
+    private final MongoEncryptionCallback callback = new MongoEncryptionCallback(encryptionService);
+
+    @Test
+    void shouldEncryptAndDecryptInheritedFields() {
+
+        Customer customer = new Customer();
+        customer.setPhone("13800000000");
+        customer.setIdCard("110101199001011234");
+        customer.setName("alice");
+
+        callback.onBeforeConvert(customer, "customer");
+
+        assertThat(customer.getPhone()).isEqualTo("enc:13800000000");
+        assertThat(customer.getIdCard()).isEqualTo("enc:110101199001011234");
+        assertThat(customer.getName()).isEqualTo("alice");
+
+        callback.onAfterConvert(customer, null, "customer");
+
+        assertThat(customer.getPhone()).isEqualTo("13800000000");
+        assertThat(customer.getIdCard()).isEqualTo("110101199001011234");
+    }
+
+    @Test
+    void shouldSkipClassesWithoutEncryptedFields() {
+
+        Plain plain = new Plain();
+        plain.name = "bob";
+
+        callback.onBeforeConvert(plain, "plain");
+        callback.onAfterConvert(plain, null, "plain");
+
+        assertThat(plain.name).isEqualTo("bob");
+        assertThat(encryptionService.calls.get()).isZero();
+        assertThat(MongoEncryptionPlan.of(Plain.class)).isSameAs(MongoEncryptionPlan.EMPTY);
+    }
+
+    @Test
+    void shouldDecryptDeferredResultsAfterQueryReturns() {
+
+        int size = MongoEncryptionCallback.PARALLEL_THRESHOLD * 4 + 7;
+        List<Customer> loaded = MongoEncryptionCallback.deferDecryption(() -> {
+            List<Customer> result = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                Customer customer = new Customer();
+                customer.setPhone("enc:" + i);
+                callback.onAfterConvert(customer, null, "customer");
+                // 查询返回前保持密文
+                assertThat(customer.getPhone()).isEqualTo("enc:" + i);
+                result.add(customer);
+            }
+            return result;
+        });
+
+        assertThat(loaded).hasSize(size);
+        for (int i = 0; i < size; i++) {
+            assertThat(loaded.get(i).getPhone()).isEqualTo(String.valueOf(i));
+        }
+    }
+
+    static class CountingEncryptionService implements EncryptionService {
+
+        private final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public String encrypt(String dbValue) {
+
+            calls.incrementAndGet();
+            return "enc:" + dbValue;
+        }
+
+        @Override
+        public String decrypt(String dbValue) {
+
+            calls.incrementAndGet();
+            return dbValue.startsWith("enc:") ? dbValue.substring(4) : dbValue;
+        }
+
+    }
+
+    static class Person {
+
+        @Encrypt
+        private String phone;
+
+        public String getPhone() {
+
+            return phone;
+        }
+
+        public void setPhone(String phone) {
+
+            this.phone = phone;
+        }
+
+    }
+
+    static class Customer extends Person {
+
+        @Encrypt
+        private String idCard;
+
+        private String name;
+
+        public String getIdCard() {
+
+            return idCard;
+        }
+
+        public void setIdCard(String idCard) {
+
+            this.idCard = idCard;
+        }
+
+        public String getName() {
+
+            return name;
+        }
+
+        public void setName(String name) {
+
+            this.name = name;
+        }
+
+    }
+
+    static class Plain {
+
+        private String name;
+
+    }
+
+}
@@ -0,0 +1,271 @@
+package com.dev.lib.mongo;
+
+import com.dev.lib.entity.dsl.DslQuery;
+import com.dev.lib.entity.encrypt.Encrypt;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.bulk.BulkWriteUpsert;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveCallback;
+import org.springframework.data.mongodb.core.mapping.event.BeforeConvertCallback;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MongoRepositoryHelperTest {
+
+    @Test
+    void shouldResolveDomainTypeFromRepositoryProxy() {
+
+        Object repository = Proxy.newProxyInstance(
+                EventRepository.class.getClassLoader(),
+                new Class<?>[]{EventRepository.class},
+                (proxy, method, args) -> null
+        );
+
+        assertThat(MongoRepositoryHelper.<EventEntity>domainType(repository)).isEqualTo(EventEntity.class);
+    }
+
+    @Test
+    void shouldWriteIdentityFieldsOnlyOnInsertAndBumpVersion() {
+
+        Document document = new Document("_id", 1L)
+                .append("bizId", "b1")
+                .append("createdAt", "t0")
+                .append("creatorId", 7L)
+                .append("updatedAt", "t1")
+                .append("reversion", 3)
+                .append("payload", "p");
+
+        Document update = MongoRepositoryHelper.toUpdate(document).getUpdateObject();
+
+        assertThat(update.get("$setOnInsert", Document.class)).containsOnlyKeys("_id", "bizId", "createdAt", "creatorId");
+        assertThat(update.get("$set", Document.class)).containsOnlyKeys("updatedAt", "payload");
+        assertThat(update.get("$inc", Document.class)).containsEntry("reversion", 1);
+    }
+
+    @Test
+    void shouldReportFailuresByBizIdAndRunAfterSaveOnlyForWrittenEntities() {
+
+        Mongo mongo = new Mongo();
+        BulkOperationException exception = mock(BulkOperationException.class);
+        when(exception.getErrors()).thenReturn(List.of(new BulkWriteError(11000, "E11000 duplicate key", new BsonDocument(), 1)));
+        BulkWriteResult partial = result(1, 1, 1);
+        when(exception.getResult()).thenReturn(partial);
+        when(mongo.bulk.execute()).thenThrow(exception);
+
+        EventEntity first = event("order-1", "13800000001");
+        EventEntity second = event(null, "13800000002");
+        EventEntity third = event("order-3", "13800000003");
+
+        MongoBulkResult result = MongoRepositoryHelper.bulkUpsert(EventEntity.class, List.of(first, second, third), 10);
+
+        // 错误下标对应批内第 2 条，其 bizId 由 BeforeConvertCallback 生成
+        assertThat(second.getBizId()).isEqualTo("generated-1");
+        assertThat(result.failures()).containsExactly(new MongoBulkResult.Failure("generated-1", 11000, "E11000 duplicate key"));
+        assertThat(result.upserted()).isEqualTo(1);
+        assertThat(result.matched()).isEqualTo(1);
+        assertThat(result.modified()).isEqualTo(1);
+        assertThat(mongo.afterSave.saved).containsExactly(first, third);
+        // 失败的实体同样恢复为明文，可直接重试
+        assertThat(List.of(first, second, third)).extracting(EventEntity::getPhone)
+                .containsExactly("13800000001", "13800000002", "13800000003");
+        // 写入的文档为密文
+        assertThat(mongo.documents).extracting(it -> it.getString("phone")).allSatisfy(phone -> assertThat(phone).startsWith("enc:"));
+    }
+
+    @Test
+    void shouldUpsertByNaturalKeyAndGeneratedKeyPerBatch() {
+
+        Mongo mongo = new Mongo();
+        BulkWriteResult written = result(1, 0, 0);
+        when(mongo.bulk.execute()).thenReturn(written);
+
+        EventEntity first = event("order-1", "1");
+        EventEntity second = event(null, "2");
+        EventEntity third = event("order-3", "3");
+
+        MongoBulkResult result = MongoRepositoryHelper.bulkUpsert(EventEntity.class, List.of(first, second, third), 2);
+
+        ArgumentCaptor<Query> filters = ArgumentCaptor.forClass(Query.class);
+        verify(mongo.operations, times(2)).bulkOps(BulkOperations.BulkMode.UNORDERED, EventEntity.class);
+        verify(mongo.bulk, times(3)).upsert(filters.capture(), any(Update.class));
+        assertThat(filters.getAllValues()).extracting(it -> it.getQueryObject().get("bizId"))
+                .containsExactly("order-1", "generated-1", "order-3");
+        // 已有 bizId 的实体保留业务自然键，不被回调覆盖
+        assertThat(List.of(first, second, third)).extracting(EventEntity::getBizId)
+                .containsExactly("order-1", "generated-1", "order-3");
+        assertThat(result.upserted()).isEqualTo(2);
+        assertThat(result.hasFailures()).isFalse();
+        assertThat(mongo.afterSave.saved).containsExactly(first, second, third);
+    }
+
+    @Test
+    void shouldPushProjectionLimitAndBatchSizeIntoCursorQuery() {
+
+        Mongo mongo = new Mongo();
+        EventQuery query = new EventQuery();
+        query.setLimit(10);
+
+        try (Stream<EventEntity> ignored = MongoRepositoryHelper.stream(
+                EventEntity.class,
+                null,
+                q -> q.with(query.toPageable(Set.of())),
+                List.of("bizId", "phone"),
+                50
+        )) {
+            ArgumentCaptor<Query> captor = ArgumentCaptor.forClass(Query.class);
+            verify(mongo.operations).stream(captor.capture(), eq(EventEntity.class));
+            Query cursor = captor.getValue();
+
+            assertThat(cursor.getFieldsObject()).containsOnlyKeys("bizId", "phone");
+            assertThat(cursor.getLimit()).isEqualTo(10);
+            assertThat(cursor.getSkip()).isZero();
+            assertThat(cursor.getMeta().getCursorBatchSize()).isEqualTo(50);
+            assertThat(cursor.getQueryObject()).isEmpty();
+        }
+    }
+
+    private static EventEntity event(String bizId, String phone) {
+
+        EventEntity entity = new EventEntity();
+        entity.setBizId(bizId);
+        entity.setPhone(phone);
+        return entity;
+    }
+
+    private static BulkWriteResult result(int upserts, int matched, int modified) {
+
+        BulkWriteResult result = mock(BulkWriteResult.class);
+        List<BulkWriteUpsert> upserted = new CopyOnWriteArrayList<>();
+        for (int i = 0; i < upserts; i++) {
+            upserted.add(mock(BulkWriteUpsert.class));
+        }
+        when(result.getUpserts()).thenReturn(upserted);
+        when(result.getMatchedCount()).thenReturn(matched);
+        when(result.getModifiedCount()).thenReturn(modified);
+        return result;
+    }
+
+    /**
+     * 模拟的 MongoOperations 与回调，安装到 MongoRepositoryHelper
+     */
+    static final class Mongo {
+
+        final MongoOperations operations = mock(MongoOperations.class);
+
+        final BulkOperations bulk = mock(BulkOperations.class);
+
+        final RecordingAfterSave afterSave = new RecordingAfterSave();
+
+        final List<Document> documents = new CopyOnWriteArrayList<>();
+
+        Mongo() {
+
+            MongoConverter converter = mock(MongoConverter.class);
+            when(operations.getCollectionName(EventEntity.class)).thenReturn("events");
+            when(operations.getConverter()).thenReturn(converter);
+            when(operations.bulkOps(BulkOperations.BulkMode.UNORDERED, EventEntity.class)).thenReturn(bulk);
+            doAnswer(invocation -> {
+                EventEntity entity = invocation.getArgument(0);
+                Document document = invocation.getArgument(1);
+                document.put("bizId", entity.getBizId());
+                document.put("phone", entity.getPhone());
+                documents.add(document);
+                return null;
+            }).when(converter).write(any(), any(Bson.class));
+
+            GenericApplicationContext context = new GenericApplicationContext();
+            context.registerBean(MongoOperations.class, () -> operations);
+            context.registerBean(GeneratingBeforeConvert.class, GeneratingBeforeConvert::new);
+            context.registerBean(RecordingAfterSave.class, () -> afterSave);
+            context.registerBean(
+                    MongoEncryptionCallback.class,
+                    () -> new MongoEncryptionCallback(new MongoEncryptionCallbackTest.CountingEncryptionService())
+            );
+            context.refresh();
+            new MongoRepositoryHelper().setApplicationContext(context);
+        }
+
+    }
+
+    /**
+     * 与 MongoBaseEntityCallback 一样为新实体生成 bizId，即使调用方已指定
+     */
+    static final class GeneratingBeforeConvert implements BeforeConvertCallback<EventEntity> {
+
+        private final AtomicInteger sequence = new AtomicInteger();
+
+        @Override
+        public EventEntity onBeforeConvert(EventEntity entity, String collection) {
+
+            int next = sequence.getAndIncrement();
+            if (entity.isNew()) {
+                entity.setBizId("generated-" + next);
+            }
+            return entity;
+        }
+
+    }
+
+    static final class RecordingAfterSave implements AfterSaveCallback<EventEntity> {
+
+        final List<EventEntity> saved = new CopyOnWriteArrayList<>();
+
+        @Override
+        public EventEntity onAfterSave(EventEntity entity, Document document, String collection) {
+
+            saved.add(entity);
+            return entity;
+        }
+
+    }
+
+    static class EventEntity extends MongoEntity {
+
+        @Encrypt
+        private String phone;
+
+        public String getPhone() {
+
+            return phone;
+        }
+
+        public void setPhone(String phone) {
+
+            this.phone = phone;
+        }
+
+    }
+
+    static class EventQuery extends DslQuery<EventEntity> {
+    }
+
+    interface EventRepository extends BaseRepository<EventEntity> {
+    }
+
+}
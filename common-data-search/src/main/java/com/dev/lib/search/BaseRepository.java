@@ -1,11 +1,17 @@
 package com.dev.lib.search;
 
 import com.dev.lib.entity.dsl.DslQuery;
+import com.dev.lib.entity.dsl.agg.AggregateSpec;
 import com.dev.lib.entity.dsl.core.DslQueryFieldResolver;
 import com.dev.lib.entity.dsl.core.QueryFieldMerger;
 import com.dev.lib.entity.id.IDWorker;
+import com.dev.lib.search.bulk.BulkIngestException;
+import com.dev.lib.search.bulk.BulkIngestResult;
+import com.dev.lib.search.bulk.BulkIngester;
+import com.dev.lib.search.dsl.AggregateExecutor;
 import com.dev.lib.search.dsl.PredicateAssembler;
 import com.dev.lib.search.dsl.SortBuilder;
+import com.dev.lib.search.scan.SearchScanIterator;
 import com.dev.lib.security.util.SecurityContextHolder;
 import com.dev.lib.security.util.UserDetails;
 import jakarta.annotation.Resource;
@@ -14,7 +20,6 @@ import org.opensearch.client.opensearch.OpenSearchClient;
 import org.opensearch.client.opensearch._types.Refresh;
 import org.opensearch.client.opensearch._types.query_dsl.Query;
 import org.opensearch.client.opensearch.core.*;
-import org.opensearch.client.opensearch.core.bulk.BulkOperation;
 import org.opensearch.client.opensearch.core.search.Hit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
@@ -28,23 +33,31 @@ import java.time.LocalDateTime;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
 @Slf4j
 @SuppressWarnings("all")
 public abstract class BaseRepository<T extends SearchEntity> {
 
-    private static final int BATCH_SIZE = 256;
-
     @Resource
     protected OpenSearchClient client;
 
     @Resource
     private OpenSearchConfig.OpenSearchProperties properties;
 
+    private volatile String indexNameCache;
+
+    /**
+     * 实体类标注 {@link SearchIndex} 时使用其索引名（可为别名），否则使用全局配置 app.opensearch.index
+     */
     protected String indexName() {
 
-        return properties.getIndex();
+        if (indexNameCache == null) {
+            SearchIndex annotation = entityClass().getAnnotation(SearchIndex.class);
+            indexNameCache = annotation != null ? annotation.value() : properties.getIndex();
+        }
+        return indexNameCache;
     }
 
     private volatile Class<T> entityClassCache;
@@ -92,29 +105,33 @@ public abstract class BaseRepository<T extends SearchEntity> {
         List<S> list = toList(entities);
         if (list.isEmpty()) return list;
 
-        List<BulkOperation> batch = new ArrayList<>(BATCH_SIZE + 1);
-        for (S entity : list) {
+        BulkIngestResult result = ingest(list);
+        if (result.hasFailures()) {
+            throw new BulkIngestException(result);
+        }
+        return list;
+    }
+
+    /**
+     * 批量写入并返回逐条结果（不因部分失败抛异常），适用于重建索引等大批量场景
+     */
+    public <S extends T> BulkIngestResult ingest(Iterable<S> entities) {
+
+        BulkIngester ingester = newIngester();
+        for (S entity : entities) {
             if (entity.isNew()) {
                 prePersist(entity);
             } else {
                 preUpdate(entity);
             }
-            batch.add(BulkOperation.of(op -> op
-                    .index(idx -> idx
-                            .index(indexName())
-                            .id(entity.getBizId())
-                            .document(entity)
-                    )
-            ));
-            if (batch.size() >= BATCH_SIZE) {
-                executeBulk(batch);
-                batch.clear();
-            }
+            ingester.index(indexName(), entity.getBizId(), entity);
         }
-        if (!batch.isEmpty()) {
-            executeBulk(batch);
-        }
-        return list;
+        BulkIngestResult result = ingester.finish();
+        log.debug(
+                "bulk ingest finished: succeeded={}, failed={}, requests={}, retries={}, took={}ms",
+                result.succeeded(), result.failures().size(), result.requests(), result.retries(), result.tookMillis()
+        );
+        return result;
     }
 
     // ═══════════════════════════════════════════════════════════════
@@ -251,19 +268,14 @@ public abstract class BaseRepository<T extends SearchEntity> {
 
     public void deleteAllById(Iterable<? extends String> ids) {
 
-        List<BulkOperation> batch = new ArrayList<>(BATCH_SIZE + 1);
+        BulkIngester ingester = newIngester();
         for (String id : ids) {
             if (id == null) continue;
-            batch.add(BulkOperation.of(op -> op
-                    .delete(d -> d.index(indexName()).id(id))
-            ));
-            if (batch.size() >= BATCH_SIZE) {
-                executeBulk(batch);
-                batch.clear();
-            }
+            ingester.delete(indexName(), id);
         }
-        if (!batch.isEmpty()) {
-            executeBulk(batch);
+        BulkIngestResult result = ingester.finish();
+        if (result.hasFailures()) {
+            throw new BulkIngestException(result);
         }
     }
 
@@ -454,6 +466,67 @@ public abstract class BaseRepository<T extends SearchEntity> {
         return findAll(toQuery(dslQuery, extraQueries), pageable);
     }
 
+    /**
+     * 深度遍历：PIT + search_after 惰性翻页，不受 max_result_window 限制，适用于导出 / 回填
+     * 返回的 Stream 持有服务端上下文，需在 try-with-resources 中使用或消费完毕；忽略 offset，limit 截断总条数
+     */
+    public Stream<T> stream(DslQuery<T> dslQuery, Query... extraQueries) {
+
+        return stream(dslQuery, List.of(), extraQueries);
+    }
+
+    /**
+     * 深度遍历，只拉取 includes 指定的字段
+     */
+    public Stream<T> stream(DslQuery<T> dslQuery, List<String> includes, Query... extraQueries) {
+
+        ensureNonAggregateQuery(dslQuery, "stream");
+        Map<String, Class<?>> fieldTypes = getFieldTypes();
+        OpenSearchConfig.Scan scan       = properties.getScan();
+        SearchScanIterator<T> iterator = new SearchScanIterator<>(
+                client,
+                indexName(),
+                toQuery(dslQuery, extraQueries),
+                SortBuilder.build(dslQuery == null ? null : dslQuery.toSort(fieldTypes.keySet()), fieldTypes),
+                includes,
+                scan.getPageSize(),
+                scan.getKeepAlive(),
+                entityClass()
+        );
+        Stream<T> stream = StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL),
+                false
+        ).onClose(iterator::close);
+        if (dslQuery != null && dslQuery.getLimit() != null) {
+            stream = stream.limit(dslQuery.getLimit());
+        }
+        return stream;
+    }
+
+    /**
+     * 按 agg() 配置在 OpenSearch 内执行分组聚合
+     */
+    public <R> List<R> aggregate(DslQuery<T> dslQuery, Query... extraQueries) {
+
+        if (dslQuery == null) {
+            throw new IllegalArgumentException("聚合查询不能为空");
+        }
+        AggregateSpec<T, R> spec = dslQuery.aggregateSpec();
+        if (spec == null || spec.isEmpty()) {
+            throw new IllegalArgumentException("聚合查询缺少 agg() 映射配置");
+        }
+        OpenSearchConfig.Aggregate aggregate = properties.getAggregate();
+        return AggregateExecutor.executeAggregateQuery(
+                client,
+                indexName(),
+                toQuery(dslQuery, extraQueries),
+                spec,
+                getFieldTypes(),
+                aggregate.getCompositePageSize(),
+                aggregate.getMaxBuckets()
+        );
+    }
+
     public boolean exists(DslQuery<T> dslQuery, Query... extraQueries) {
 
         ensureNonAggregateQuery(dslQuery, "exists");
@@ -524,7 +597,7 @@ public abstract class BaseRepository<T extends SearchEntity> {
     private void ensureNonAggregateQuery(DslQuery<T> query, String operation) {
 
         if (query != null && query.hasAgg()) {
-            throw new IllegalStateException("检测到 agg() 聚合配置，" + operation + " 不支持聚合查询");
+            throw new IllegalStateException("检测到 agg() 聚合配置，" + operation + " 不支持聚合查询，请使用 aggregate()");
         }
     }
 
@@ -539,19 +612,9 @@ public abstract class BaseRepository<T extends SearchEntity> {
         );
     }
 
-    private void executeBulk(List<BulkOperation> operations) {
+    private BulkIngester newIngester() {
 
-        try {
-            BulkResponse response = client.bulk(b -> b
-                    .operations(operations)
-                    .refresh(refresh())
-            );
-            if (response.errors()) {
-                log.error("批量操作部分失败");
-            }
-        } catch (IOException e) {
-            throw new RuntimeException("批量操作失败", e);
-        }
+        return new BulkIngester(client, client._transport().jsonpMapper(), properties.getBulk().toOptions(), refresh());
     }
 
     private <E> List<E> toList(Iterable<E> iterable) {
@@ -1,5 +1,6 @@
 package com.dev.lib.search;
 
+import com.dev.lib.search.bulk.BulkIngester;
 import lombok.Data;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.ConfigurationProperties;
@@ -24,6 +25,118 @@ public class OpenSearchConfig {
 
         private String index = "public";
 
+        private Bulk bulk = new Bulk();
+
+        private Scan scan = new Scan();
+
+        private Aggregate aggregate = new Aggregate();
+
+        private Sync sync = new Sync();
+
+    }
+
+    /**
+     * saveAll / deleteAllById 批量写入参数
+     */
+    @Data
+    public static class Bulk {
+
+        /**
+         * 单个 bulk 请求的最大操作数
+         */
+        private int maxOperations = 1000;
+
+        /**
+         * 单个 bulk 请求的最大估算字节数
+         */
+        private long maxBytes = 5L * 1024 * 1024;
+
+        /**
+         * 并发在途 bulk 请求数，超出时调用方阻塞
+         */
+        private int concurrency = 4;
+
+        /**
+         * 429 / rejected 条目的最大重试次数
+         */
+        private int maxRetries = 5;
+
+        /**
+         * 首次退避时间（毫秒），之后按 2 倍递增
+         */
+        private long initialBackoffMillis = 200L;
+
+        /**
+         * 最大退避时间（毫秒）
+         */
+        private long maxBackoffMillis = 10_000L;
+
+        public BulkIngester.Options toOptions() {
+
+            return new BulkIngester.Options(
+                    maxOperations,
+                    maxBytes,
+                    concurrency,
+                    maxRetries,
+                    initialBackoffMillis,
+                    maxBackoffMillis
+            );
+        }
+
+    }
+
+    /**
+     * stream() 深度遍历参数
+     */
+    @Data
+    public static class Scan {
+
+        /**
+         * 每页拉取的文档数
+         */
+        private int pageSize = 1000;
+
+        /**
+         * PIT / scroll 上下文保活时间，需大于处理单页的耗时
+         */
+        private String keepAlive = "2m";
+
+    }
+
+    /**
+     * aggregate() 聚合参数
+     */
+    @Data
+    public static class Aggregate {
+
+        /**
+         * composite 聚合每页分组数
+         */
+        private int compositePageSize = 1000;
+
+        /**
+         * 按指标排序时内存中保留的最大分组数
+         */
+        private int maxBuckets = 100_000;
+
+    }
+
+    /**
+     * JPA 实体到索引的同步参数
+     */
+    @Data
+    public static class Sync {
+
+        /**
+         * 是否开启同步，需同时引入 common-data-jpa 与 common-local-task-message
+         */
+        private boolean enabled = false;
+
+        /**
+         * 回查数据库时每批加载的实体数
+         */
+        private int loadChunkSize = 500;
+
     }
 
-}
\ No newline at end of file
+}
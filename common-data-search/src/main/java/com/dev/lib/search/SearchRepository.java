@@ -1,6 +1,7 @@
 package com.dev.lib.search;
 
 import com.dev.lib.entity.dsl.DslQuery;
+import com.dev.lib.search.bulk.BulkIngestResult;
 import org.opensearch.client.opensearch._types.query_dsl.Query;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -9,12 +10,14 @@ import org.springframework.data.domain.Sort;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface SearchRepository<T extends SearchEntity> {
 
     // 保存
     <S extends T> S save(S entity);
     <S extends T> List<S> saveAll(Iterable<S> entities);
+    <S extends T> BulkIngestResult ingest(Iterable<S> entities);
 
     // 基础查询
     Optional<T> findById(String id);
@@ -48,7 +51,10 @@ public interface SearchRepository<T extends SearchEntity> {
     Optional<T> load(DslQuery<T> dslQuery, Query... extraQueries);
     List<T> loads(DslQuery<T> dslQuery, Query... extraQueries);
     Page<T> page(DslQuery<T> dslQuery, Query... extraQueries);
+    Stream<T> stream(DslQuery<T> dslQuery, Query... extraQueries);
+    Stream<T> stream(DslQuery<T> dslQuery, List<String> includes, Query... extraQueries);
     boolean exists(DslQuery<T> dslQuery, Query... extraQueries);
     long count(DslQuery<T> dslQuery, Query... extraQueries);
     long delete(DslQuery<T> dslQuery, Query... extraQueries);
+    <R> List<R> aggregate(DslQuery<T> dslQuery, Query... extraQueries);
 }
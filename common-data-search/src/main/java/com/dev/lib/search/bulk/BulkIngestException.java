@@ -0,0 +1,27 @@
+package com.dev.lib.search.bulk;
+
+import lombok.Getter;
+
+/**
+ * 批量写入存在最终失败条目
+ * 成功的条目已经写入，调用方可根据 {@link #getResult()} 中的失败明细补偿
+ */
+@Getter
+public class BulkIngestException extends RuntimeException {
+
+    private final BulkIngestResult result;
+
+    public BulkIngestException(BulkIngestResult result) {
+
+        super(message(result));
+        this.result = result;
+    }
+
+    private static String message(BulkIngestResult result) {
+
+        BulkIngestResult.Failure first = result.failures().getFirst();
+        return "批量操作部分失败: " + result.failures().size() + " 条失败, 成功 " + result.succeeded()
+                + " 条, 首个失败 [" + first.id() + "] " + first.type() + ": " + first.reason();
+    }
+
+}
@@ -0,0 +1,38 @@
+package com.dev.lib.search.bulk;
+
+import java.util.List;
+
+/**
+ * 批量写入结果
+ *
+ * @param succeeded 成功条数
+ * @param failures  最终失败的条目（重试耗尽或不可重试）
+ * @param requests  实际发送的 bulk 请求数（含重试）
+ * @param retries   重试的条目次数
+ * @param tookMillis 总耗时
+ */
+public record BulkIngestResult(
+        long succeeded,
+        List<Failure> failures,
+        int requests,
+        long retries,
+        long tookMillis
+) {
+
+    /**
+     * 单条失败
+     *
+     * @param id     文档 ID
+     * @param action index / delete
+     * @param status HTTP 状态码，整批请求失败时为 0
+     * @param type   错误类型
+     * @param reason 错误原因
+     */
+    public record Failure(String id, String action, int status, String type, String reason) {}
+
+    public boolean hasFailures() {
+
+        return !failures.isEmpty();
+    }
+
+}
@@ -0,0 +1,345 @@
+package com.dev.lib.search.bulk;
+
+import com.dev.lib.util.Dispatcher;
+import jakarta.json.stream.JsonGenerator;
+import jakarta.json.stream.JsonParser;
+import lombok.extern.slf4j.Slf4j;
+import org.opensearch.client.json.JsonpMapper;
+import org.opensearch.client.json.JsonpSerializable;
+import org.opensearch.client.json.JsonpUtils;
+import org.opensearch.client.opensearch.OpenSearchClient;
+import org.opensearch.client.opensearch._types.OpenSearchException;
+import org.opensearch.client.opensearch._types.Refresh;
+import org.opensearch.client.opensearch._types.VersionType;
+import org.opensearch.client.opensearch.core.BulkRequest;
+import org.opensearch.client.opensearch.core.BulkResponse;
+import org.opensearch.client.opensearch.core.bulk.BulkOperation;
+import org.opensearch.client.opensearch.core.bulk.BulkResponseItem;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 异步批量写入器
+ * <p>
+ * - 按操作数 / 文档字节数任一阈值触发 flush，文档只序列化一次
+ * - 最多 concurrency 个 bulk 请求并发在途，超出时 add 阻塞（背压）
+ * - 仅对 429 / rejected_execution 的条目按指数退避重试，其他失败直接记录
+ * - {@link #finish()} 等待全部请求完成并返回逐条失败明细
+ * <p>
+ * 单次使用：一个 saveAll / 重建索引任务创建一个实例，非线程安全（add 需在同一线程调用）。
+ */
+@Slf4j
+public final class BulkIngester {
+
+    /**
+     * 每条操作的 action 行估算字节数
+     */
+    private static final int ACTION_LINE_BYTES = 96;
+
+    private final OpenSearchClient client;
+
+    private final JsonpMapper mapper;
+
+    private final Options options;
+
+    private final Refresh refresh;
+
+    private final Semaphore inFlight;
+
+    private final List<CompletableFuture<Void>> pending = new ArrayList<>();
+
+    private final List<BulkIngestResult.Failure> failures = Collections.synchronizedList(new ArrayList<>());
+
+    private final AtomicLong succeeded = new AtomicLong();
+
+    private final AtomicLong retries = new AtomicLong();
+
+    private final AtomicInteger requests = new AtomicInteger();
+
+    private final long startNanos = System.nanoTime();
+
+    private List<Item> buffer = new ArrayList<>();
+
+    private long bufferBytes;
+
+    private boolean closed;
+
+    /**
+     * 写入参数
+     *
+     * @param maxOperations        单个 bulk 请求的最大操作数
+     * @param maxBytes             单个 bulk 请求的最大估算字节数
+     * @param concurrency          并发在途请求数
+     * @param maxRetries           429 / rejected 条目的最大重试次数
+     * @param initialBackoffMillis 首次退避时间
+     * @param maxBackoffMillis     最大退避时间
+     */
+    public record Options(
+            int maxOperations,
+            long maxBytes,
+            int concurrency,
+            int maxRetries,
+            long initialBackoffMillis,
+            long maxBackoffMillis
+    ) {}
+
+    /**
+     * @param versioned 使用外部版本号写入，版本冲突（409）说明索引中已是更新的数据，视为成功
+     */
+    private record Item(String id, String action, BulkOperation operation, boolean versioned) {}
+
+    public BulkIngester(OpenSearchClient client, JsonpMapper mapper, Options options, Refresh refresh) {
+
+        this.client = client;
+        this.mapper = mapper;
+        this.options = options;
+        this.refresh = refresh;
+        this.inFlight = new Semaphore(Math.max(1, options.concurrency()));
+    }
+
+    // ==================== 写入 ====================
+
+    public void index(String index, String id, Object document) {
+
+        Object body = serialize(document);
+        add(
+                new Item(id, "index", BulkOperation.of(op -> op.index(idx -> idx.index(index).id(id).document(body))), false),
+                ACTION_LINE_BYTES + sizeOf(body)
+        );
+    }
+
+    /**
+     * 带外部版本号写入（external_gte），乱序到达的旧版本不会覆盖新版本
+     */
+    public void index(String index, String id, Object document, long version) {
+
+        Object body = serialize(document);
+        add(
+                new Item(id, "index", BulkOperation.of(op -> op.index(idx -> idx
+                        .index(index)
+                        .id(id)
+                        .document(body)
+                        .version(version)
+                        .versionType(VersionType.ExternalGte)
+                )), true),
+                ACTION_LINE_BYTES + sizeOf(body)
+        );
+    }
+
+    public void delete(String index, String id) {
+
+        add(new Item(id, "delete", BulkOperation.of(op -> op.delete(d -> d.index(index).id(id))), false), ACTION_LINE_BYTES);
+    }
+
+    /**
+     * 带外部版本号删除（external_gte），删除后到达的旧版本写入会被拒绝
+     */
+    public void delete(String index, String id, long version) {
+
+        add(
+                new Item(id, "delete", BulkOperation.of(op -> op.delete(d -> d
+                        .index(index)
+                        .id(id)
+                        .version(version)
+                        .versionType(VersionType.ExternalGte)
+                )), true),
+                ACTION_LINE_BYTES
+        );
+    }
+
+    /**
+     * 发送缓冲区中的操作（不等待完成）
+     */
+    public void flush() {
+
+        if (buffer.isEmpty()) {
+            return;
+        }
+        List<Item> batch = buffer;
+        buffer = new ArrayList<>();
+        bufferBytes = 0;
+
+        // 在途请求已满时阻塞调用方，避免无限堆积
+        try {
+            inFlight.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("批量写入被中断", e);
+        }
+        pending.add(CompletableFuture.runAsync(() -> {
+            try {
+                send(batch, 0);
+            } finally {
+                inFlight.release();
+            }
+        }, Dispatcher.IO));
+    }
+
+    /**
+     * flush 剩余操作并等待全部请求完成
+     */
+    public BulkIngestResult finish() {
+
+        if (!closed) {
+            closed = true;
+            flush();
+            CompletableFuture.allOf(pending.toArray(CompletableFuture[]::new)).join();
+        }
+        return new BulkIngestResult(
+                succeeded.get(),
+                List.copyOf(failures),
+                requests.get(),
+                retries.get(),
+                (System.nanoTime() - startNanos) / 1_000_000
+        );
+    }
+
+    // ==================== 内部实现 ====================
+
+    private void add(Item item, long bytes) {
+
+        if (closed) {
+            throw new IllegalStateException("BulkIngester 已关闭");
+        }
+        buffer.add(item);
+        bufferBytes += bytes;
+        if (buffer.size() >= options.maxOperations() || bufferBytes >= options.maxBytes()) {
+            flush();
+        }
+    }
+
+    private void send(List<Item> batch, int attempt) {
+
+        requests.incrementAndGet();
+        BulkResponse response;
+        try {
+            response = client.bulk(BulkRequest.of(b -> b
+                    .operations(batch.stream().map(Item::operation).toList())
+                    .refresh(refresh)
+            ));
+        } catch (OpenSearchException e) {
+            if (e.status() == 429 && attempt < options.maxRetries()) {
+                retry(batch, attempt);
+            } else {
+                failAll(batch, e.status(), e.error() != null ? e.error().type() : "opensearch_exception", e.getMessage());
+            }
+            return;
+        } catch (IOException | RuntimeException e) {
+            log.error("批量请求失败，{} 条记为失败", batch.size(), e);
+            failAll(batch, 0, e.getClass().getSimpleName(), e.getMessage());
+            return;
+        }
+
+        List<BulkResponseItem> items = response.items();
+        List<Item> rejected = new ArrayList<>();
+        long ok = 0;
+        int answered = Math.min(items.size(), batch.size());
+        for (int i = 0; i < answered; i++) {
+            BulkResponseItem result = items.get(i);
+            Item item = batch.get(i);
+            if (result.error() == null || (item.versioned() && result.status() == 409)) {
+                ok++;
+                continue;
+            }
+            if (isRejected(result) && attempt < options.maxRetries()) {
+                rejected.add(item);
+            } else {
+                failures.add(new BulkIngestResult.Failure(
+                        item.id(), item.action(), result.status(), result.error().type(), result.error().reason()
+                ));
+            }
+        }
+        succeeded.addAndGet(ok);
+
+        // 响应条目少于请求条目时，缺失的部分无法确认是否写入，按可重试失败处理（index / delete 均幂等）
+        if (answered < batch.size()) {
+            List<Item> missing = batch.subList(answered, batch.size());
+            log.warn("批量响应缺少 {} 条结果（请求 {} 条，响应 {} 条）", missing.size(), batch.size(), items.size());
+            if (attempt < options.maxRetries()) {
+                rejected.addAll(missing);
+            } else {
+                failAll(missing, 0, "missing_response_item", "批量响应中缺少该条结果");
+            }
+        }
+
+        if (!rejected.isEmpty()) {
+            retry(rejected, attempt);
+        }
+    }
+
+    private void retry(List<Item> items, int attempt) {
+
+        retries.addAndGet(items.size());
+        long backoff = Math.min(options.maxBackoffMillis(), options.initialBackoffMillis() << Math.min(attempt, 20));
+        try {
+            // 退避期间继续占用在途名额，集群繁忙时自然降低写入速度
+            Thread.sleep(backoff);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failAll(items, 429, "interrupted", "重试等待被中断");
+            return;
+        }
+        send(items, attempt + 1);
+    }
+
+    private void failAll(List<Item> items, int status, String type, String reason) {
+
+        for (Item item : items) {
+            failures.add(new BulkIngestResult.Failure(item.id(), item.action(), status, type, reason));
+        }
+    }
+
+    private static boolean isRejected(BulkResponseItem item) {
+
+        if (item.status() == 429) {
+            return true;
+        }
+        String type = item.error() != null ? item.error().type() : null;
+        return type != null && type.endsWith("rejected_execution_exception");
+    }
+
+    /**
+     * 文档只序列化一次：字节数用于触发 flush，发送时直接回放同一份字节
+     */
+    private Object serialize(Object document) {
+
+        if (mapper == null || document == null) {
+            return document;
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+        try (JsonGenerator generator = mapper.jsonProvider().createGenerator(out)) {
+            mapper.serialize(document, generator);
+        }
+        return new SerializedDocument(out.toByteArray());
+    }
+
+    private static long sizeOf(Object body) {
+
+        return body instanceof SerializedDocument serialized ? serialized.bytes().length : 0;
+    }
+
+    /**
+     * 预先序列化的文档，写出时按 token 原样回放，不再经过对象映射
+     */
+    private record SerializedDocument(byte[] bytes) implements JsonpSerializable {
+
+        @Override
+        public void serialize(JsonGenerator generator, JsonpMapper mapper) {
+
+            try (JsonParser parser = mapper.jsonProvider().createParser(new ByteArrayInputStream(bytes))) {
+                JsonpUtils.copy(parser, generator);
+            }
+        }
+
+    }
+
+}
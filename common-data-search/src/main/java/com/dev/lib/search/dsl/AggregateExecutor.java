@@ -0,0 +1,494 @@
+package com.dev.lib.search.dsl;
+
+import com.dev.lib.entity.dsl.QueryType;
+import com.dev.lib.entity.dsl.agg.AggType;
+import com.dev.lib.entity.dsl.agg.AggregateResultMapper;
+import com.dev.lib.entity.dsl.agg.AggregateSpec;
+import org.opensearch.client.opensearch.OpenSearchClient;
+import org.opensearch.client.opensearch._types.FieldValue;
+import org.opensearch.client.opensearch._types.SortOrder;
+import org.opensearch.client.opensearch._types.aggregations.Aggregate;
+import org.opensearch.client.opensearch._types.aggregations.Aggregation;
+import org.opensearch.client.opensearch._types.aggregations.CompositeAggregate;
+import org.opensearch.client.opensearch._types.aggregations.CompositeAggregationSource;
+import org.opensearch.client.opensearch._types.aggregations.CompositeBucket;
+import org.opensearch.client.opensearch._types.query_dsl.Query;
+import org.opensearch.client.opensearch.core.SearchRequest;
+import org.opensearch.client.opensearch.core.SearchResponse;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * 将 {@link AggregateSpec} 翻译为 OpenSearch 原生聚合执行
+ * <p>
+ * - 无 groupBy：顶层 metric 聚合，返回单行
+ * - 有 groupBy：composite 聚合 + after_key 分页拉取全部分组，避免 terms 的 size 截断
+ * - count -> value_count，countDistinct -> cardinality（近似），sum/avg/min/max -> 同名 metric
+ * - 排序只涉及分组字段时映射为 composite source 顺序，满足 offset/limit 后提前停止翻页；
+ *   按指标排序时需拉齐全部分组后在内存排序，受 maxBuckets 限制
+ * - having 在每页分组返回后逐行过滤
+ */
+public final class AggregateExecutor<R> {
+
+    private static final String GROUPS = "groups";
+
+    /**
+     * 支持 min/max 的日期类型（OpenSearch date 字段）
+     */
+    private static final Set<Class<?>> TEMPORAL_TYPES = Set.of(
+            Instant.class,
+            LocalDateTime.class,
+            LocalDate.class,
+            OffsetDateTime.class,
+            ZonedDateTime.class
+    );
+
+    private final OpenSearchClient client;
+
+    private final String index;
+
+    private final AggregateSpec<?, R> spec;
+
+    private final Map<String, Class<?>> fieldTypes;
+
+    private final int compositePageSize;
+
+    private final int maxBuckets;
+
+    /**
+     * 目标字段 -> 聚合名 / 分组源名
+     */
+    private final Map<String, String> nameByTarget = new LinkedHashMap<>();
+
+    public static <R> List<R> executeAggregateQuery(
+            OpenSearchClient client,
+            String index,
+            Query query,
+            AggregateSpec<?, R> spec,
+            Map<String, Class<?>> fieldTypes,
+            int compositePageSize,
+            int maxBuckets
+    ) {
+
+        return new AggregateExecutor<>(client, index, spec, fieldTypes, compositePageSize, maxBuckets).execute(query);
+    }
+
+    private AggregateExecutor(
+            OpenSearchClient client,
+            String index,
+            AggregateSpec<?, R> spec,
+            Map<String, Class<?>> fieldTypes,
+            int compositePageSize,
+            int maxBuckets
+    ) {
+
+        this.client = client;
+        this.index = index;
+        this.spec = spec;
+        this.fieldTypes = fieldTypes;
+        this.compositePageSize = Math.max(1, compositePageSize);
+        this.maxBuckets = maxBuckets;
+    }
+
+    private List<R> execute(Query query) {
+
+        validateAggregateSpec();
+        Map<String, Aggregation> metrics = buildMetricAggregations();
+        List<Map<String, Object>> rows = spec.getGroupByFields().isEmpty()
+                ? executeUngrouped(query, metrics)
+                : executeGrouped(query, metrics);
+        return rows.stream().map(row -> AggregateResultMapper.map(spec.getTargetClass(), row)).toList();
+    }
+
+    // ==================== 校验 ====================
+
+    private void validateAggregateSpec() {
+
+        Set<String> groupedFields = new HashSet<>(spec.getGroupByFields());
+        Set<String> targets = new HashSet<>();
+
+        for (AggregateSpec.Item item : spec.getItems()) {
+            if (!targets.add(item.targetField())) {
+                throw new IllegalArgumentException("聚合目标字段重复映射: " + item.targetField());
+            }
+            Class<?> sourceType = fieldTypes.get(item.sourceField());
+            switch (item.type()) {
+                case SUM, AVG -> {
+                    if (!isNumeric(sourceType)) {
+                        throw new IllegalArgumentException("聚合字段必须是数值类型: " + item.sourceField() + " for " + item.type());
+                    }
+                }
+                case MIN, MAX -> {
+                    if (!isNumeric(sourceType) && !isTemporal(sourceType)) {
+                        throw new IllegalArgumentException("OpenSearch min/max 仅支持数值或日期字段（Instant / LocalDateTime / LocalDate / OffsetDateTime / ZonedDateTime）: " + item.sourceField());
+                    }
+                }
+                case FIELD -> {
+                    if (!groupedFields.contains(item.sourceField())) {
+                        throw new IllegalArgumentException("FIELD 投影字段必须出现在 groupBy 中: " + item.sourceField());
+                    }
+                }
+                default -> {
+                }
+            }
+        }
+
+        for (AggregateSpec.Having having : spec.getHavings()) {
+            if (!targets.contains(having.targetField())) {
+                throw new IllegalArgumentException("having 字段未映射: " + having.targetField());
+            }
+            if (having.queryType() != QueryType.IS_NULL
+                    && having.queryType() != QueryType.IS_NOT_NULL
+                    && having.value() == null) {
+                throw new IllegalArgumentException("having 条件值不能为空: " + having.targetField());
+            }
+        }
+
+        for (AggregateSpec.Order order : spec.getOrders()) {
+            if (!targets.contains(order.targetField())) {
+                throw new IllegalArgumentException("order 字段未映射: " + order.targetField());
+            }
+        }
+    }
+
+    // ==================== 构建 ====================
+
+    private Map<String, Aggregation> buildMetricAggregations() {
+
+        Map<String, Aggregation> metrics = new LinkedHashMap<>();
+        int i = 0;
+        for (AggregateSpec.Item item : spec.getItems()) {
+            if (item.type() == AggType.FIELD) {
+                continue;
+            }
+            String name = "m" + i++;
+            nameByTarget.put(item.targetField(), name);
+            String numericField = item.sourceField();
+            String keywordField = SortBuilder.resolveSortField(item.sourceField(), fieldTypes.get(item.sourceField()));
+            metrics.put(name, switch (item.type()) {
+                case COUNT -> Aggregation.of(a -> a.valueCount(v -> v.field(keywordField)));
+                case COUNT_DISTINCT -> Aggregation.of(a -> a.cardinality(c -> c.field(keywordField)));
+                case SUM -> Aggregation.of(a -> a.sum(s -> s.field(numericField)));
+                case AVG -> Aggregation.of(a -> a.avg(s -> s.field(numericField)));
+                case MIN -> Aggregation.of(a -> a.min(s -> s.field(numericField)));
+                case MAX -> Aggregation.of(a -> a.max(s -> s.field(numericField)));
+                case FIELD -> throw new IllegalStateException("unreachable");
+            });
+        }
+        return metrics;
+    }
+
+    /**
+     * composite 分组源：排序涉及的分组字段在前（按 order 声明顺序），其余分组字段升序在后
+     */
+    private List<Map<String, CompositeAggregationSource>> buildCompositeSources() {
+
+        Map<String, SortOrder> orderBySource = new LinkedHashMap<>();
+        if (ordersOnGroupKeysOnly()) {
+            for (AggregateSpec.Order order : spec.getOrders()) {
+                String source = sourceOfTarget(order.targetField());
+                orderBySource.putIfAbsent(source, order.asc() ? SortOrder.Asc : SortOrder.Desc);
+            }
+        }
+        for (String field : spec.getGroupByFields()) {
+            orderBySource.putIfAbsent(field, SortOrder.Asc);
+        }
+
+        List<Map<String, CompositeAggregationSource>> sources = new ArrayList<>(orderBySource.size());
+        Map<String, String> nameBySource = new HashMap<>();
+        int i = 0;
+        for (Map.Entry<String, SortOrder> entry : orderBySource.entrySet()) {
+            String    name  = "g" + i++;
+            String    field = SortBuilder.resolveSortField(entry.getKey(), fieldTypes.get(entry.getKey()));
+            SortOrder order = entry.getValue();
+            nameBySource.put(entry.getKey(), name);
+            sources.add(Map.of(name, CompositeAggregationSource.of(s -> s.terms(t -> t
+                    .field(field)
+                    .order(order)
+                    .missingBucket(true)
+            ))));
+        }
+        for (AggregateSpec.Item item : spec.getItems()) {
+            if (item.type() == AggType.FIELD) {
+                nameByTarget.put(item.targetField(), nameBySource.get(item.sourceField()));
+            }
+        }
+        return sources;
+    }
+
+    // ==================== 执行 ====================
+
+    private List<Map<String, Object>> executeUngrouped(Query query, Map<String, Aggregation> metrics) {
+
+        SearchResponse<Void> response = search(query, metrics);
+        Map<String, Object> row = new HashMap<>();
+        for (AggregateSpec.Item item : spec.getItems()) {
+            String name = nameByTarget.get(item.targetField());
+            row.put(item.targetField(), metricValue(item, response.aggregations().get(name)));
+        }
+        List<Map<String, Object>> rows = matchesHaving(row) ? List.of(row) : List.of();
+        return page(rows);
+    }
+
+    private List<Map<String, Object>> executeGrouped(Query query, Map<String, Aggregation> metrics) {
+
+        List<Map<String, CompositeAggregationSource>> sources = buildCompositeSources();
+        boolean nativeOrder = ordersOnGroupKeysOnly();
+        int     offset      = spec.getOffset() == null ? 0 : spec.getOffset();
+        Integer limit       = spec.getLimit();
+
+        List<Map<String, Object>> rows    = new ArrayList<>();
+        int                       skipped = 0;
+        Map<String, FieldValue>   after   = null;
+        do {
+            Map<String, FieldValue> afterKey = after;
+            Aggregation composite = Aggregation.of(a -> a
+                    .composite(c -> {
+                        c.size(compositePageSize).sources(sources);
+                        if (afterKey != null) {
+                            c.after(afterKey);
+                        }
+                        return c;
+                    })
+                    .aggregations(metrics)
+            );
+            CompositeAggregate result = search(query, Map.of(GROUPS, composite)).aggregations().get(GROUPS).composite();
+            List<CompositeBucket> buckets = result.buckets().array();
+
+            for (CompositeBucket bucket : buckets) {
+                Map<String, Object> row = toRow(bucket);
+                if (!matchesHaving(row)) {
+                    continue;
+                }
+                if (nativeOrder && skipped < offset) {
+                    // composite 已按目标顺序返回，offset 内的分组直接丢弃
+                    skipped++;
+                    continue;
+                }
+                rows.add(row);
+                if (nativeOrder && limit != null && rows.size() >= limit) {
+                    return rows;
+                }
+                if (!nativeOrder && rows.size() > maxBuckets) {
+                    throw new IllegalStateException("按指标排序的聚合分组数超过上限 " + maxBuckets + "，请缩小查询范围或改为按分组字段排序");
+                }
+            }
+            after = buckets.isEmpty() ? null : result.afterKey();
+        } while (after != null && !after.isEmpty());
+
+        if (nativeOrder) {
+            return rows;
+        }
+        rows.sort(rowComparator());
+        return page(rows);
+    }
+
+    private SearchResponse<Void> search(Query query, Map<String, Aggregation> aggregations) {
+
+        try {
+            return client.search(
+                    SearchRequest.of(s -> s
+                            .index(index)
+                            .query(query)
+                            .size(0)
+                            .trackTotalHits(t -> t.enabled(false))
+                            .aggregations(aggregations)
+                    ),
+                    Void.class
+            );
+        } catch (IOException e) {
+            throw new RuntimeException("聚合查询失败", e);
+        }
+    }
+
+    // ==================== 结果处理 ====================
+
+    private Map<String, Object> toRow(CompositeBucket bucket) {
+
+        Map<String, Object> row = new HashMap<>();
+        for (AggregateSpec.Item item : spec.getItems()) {
+            String name = nameByTarget.get(item.targetField());
+            if (item.type() == AggType.FIELD) {
+                FieldValue key = bucket.key().get(name);
+                row.put(item.targetField(), key == null || key.isNull() ? null : key._get());
+            } else {
+                row.put(item.targetField(), metricValue(item, bucket.aggregations().get(name)));
+            }
+        }
+        return row;
+    }
+
+    private Object metricValue(AggregateSpec.Item item, Aggregate aggregate) {
+
+        if (aggregate == null) {
+            return null;
+        }
+        return switch (item.type()) {
+            case COUNT -> toLong(aggregate.valueCount().value());
+            case COUNT_DISTINCT -> aggregate.cardinality().value();
+            case SUM -> finite(aggregate.sum().value());
+            case AVG -> finite(aggregate.avg().value());
+            case MIN -> toSourceType(item.sourceField(), finite(aggregate.min().value()));
+            case MAX -> toSourceType(item.sourceField(), finite(aggregate.max().value()));
+            case FIELD -> null;
+        };
+    }
+
+    /**
+     * 日期字段的 min/max 以 epoch 毫秒返回，还原为字段本身的时间类型；
+     * 无时区的 LocalDateTime / LocalDate 在索引中按 UTC 存储，按 UTC 还原
+     */
+    private Object toSourceType(String sourceField, Double value) {
+
+        Class<?> type = fieldTypes.get(sourceField);
+        if (value == null || !isTemporal(type)) {
+            return value;
+        }
+        Instant instant = Instant.ofEpochMilli(value.longValue());
+        if (type == Instant.class) {
+            return instant;
+        }
+        if (type == LocalDateTime.class) {
+            return LocalDateTime.ofInstant(instant, ZoneOffset.UTC);
+        }
+        if (type == LocalDate.class) {
+            return LocalDate.ofInstant(instant, ZoneOffset.UTC);
+        }
+        if (type == OffsetDateTime.class) {
+            return instant.atOffset(ZoneOffset.UTC);
+        }
+        return instant.atZone(ZoneOffset.UTC);
+    }
+
+    /**
+     * 空分组的 min/max/avg 返回 null 或 ±Infinity，统一为 null
+     */
+    private static Double finite(Double value) {
+
+        return value == null || value.isNaN() || value.isInfinite() ? null : value;
+    }
+
+    private static Long toLong(Double value) {
+
+        Double finite = finite(value);
+        return finite == null ? null : finite.longValue();
+    }
+
+    private boolean matchesHaving(Map<String, Object> row) {
+
+        for (AggregateSpec.Having having : spec.getHavings()) {
+            if (!matches(row.get(having.targetField()), having.queryType(), having.value())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean matches(Object actual, QueryType queryType, Object expected) {
+
+        return switch (queryType) {
+            case IS_NULL -> actual == null;
+            case IS_NOT_NULL -> actual != null;
+            case EQ -> actual != null && compare(actual, expected) == 0;
+            case NE -> actual != null && compare(actual, expected) != 0;
+            case GT -> actual != null && compare(actual, expected) > 0;
+            case GE -> actual != null && compare(actual, expected) >= 0;
+            case LT -> actual != null && compare(actual, expected) < 0;
+            case LE -> actual != null && compare(actual, expected) <= 0;
+            case LIKE -> actual != null && lower(actual).contains(lower(expected));
+            case START_WITH -> actual != null && lower(actual).startsWith(lower(expected));
+            case END_WITH -> actual != null && lower(actual).endsWith(lower(expected));
+            case IN -> actual != null && expected instanceof Collection<?> values
+                    && values.stream().anyMatch(value -> value != null && compare(actual, value) == 0);
+            case NOT_IN -> !(expected instanceof Collection<?> values)
+                    || values.stream().noneMatch(value -> value != null && actual != null && compare(actual, value) == 0);
+            default -> throw new IllegalArgumentException("having 不支持查询类型: " + queryType);
+        };
+    }
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static int compare(Object left, Object right) {
+
+        if (left instanceof Number l && right instanceof Number r) {
+            return new BigDecimal(l.toString()).compareTo(new BigDecimal(r.toString()));
+        }
+        if (left instanceof Comparable l && left.getClass().isInstance(right)) {
+            return l.compareTo(right);
+        }
+        return String.valueOf(left).compareTo(String.valueOf(right));
+    }
+
+    private static String lower(Object value) {
+
+        return String.valueOf(value).toLowerCase();
+    }
+
+    private Comparator<Map<String, Object>> rowComparator() {
+
+        Comparator<Map<String, Object>> comparator = (a, b) -> 0;
+        for (AggregateSpec.Order order : spec.getOrders()) {
+            Comparator<Object> values = order.asc()
+                    ? AggregateExecutor::compare
+                    : (a, b) -> compare(b, a);
+            comparator = comparator.thenComparing(
+                    row -> row.get(order.targetField()),
+                    Comparator.nullsLast(values)
+            );
+        }
+        return comparator;
+    }
+
+    private List<Map<String, Object>> page(List<Map<String, Object>> rows) {
+
+        int from = spec.getOffset() == null ? 0 : Math.min(spec.getOffset(), rows.size());
+        int to   = spec.getLimit() == null ? rows.size() : (int) Math.min(rows.size(), (long) from + spec.getLimit());
+        return rows.subList(from, to);
+    }
+
+    private boolean ordersOnGroupKeysOnly() {
+
+        return spec.getOrders().stream()
+                .allMatch(order -> sourceOfTarget(order.targetField()) != null);
+    }
+
+    /**
+     * FIELD 投影目标字段对应的分组源字段，非 FIELD 返回 null
+     */
+    private String sourceOfTarget(String targetField) {
+
+        return spec.getItems().stream()
+                .filter(item -> item.type() == AggType.FIELD && Objects.equals(item.targetField(), targetField))
+                .map(AggregateSpec.Item::sourceField)
+                .findFirst()
+                .orElse(null);
+    }
+
+    private static boolean isTemporal(Class<?> type) {
+
+        return type != null && TEMPORAL_TYPES.contains(type);
+    }
+
+    private static boolean isNumeric(Class<?> type) {
+
+        return type != null && (Number.class.isAssignableFrom(type) || (type.isPrimitive() && type != boolean.class && type != char.class));
+    }
+
+
+}
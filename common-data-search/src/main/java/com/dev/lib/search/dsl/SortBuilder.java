@@ -40,7 +40,7 @@ public final class SortBuilder {
         return sortOptions;
     }
 
-    private static String resolveSortField(String field, Class<?> type) {
+    static String resolveSortField(String field, Class<?> type) {
 
         if (type == null) return field + ".keyword";
 
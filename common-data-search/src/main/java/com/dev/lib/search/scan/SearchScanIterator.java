@@ -0,0 +1,283 @@
+package com.dev.lib.search.scan;
+
+import com.dev.lib.util.Dispatcher;
+import lombok.extern.slf4j.Slf4j;
+import org.opensearch.client.opensearch.OpenSearchClient;
+import org.opensearch.client.opensearch._types.FieldValue;
+import org.opensearch.client.opensearch._types.SortOptions;
+import org.opensearch.client.opensearch._types.SortOrder;
+import org.opensearch.client.opensearch._types.Time;
+import org.opensearch.client.opensearch._types.query_dsl.Query;
+import org.opensearch.client.opensearch.core.ClearScrollRequest;
+import org.opensearch.client.opensearch.core.ScrollRequest;
+import org.opensearch.client.opensearch.core.ScrollResponse;
+import org.opensearch.client.opensearch.core.SearchRequest;
+import org.opensearch.client.opensearch.core.SearchResponse;
+import org.opensearch.client.opensearch.core.search.Hit;
+import org.opensearch.client.opensearch.core.pit.CreatePitRequest;
+import org.opensearch.client.opensearch.core.pit.DeletePitRequest;
+import org.opensearch.client.opensearch.core.search.HitsMetadata;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * 深度遍历迭代器：PIT + search_after，PIT 不可用时回退 scroll
+ * <p>
+ * - 每页返回后立即在虚拟线程上预取下一页，调用方消费当前页时网络请求并行进行
+ * - includes 非空时只返回指定字段（_source 过滤）
+ * - 遍历结束或 {@link #close()} 时释放 PIT / scroll 上下文
+ * <p>
+ * 非线程安全，由单个消费方顺序调用。
+ */
+@Slf4j
+public final class SearchScanIterator<T> implements Iterator<T>, AutoCloseable {
+
+    private final OpenSearchClient client;
+
+    private final String index;
+
+    private final Query query;
+
+    private final List<SortOptions> sort;
+
+    private final List<String> includes;
+
+    private final int pageSize;
+
+    private final String keepAlive;
+
+    private final Class<T> documentClass;
+
+    private String pitId;
+
+    private String scrollId;
+
+    private boolean scrollMode;
+
+    private Iterator<T> current = List.<T>of().iterator();
+
+    private CompletableFuture<Page<T>> next;
+
+    private boolean exhausted;
+
+    private boolean closed;
+
+    private record Page<T>(List<T> documents, List<FieldValue> lastSort, String scrollId, boolean last) {}
+
+    public SearchScanIterator(
+            OpenSearchClient client,
+            String index,
+            Query query,
+            List<SortOptions> sort,
+            List<String> includes,
+            int pageSize,
+            String keepAlive,
+            Class<T> documentClass
+    ) {
+
+        this.client = client;
+        this.index = index;
+        this.query = query;
+        this.sort = sort;
+        this.includes = includes == null ? List.of() : includes;
+        this.pageSize = pageSize;
+        this.keepAlive = keepAlive;
+        this.documentClass = documentClass;
+
+        openContext();
+        this.next = CompletableFuture.supplyAsync(this::fetchFirst, Dispatcher.IO);
+    }
+
+    // ==================== Iterator ====================
+
+    @Override
+    public boolean hasNext() {
+
+        while (!current.hasNext()) {
+            if (exhausted || closed) {
+                return false;
+            }
+            Page<T> page = awaitNext();
+            current = page.documents().iterator();
+            if (page.last()) {
+                exhausted = true;
+                next = null;
+                close();
+            } else {
+                // 交付当前页的同时预取下一页
+                next = CompletableFuture.supplyAsync(() -> fetchAfter(page), Dispatcher.IO);
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public T next() {
+
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return current.next();
+    }
+
+    @Override
+    public void close() {
+
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (next != null) {
+            // 等待在途预取结束，避免其后续请求使用已释放的上下文
+            next.handle((page, error) -> null).join();
+            next = null;
+        }
+        releaseContext();
+    }
+
+    // ==================== 上下文 ====================
+
+    private void openContext() {
+
+        try {
+            pitId = client.createPit(CreatePitRequest.of(r -> r
+                    .targetIndexes(index)
+                    .keepAlive(Time.of(t -> t.time(keepAlive)))
+            )).pitId();
+        } catch (IOException | RuntimeException e) {
+            log.debug("PIT unavailable for index {}, falling back to scroll: {}", index, e.getMessage());
+            scrollMode = true;
+        }
+    }
+
+    private void releaseContext() {
+
+        try {
+            if (pitId != null) {
+                String id = pitId;
+                pitId = null;
+                client.deletePit(DeletePitRequest.of(d -> d.pitId(List.of(id))));
+            }
+            if (scrollId != null) {
+                String id = scrollId;
+                scrollId = null;
+                client.clearScroll(ClearScrollRequest.of(c -> c.scrollId(id)));
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to release search context for index {}", index, e);
+        }
+    }
+
+    // ==================== 分页 ====================
+
+    private Page<T> fetchFirst() {
+
+        return scrollMode ? scrollFirst() : searchAfter(null);
+    }
+
+    private Page<T> fetchAfter(Page<T> previous) {
+
+        return scrollMode ? scrollNext(previous.scrollId()) : searchAfter(previous.lastSort());
+    }
+
+    private Page<T> searchAfter(List<FieldValue> after) {
+
+        List<SortOptions> sortWithTiebreaker = new ArrayList<>(sort);
+        // _shard_doc 在 PIT 内唯一，保证 search_after 翻页不重不漏
+        sortWithTiebreaker.add(SortOptions.of(s -> s.field(f -> f.field("_shard_doc").order(SortOrder.Asc))));
+        try {
+            SearchResponse<T> response = client.search(
+                    SearchRequest.of(s -> {
+                        s.query(query)
+                                .size(pageSize)
+                                .sort(sortWithTiebreaker)
+                                .trackTotalHits(t -> t.enabled(false))
+                                .pit(p -> p.id(pitId).keepAlive(keepAlive));
+                        if (after != null) {
+                            s.searchAfter(after);
+                        }
+                        applySource(s);
+                        return s;
+                    }),
+                    documentClass
+            );
+            List<Hit<T>> hits = response.hits().hits();
+            List<FieldValue> lastSort = hits.isEmpty() ? null : hits.getLast().sort();
+            return new Page<>(sources(response.hits()), lastSort, null, hits.size() < pageSize);
+        } catch (IOException e) {
+            throw new RuntimeException("深度遍历查询失败", e);
+        }
+    }
+
+    private Page<T> scrollFirst() {
+
+        try {
+            SearchResponse<T> response = client.search(
+                    SearchRequest.of(s -> {
+                        s.index(index)
+                                .query(query)
+                                .size(pageSize)
+                                .sort(sort)
+                                .scroll(Time.of(t -> t.time(keepAlive)));
+                        applySource(s);
+                        return s;
+                    }),
+                    documentClass
+            );
+            scrollId = response.scrollId();
+            return new Page<>(sources(response.hits()), null, scrollId, response.hits().hits().size() < pageSize);
+        } catch (IOException e) {
+            throw new RuntimeException("深度遍历查询失败", e);
+        }
+    }
+
+    private Page<T> scrollNext(String previousScrollId) {
+
+        try {
+            ScrollResponse<T> response = client.scroll(
+                    ScrollRequest.of(s -> s.scrollId(previousScrollId).scroll(Time.of(t -> t.time(keepAlive)))),
+                    documentClass
+            );
+            scrollId = response.scrollId();
+            return new Page<>(sources(response.hits()), null, scrollId, response.hits().hits().size() < pageSize);
+        } catch (IOException e) {
+            throw new RuntimeException("深度遍历查询失败", e);
+        }
+    }
+
+    private void applySource(SearchRequest.Builder builder) {
+
+        if (!includes.isEmpty()) {
+            builder.source(src -> src.filter(f -> f.includes(includes)));
+        }
+    }
+
+    private Page<T> awaitNext() {
+
+        try {
+            return next.join();
+        } catch (CompletionException e) {
+            close();
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw e;
+        }
+    }
+
+    private static <T> List<T> sources(HitsMetadata<T> hits) {
+
+        return hits.hits().stream()
+                .map(Hit::source)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+}
@@ -0,0 +1,187 @@
+package com.dev.lib.search.sync;
+
+import com.dev.lib.jpa.TransactionHelper;
+import com.dev.lib.jpa.entity.JpaEntity;
+import com.dev.lib.search.SearchEntity;
+import com.dev.lib.search.bulk.BulkIngestException;
+import com.dev.lib.search.bulk.BulkIngestResult;
+import com.dev.lib.search.bulk.BulkIngester;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.opensearch.client.opensearch.OpenSearchClient;
+import org.opensearch.client.opensearch._types.mapping.TypeMapping;
+import org.opensearch.client.opensearch.indices.CreateIndexRequest;
+import org.opensearch.client.opensearch.indices.DeleteIndexRequest;
+import org.opensearch.client.opensearch.indices.ExistsAliasRequest;
+import org.opensearch.client.opensearch.indices.ExistsRequest;
+import org.opensearch.client.opensearch.indices.GetAliasRequest;
+import org.opensearch.client.opensearch.indices.GetIndexRequest;
+import org.opensearch.client.opensearch.indices.GetIndexResponse;
+import org.opensearch.client.opensearch.indices.IndexState;
+import org.opensearch.client.opensearch.indices.RefreshRequest;
+import org.opensearch.client.opensearch.indices.UpdateAliasesRequest;
+import org.opensearch.client.opensearch.indices.update_aliases.Action;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * 全量重建索引：写入新索引后原子切换别名
+ * <p>
+ * 1. 复制当前索引的 mappings 创建 {alias}_yyyyMMddHHmmss
+ * 2. 开启影子写入，增量同步同时写新索引
+ * 3. 流式遍历数据库全量写入（带外部版本号，与增量写入互不覆盖新数据）
+ * 4. refresh 后一次 updateAliases 切换别名并移除旧索引
+ * <p>
+ * 别名当前是实体索引（首次迁移）时，切换动作中以 remove_index 删除该索引，别名与索引同名不冲突。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnClass(name = {
+        "com.dev.lib.jpa.entity.JpaEntity",
+        "com.dev.lib.local.task.message.poller.core.PollerTaskSubmitter"
+})
+@ConditionalOnProperty(prefix = "app.opensearch.sync", name = "enabled", havingValue = "true")
+public class SearchReindexer {
+
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+
+    private final OpenSearchClient client;
+
+    private final SearchSyncMappings mappings;
+
+    private final SearchSyncWriter writer;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * @param alias 映射的索引名（{@link com.dev.lib.search.SearchIndex} 的值）
+     * @return 新索引名
+     */
+    public String reindex(String alias) {
+
+        return reindex(mappings.byIndex(alias));
+    }
+
+    public <E extends JpaEntity, D extends SearchEntity> String reindex(SearchSyncMapping<E, D> mapping) {
+
+        String alias = mapping.index();
+        String target = alias + "_" + LocalDateTime.now().format(SUFFIX);
+        try {
+            createLike(alias, target);
+        } catch (IOException e) {
+            throw new RuntimeException("创建索引失败: " + target, e);
+        }
+
+        try {
+            writer.beginShadow(alias, target);
+        } catch (IllegalStateException e) {
+            dropQuietly(target);
+            throw e;
+        }
+        try {
+            BulkIngestResult result = load(mapping, target);
+            if (result.hasFailures()) {
+                throw new BulkIngestException(result);
+            }
+            client.indices().refresh(RefreshRequest.of(r -> r.index(target)));
+            swap(alias, target);
+            log.info("reindex {} -> {} finished: {} documents, took={}ms", alias, target, result.succeeded(), result.tookMillis());
+            return target;
+        } catch (IOException | RuntimeException e) {
+            dropQuietly(target);
+            if (e instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new RuntimeException("重建索引失败: " + alias, e);
+        } finally {
+            writer.endShadow(alias);
+        }
+    }
+
+    private <E extends JpaEntity, D extends SearchEntity> BulkIngestResult load(SearchSyncMapping<E, D> mapping, String target) {
+
+        BulkIngester ingester = writer.newIngester();
+        int[] count = {0};
+        TransactionHelper.run(() -> {
+            try (Stream<E> entities = mapping.streamAll()) {
+                entities.forEach(entity -> {
+                    if (!Boolean.TRUE.equals(entity.getDeleted())) {
+                        ingester.index(target, entity.getBizId(), mapping.toDocument(entity), SearchSyncWriter.version(entity));
+                    }
+                    // 已写入的实体从持久化上下文中移除，避免全量遍历时内存持续增长
+                    if (++count[0] % 500 == 0) {
+                        entityManager.clear();
+                    }
+                });
+            }
+        });
+        return ingester.finish();
+    }
+
+    private void createLike(String alias, String target) throws IOException {
+
+        TypeMapping mapping = null;
+        if (client.indices().exists(ExistsRequest.of(e -> e.index(alias))).value()) {
+            GetIndexResponse current = client.indices().get(GetIndexRequest.of(g -> g.index(alias)));
+            mapping = current.result().values().stream()
+                    .map(IndexState::mappings)
+                    .filter(Objects::nonNull)
+                    .findFirst()
+                    .orElse(null);
+        }
+        TypeMapping copied = mapping;
+        client.indices().create(CreateIndexRequest.of(c -> {
+            c.index(target);
+            if (copied != null) {
+                c.mappings(copied);
+            }
+            return c;
+        }));
+    }
+
+    private void swap(String alias, String target) throws IOException {
+
+        List<Action> actions = new ArrayList<>();
+        actions.add(Action.of(a -> a.add(add -> add.index(target).alias(alias))));
+
+        List<String> previous = List.of();
+        if (client.indices().existsAlias(ExistsAliasRequest.of(e -> e.name(alias))).value()) {
+            previous = new ArrayList<>(client.indices().getAlias(GetAliasRequest.of(g -> g.name(alias))).result().keySet());
+            previous.remove(target);
+            for (String index : previous) {
+                actions.add(Action.of(a -> a.remove(remove -> remove.index(index).alias(alias))));
+            }
+        } else if (client.indices().exists(ExistsRequest.of(e -> e.index(alias))).value()) {
+            actions.add(Action.of(a -> a.removeIndex(remove -> remove.index(alias))));
+        }
+        client.indices().updateAliases(UpdateAliasesRequest.of(u -> u.actions(actions)));
+
+        if (!previous.isEmpty()) {
+            List<String> obsolete = previous;
+            client.indices().delete(DeleteIndexRequest.of(d -> d.index(obsolete)));
+        }
+    }
+
+    private void dropQuietly(String index) {
+
+        try {
+            client.indices().delete(DeleteIndexRequest.of(d -> d.index(index)));
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to drop index {} after reindex failure", index, e);
+        }
+    }
+
+}
@@ -0,0 +1,59 @@
+package com.dev.lib.search.sync;
+
+import com.dev.lib.jpa.entity.change.EntityChange;
+import com.dev.lib.jpa.entity.change.EntityChangeListener;
+import com.dev.lib.local.task.message.poller.core.PollerTaskSubmitter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * 将事务内的实体变更写入本地消息表（outbox），与业务数据同事务提交
+ * <p>
+ * 每个事务每种实体只写一条任务，任务中只记录 id / bizId，执行时回查数据库取最新状态。
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnClass(name = {
+        "com.dev.lib.jpa.entity.JpaEntity",
+        "com.dev.lib.local.task.message.poller.core.PollerTaskSubmitter"
+})
+@ConditionalOnProperty(prefix = "app.opensearch.sync", name = "enabled", havingValue = "true")
+public class SearchSyncChangeListener implements EntityChangeListener {
+
+    private final SearchSyncMappings mappings;
+
+    /**
+     * PollerTaskSubmitter 依赖 JPA 仓库，延迟获取避免循环依赖
+     */
+    private final ObjectProvider<PollerTaskSubmitter> submitter;
+
+    @Override
+    public boolean supports(Class<?> entityClass) {
+
+        return mappings.contains(entityClass);
+    }
+
+    @Override
+    public void onChanges(List<EntityChange> changes) {
+
+        Map<Class<?>, List<EntityChange>> byEntity = changes.stream().collect(Collectors.groupingBy(
+                EntityChange::entityClass,
+                LinkedHashMap::new,
+                Collectors.toList()
+        ));
+        byEntity.forEach((entityClass, entityChanges) -> submitter.getObject().submit(
+                SearchSyncTaskExecutor.TASK_TYPE,
+                entityChanges.getFirst().bizId(),
+                SearchSyncTaskExecutor.payload(entityClass, entityChanges)
+        ));
+    }
+
+}
@@ -0,0 +1,58 @@
+package com.dev.lib.search.sync;
+
+import com.dev.lib.jpa.entity.BaseRepository;
+import com.dev.lib.jpa.entity.JpaEntity;
+import com.dev.lib.search.SearchEntity;
+import com.dev.lib.search.SearchIndex;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * JPA 实体到搜索文档的映射，声明为 Spring Bean 后该实体的变更会自动同步到索引
+ * <p>
+ * 文档 ID 使用实体 bizId，版本号使用 updatedAt 毫秒数，乱序到达的旧数据不会覆盖新数据。
+ *
+ * @param <E> JPA 实体
+ * @param <D> 搜索文档，需标注 {@link SearchIndex}
+ */
+public interface SearchSyncMapping<E extends JpaEntity, D extends SearchEntity> {
+
+    Class<E> entityClass();
+
+    Class<D> documentClass();
+
+    BaseRepository<E> repository();
+
+    D toDocument(E entity);
+
+    /**
+     * 写入目标索引（别名），默认取文档类上的 {@link SearchIndex}
+     */
+    default String index() {
+
+        SearchIndex annotation = documentClass().getAnnotation(SearchIndex.class);
+        if (annotation == null) {
+            throw new IllegalStateException("文档类未标注 @SearchIndex: " + documentClass().getName());
+        }
+        return annotation.value();
+    }
+
+    /**
+     * 按主键回查实体当前状态，不存在的 id 视为已删除
+     */
+    default List<E> load(Collection<Long> ids) {
+
+        return repository().findAllById(ids);
+    }
+
+    /**
+     * 全量遍历，用于重建索引，在只读事务内调用
+     */
+    default Stream<E> streamAll() {
+
+        return repository().stream();
+    }
+
+}
@@ -0,0 +1,65 @@
+package com.dev.lib.search.sync;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 已注册的实体映射，按实体类型索引
+ */
+@Component
+@ConditionalOnClass(name = {
+        "com.dev.lib.jpa.entity.JpaEntity",
+        "com.dev.lib.local.task.message.poller.core.PollerTaskSubmitter"
+})
+@ConditionalOnProperty(prefix = "app.opensearch.sync", name = "enabled", havingValue = "true")
+public class SearchSyncMappings {
+
+    private final Map<Class<?>, SearchSyncMapping<?, ?>> byEntity;
+
+    public SearchSyncMappings(ObjectProvider<SearchSyncMapping<?, ?>> mappings) {
+
+        this.byEntity = mappings.orderedStream().collect(Collectors.toUnmodifiableMap(
+                SearchSyncMapping::entityClass,
+                Function.identity(),
+                (a, b) -> {
+                    throw new IllegalStateException("实体重复映射: " + a.entityClass().getName());
+                }
+        ));
+    }
+
+    public boolean contains(Class<?> entityClass) {
+
+        return byEntity.containsKey(entityClass);
+    }
+
+    public SearchSyncMapping<?, ?> get(Class<?> entityClass) {
+
+        return byEntity.get(entityClass);
+    }
+
+    public SearchSyncMapping<?, ?> get(String entityClassName) {
+
+        return byEntity.values().stream()
+                .filter(mapping -> mapping.entityClass().getName().equals(entityClassName))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("未注册的同步实体: " + entityClassName));
+    }
+
+    /**
+     * 按索引名查找，用于重建索引
+     */
+    public SearchSyncMapping<?, ?> byIndex(String index) {
+
+        return byEntity.values().stream()
+                .filter(mapping -> mapping.index().equals(index))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("索引未配置同步映射: " + index));
+    }
+
+}
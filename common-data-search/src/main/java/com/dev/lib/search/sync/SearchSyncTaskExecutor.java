@@ -0,0 +1,100 @@
+package com.dev.lib.search.sync;
+
+import com.dev.lib.jpa.entity.change.EntityChange;
+import com.dev.lib.local.task.message.poller.core.PollerContext;
+import com.dev.lib.local.task.message.poller.core.PollerResult;
+import com.dev.lib.local.task.message.poller.core.PollerTaskExecutor;
+import com.dev.lib.local.task.message.poller.core.TaskType;
+import com.dev.lib.local.task.message.poller.strategy.BackoffStrategy;
+import com.dev.lib.search.bulk.BulkIngestResult;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 执行 outbox 中的索引同步任务
+ * <p>
+ * 任务只携带 id，重复执行结果相同；部分失败时整条任务按退避策略重试。
+ */
+@Slf4j
+@RequiredArgsConstructor
+@TaskType(
+        value = SearchSyncTaskExecutor.TASK_TYPE,
+        houseNumberCount = 4,
+        pollInterval = "1s",
+        fetchLimit = 200,
+        maxRetry = 10,
+        baseDelay = "1s",
+        maxDelay = "5m",
+        backoffStrategy = BackoffStrategy.EXPONENTIAL
+)
+@ConditionalOnClass(name = {
+        "com.dev.lib.jpa.entity.JpaEntity",
+        "com.dev.lib.local.task.message.poller.core.PollerTaskSubmitter"
+})
+@ConditionalOnProperty(prefix = "app.opensearch.sync", name = "enabled", havingValue = "true")
+public class SearchSyncTaskExecutor implements PollerTaskExecutor {
+
+    public static final String TASK_TYPE = "SEARCH_SYNC";
+
+    private static final String ENTITY_CLASS = "entityClass";
+
+    private static final String CHANGES = "changes";
+
+    private static final String VERSION = "version";
+
+    private final SearchSyncMappings mappings;
+
+    private final SearchSyncWriter writer;
+
+    static Map<String, Object> payload(Class<?> entityClass, List<EntityChange> changes) {
+
+        List<Map<String, Object>> items = new ArrayList<>(changes.size());
+        for (EntityChange change : changes) {
+            items.add(Map.of(
+                    "id", change.id(),
+                    "bizId", change.bizId(),
+                    VERSION, SearchSyncWriter.version(change.updatedAt())
+            ));
+        }
+        return Map.of(ENTITY_CLASS, entityClass.getName(), CHANGES, items);
+    }
+
+    @Override
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public PollerResult execute(PollerContext context) {
+
+        Map<String, Object> payload = context.getPayload();
+        SearchSyncMapping mapping;
+        try {
+            mapping = mappings.get((String) payload.get(ENTITY_CLASS));
+        } catch (IllegalArgumentException e) {
+            return PollerResult.failureNoRetry(e.getMessage());
+        }
+
+        // payload 经 JSON 反序列化，id 可能是 Integer / Long；旧任务没有 version
+        Map<Long, SearchSyncWriter.Removed> changed = new LinkedHashMap<>();
+        for (Map<String, Object> item : (List<Map<String, Object>>) payload.get(CHANGES)) {
+            Number version = (Number) item.get(VERSION);
+            changed.put(
+                    ((Number) item.get("id")).longValue(),
+                    new SearchSyncWriter.Removed((String) item.get("bizId"), version == null ? 0L : version.longValue())
+            );
+        }
+
+        BulkIngestResult result = writer.sync(mapping, changed);
+        if (result.hasFailures()) {
+            BulkIngestResult.Failure first = result.failures().getFirst();
+            return PollerResult.failure("索引同步失败 " + result.failures().size() + " 条, 首个失败 ["
+                    + first.id() + "] " + first.type() + ": " + first.reason());
+        }
+        return PollerResult.success();
+    }
+
+}
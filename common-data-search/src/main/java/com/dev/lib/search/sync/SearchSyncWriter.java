@@ -0,0 +1,155 @@
+package com.dev.lib.search.sync;
+
+import com.dev.lib.jpa.TransactionHelper;
+import com.dev.lib.jpa.entity.JpaEntity;
+import com.dev.lib.search.OpenSearchConfig;
+import com.dev.lib.search.SearchEntity;
+import com.dev.lib.search.bulk.BulkIngestResult;
+import com.dev.lib.search.bulk.BulkIngester;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.opensearch.client.opensearch.OpenSearchClient;
+import org.opensearch.client.opensearch._types.Refresh;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 回查实体最新状态并批量写入索引
+ * <p>
+ * - 按 loadChunkSize 分批回查，存在且未删除的写入文档，其余删除文档
+ * - 所有写入带外部版本号（updatedAt 毫秒），多个任务乱序执行时以数据库最新状态为准
+ * - 已物理删除的实体以变更记录里最后一次写入的版本号 +1 删除文档，不依赖执行节点的时钟
+ * - 重建索引期间同时写入新索引（影子索引），切换别名后不丢增量
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnClass(name = {
+        "com.dev.lib.jpa.entity.JpaEntity",
+        "com.dev.lib.local.task.message.poller.core.PollerTaskSubmitter"
+})
+@ConditionalOnProperty(prefix = "app.opensearch.sync", name = "enabled", havingValue = "true")
+public class SearchSyncWriter {
+
+    private final OpenSearchClient client;
+
+    private final OpenSearchConfig.OpenSearchProperties properties;
+
+    /**
+     * 别名 -> 重建中的新索引
+     */
+    private final Map<String, String> shadows = new ConcurrentHashMap<>();
+
+    private record Write(String bizId, SearchEntity document, long version) {}
+
+    /**
+     * 实体已物理删除时删除文档所需的信息
+     *
+     * @param bizId       文档 id
+     * @param lastVersion 变更记录中实体最后一次写入的版本号
+     */
+    public record Removed(String bizId, long lastVersion) {}
+
+    /**
+     * @param changed 实体主键 -> 变更记录，实体已物理删除时据此删除文档
+     */
+    public <E extends JpaEntity, D extends SearchEntity> BulkIngestResult sync(
+            SearchSyncMapping<E, D> mapping,
+            Map<Long, Removed> changed
+    ) {
+
+        List<String> targets = targets(mapping.index());
+        BulkIngester ingester = newIngester();
+        List<Long> ids = new ArrayList<>(changed.keySet());
+        int chunkSize = Math.max(1, properties.getSync().getLoadChunkSize());
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            List<Long> chunk = ids.subList(from, Math.min(ids.size(), from + chunkSize));
+            // toDocument 可能访问懒加载关联，需在事务内完成转换
+            List<Write> writes = TransactionHelper.call(() -> resolve(mapping, chunk, changed));
+            for (Write write : writes) {
+                for (String target : targets) {
+                    if (write.document() != null) {
+                        ingester.index(target, write.bizId(), write.document(), write.version());
+                    } else {
+                        ingester.delete(target, write.bizId(), write.version());
+                    }
+                }
+            }
+        }
+        BulkIngestResult result = ingester.finish();
+        log.debug(
+                "search sync {} -> {}: succeeded={}, failed={}, took={}ms",
+                mapping.entityClass().getSimpleName(), targets, result.succeeded(), result.failures().size(), result.tookMillis()
+        );
+        return result;
+    }
+
+    BulkIngester newIngester() {
+
+        return new BulkIngester(client, client._transport().jsonpMapper(), properties.getBulk().toOptions(), Refresh.False);
+    }
+
+    void beginShadow(String alias, String index) {
+
+        if (shadows.putIfAbsent(alias, index) != null) {
+            throw new IllegalStateException("索引正在重建: " + alias);
+        }
+    }
+
+    void endShadow(String alias) {
+
+        shadows.remove(alias);
+    }
+
+    static long version(JpaEntity entity) {
+
+        return version(entity.getUpdatedAt() != null ? entity.getUpdatedAt() : entity.getCreatedAt());
+    }
+
+    static long version(LocalDateTime updatedAt) {
+
+        return updatedAt == null ? 0L : updatedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private List<String> targets(String alias) {
+
+        String shadow = shadows.get(alias);
+        return shadow == null ? List.of(alias) : List.of(alias, shadow);
+    }
+
+    private static <E extends JpaEntity, D extends SearchEntity> List<Write> resolve(
+            SearchSyncMapping<E, D> mapping,
+            List<Long> ids,
+            Map<Long, Removed> changed
+    ) {
+
+        Map<Long, E> loaded = new HashMap<>();
+        for (E entity : mapping.load(ids)) {
+            loaded.put(entity.getId(), entity);
+        }
+        List<Write> writes = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            E entity = loaded.get(id);
+            if (entity != null && !Boolean.TRUE.equals(entity.getDeleted())) {
+                writes.add(new Write(entity.getBizId(), mapping.toDocument(entity), version(entity)));
+            } else if (entity != null) {
+                writes.add(new Write(entity.getBizId(), null, version(entity)));
+            } else {
+                // 物理删除前的最后一次写入不晚于 lastVersion，+1 保证删除压过此前所有写入，重复执行结果相同
+                Removed removed = changed.get(id);
+                writes.add(new Write(removed.bizId(), null, removed.lastVersion() + 1));
+            }
+        }
+        return writes;
+    }
+
+}
@@ -0,0 +1,253 @@
+package com.dev.lib.search.bulk;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.opensearch.client.opensearch.OpenSearchClient;
+import org.opensearch.client.opensearch._types.Refresh;
+import org.opensearch.client.opensearch.core.BulkRequest;
+import org.opensearch.client.opensearch.core.BulkResponse;
+import org.opensearch.client.opensearch.core.bulk.BulkOperation;
+import org.opensearch.client.opensearch.core.bulk.BulkResponseItem;
+import org.opensearch.client.opensearch.core.bulk.OperationType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BulkIngesterTest {
+
+    private static final String INDEX = "test-index";
+
+    @Test
+    void shouldSplitByOperationCountAndReportSuccess() throws Exception {
+
+        StubCluster cluster = new StubCluster(id -> 201);
+        BulkIngester ingester = new BulkIngester(cluster.client(), null, options(100, 4, 3), Refresh.False);
+
+        for (int i = 0; i < 1050; i++) {
+            ingester.index(INDEX, "doc-" + i, Map.of("n", i));
+        }
+        BulkIngestResult result = ingester.finish();
+
+        assertThat(result.succeeded()).isEqualTo(1050);
+        assertThat(result.failures()).isEmpty();
+        assertThat(result.requests()).isEqualTo(11);
+    }
+
+    @Test
+    void shouldRetryRejectedItemsOnly() throws Exception {
+
+        Set<String> rejectedOnce = ConcurrentHashMap.newKeySet();
+        StubCluster cluster = new StubCluster(id -> {
+            if (id.equals("doc-bad")) {
+                return 400;
+            }
+            if (id.endsWith("7") && rejectedOnce.add(id)) {
+                return 429;
+            }
+            return 201;
+        });
+        BulkIngester ingester = new BulkIngester(cluster.client(), null, options(50, 2, 3), Refresh.False);
+
+        for (int i = 0; i < 200; i++) {
+            ingester.index(INDEX, "doc-" + i, Map.of("n", i));
+        }
+        ingester.index(INDEX, "doc-bad", Map.of("n", -1));
+        BulkIngestResult result = ingester.finish();
+
+        assertThat(result.succeeded()).isEqualTo(200);
+        assertThat(result.retries()).isEqualTo(20);
+        assertThat(result.failures()).singleElement().satisfies(failure -> {
+            assertThat(failure.id()).isEqualTo("doc-bad");
+            assertThat(failure.status()).isEqualTo(400);
+            assertThat(failure.type()).isEqualTo("mapper_parsing_exception");
+        });
+    }
+
+    @Test
+    void shouldReportItemsStillRejectedAfterRetries() throws Exception {
+
+        StubCluster cluster = new StubCluster(id -> 429);
+        BulkIngester ingester = new BulkIngester(cluster.client(), null, options(10, 1, 2), Refresh.False);
+
+        ingester.delete(INDEX, "doc-1");
+        BulkIngestResult result = ingester.finish();
+
+        assertThat(result.requests()).isEqualTo(3);
+        assertThat(result.failures()).singleElement().satisfies(failure -> {
+            assertThat(failure.action()).isEqualTo("delete");
+            assertThat(failure.status()).isEqualTo(429);
+        });
+    }
+
+    @Test
+    void shouldRetryItemsMissingFromResponse() throws Exception {
+
+        StubCluster cluster = new StubCluster(id -> 201);
+        cluster.truncateResponses.set(1);
+        BulkIngester ingester = new BulkIngester(cluster.client(), null, options(10, 1, 2), Refresh.False);
+
+        for (int i = 0; i < 10; i++) {
+            ingester.index(INDEX, "doc-" + i, Map.of("n", i));
+        }
+        BulkIngestResult result = ingester.finish();
+
+        assertThat(result.succeeded()).isEqualTo(10);
+        assertThat(result.retries()).isEqualTo(3);
+        assertThat(result.requests()).isEqualTo(2);
+        assertThat(result.failures()).isEmpty();
+    }
+
+    @Test
+    void shouldReportItemsStillMissingAfterRetries() throws Exception {
+
+        StubCluster cluster = new StubCluster(id -> 201);
+        cluster.truncateResponses.set(Integer.MAX_VALUE);
+        BulkIngester ingester = new BulkIngester(cluster.client(), null, options(10, 1, 1), Refresh.False);
+
+        for (int i = 0; i < 5; i++) {
+            ingester.index(INDEX, "doc-" + i, Map.of("n", i));
+        }
+        BulkIngestResult result = ingester.finish();
+
+        assertThat(result.succeeded()).isEqualTo(2);
+        assertThat(result.failures()).extracting(BulkIngestResult.Failure::id).containsExactly("doc-2", "doc-3", "doc-4");
+        assertThat(result.failures()).allSatisfy(failure -> assertThat(failure.type()).isEqualTo("missing_response_item"));
+    }
+
+    @Test
+    void shouldBoundInFlightRequests() throws Exception {
+
+        StubCluster cluster = new StubCluster(id -> 201);
+        cluster.latencyMillis = 20;
+        BulkIngester ingester = new BulkIngester(cluster.client(), null, options(10, 3, 0), Refresh.False);
+
+        for (int i = 0; i < 300; i++) {
+            ingester.index(INDEX, "doc-" + i, Map.of("n", i));
+        }
+        ingester.finish();
+
+        assertThat(cluster.maxConcurrent.get()).isLessThanOrEqualTo(3);
+        assertThat(cluster.maxConcurrent.get()).isGreaterThan(1);
+    }
+
+    /**
+     * 写入速率基准：模拟每个 bulk 请求 10ms 往返，对比原有 256 条逐批同步发送与并发写入器。
+     * 默认跳过，执行：mvn -pl common-data-search test -Dbenchmark=true -Dtest=BulkIngesterTest
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void concurrentIngestShouldRaiseThroughput() throws Exception {
+
+        int documents = 200_000;
+
+        StubCluster sequentialCluster = new StubCluster(id -> 201);
+        sequentialCluster.latencyMillis = 10;
+        BulkIngester sequential = new BulkIngester(sequentialCluster.client(), null, options(256, 1, 0), Refresh.False);
+        for (int i = 0; i < documents; i++) {
+            sequential.index(INDEX, "doc-" + i, Map.of("n", i));
+        }
+        BulkIngestResult baseline = sequential.finish();
+
+        StubCluster concurrentCluster = new StubCluster(id -> 201);
+        concurrentCluster.latencyMillis = 10;
+        BulkIngester concurrent = new BulkIngester(concurrentCluster.client(), null, options(1000, 8, 3), Refresh.False);
+        for (int i = 0; i < documents; i++) {
+            concurrent.index(INDEX, "doc-" + i, Map.of("n", i));
+        }
+        BulkIngestResult ingested = concurrent.finish();
+
+        System.out.printf(
+                "%d docs: sequential 256/batch=%d docs/s, concurrent 1000x8=%d docs/s%n",
+                documents,
+                documents * 1000L / Math.max(1, baseline.tookMillis()),
+                documents * 1000L / Math.max(1, ingested.tookMillis())
+        );
+        assertThat(ingested.succeeded()).isEqualTo(documents);
+        assertThat(ingested.tookMillis()).isLessThan(baseline.tookMillis());
+    }
+
+    private static BulkIngester.Options options(int maxOperations, int concurrency, int maxRetries) {
+
+        return new BulkIngester.Options(maxOperations, Long.MAX_VALUE, concurrency, maxRetries, 1L, 5L);
+    }
+
+    /**
+     * 本地桩集群：按文档 ID 决定每条结果的状态码，记录并发度
+     */
+    private static final class StubCluster {
+
+        private final Function<String, Integer> statusById;
+
+        private final AtomicInteger concurrent = new AtomicInteger();
+
+        private final AtomicInteger maxConcurrent = new AtomicInteger();
+
+        private volatile long latencyMillis;
+
+        /**
+         * 剩余需要截断的响应数，被截断的响应丢掉最后 3 条结果
+         */
+        private final AtomicInteger truncateResponses = new AtomicInteger();
+
+        StubCluster(Function<String, Integer> statusById) {
+
+            this.statusById = statusById;
+        }
+
+        OpenSearchClient client() throws Exception {
+
+            OpenSearchClient client = mock(OpenSearchClient.class);
+            when(client.bulk(any(BulkRequest.class))).thenAnswer(invocation -> respond(invocation.getArgument(0)));
+            return client;
+        }
+
+        private BulkResponse respond(BulkRequest request) throws InterruptedException {
+
+            maxConcurrent.accumulateAndGet(concurrent.incrementAndGet(), Math::max);
+            try {
+                if (latencyMillis > 0) {
+                    Thread.sleep(latencyMillis);
+                }
+                List<BulkResponseItem> items = new ArrayList<>();
+                boolean errors = false;
+                for (BulkOperation operation : request.operations()) {
+                    boolean delete = operation.isDelete();
+                    String id = delete ? operation.delete().id() : operation.index().id();
+                    int status = statusById.apply(id);
+                    errors |= status >= 300;
+                    items.add(BulkResponseItem.of(item -> {
+                        item.operationType(delete ? OperationType.Delete : OperationType.Index)
+                                .index(INDEX)
+                                .id(id)
+                                .status(status);
+                        if (status == 429) {
+                            item.error(e -> e.type("es_rejected_execution_exception").reason("queue full"));
+                        } else if (status >= 300) {
+                            item.error(e -> e.type("mapper_parsing_exception").reason("failed to parse"));
+                        }
+                        return item;
+                    }));
+                }
+                if (truncateResponses.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+                    items.subList(Math.max(0, items.size() - 3), items.size()).clear();
+                }
+                boolean hasErrors = errors;
+                return BulkResponse.of(b -> b.errors(hasErrors).took(1).items(items));
+            } finally {
+                concurrent.decrementAndGet();
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,301 @@
+package com.dev.lib.search.dsl;
+
+import com.dev.lib.entity.dsl.DslQuery;
+import com.dev.lib.entity.dsl.agg.AggregateSpec;
+import com.dev.lib.search.SearchEntity;
+import org.junit.jupiter.api.Test;
+import org.opensearch.client.opensearch.OpenSearchClient;
+import org.opensearch.client.opensearch._types.FieldValue;
+import org.opensearch.client.opensearch._types.aggregations.Aggregate;
+import org.opensearch.client.opensearch._types.aggregations.CompositeBucket;
+import org.opensearch.client.opensearch._types.query_dsl.Query;
+import org.opensearch.client.opensearch.core.SearchRequest;
+import org.opensearch.client.opensearch.core.SearchResponse;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@SuppressWarnings({"rawtypes", "unchecked"})
+class AggregateExecutorTest {
+
+    private static final Map<String, Class<?>> FIELD_TYPES = Map.of(
+            "deptId", String.class,
+            "amount", Long.class,
+            "createdAt", LocalDateTime.class,
+            "paidAt", Instant.class,
+            "remark", LocalTime.class
+    );
+
+    private static final Query MATCH_ALL = Query.of(q -> q.matchAll(m -> m));
+
+    @Test
+    void shouldPageCompositeBucketsAndStopOnceLimitReached() throws Exception {
+
+        OrderQuery query = new OrderQuery();
+        query.agg(DeptTotal.class)
+                .groupBy("deptId")
+                .field("deptId").to(DeptTotal::setDeptId)
+                .sum("amount").to(DeptTotal::setTotal)
+                .orderByAsc(DeptTotal::getDeptId)
+                .page(1, 3);
+
+        StubCluster cluster = new StubCluster(
+                page("d2", bucket("d1", 10), bucket("d2", 20)),
+                page("d5", bucket("d3", 30), bucket("d4", 40), bucket("d5", 50)),
+                page(null)
+        );
+
+        List<DeptTotal> result = execute(cluster.client(), query.aggregateSpec());
+
+        assertThat(result).extracting(DeptTotal::getDeptId).containsExactly("d2", "d3", "d4");
+        assertThat(result).extracting(DeptTotal::getTotal).containsExactly(20L, 30L, 40L);
+        assertThat(cluster.requests).hasSize(2);
+        assertThat(cluster.requests.getFirst().size()).isZero();
+        assertThat(cluster.requests.getFirst().aggregations().get("groups").composite().sources().getFirst())
+                .containsKey("g0");
+    }
+
+    @Test
+    void shouldSortByMetricAfterCollectingAllBuckets() throws Exception {
+
+        OrderQuery query = new OrderQuery();
+        query.agg(DeptTotal.class)
+                .groupBy("deptId")
+                .field("deptId").to(DeptTotal::setDeptId)
+                .sum("amount").to(DeptTotal::setTotal)
+                .orderByDesc(DeptTotal::getTotal)
+                .limit(2);
+
+        StubCluster cluster = new StubCluster(
+                page("d2", bucket("d1", 5), bucket("d2", 30)),
+                page("d3", bucket("d3", 20)),
+                page(null)
+        );
+
+        List<DeptTotal> result = execute(cluster.client(), query.aggregateSpec());
+
+        assertThat(result).extracting(DeptTotal::getDeptId).containsExactly("d2", "d3");
+        assertThat(cluster.requests).hasSize(3);
+    }
+
+    @Test
+    void shouldAggregateWithoutGroupByIntoSingleRow() throws Exception {
+
+        OrderQuery query = new OrderQuery();
+        query.agg(DeptTotal.class)
+                .sum("amount").to(DeptTotal::setTotal)
+                .count("deptId").to(DeptTotal::setCount);
+
+        SearchResponse response = mock(SearchResponse.class);
+        when(response.aggregations()).thenReturn(Map.of(
+                "m0", Aggregate.of(a -> a.sum(s -> s.value(120.0))),
+                "m1", Aggregate.of(a -> a.valueCount(v -> v.value(4.0)))
+        ));
+        OpenSearchClient client = mock(OpenSearchClient.class);
+        when(client.search(any(SearchRequest.class), eq(Void.class))).thenReturn(response);
+
+        List<DeptTotal> result = execute(client, query.aggregateSpec());
+
+        assertThat(result).singleElement().satisfies(row -> {
+            assertThat(row.getTotal()).isEqualTo(120L);
+            assertThat(row.getCount()).isEqualTo(4L);
+        });
+    }
+
+    @Test
+    void shouldRejectSumOnNonNumericField() {
+
+        OrderQuery query = new OrderQuery();
+        query.agg(DeptTotal.class)
+                .groupBy("deptId")
+                .sum("deptId").to(DeptTotal::setTotal);
+
+        assertThatThrownBy(() -> execute(mock(OpenSearchClient.class), query.aggregateSpec()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("数值类型");
+    }
+
+    @Test
+    void shouldConvertTemporalMinMaxBackToFieldType() throws Exception {
+
+        OrderQuery query = new OrderQuery();
+        query.agg(OrderRange.class)
+                .min("createdAt").to(OrderRange::setFirstCreatedAt)
+                .max("paidAt").to(OrderRange::setLastPaidAt);
+
+        LocalDateTime firstCreatedAt = LocalDateTime.of(2024, 3, 1, 8, 30, 15);
+        Instant lastPaidAt = Instant.parse("2024-03-31T23:59:59.123Z");
+        SearchResponse response = mock(SearchResponse.class);
+        when(response.aggregations()).thenReturn(Map.of(
+                "m0", Aggregate.of(a -> a.min(m -> m.value((double) firstCreatedAt.toInstant(ZoneOffset.UTC).toEpochMilli()))),
+                "m1", Aggregate.of(a -> a.max(m -> m.value((double) lastPaidAt.toEpochMilli())))
+        ));
+        OpenSearchClient client = mock(OpenSearchClient.class);
+        when(client.search(any(SearchRequest.class), eq(Void.class))).thenReturn(response);
+
+        List<OrderRange> result = AggregateExecutor.executeAggregateQuery(
+                client, "orders", MATCH_ALL, query.aggregateSpec(), FIELD_TYPES, 100, 1000
+        );
+
+        assertThat(result).singleElement().satisfies(row -> {
+            assertThat(row.getFirstCreatedAt()).isEqualTo(firstCreatedAt);
+            assertThat(row.getLastPaidAt()).isEqualTo(lastPaidAt);
+        });
+    }
+
+    @Test
+    void shouldRejectMinMaxOnUnsupportedTemporalField() {
+
+        OrderQuery query = new OrderQuery();
+        query.agg(OrderRange.class)
+                .min("remark").to(OrderRange::setFirstCreatedAt);
+
+        assertThatThrownBy(() -> AggregateExecutor.executeAggregateQuery(
+                mock(OpenSearchClient.class), "orders", MATCH_ALL, query.aggregateSpec(), FIELD_TYPES, 100, 1000
+        ))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("remark");
+    }
+
+    private static List<DeptTotal> execute(OpenSearchClient client, AggregateSpec<OrderEntity, DeptTotal> spec) {
+
+        return AggregateExecutor.executeAggregateQuery(client, "orders", MATCH_ALL, spec, FIELD_TYPES, 100, 1000);
+    }
+
+    private static CompositeBucket bucket(String deptId, double total) {
+
+        return CompositeBucket.of(b -> b
+                .key(Map.of("g0", FieldValue.of(deptId)))
+                .docCount(1)
+                .aggregations(Map.of("m0", Aggregate.of(a -> a.sum(s -> s.value(total)))))
+        );
+    }
+
+    private static Aggregate page(String afterKey, CompositeBucket... buckets) {
+
+        return Aggregate.of(a -> a.composite(c -> {
+            c.buckets(b -> b.array(List.of(buckets)));
+            if (afterKey != null) {
+                c.afterKey(Map.of("g0", FieldValue.of(afterKey)));
+            }
+            return c;
+        }));
+    }
+
+    /**
+     * 按顺序返回预置的 composite 分页结果，记录收到的请求
+     */
+    private static final class StubCluster {
+
+        private final Deque<Aggregate> pages;
+
+        private final List<SearchRequest> requests = new ArrayList<>();
+
+        StubCluster(Aggregate... pages) {
+
+            this.pages = new ArrayDeque<>(List.of(pages));
+        }
+
+        OpenSearchClient client() throws Exception {
+
+            OpenSearchClient client = mock(OpenSearchClient.class);
+            when(client.search(any(SearchRequest.class), eq(Void.class))).thenAnswer(invocation -> {
+                requests.add(invocation.getArgument(0));
+                SearchResponse response = mock(SearchResponse.class);
+                when(response.aggregations()).thenReturn(Map.of("groups", pages.pop()));
+                return response;
+            });
+            return client;
+        }
+
+    }
+
+    static class OrderEntity extends SearchEntity {
+    }
+
+    static class OrderQuery extends DslQuery<OrderEntity> {
+    }
+
+    public static class DeptTotal {
+
+        private String deptId;
+
+        private Long total;
+
+        private Long count;
+
+        public String getDeptId() {
+
+            return deptId;
+        }
+
+        public void setDeptId(String deptId) {
+
+            this.deptId = deptId;
+        }
+
+        public Long getTotal() {
+
+            return total;
+        }
+
+        public void setTotal(Long total) {
+
+            this.total = total;
+        }
+
+        public Long getCount() {
+
+            return count;
+        }
+
+        public void setCount(Long count) {
+
+            this.count = count;
+        }
+
+    }
+
+    public static class OrderRange {
+
+        private LocalDateTime firstCreatedAt;
+
+        private Instant lastPaidAt;
+
+        public LocalDateTime getFirstCreatedAt() {
+
+            return firstCreatedAt;
+        }
+
+        public void setFirstCreatedAt(LocalDateTime firstCreatedAt) {
+
+            this.firstCreatedAt = firstCreatedAt;
+        }
+
+        public Instant getLastPaidAt() {
+
+            return lastPaidAt;
+        }
+
+        public void setLastPaidAt(Instant lastPaidAt) {
+
+            this.lastPaidAt = lastPaidAt;
+        }
+
+    }
+
+}
@@ -0,0 +1,149 @@
+package com.dev.lib.search.scan;
+
+import org.junit.jupiter.api.Test;
+import org.opensearch.client.opensearch.OpenSearchClient;
+import org.opensearch.client.opensearch._types.FieldValue;
+import org.opensearch.client.opensearch._types.SortOptions;
+import org.opensearch.client.opensearch._types.SortOrder;
+import org.opensearch.client.opensearch._types.query_dsl.Query;
+import org.opensearch.client.opensearch.core.ClearScrollRequest;
+import org.opensearch.client.opensearch.core.ScrollRequest;
+import org.opensearch.client.opensearch.core.ScrollResponse;
+import org.opensearch.client.opensearch.core.SearchRequest;
+import org.opensearch.client.opensearch.core.SearchResponse;
+import org.opensearch.client.opensearch.core.pit.CreatePitRequest;
+import org.opensearch.client.opensearch.core.pit.CreatePitResponse;
+import org.opensearch.client.opensearch.core.pit.DeletePitRequest;
+import org.opensearch.client.opensearch.core.search.Hit;
+import org.opensearch.client.opensearch.core.search.HitsMetadata;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SuppressWarnings({"rawtypes", "unchecked"})
+class SearchScanIteratorTest {
+
+    private static final String INDEX = "test-index";
+
+    private static final Query MATCH_ALL = Query.of(q -> q.matchAll(m -> m));
+
+    private static final List<SortOptions> SORT = List.of(
+            SortOptions.of(s -> s.field(f -> f.field("createdAt").order(SortOrder.Desc)))
+    );
+
+    @Test
+    void shouldPageWithSearchAfterInsidePit() throws Exception {
+
+        OpenSearchClient client = mock(OpenSearchClient.class);
+        CreatePitResponse pit = mock(CreatePitResponse.class);
+        when(pit.pitId()).thenReturn("pit-1");
+        when(client.createPit(any(CreatePitRequest.class))).thenReturn(pit);
+
+        List<SearchRequest> requests = new CopyOnWriteArrayList<>();
+        when(client.search(any(SearchRequest.class), eq(Map.class))).thenAnswer(invocation -> {
+            SearchRequest request = invocation.getArgument(0);
+            requests.add(request);
+            int from = request.searchAfter().isEmpty() ? 0 : (int) request.searchAfter().getFirst().longValue() + 1;
+            return searchResponse(page(from, Math.min(100, 250 - from)));
+        });
+
+        List<Map> documents = new ArrayList<>();
+        try (SearchScanIterator<Map> iterator = iterator(client, List.of("n"))) {
+            iterator.forEachRemaining(documents::add);
+        }
+
+        assertThat(documents).hasSize(250);
+        assertThat(documents.getLast().get("n")).isEqualTo(249);
+        assertThat(requests).hasSize(3);
+        assertThat(requests.get(1).searchAfter().getFirst().longValue()).isEqualTo(99L);
+        assertThat(requests.getFirst().pit().id()).isEqualTo("pit-1");
+        assertThat(requests.getFirst().sort().getLast().field().field()).isEqualTo("_shard_doc");
+        assertThat(requests.getFirst().source().filter().includes()).containsExactly("n");
+        verify(client, times(1)).deletePit(any(DeletePitRequest.class));
+    }
+
+    @Test
+    void shouldFallBackToScrollWhenPitUnavailable() throws Exception {
+
+        OpenSearchClient client = mock(OpenSearchClient.class);
+        when(client.createPit(any(CreatePitRequest.class))).thenThrow(new IOException("pit not supported"));
+
+        SearchResponse first = searchResponse(page(0, 100));
+        when(first.scrollId()).thenReturn("scroll-1");
+        when(client.search(any(SearchRequest.class), eq(Map.class))).thenReturn(first);
+
+        ScrollResponse last = mock(ScrollResponse.class);
+        HitsMetadata hits = page(100, 30);
+        when(last.hits()).thenReturn(hits);
+        when(last.scrollId()).thenReturn("scroll-2");
+        when(client.scroll(any(ScrollRequest.class), eq(Map.class))).thenReturn(last);
+
+        List<Map> documents = new ArrayList<>();
+        try (SearchScanIterator<Map> iterator = iterator(client, null)) {
+            iterator.forEachRemaining(documents::add);
+        }
+
+        assertThat(documents).hasSize(130);
+        verify(client, times(1)).clearScroll(any(ClearScrollRequest.class));
+        verify(client, never()).deletePit(any(DeletePitRequest.class));
+    }
+
+    @Test
+    void shouldReleasePitWhenClosedEarly() throws Exception {
+
+        OpenSearchClient client = mock(OpenSearchClient.class);
+        CreatePitResponse pit = mock(CreatePitResponse.class);
+        when(pit.pitId()).thenReturn("pit-1");
+        when(client.createPit(any(CreatePitRequest.class))).thenReturn(pit);
+        SearchResponse full = searchResponse(page(0, 100));
+        when(client.search(any(SearchRequest.class), eq(Map.class))).thenReturn(full);
+
+        SearchScanIterator<Map> iterator = iterator(client, null);
+        assertThat(iterator.next().get("n")).isEqualTo(0);
+        iterator.close();
+        iterator.close();
+
+        assertThat(iterator.hasNext()).isFalse();
+        verify(client, times(1)).deletePit(any(DeletePitRequest.class));
+    }
+
+    private static SearchScanIterator<Map> iterator(OpenSearchClient client, List<String> includes) {
+
+        return new SearchScanIterator<>(client, INDEX, MATCH_ALL, SORT, includes, 100, "1m", Map.class);
+    }
+
+    private static SearchResponse searchResponse(HitsMetadata hits) {
+
+        SearchResponse response = mock(SearchResponse.class);
+        when(response.hits()).thenReturn(hits);
+        return response;
+    }
+
+    private static HitsMetadata page(int from, int count) {
+
+        List<Hit<Map>> hits = new ArrayList<>();
+        for (int i = from; i < from + count; i++) {
+            int n = i;
+            hits.add(Hit.of(h -> h
+                    .index(INDEX)
+                    .id("doc-" + n)
+                    .source(Map.of("n", n))
+                    .sort(List.of(FieldValue.of(n)))
+            ));
+        }
+        return HitsMetadata.of(h -> h.hits(hits));
+    }
+
+}
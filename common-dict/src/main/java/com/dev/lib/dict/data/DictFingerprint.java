@@ -0,0 +1,8 @@
+package com.dev.lib.dict.data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 字典表指纹：行数 + 最近修改时间，任一变化说明字典已被修改
+ */
+public record DictFingerprint(long count, LocalDateTime lastModified) {}
@@ -47,4 +47,9 @@ public interface DictItemRepository extends BaseRepository<DictItemEntity> {
         return loads(new Query().setItemCodes(codes));
     }
 
+    @org.springframework.data.jpa.repository.Query(
+            "select new com.dev.lib.dict.data.DictFingerprint(count(i), max(i.updatedAt)) from DictItemEntity i"
+    )
+    DictFingerprint fingerprint();
+
 }
\ No newline at end of file
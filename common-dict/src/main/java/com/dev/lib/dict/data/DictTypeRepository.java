@@ -32,4 +32,9 @@ public interface DictTypeRepository extends BaseRepository<DictType> {
         return load(new Query().setBizId(id));
     }
 
+    @org.springframework.data.jpa.repository.Query(
+            "select new com.dev.lib.dict.data.DictFingerprint(count(t), max(t.updatedAt)) from DictType t"
+    )
+    DictFingerprint fingerprint();
+
 }
\ No newline at end of file
@@ -10,6 +10,7 @@ import com.dev.lib.web.model.ServerResponse;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 public interface DictAdapt {
 
@@ -33,4 +34,14 @@ public interface DictAdapt {
 
     Collection<DictItem> listItem(Collection<String> codes);
 
+    /**
+     * 全部字典项，按类型编码分组、组内按 sort 排序
+     */
+    Map<String, List<DictItem>> loadAll();
+
+    /**
+     * 字典表指纹，用于无广播时轮询判断是否需要重新加载
+     */
+    String fingerprint();
+
 }
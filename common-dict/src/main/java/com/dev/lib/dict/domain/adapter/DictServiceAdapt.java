@@ -4,18 +4,23 @@ import com.dev.lib.dict.data.*;
 import com.dev.lib.dict.domain.model.dto.*;
 import com.dev.lib.dict.domain.model.valobj.DictItemVO;
 import com.dev.lib.dict.domain.model.valobj.DictTypeVO;
+import com.dev.lib.dict.domain.service.snapshot.DictChangedEvent;
 import com.dev.lib.dict.serialize.DictItem;
 import com.dev.lib.web.model.QueryRequest;
 import com.dev.lib.web.model.ServerResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Component
@@ -40,11 +45,14 @@ public class DictServiceAdapt implements DictAdapt {
 
     private final DictItemEntityToDictItemVOMapper itemVOMapper;
 
+    private final ApplicationEventPublisher eventPublisher;
+
     @Override
     public String createType(DictTypeDTO.CreateType cmd) {
 
         DictType type = createTypeMapper.convert(cmd);
         typeRepository.save(type);
+        eventPublisher.publishEvent(new DictChangedEvent());
 
         return type.getBizId();
     }
@@ -55,6 +63,7 @@ public class DictServiceAdapt implements DictAdapt {
 
         Optional<DictType> loadedType = typeRepository.getType(id);
         loadedType.ifPresent(typeRepository::delete);
+        eventPublisher.publishEvent(new DictChangedEvent());
     }
 
     @Override
@@ -63,6 +72,7 @@ public class DictServiceAdapt implements DictAdapt {
 
         Optional<DictType> loadedType = typeRepository.getType(cmd.getBizId());
         loadedType.ifPresent(it -> updateTypeMapper.convert(cmd, it));
+        eventPublisher.publishEvent(new DictChangedEvent());
     }
 
     @Override
@@ -80,6 +90,7 @@ public class DictServiceAdapt implements DictAdapt {
 
         Optional<DictType> loadedType = typeRepository.getType(id);
         loadedType.ifPresent(it -> it.addItem(createItemMapper.convert(cmd)));
+        eventPublisher.publishEvent(new DictChangedEvent());
     }
 
     @Override
@@ -88,6 +99,7 @@ public class DictServiceAdapt implements DictAdapt {
 
         Optional<DictItemEntity> loadedItem = itemRepository.getByBizId(cmd.getBizId());
         loadedItem.ifPresent(it -> updateItemMapper.convert(cmd, it));
+        eventPublisher.publishEvent(new DictChangedEvent());
     }
 
     @Override
@@ -96,6 +108,7 @@ public class DictServiceAdapt implements DictAdapt {
 
         Optional<DictItemEntity> loadedItem = itemRepository.getByBizId(id);
         loadedItem.ifPresent(itemRepository::delete);
+        eventPublisher.publishEvent(new DictChangedEvent());
     }
 
     @Override
@@ -119,4 +132,24 @@ public class DictServiceAdapt implements DictAdapt {
         return itemRepository.listItem(codes).stream().map(mapper::convert).toList();
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Map<String, List<DictItem>> loadAll() {
+
+        return itemRepository.loads(new DictItemRepository.Query()).stream()
+                .filter(it -> it.getDictType() != null)
+                .sorted(Comparator.comparing(DictItemEntity::getSort, Comparator.nullsLast(Comparator.naturalOrder())))
+                .collect(Collectors.groupingBy(
+                        it -> it.getDictType().getTypeCode(),
+                        Collectors.mapping(mapper::convert, Collectors.toList())
+                ));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public String fingerprint() {
+
+        return itemRepository.fingerprint() + "|" + typeRepository.fingerprint();
+    }
+
 }
@@ -3,6 +3,7 @@ package com.dev.lib.dict.domain.service;
 import com.dev.lib.dict.serialize.DictItem;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 
 public interface DictService {
@@ -11,4 +12,14 @@ public interface DictService {
 
     Map<String, DictItem> getItems(Collection<String> codes);
 
+    /**
+     * 指定类型下的字典项，按 sort 排序
+     */
+    List<DictItem> getItemsByType(String typeCode);
+
+    /**
+     * 当前快照版本，字典变更后递增
+     */
+    long version();
+
 }
\ No newline at end of file
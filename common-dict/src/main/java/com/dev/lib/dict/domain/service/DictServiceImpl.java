@@ -1,24 +1,28 @@
 package com.dev.lib.dict.domain.service;
 
-import com.dev.lib.dict.domain.adapter.DictAdapt;
+import com.dev.lib.dict.domain.service.snapshot.DictSnapshotHolder;
 import com.dev.lib.dict.serialize.DictItem;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
+/**
+ * 从进程内快照读取字典，不访问数据库
+ */
 @Component
 @RequiredArgsConstructor
 public class DictServiceImpl implements DictService {
 
-    private final DictAdapt adapt;
+    private final DictSnapshotHolder snapshotHolder;
 
     @Override
     public DictItem getItem(String code) {
 
-        return adapt.getItem(code);
+        return snapshotHolder.current().byCode().get(code);
     }
 
     @Override
@@ -28,10 +32,27 @@ public class DictServiceImpl implements DictService {
             return Map.of();
         }
 
-        return adapt.listItem(codes).stream().collect(Collectors.toMap(
-                DictItem::getItemCode,
-                item -> item
-        ));
+        Map<String, DictItem> byCode = snapshotHolder.current().byCode();
+        Map<String, DictItem> result = new HashMap<>(codes.size() * 2);
+        for (String code : codes) {
+            DictItem item = byCode.get(code);
+            if (item != null) {
+                result.put(code, item);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public List<DictItem> getItemsByType(String typeCode) {
+
+        return snapshotHolder.current().byType().getOrDefault(typeCode, List.of());
+    }
+
+    @Override
+    public long version() {
+
+        return snapshotHolder.current().version();
     }
 
 }
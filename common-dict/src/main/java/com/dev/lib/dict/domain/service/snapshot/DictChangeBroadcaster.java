@@ -0,0 +1,19 @@
+package com.dev.lib.dict.domain.service.snapshot;
+
+/**
+ * 跨节点字典变更通知
+ * 未提供实现（无消息中间件）时各节点依赖定时指纹比对刷新
+ */
+public interface DictChangeBroadcaster {
+
+    /**
+     * 通知其他节点重新加载
+     */
+    void publish();
+
+    /**
+     * 注册收到其他节点变更通知时的回调
+     */
+    void subscribe(Runnable onChange);
+
+}
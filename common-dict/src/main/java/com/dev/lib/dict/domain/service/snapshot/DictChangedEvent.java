@@ -0,0 +1,6 @@
+package com.dev.lib.dict.domain.service.snapshot;
+
+/**
+ * 字典在本节点被修改，事务提交后触发快照重建与广播
+ */
+public record DictChangedEvent() {}
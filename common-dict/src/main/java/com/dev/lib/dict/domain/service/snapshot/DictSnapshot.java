@@ -0,0 +1,37 @@
+package com.dev.lib.dict.domain.service.snapshot;
+
+import com.dev.lib.dict.serialize.DictItem;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 不可变的字典快照，整体替换（copy-on-write），读取无锁
+ *
+ * @param version     本节点内单调递增的版本号
+ * @param fingerprint 构建快照时的字典表指纹
+ * @param byType      类型编码 -> 字典项（按 sort 排序）
+ * @param byCode      字典项编码 -> 字典项
+ */
+public record DictSnapshot(
+        long version,
+        String fingerprint,
+        Map<String, List<DictItem>> byType,
+        Map<String, DictItem> byCode
+) {
+
+    static final DictSnapshot EMPTY = new DictSnapshot(0L, null, Map.of(), Map.of());
+
+    static DictSnapshot of(long version, String fingerprint, Map<String, List<DictItem>> grouped) {
+
+        Map<String, List<DictItem>> byType = new LinkedHashMap<>();
+        Map<String, DictItem> byCode = new LinkedHashMap<>();
+        grouped.forEach((type, items) -> {
+            byType.put(type, List.copyOf(items));
+            items.forEach(item -> byCode.put(item.getItemCode(), item));
+        });
+        return new DictSnapshot(version, fingerprint, Map.copyOf(byType), Map.copyOf(byCode));
+    }
+
+}
@@ -0,0 +1,97 @@
+package com.dev.lib.dict.domain.service.snapshot;
+
+import com.dev.lib.dict.domain.adapter.DictAdapt;
+import com.dev.lib.util.Dispatcher;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Objects;
+
+/**
+ * 进程内字典快照
+ * <p>
+ * - 启动时全量加载，读取只访问 volatile 引用，不查库
+ * - 本节点修改提交后立即重建并广播，其他节点收到通知后重建
+ * - 定时比对字典表指纹兜底，广播丢失或未配置中间件时最迟一个周期内收敛
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DictSnapshotHolder {
+
+    private final DictAdapt adapt;
+
+    private final ObjectProvider<DictChangeBroadcaster> broadcaster;
+
+    private volatile DictSnapshot snapshot = DictSnapshot.EMPTY;
+
+    public DictSnapshot current() {
+
+        DictSnapshot current = snapshot;
+        if (current == DictSnapshot.EMPTY) {
+            // 启动加载失败或尚未完成时，首次访问同步加载
+            return reload();
+        }
+        return current;
+    }
+
+    public synchronized DictSnapshot reload() {
+
+        // 先取指纹再加载：期间发生的修改会在下次比对时再次触发加载
+        String fingerprint = adapt.fingerprint();
+        DictSnapshot next = DictSnapshot.of(snapshot.version() + 1, fingerprint, adapt.loadAll());
+        snapshot = next;
+        log.debug("Dict snapshot reloaded: version={}, items={}", next.version(), next.byCode().size());
+        return next;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+
+        reloadQuietly();
+        broadcaster.ifAvailable(it -> it.subscribe(() -> Dispatcher.IO.execute(this::reloadQuietly)));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onChanged(DictChangedEvent event) {
+
+        reloadQuietly();
+        try {
+            broadcaster.ifAvailable(DictChangeBroadcaster::publish);
+        } catch (RuntimeException e) {
+            log.warn("Dict change broadcast failed, other nodes will catch up by polling", e);
+        }
+    }
+
+    @Scheduled(
+            fixedDelayString = "${app.dict.refresh-interval-ms:30000}",
+            initialDelayString = "${app.dict.refresh-interval-ms:30000}"
+    )
+    public void refreshIfChanged() {
+
+        try {
+            if (!Objects.equals(adapt.fingerprint(), snapshot.fingerprint())) {
+                reload();
+            }
+        } catch (RuntimeException e) {
+            log.warn("Dict fingerprint check failed", e);
+        }
+    }
+
+    private void reloadQuietly() {
+
+        try {
+            reload();
+        } catch (RuntimeException e) {
+            log.warn("Dict snapshot reload failed, keep version {}", snapshot.version(), e);
+        }
+    }
+
+}
@@ -0,0 +1,47 @@
+package com.dev.lib.dict.domain.service.snapshot;
+
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * 基于 Redis 发布订阅的字典变更广播，app.dict.change-broadcast=redis 时启用
+ * 消息体为发送节点 ID，忽略本节点发出的消息
+ */
+@Component
+@ConditionalOnClass(name = "org.redisson.api.RedissonClient")
+@ConditionalOnProperty(prefix = "app.dict", name = "change-broadcast", havingValue = "redis")
+public class RedisDictChangeBroadcaster implements DictChangeBroadcaster {
+
+    private static final String TOPIC = "dict:changed";
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final RTopic topic;
+
+    public RedisDictChangeBroadcaster(RedissonClient redissonClient) {
+
+        this.topic = redissonClient.getTopic(TOPIC);
+    }
+
+    @Override
+    public void publish() {
+
+        topic.publish(nodeId);
+    }
+
+    @Override
+    public void subscribe(Runnable onChange) {
+
+        topic.addListener(String.class, (channel, sender) -> {
+            if (!nodeId.equals(sender)) {
+                onChange.run();
+            }
+        });
+    }
+
+}
@@ -0,0 +1,210 @@
+package com.dev.lib.dict.domain.service.snapshot;
+
+import com.dev.lib.dict.data.DictFingerprint;
+import com.dev.lib.dict.domain.adapter.DictAdapt;
+import com.dev.lib.dict.serialize.DictItem;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DictSnapshotHolderTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2026, 1, 1, 0, 0);
+
+    @Test
+    void shouldReplaceSnapshotOnReload() {
+
+        FakeDict dict = new FakeDict();
+        dict.put("gender", new DictItem("male", "男", null));
+        DictSnapshotHolder holder = holder(dict.adapt, null);
+
+        DictSnapshot first = holder.current();
+        assertThat(first.version()).isEqualTo(1);
+        assertThat(first.byCode()).containsOnlyKeys("male");
+
+        dict.put("gender", new DictItem("female", "女", null));
+        DictSnapshot second = holder.reload();
+
+        assertThat(second.version()).isEqualTo(2);
+        assertThat(second.byType().get("gender")).extracting(DictItem::getItemCode).containsExactly("male", "female");
+        assertThat(holder.current()).isSameAs(second);
+        // 旧快照不受影响，正在读取的调用方看到的仍是一致的数据
+        assertThat(first.byCode()).containsOnlyKeys("male");
+    }
+
+    @Test
+    void shouldReloadOtherNodeWhenChangeIsBroadcast() {
+
+        FakeDict dict = new FakeDict();
+        dict.put("gender", new DictItem("male", "男", null));
+        InMemoryBus bus = new InMemoryBus();
+        DictSnapshotHolder local = holder(dict.adapt, bus.node());
+        DictSnapshotHolder remote = holder(dict.adapt, bus.node());
+        local.onReady();
+        remote.onReady();
+
+        dict.put("gender", new DictItem("female", "女", null));
+        local.onChanged(new DictChangedEvent());
+
+        assertThat(local.current().byCode()).containsKey("female");
+        await(() -> remote.current().byCode().containsKey("female"));
+        assertThat(bus.published).hasSize(1);
+    }
+
+    @Test
+    void shouldReloadOnlyWhenFingerprintChanges() {
+
+        FakeDict dict = new FakeDict();
+        dict.put("gender", new DictItem("male", "男", null));
+        DictSnapshotHolder holder = holder(dict.adapt, null);
+        holder.onReady();
+        verify(dict.adapt, times(1)).loadAll();
+
+        holder.refreshIfChanged();
+        verify(dict.adapt, times(1)).loadAll();
+
+        // 新增一行：行数变化
+        dict.put("gender", new DictItem("female", "女", null));
+        holder.refreshIfChanged();
+        verify(dict.adapt, times(2)).loadAll();
+        assertThat(holder.current().byCode()).containsKey("female");
+
+        // 原地修改：行数不变，最近修改时间变化
+        dict.touch();
+        holder.refreshIfChanged();
+        verify(dict.adapt, times(3)).loadAll();
+
+        holder.refreshIfChanged();
+        verify(dict.adapt, times(3)).loadAll();
+    }
+
+    @Test
+    void shouldKeepLastSnapshotWhenFingerprintCheckFails() {
+
+        FakeDict dict = new FakeDict();
+        dict.put("gender", new DictItem("male", "男", null));
+        DictSnapshotHolder holder = holder(dict.adapt, null);
+        DictSnapshot loaded = holder.current();
+
+        dict.failure.set(new IllegalStateException("db down"));
+        holder.refreshIfChanged();
+
+        assertThat(holder.current()).isSameAs(loaded);
+    }
+
+    private static DictSnapshotHolder holder(DictAdapt adapt, DictChangeBroadcaster broadcaster) {
+
+        DefaultListableBeanFactory factory = new DefaultListableBeanFactory();
+        if (broadcaster != null) {
+            factory.registerSingleton("dictChangeBroadcaster", broadcaster);
+        }
+        ObjectProvider<DictChangeBroadcaster> provider = factory.getBeanProvider(DictChangeBroadcaster.class);
+        return new DictSnapshotHolder(adapt, provider);
+    }
+
+    private static void await(BooleanSupplier condition) {
+
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("condition not met in time");
+            }
+            LockSupport.parkNanos(10_000_000);
+        }
+    }
+
+    /**
+     * 模拟字典表：指纹与仓库查询一致，由行数与最近修改时间组成
+     */
+    static final class FakeDict {
+
+        final DictAdapt adapt = mock(DictAdapt.class);
+
+        final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+
+        private final Map<String, List<DictItem>> items = new ConcurrentHashMap<>();
+
+        private volatile LocalDateTime lastModified = T0;
+
+        FakeDict() {
+
+            when(adapt.loadAll()).thenAnswer(it -> Map.copyOf(items));
+            when(adapt.fingerprint()).thenAnswer(it -> {
+                RuntimeException error = failure.get();
+                if (error != null) {
+                    throw error;
+                }
+                long count = items.values().stream().mapToLong(List::size).sum();
+                return new DictFingerprint(count, lastModified).toString();
+            });
+        }
+
+        void put(String type, DictItem item) {
+
+            items.compute(type, (k, v) -> {
+                List<DictItem> next = v == null ? new ArrayList<>() : new ArrayList<>(v);
+                next.add(item);
+                return next;
+            });
+            touch();
+        }
+
+        void touch() {
+
+            lastModified = lastModified.plusSeconds(1);
+        }
+
+    }
+
+    /**
+     * 进程内广播：通知除发送方之外的所有节点
+     */
+    static final class InMemoryBus {
+
+        final List<DictChangeBroadcaster> published = new CopyOnWriteArrayList<>();
+
+        private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+        DictChangeBroadcaster node() {
+
+            return new DictChangeBroadcaster() {
+
+                @Override
+                public void publish() {
+
+                    published.add(this);
+                    subscribers.stream().filter(it -> it.node() != this).forEach(it -> it.onChange().run());
+                }
+
+                @Override
+                public void subscribe(Runnable onChange) {
+
+                    subscribers.add(new Subscriber(this, onChange));
+                }
+
+            };
+        }
+
+        private record Subscriber(DictChangeBroadcaster node, Runnable onChange) {
+
+        }
+
+    }
+
+}
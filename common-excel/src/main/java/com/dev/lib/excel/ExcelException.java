@@ -13,4 +13,10 @@ public class ExcelException extends BizException {
         );
     }
 
+    public ExcelException(String message, Throwable cause) {
+
+        this(message);
+        initCause(cause);
+    }
+
 }
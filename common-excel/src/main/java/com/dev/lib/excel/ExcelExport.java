@@ -4,6 +4,8 @@ import java.lang.annotation.*;
 
 /**
  * 标记方法返回值为 Excel 导出
+ * <p>
+ * 返回值支持 Collection / Iterable / Iterator / Stream / {@link ExcelRowSource}，均分块写入响应流
  */
 @Target(ElementType.METHOD)
 @Retention(RetentionPolicy.RUNTIME)
@@ -23,4 +25,14 @@ public @interface ExcelExport {
      */
     String sheetName() default "Sheet1";
 
+    /**
+     * 每次写入的行数
+     */
+    int batchSize() default 1000;
+
+    /**
+     * 单个 Sheet 最大行数，超出后自动新建 Sheet
+     */
+    int sheetRowLimit() default 1_000_000;
+
 }
\ No newline at end of file
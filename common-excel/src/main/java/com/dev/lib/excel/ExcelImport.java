@@ -15,4 +15,19 @@ public @interface ExcelImport {
      */
     String fileParam() default "file";
 
+    /**
+     * 流式导入（参数类型为 {@link ExcelImportStream}）时每批行数
+     */
+    int batchSize() default 1000;
+
+    /**
+     * 流式导入时并发处理的批次数，1 表示在请求线程内顺序处理
+     */
+    int parallelism() default 1;
+
+    /**
+     * 流式导入时最多记录的行级错误数，超出后只计数
+     */
+    int maxErrors() default 1000;
+
 }
\ No newline at end of file
@@ -0,0 +1,11 @@
+package com.dev.lib.excel;
+
+/**
+ * 流式导入进度，每完成一批回调一次
+ *
+ * @param parsedRows      已解析行数
+ * @param processedRows   批处理已完成的行数（含失败）
+ * @param failedRows      失败行数
+ * @param estimatedTotal  文件声明的总行数估计，未知时为 0
+ */
+public record ExcelImportProgress(long parsedRows, long processedRows, long failedRows, long estimatedTotal) {}
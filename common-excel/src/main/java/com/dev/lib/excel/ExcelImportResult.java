@@ -0,0 +1,27 @@
+package com.dev.lib.excel;
+
+import java.util.List;
+
+/**
+ * 流式导入结果
+ *
+ * @param totalRows     解析到的数据行数（不含表头）
+ * @param succeededRows 已交给批处理且处理成功的行数
+ * @param failedRows    解析、校验或批处理失败的行数
+ * @param errors        行级错误明细，超过 maxErrors 后只计数不记录
+ */
+public record ExcelImportResult(long totalRows, long succeededRows, long failedRows, List<RowError> errors) {
+
+    /**
+     * @param row     Excel 行号（从 1 开始，含表头行）
+     * @param column  列号（从 1 开始），无法定位到列时为 null
+     * @param message 错误信息
+     */
+    public record RowError(int row, Integer column, String message) {}
+
+    public boolean hasErrors() {
+
+        return failedRows > 0;
+    }
+
+}
@@ -0,0 +1,313 @@
+package com.dev.lib.excel;
+
+import cn.idev.excel.FastExcelFactory;
+import cn.idev.excel.context.AnalysisContext;
+import cn.idev.excel.exception.ExcelDataConvertException;
+import cn.idev.excel.read.listener.ReadListener;
+import com.dev.lib.util.Dispatcher;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.InputStreamSource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * 流式导入句柄，@ExcelData 参数声明为此类型时注入
+ * <p>
+ * - 调用 {@link #process} 时才读取文件，逐行解析、校验后按 batchSize 分批交给处理函数，内存只保留在途批次
+ * - 解析失败、校验失败、批处理异常都记录为行级错误，不中断导入
+ * - parallelism > 1 时批次在虚拟线程上并发处理，处理函数不在请求线程的事务内，需自行保证线程安全
+ * <pre>
+ * &#64;ExcelImport(batchSize = 500)
+ * public ExcelImportResult upload(&#64;ExcelData ExcelImportStream&lt;UserRow&gt; rows) {
+ *     return rows.onProgress(p -> log.info("{}", p)).process(batch -> repository.saveAll(convert(batch)));
+ * }
+ * </pre>
+ */
+@Slf4j
+public final class ExcelImportStream<T> {
+
+    private final InputStreamSource source;
+
+    private final Class<T> rowType;
+
+    private final Validator validator;
+
+    private int batchSize;
+
+    private int parallelism;
+
+    private int maxErrors;
+
+    private Consumer<ExcelImportProgress> progressListener = progress -> {
+    };
+
+    public ExcelImportStream(
+            InputStreamSource source,
+            Class<T> rowType,
+            Validator validator,
+            int batchSize,
+            int parallelism,
+            int maxErrors
+    ) {
+
+        this.source = source;
+        this.rowType = rowType;
+        this.validator = validator;
+        batchSize(batchSize);
+        parallelism(parallelism);
+        maxErrors(maxErrors);
+    }
+
+    public Class<T> rowType() {
+
+        return rowType;
+    }
+
+    public ExcelImportStream<T> batchSize(int batchSize) {
+
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize 必须大于 0");
+        }
+        this.batchSize = batchSize;
+        return this;
+    }
+
+    public ExcelImportStream<T> parallelism(int parallelism) {
+
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("parallelism 必须大于 0");
+        }
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    public ExcelImportStream<T> maxErrors(int maxErrors) {
+
+        this.maxErrors = Math.max(maxErrors, 0);
+        return this;
+    }
+
+    /**
+     * 每完成一批回调一次；并发处理时可能在不同虚拟线程上回调
+     */
+    public ExcelImportStream<T> onProgress(Consumer<ExcelImportProgress> listener) {
+
+        this.progressListener = listener == null ? progress -> {
+        } : listener;
+        return this;
+    }
+
+    /**
+     * 读取整个文件并分批处理，所有批次完成后返回
+     *
+     * @throws ExcelException 文件无法读取或解析（格式错误、表头不匹配等非单元格级错误），已提交的批次仍会等待完成
+     */
+    public ExcelImportResult process(Consumer<? super List<T>> batchHandler) {
+
+        Run run = new Run(batchHandler);
+        try (InputStream in = source.getInputStream()) {
+            FastExcelFactory.read(in, rowType, run).sheet().doRead();
+        } catch (IOException e) {
+            throw new ExcelException("读取上传文件失败: " + e.getMessage(), e);
+        } catch (ExcelException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            // FastExcel 把文件格式错误与 onException 重新抛出的异常包装为运行时异常
+            throw new ExcelException("解析上传文件失败: " + rootMessage(e), e);
+        } finally {
+            run.awaitInFlight();
+        }
+        return run.result();
+    }
+
+    private static String rootMessage(Throwable e) {
+
+        Throwable root = e;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        return root.getMessage() != null ? root.getMessage() : root.getClass().getSimpleName();
+    }
+
+    /**
+     * 单次导入的状态，解析在调用线程，批处理在调用线程或虚拟线程
+     */
+    private final class Run implements ReadListener<T> {
+
+        private final Consumer<? super List<T>> handler;
+
+        private final Semaphore permits = new Semaphore(parallelism);
+
+        private final AtomicLong parsed = new AtomicLong();
+
+        private final AtomicLong processed = new AtomicLong();
+
+        private final AtomicLong succeeded = new AtomicLong();
+
+        private final AtomicLong failed = new AtomicLong();
+
+        private final List<ExcelImportResult.RowError> errors = Collections.synchronizedList(new ArrayList<>());
+
+        private volatile long estimatedTotal;
+
+        private List<T> batch = new ArrayList<>(batchSize);
+
+        private List<Integer> batchRows = new ArrayList<>(batchSize);
+
+        Run(Consumer<? super List<T>> handler) {
+
+            this.handler = handler;
+        }
+
+        @Override
+        public void invoke(T data, AnalysisContext context) {
+
+            parsed.incrementAndGet();
+            int row = context.readRowHolder().getRowIndex() + 1;
+            if (estimatedTotal == 0) {
+                Integer approximate = context.readSheetHolder().getApproximateTotalRowNumber();
+                estimatedTotal = approximate == null ? 0 : approximate;
+            }
+
+            String violation = validate(data);
+            if (violation != null) {
+                failed.incrementAndGet();
+                addError(row, null, violation);
+                return;
+            }
+
+            batch.add(data);
+            batchRows.add(row);
+            if (batch.size() >= batchSize) {
+                dispatch();
+            }
+        }
+
+        @Override
+        public void onException(Exception exception, AnalysisContext context) throws Exception {
+
+            if (!(exception instanceof ExcelDataConvertException convert)) {
+                throw exception;
+            }
+            // 单元格转换失败只跳过当前行
+            parsed.incrementAndGet();
+            failed.incrementAndGet();
+            addError(
+                    convert.getRowIndex() + 1,
+                    convert.getColumnIndex() == null ? null : convert.getColumnIndex() + 1,
+                    "数据格式错误: " + convert.getMessage()
+            );
+        }
+
+        @Override
+        public void doAfterAllAnalysed(AnalysisContext context) {
+
+            if (!batch.isEmpty()) {
+                dispatch();
+            }
+        }
+
+        private void dispatch() {
+
+            List<T> items = batch;
+            List<Integer> rows = batchRows;
+            batch = new ArrayList<>(batchSize);
+            batchRows = new ArrayList<>(batchSize);
+
+            if (parallelism == 1) {
+                handle(items, rows);
+                return;
+            }
+            // 在途批次达到上限时阻塞解析，内存占用不随文件大小增长
+            permits.acquireUninterruptibly();
+            try {
+                Dispatcher.IO.execute(() -> {
+                    try {
+                        handle(items, rows);
+                    } finally {
+                        permits.release();
+                    }
+                });
+            } catch (RuntimeException e) {
+                permits.release();
+                throw e;
+            }
+        }
+
+        private void handle(List<T> items, List<Integer> rows) {
+
+            try {
+                handler.accept(items);
+                succeeded.addAndGet(items.size());
+            } catch (RuntimeException e) {
+                log.warn("Excel import batch failed, rows {}-{}", rows.getFirst(), rows.getLast(), e);
+                failed.addAndGet(items.size());
+                String message = "批处理失败: " + e.getMessage();
+                for (Integer row : rows) {
+                    addError(row, null, message);
+                }
+            }
+            processed.addAndGet(items.size());
+
+            try {
+                progressListener.accept(new ExcelImportProgress(
+                        parsed.get(), processed.get(), failed.get(), estimatedTotal
+                ));
+            } catch (RuntimeException e) {
+                log.warn("Excel import progress listener failed", e);
+            }
+        }
+
+        private String validate(T data) {
+
+            if (validator == null) {
+                return null;
+            }
+            Set<ConstraintViolation<T>> violations = validator.validate(data);
+            if (violations.isEmpty()) {
+                return null;
+            }
+            return violations.stream()
+                    .map(v -> v.getPropertyPath() + " " + v.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+        }
+
+        private void addError(int row, Integer column, String message) {
+
+            synchronized (errors) {
+                if (errors.size() < maxErrors) {
+                    errors.add(new ExcelImportResult.RowError(row, column, message));
+                }
+            }
+        }
+
+        void awaitInFlight() {
+
+            permits.acquireUninterruptibly(parallelism);
+            permits.release(parallelism);
+        }
+
+        ExcelImportResult result() {
+
+            List<ExcelImportResult.RowError> snapshot;
+            synchronized (errors) {
+                snapshot = List.copyOf(errors);
+            }
+            return new ExcelImportResult(parsed.get(), succeeded.get(), failed.get(), snapshot);
+        }
+
+    }
+
+}
@@ -0,0 +1,87 @@
+package com.dev.lib.excel;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.stream.Stream;
+
+/**
+ * 导出行数据源，由写入方逐行推送
+ * <p>
+ * 推模式便于数据源自行控制资源范围，例如在只读事务内消费 JPA 游标：
+ * <pre>
+ * ExcelRowSource&lt;UserRow&gt; source = sink -> TransactionHelper.run(() -> {
+ *     try (Stream&lt;User&gt; users = userRepository.stream(query)) {
+ *         users.map(UserRow::of).forEach(sink);
+ *     }
+ * });
+ * </pre>
+ */
+@FunctionalInterface
+public interface ExcelRowSource<T> {
+
+    void forEach(Consumer<? super T> sink);
+
+    /**
+     * 消费完毕后关闭 Stream（释放数据库游标等资源）
+     */
+    static <T> ExcelRowSource<T> of(Stream<T> stream) {
+
+        return sink -> {
+            try (stream) {
+                stream.forEachOrdered(sink);
+            }
+        };
+    }
+
+    static <T> ExcelRowSource<T> of(Iterator<T> iterator) {
+
+        return iterator::forEachRemaining;
+    }
+
+    static <T> ExcelRowSource<T> of(Iterable<T> iterable) {
+
+        return iterable::forEach;
+    }
+
+    /**
+     * 按页拉取，页码从 0 开始，返回空页时结束
+     */
+    static <T> ExcelRowSource<T> pages(IntFunction<? extends Collection<T>> pageLoader) {
+
+        return sink -> {
+            for (int page = 0; ; page++) {
+                Collection<T> rows = pageLoader.apply(page);
+                if (rows == null || rows.isEmpty()) {
+                    return;
+                }
+                rows.forEach(sink);
+            }
+        };
+    }
+
+    /**
+     * 适配控制器返回值：Iterable / Iterator / Stream / ExcelRowSource
+     */
+    @SuppressWarnings("unchecked")
+    static <T> ExcelRowSource<T> adapt(Object value) {
+
+        return switch (value) {
+            case ExcelRowSource<?> source -> (ExcelRowSource<T>) source;
+            case Stream<?> stream -> of((Stream<T>) stream);
+            case Iterable<?> iterable -> of((Iterable<T>) iterable);
+            case Iterator<?> iterator -> of((Iterator<T>) iterator);
+            default -> throw new IllegalArgumentException("不支持的导出数据类型: " + value.getClass().getName());
+        };
+    }
+
+    static boolean supports(Class<?> type) {
+
+        return ExcelRowSource.class.isAssignableFrom(type)
+                || Stream.class.isAssignableFrom(type)
+                || Iterable.class.isAssignableFrom(type)
+                || Iterator.class.isAssignableFrom(type);
+    }
+
+}
@@ -0,0 +1,151 @@
+package com.dev.lib.excel;
+
+import cn.idev.excel.ExcelWriter;
+import cn.idev.excel.FastExcelFactory;
+import cn.idev.excel.write.metadata.WriteSheet;
+
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 分块写入 Excel
+ * <p>
+ * - 每 batchSize 行调用一次 write，底层 SXSSF 只在内存保留滑动窗口内的行
+ * - 单个 Sheet 达到 sheetRowLimit 后新建 Sheet 继续写入，名称依次为 name、name_2、name_3 …
+ * - 工作簿在全部行写完后才输出；数据源中途抛出异常时只清理临时文件，不向 out 写入任何内容，
+ *   调用方可据此重置响应或丢弃文件，不会得到一个被截断却格式完整的 xlsx
+ */
+public final class ExcelStreamWriter {
+
+    /**
+     * xlsx 单 Sheet 上限 1048576 行，预留表头
+     */
+    public static final int MAX_SHEET_ROWS = 1_048_575;
+
+    private ExcelStreamWriter() {
+
+    }
+
+    /**
+     * @return 写入的数据行数
+     */
+    public static <T> long write(
+            OutputStream out,
+            Class<?> head,
+            String sheetName,
+            ExcelRowSource<T> source,
+            int batchSize,
+            int sheetRowLimit
+    ) {
+
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize 必须大于 0");
+        }
+        if (sheetRowLimit <= 0 || sheetRowLimit > MAX_SHEET_ROWS) {
+            throw new IllegalArgumentException("sheetRowLimit 必须在 1 到 " + MAX_SHEET_ROWS + " 之间");
+        }
+
+        ExcelWriter writer = FastExcelFactory.write(out, head).build();
+        long total;
+        try {
+            Chunked<T> chunked = new Chunked<>(writer, sheetName, Math.min(batchSize, sheetRowLimit), sheetRowLimit);
+            source.forEach(chunked::add);
+            chunked.flush();
+            chunked.ensureSheet();
+            total = chunked.total;
+        } catch (RuntimeException | Error e) {
+            abort(writer, e);
+            throw e;
+        }
+        writer.finish();
+        return total;
+    }
+
+    /**
+     * 以异常方式结束：跳过工作簿输出，只释放 SXSSF 临时文件
+     */
+    private static void abort(ExcelWriter writer, Throwable cause) {
+
+        try {
+            writer.writeContext().finish(true);
+        } catch (RuntimeException e) {
+            cause.addSuppressed(e);
+        }
+    }
+
+    private static final class Chunked<T> {
+
+        private final ExcelWriter writer;
+
+        private final String sheetName;
+
+        private final int batchSize;
+
+        private final int sheetRowLimit;
+
+        private List<T> buffer;
+
+        private WriteSheet sheet;
+
+        private int sheetNo = -1;
+
+        private int sheetRows;
+
+        private long total;
+
+        Chunked(ExcelWriter writer, String sheetName, int batchSize, int sheetRowLimit) {
+
+            this.writer = writer;
+            this.sheetName = sheetName;
+            this.batchSize = batchSize;
+            this.sheetRowLimit = sheetRowLimit;
+            this.buffer = new ArrayList<>(batchSize);
+        }
+
+        void add(T row) {
+
+            buffer.add(row);
+            // 批次不跨 Sheet，保证写满的 Sheet 恰好 sheetRowLimit 行
+            int capacity = sheet == null || sheetRows >= sheetRowLimit ? sheetRowLimit : sheetRowLimit - sheetRows;
+            if (buffer.size() >= Math.min(batchSize, capacity)) {
+                flush();
+            }
+        }
+
+        void flush() {
+
+            if (buffer.isEmpty()) {
+                return;
+            }
+            if (sheet == null || sheetRows >= sheetRowLimit) {
+                nextSheet();
+            }
+            writer.write(buffer, sheet);
+            sheetRows += buffer.size();
+            total += buffer.size();
+            buffer = new ArrayList<>(batchSize);
+        }
+
+        /**
+         * 无数据时仍输出带表头的空 Sheet，与一次性写入空集合的行为一致
+         */
+        void ensureSheet() {
+
+            if (sheet == null) {
+                nextSheet();
+                writer.write(List.of(), sheet);
+            }
+        }
+
+        private void nextSheet() {
+
+            sheetNo++;
+            String name = sheetNo == 0 ? sheetName : sheetName + "_" + (sheetNo + 1);
+            sheet = FastExcelFactory.writerSheet(sheetNo, name).build();
+            sheetRows = 0;
+        }
+
+    }
+
+}
@@ -5,8 +5,18 @@ import lombok.Data;
 @Data
 public class AppExcelProperties {
 
-    private ExcelLoadAction load            = ExcelLoadAction.DOWNLOAD;
+    private ExcelLoadAction load                    = ExcelLoadAction.DOWNLOAD;
 
-    private String          excelLoadHeader = "X-Excel-load";
+    private String          excelLoadHeader         = "X-Excel-load";
+
+    /**
+     * 异步导出文件所在存储桶
+     */
+    private String          exportBucket            = "excel-export";
+
+    /**
+     * 异步导出下载链接有效期（秒）
+     */
+    private int             exportLinkExpireSeconds = 24 * 60 * 60;
 
 }
@@ -2,8 +2,10 @@ package com.dev.lib.excel.config;
 
 import com.dev.lib.excel.resolve.ExcelExportReturnValueHandler;
 import com.dev.lib.excel.resolve.ExcelImportArgumentResolver;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.method.support.HandlerMethodArgumentResolver;
@@ -25,6 +27,8 @@ public class ExcelAutoConfiguration implements InitializingBean {
 
     private final RequestMappingHandlerAdapter handlerAdapter;
 
+    private final ObjectProvider<Validator>    validator;
+
     @Override
     public void afterPropertiesSet() throws Exception {
 
@@ -48,7 +52,7 @@ public class ExcelAutoConfiguration implements InitializingBean {
         List<HandlerMethodArgumentResolver> resolvers = handlerAdapter.getArgumentResolvers();
         if (resolvers != null) {
             List<HandlerMethodArgumentResolver> newResolvers = new ArrayList<>(resolvers.size() + 1);
-            newResolvers.add(new ExcelImportArgumentResolver());
+            newResolvers.add(new ExcelImportArgumentResolver(validator.getIfUnique()));
             newResolvers.addAll(resolvers);
             handlerAdapter.setArgumentResolvers(newResolvers);
         }
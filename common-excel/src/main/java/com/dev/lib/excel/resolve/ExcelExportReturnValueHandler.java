@@ -1,7 +1,8 @@
 package com.dev.lib.excel.resolve;
 
-import cn.idev.excel.FastExcelFactory;
 import com.dev.lib.excel.ExcelExport;
+import com.dev.lib.excel.ExcelRowSource;
+import com.dev.lib.excel.ExcelStreamWriter;
 import com.dev.lib.excel.ExcelUtils;
 import com.dev.lib.excel.config.AppExcelProperties;
 import com.dev.lib.excel.config.ExcelLoadAction;
@@ -16,7 +17,6 @@ import org.springframework.web.method.support.ModelAndViewContainer;
 
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
-import java.util.Collection;
 import java.util.Optional;
 
 /**
@@ -34,7 +34,7 @@ public class ExcelExportReturnValueHandler implements HandlerMethodReturnValueHa
     public boolean supportsReturnType(MethodParameter returnType) {
 
         return returnType.hasMethodAnnotation(ExcelExport.class)
-                && Collection.class.isAssignableFrom(returnType.getParameterType());
+                && ExcelRowSource.supports(returnType.getParameterType());
     }
 
     @Override
@@ -80,11 +80,24 @@ public class ExcelExportReturnValueHandler implements HandlerMethodReturnValueHa
                 )
         );
 
-        // 5. 写入Excel数据到响应流
+        // 5. 分块写入Excel数据到响应流
         Class<?> dataClass = ExcelUtils.extractReturnGenericType(returnType);
-        FastExcelFactory.write(response.getOutputStream(), dataClass)
-                .sheet(annotation.sheetName())
-                .doWrite((Collection<?>) returnValue);
+        try {
+            ExcelStreamWriter.write(
+                    response.getOutputStream(),
+                    dataClass,
+                    annotation.sheetName(),
+                    ExcelRowSource.adapt(returnValue),
+                    annotation.batchSize(),
+                    annotation.sheetRowLimit()
+            );
+        } catch (RuntimeException e) {
+            // 写入失败时工作簿尚未输出，清掉 Excel 响应头交给全局异常处理返回错误
+            if (!response.isCommitted()) {
+                response.reset();
+            }
+            throw e;
+        }
     }
 
     /**
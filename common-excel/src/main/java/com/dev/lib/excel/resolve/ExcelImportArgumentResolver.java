@@ -4,8 +4,11 @@ import cn.idev.excel.FastExcelFactory;
 import com.dev.lib.excel.ExcelData;
 import com.dev.lib.excel.ExcelException;
 import com.dev.lib.excel.ExcelImport;
+import com.dev.lib.excel.ExcelImportStream;
 import com.dev.lib.excel.ExcelUtils;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
 import org.springframework.core.MethodParameter;
 import org.springframework.web.bind.support.WebDataBinderFactory;
 import org.springframework.web.context.request.NativeWebRequest;
@@ -16,9 +19,17 @@ import org.springframework.web.multipart.MultipartRequest;
 
 /**
  * 解析 @ExcelData 参数
+ * <p>
+ * 参数类型为 {@link ExcelImportStream} 时返回流式句柄，由业务方法驱动读取；否则一次性读入 List
  */
+@RequiredArgsConstructor
 public class ExcelImportArgumentResolver implements HandlerMethodArgumentResolver {
 
+    /**
+     * 流式导入的行校验器，为 null 时不校验
+     */
+    private final Validator validator;
+
     @Override
     public boolean supportsParameter(MethodParameter parameter) {
 
@@ -47,6 +58,17 @@ public class ExcelImportArgumentResolver implements HandlerMethodArgumentResolve
         }
 
         Class<?> dataClass = ExcelUtils.extractGenericType(parameter);
+        if (ExcelImportStream.class.isAssignableFrom(parameter.getParameterType())) {
+            // supportsParameter 已保证方法带 @ExcelImport
+            return new ExcelImportStream<>(
+                    file,
+                    dataClass,
+                    validator,
+                    annotation.batchSize(),
+                    annotation.parallelism(),
+                    annotation.maxErrors()
+            );
+        }
         return FastExcelFactory.read(file.getInputStream(), dataClass, null)
                 .sheet()
                 .doReadSync();
@@ -0,0 +1,119 @@
+package com.dev.lib.excel.storage;
+
+import com.dev.lib.excel.ExcelRowSource;
+import com.dev.lib.excel.ExcelStreamWriter;
+import com.dev.lib.excel.ExcelUtils;
+import com.dev.lib.excel.config.AppExcelProperties;
+import com.dev.lib.util.Dispatcher;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 异步导出到存储，完成后返回下载链接
+ * <p>
+ * 在虚拟线程上分块写入本地临时文件，再以流的方式上传，内存占用与行数无关。
+ * 数据源在导出线程上被消费，需要事务的数据源应在 {@link ExcelRowSource} 内自行开启。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ExcelAsyncExporter {
+
+    private static final DateTimeFormatter DATE_PATH = DateTimeFormatter.ofPattern("yyyy/MM/dd");
+
+    private static final int DEFAULT_BATCH_SIZE = 1000;
+
+    private final AppExcelProperties properties;
+
+    private final ObjectProvider<ExcelExportStorage> storage;
+
+    public <T> CompletableFuture<ExcelExportLink> export(String fileName, Class<T> head, ExcelRowSource<T> source) {
+
+        return export(fileName, "Sheet1", head, source, DEFAULT_BATCH_SIZE, 1_000_000);
+    }
+
+    /**
+     * @param fileName 文件名模板，占位符同 {@link com.dev.lib.excel.ExcelExport#fileName()}
+     */
+    public <T> CompletableFuture<ExcelExportLink> export(
+            String fileName,
+            String sheetName,
+            Class<T> head,
+            ExcelRowSource<T> source,
+            int batchSize,
+            int sheetRowLimit
+    ) {
+
+        ExcelExportStorage target = storage.getIfAvailable();
+        if (target == null) {
+            throw new IllegalStateException("未找到 ExcelExportStorage 实现，无法异步导出 Excel");
+        }
+        String objectKey = LocalDate.now().format(DATE_PATH) + "/" + UUID.randomUUID() + "/"
+                + ExcelUtils.resolveFileName(fileName) + ".xlsx";
+        return CompletableFuture.supplyAsync(
+                () -> exportNow(target, objectKey, sheetName, head, source, batchSize, sheetRowLimit),
+                Dispatcher.IO
+        );
+    }
+
+    private <T> ExcelExportLink exportNow(
+            ExcelExportStorage target,
+            String objectKey,
+            String sheetName,
+            Class<T> head,
+            ExcelRowSource<T> source,
+            int batchSize,
+            int sheetRowLimit
+    ) {
+
+        Path temp = null;
+        try {
+            temp = Files.createTempFile("excel-export-", ".xlsx");
+            long rows;
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                rows = ExcelStreamWriter.write(out, head, sheetName, source, batchSize, sheetRowLimit);
+            }
+
+            ExcelExportStorage.StoredFile stored;
+            try (InputStream in = Files.newInputStream(temp)) {
+                stored = target.store(
+                        properties.getExportBucket(),
+                        objectKey,
+                        in,
+                        properties.getExportLinkExpireSeconds()
+                );
+            }
+            log.info("Excel exported to {}, rows={}", stored.path(), rows);
+            return new ExcelExportLink(stored.fileId(), stored.path(), stored.url(), rows);
+        } catch (IOException e) {
+            throw new RuntimeException("Excel 异步导出失败: " + objectKey, e);
+        } finally {
+            deleteQuietly(temp);
+        }
+    }
+
+    private static void deleteQuietly(Path temp) {
+
+        if (temp == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(temp);
+        } catch (IOException e) {
+            log.warn("Failed to delete temp file {}", temp, e);
+        }
+    }
+
+}
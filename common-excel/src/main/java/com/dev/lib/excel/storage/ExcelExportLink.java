@@ -0,0 +1,11 @@
+package com.dev.lib.excel.storage;
+
+/**
+ * 异步导出结果
+ *
+ * @param fileId 存储文件 bizId
+ * @param path   存储路径 bucket/objectKey
+ * @param url    预签名下载链接
+ * @param rows   导出数据行数
+ */
+public record ExcelExportLink(String fileId, String path, String url, long rows) {}
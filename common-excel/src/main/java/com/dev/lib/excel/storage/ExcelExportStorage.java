@@ -0,0 +1,23 @@
+package com.dev.lib.excel.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 异步导出文件的存储扩展点，引入 common-storage 时由其提供实现
+ */
+public interface ExcelExportStorage {
+
+    /**
+     * 上传导出文件并生成下载链接
+     */
+    StoredFile store(String bucket, String objectKey, InputStream content, int expireSeconds) throws IOException;
+
+    /**
+     * @param fileId 存储文件 ID
+     * @param path   存储路径 bucket/objectKey
+     * @param url    下载链接
+     */
+    record StoredFile(String fileId, String path, String url) {}
+
+}
@@ -0,0 +1,251 @@
+package com.dev.lib.excel;
+
+import cn.idev.excel.FastExcelFactory;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.constraints.NotBlank;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ExcelImportStreamTest {
+
+    private static final Validator VALIDATOR = Validation.buildDefaultValidatorFactory().getValidator();
+
+    @Test
+    void shouldSplitRowsIntoBatchesAndReportProgressInOrder() {
+
+        List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+        List<ExcelImportProgress> progress = new CopyOnWriteArrayList<>();
+
+        ExcelImportResult result = stream(rows(7), null, 3, 1, 100)
+                .onProgress(progress::add)
+                .process(batch -> batchSizes.add(batch.size()));
+
+        assertThat(batchSizes).containsExactly(3, 3, 1);
+        assertThat(result).isEqualTo(new ExcelImportResult(7, 7, 0, List.of()));
+        assertThat(progress).extracting(ExcelImportProgress::processedRows).containsExactly(3L, 6L, 7L);
+        assertThat(progress).extracting(ExcelImportProgress::parsedRows).containsExactly(3L, 6L, 7L);
+    }
+
+    @Test
+    void shouldLimitConcurrentBatchesAndWaitForAllBeforeReturning() {
+
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        AtomicInteger handled = new AtomicInteger();
+
+        ExcelImportResult result = stream(rows(10), null, 1, 2, 100).process(batch -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            sleep(20);
+            running.decrementAndGet();
+            handled.addAndGet(batch.size());
+        });
+
+        // 返回前所有在途批次都已完成
+        assertThat(handled).hasValue(10);
+        assertThat(result.succeededRows()).isEqualTo(10);
+        assertThat(maxRunning.get()).isBetween(1, 2);
+    }
+
+    @Test
+    void shouldWaitForInFlightBatchesAndWrapParseFailure() {
+
+        Validator failing = mock(Validator.class);
+        when(failing.validate(any())).thenAnswer(it -> {
+            Row row = it.getArgument(0);
+            if ("row-4".equals(row.getName())) {
+                throw new IllegalStateException("validator unavailable");
+            }
+            return Set.of();
+        });
+        AtomicInteger started = new AtomicInteger();
+        AtomicInteger finished = new AtomicInteger();
+
+        assertThatThrownBy(() -> stream(rows(6), failing, 1, 2, 100).process(batch -> {
+            started.incrementAndGet();
+            sleep(50);
+            finished.incrementAndGet();
+        }))
+                .isInstanceOf(ExcelException.class)
+                .hasMessageContaining("解析上传文件失败")
+                .hasMessageContaining("validator unavailable");
+
+        assertThat(started.get()).isPositive();
+        assertThat(finished.get()).isEqualTo(started.get());
+    }
+
+    @Test
+    void shouldSkipRowsThatFailConversion() {
+
+        List<RawRow> raw = List.of(new RawRow("a", "1"), new RawRow("b", "abc"), new RawRow("c", "3"));
+        List<String> imported = new CopyOnWriteArrayList<>();
+
+        ExcelImportResult result = stream(raw, null, 10, 1, 100)
+                .process(batch -> batch.forEach(row -> imported.add(row.getName())));
+
+        assertThat(imported).containsExactly("a", "c");
+        assertThat(result.totalRows()).isEqualTo(3);
+        assertThat(result.succeededRows()).isEqualTo(2);
+        assertThat(result.failedRows()).isEqualTo(1);
+        // 第 1 行是表头，第二条数据在第 3 行第 2 列
+        assertThat(result.errors()).singleElement().satisfies(error -> {
+            assertThat(error.row()).isEqualTo(3);
+            assertThat(error.column()).isEqualTo(2);
+            assertThat(error.message()).startsWith("数据格式错误");
+        });
+    }
+
+    @Test
+    void shouldCollectValidationErrorsUpToMaxErrors() {
+
+        List<RawRow> raw = List.of(
+                new RawRow("ok", "1"),
+                new RawRow(" ", "2"),
+                new RawRow("", "3"),
+                new RawRow(" ", "4")
+        );
+        List<String> imported = new CopyOnWriteArrayList<>();
+
+        ExcelImportResult result = stream(raw, VALIDATOR, 10, 1, 2)
+                .process(batch -> batch.forEach(row -> imported.add(row.getName())));
+
+        assertThat(imported).containsExactly("ok");
+        assertThat(result.failedRows()).isEqualTo(3);
+        assertThat(result.hasErrors()).isTrue();
+        // 超过 maxErrors 的错误只计数
+        assertThat(result.errors()).hasSize(2)
+                .extracting(ExcelImportResult.RowError::row)
+                .containsExactly(3, 4);
+        assertThat(result.errors()).allSatisfy(error -> {
+            assertThat(error.column()).isNull();
+            assertThat(error.message()).startsWith("name ");
+        });
+    }
+
+    @Test
+    void shouldRecordFailedBatchAsRowErrors() {
+
+        ExcelImportResult result = stream(rows(4), null, 2, 1, 100).process(batch -> {
+            if (batch.getFirst().getName().equals("row-2")) {
+                throw new IllegalStateException("duplicate key");
+            }
+        });
+
+        assertThat(result.succeededRows()).isEqualTo(2);
+        assertThat(result.failedRows()).isEqualTo(2);
+        assertThat(result.errors()).extracting(ExcelImportResult.RowError::row).containsExactly(4, 5);
+        assertThat(result.errors()).allSatisfy(error -> assertThat(error.message()).isEqualTo("批处理失败: duplicate key"));
+    }
+
+    private static ExcelImportStream<Row> stream(
+            List<RawRow> rows,
+            Validator validator,
+            int batchSize,
+            int parallelism,
+            int maxErrors
+    ) {
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        FastExcelFactory.write(out, RawRow.class).sheet("data").doWrite(rows);
+        byte[] bytes = out.toByteArray();
+        return new ExcelImportStream<>(() -> new ByteArrayInputStream(bytes), Row.class, validator, batchSize, parallelism, maxErrors);
+    }
+
+    private static List<RawRow> rows(int count) {
+
+        return IntStream.range(0, count).mapToObj(i -> new RawRow("row-" + i, String.valueOf(i))).toList();
+    }
+
+    private static void sleep(long millis) {
+
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 写入用：所有列都是文本，可以写出无法转换为目标类型的值
+     */
+    public static class RawRow {
+
+        private String name;
+
+        private String seq;
+
+        public RawRow() {
+
+        }
+
+        RawRow(String name, String seq) {
+
+            this.name = name;
+            this.seq = seq;
+        }
+
+        public String getName() {
+
+            return name;
+        }
+
+        public void setName(String name) {
+
+            this.name = name;
+        }
+
+        public String getSeq() {
+
+            return seq;
+        }
+
+        public void setSeq(String seq) {
+
+            this.seq = seq;
+        }
+
+    }
+
+    public static class Row {
+
+        @NotBlank
+        private String name;
+
+        private Integer seq;
+
+        public String getName() {
+
+            return name;
+        }
+
+        public void setName(String name) {
+
+            this.name = name;
+        }
+
+        public Integer getSeq() {
+
+            return seq;
+        }
+
+        public void setSeq(Integer seq) {
+
+            this.seq = seq;
+        }
+
+    }
+
+}
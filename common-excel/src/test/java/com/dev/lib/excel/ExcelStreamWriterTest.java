@@ -0,0 +1,122 @@
+package com.dev.lib.excel;
+
+import cn.idev.excel.FastExcelFactory;
+import cn.idev.excel.read.metadata.ReadSheet;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ExcelStreamWriterTest {
+
+    @Test
+    void shouldRollOverSheetsAtRowLimit() {
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long rows = ExcelStreamWriter.write(out, Row.class, "data", ExcelRowSource.of(rows(25)), 4, 10);
+
+        assertThat(rows).isEqualTo(25);
+        byte[] bytes = out.toByteArray();
+        List<ReadSheet> sheets = FastExcelFactory.read(new ByteArrayInputStream(bytes)).build().excelExecutor().sheetList();
+        assertThat(sheets).extracting(ReadSheet::getSheetName).containsExactly("data", "data_2", "data_3");
+        assertThat(readSheet(bytes, 0)).hasSize(10).first().extracting(Row::getName).isEqualTo("row-0");
+        assertThat(readSheet(bytes, 1)).hasSize(10).first().extracting(Row::getName).isEqualTo("row-10");
+        assertThat(readSheet(bytes, 2)).hasSize(5).last().extracting(Row::getName).isEqualTo("row-24");
+    }
+
+    @Test
+    void shouldWriteHeaderOnlySheetForEmptySource() {
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long rows = ExcelStreamWriter.write(out, Row.class, "empty", ExcelRowSource.of(List.<Row>of()), 100, 100);
+
+        assertThat(rows).isZero();
+        byte[] bytes = out.toByteArray();
+        assertThat(FastExcelFactory.read(new ByteArrayInputStream(bytes)).build().excelExecutor().sheetList())
+                .extracting(ReadSheet::getSheetName)
+                .containsExactly("empty");
+        assertThat(readSheet(bytes, 0)).isEmpty();
+    }
+
+    @Test
+    void shouldNotEmitWorkbookWhenSourceFails() {
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ExcelRowSource<Row> failing = sink -> {
+            rows(7).forEach(sink);
+            throw new IllegalStateException("cursor closed");
+        };
+
+        assertThatThrownBy(() -> ExcelStreamWriter.write(out, Row.class, "data", failing, 3, 100))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("cursor closed");
+        assertThat(out.size()).isZero();
+    }
+
+    @Test
+    void shouldRejectInvalidLimits() {
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ExcelRowSource<Row> source = ExcelRowSource.of(rows(1));
+
+        assertThatThrownBy(() -> ExcelStreamWriter.write(out, Row.class, "data", source, 0, 10))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ExcelStreamWriter.write(out, Row.class, "data", source, 10, ExcelStreamWriter.MAX_SHEET_ROWS + 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static Stream<Row> rows(int count) {
+
+        return IntStream.range(0, count).mapToObj(i -> new Row("row-" + i, i));
+    }
+
+    private static List<Row> readSheet(byte[] bytes, int sheetNo) {
+
+        return FastExcelFactory.read(new ByteArrayInputStream(bytes)).head(Row.class).sheet(sheetNo).doReadSync();
+    }
+
+    public static class Row {
+
+        private String name;
+
+        private Integer seq;
+
+        public Row() {
+
+        }
+
+        Row(String name, Integer seq) {
+
+            this.name = name;
+            this.seq = seq;
+        }
+
+        public String getName() {
+
+            return name;
+        }
+
+        public void setName(String name) {
+
+            this.name = name;
+        }
+
+        public Integer getSeq() {
+
+            return seq;
+        }
+
+        public void setSeq(Integer seq) {
+
+            this.seq = seq;
+        }
+
+    }
+
+}
@@ -1,6 +1,7 @@
 package com.dev.lib.local.task.message.poller.core;
 
 import com.dev.lib.entity.id.IDWorker;
+import com.dev.lib.util.context.RequestContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -85,7 +86,7 @@ public class PollerEngineImpl implements PollerEngine {
             log.info("Starting PollerEngine for taskType: {}", config.getTaskType());
 
             // 创建虚拟线程执行器（每个任务类型独立的虚拟线程池）
-            virtualExecutor = Executors.newVirtualThreadPerTaskExecutor();
+            virtualExecutor = RequestContext.propagating(Executors.newVirtualThreadPerTaskExecutor());
 
             // 创建调度器（使用虚拟线程）
             scheduler = Executors.newSingleThreadScheduledExecutor(
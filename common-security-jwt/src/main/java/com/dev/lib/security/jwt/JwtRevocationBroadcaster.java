@@ -0,0 +1,22 @@
+package com.dev.lib.security.jwt;
+
+import java.util.function.ObjLongConsumer;
+
+/**
+ * 注销名单同步：一个节点注销 token 后通知其他节点加入本地名单，并移除已缓存的解析结果
+ */
+public interface JwtRevocationBroadcaster {
+
+    /**
+     * @param digest   token 摘要
+     * @param expireAt token 过期时间戳（毫秒），名单条目保留到此时
+     */
+    void publish(String digest, long expireAt);
+
+    /**
+     * 订阅其他节点发出的注销，本节点发出的消息不会回调；
+     * 订阅时先回放仍未过期的注销，使后启动的节点补齐名单
+     */
+    void subscribe(ObjLongConsumer<String> onRevoke);
+
+}
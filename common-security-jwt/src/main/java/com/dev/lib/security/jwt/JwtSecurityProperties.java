@@ -10,4 +10,47 @@ public class JwtSecurityProperties {
     private String secret;
 
     private Long expiration;
+
+    private Cache cache = new Cache();
+
+    private Revocation revocation = new Revocation();
+
+    /**
+     * 已验签 token 与用户信息的本地缓存
+     */
+    @Data
+    public static class Cache {
+
+        private boolean enabled = true;
+
+        /**
+         * 最大缓存 token 数
+         */
+        private long maximumSize = 10_000;
+
+        /**
+         * 用户信息缓存时长（毫秒），不超过 token 本身的过期时间
+         */
+        private long principalTtl = 60_000;
+
+    }
+
+    /**
+     * 已注销 token 的本地名单，条目保留到 token 自身过期
+     */
+    @Data
+    public static class Revocation {
+
+        /**
+         * 最大登记数；超出后部分条目被淘汰，对应 token 在过期前重新可用，需按注销量预留
+         */
+        private long maximumSize = 100_000;
+
+        /**
+         * 通过 Redis 在节点间同步注销名单
+         */
+        private boolean redis = false;
+
+    }
+
 }
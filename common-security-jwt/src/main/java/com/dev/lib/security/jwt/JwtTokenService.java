@@ -5,17 +5,25 @@ import com.dev.lib.security.service.AuthenticateService;
 import com.dev.lib.security.service.TokenManager;
 import com.dev.lib.security.service.TokenService;
 import com.dev.lib.security.util.UserDetails;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.util.Base64;
 import java.util.Date;
 import java.util.UUID;
@@ -24,6 +32,8 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class JwtTokenService implements TokenService, InitializingBean {
 
+    private static final int USER_BATCH_SIZE = 200;
+
     private final JwtSecurityProperties properties;
 
     private final TokenManager tokenManager;
@@ -32,6 +42,25 @@ public class JwtTokenService implements TokenService, InitializingBean {
 
     private final AuthenticateService authenticateService;
 
+    private final ObjectProvider<JwtRevocationBroadcaster> revocationBroadcaster;
+
+    /**
+     * JwtParser 线程安全，启动时构建一次
+     */
+    private JwtParser parser;
+
+    /**
+     * token 摘要 -> 已验签的用户信息；未启用时为 null
+     */
+    private Cache<String, Verified> verified;
+
+    /**
+     * 已注销 token 摘要 -> token 过期时间，条目在 token 过期时移除
+     */
+    private Cache<String, Long> revoked;
+
+    private UserBatchLoader userLoader;
+
     @Override
     public void afterPropertiesSet() throws Exception {
 
@@ -47,6 +76,26 @@ public class JwtTokenService implements TokenService, InitializingBean {
             keyBytes = secret.getBytes(StandardCharsets.UTF_8);
         }
         this.secretKey = Keys.hmacShaKeyFor(keyBytes);
+        this.parser = Jwts.parser().verifyWith(secretKey).build();
+        this.userLoader = new UserBatchLoader(authenticateService, USER_BATCH_SIZE);
+
+        JwtSecurityProperties.Cache cache = properties.getCache();
+        if (cache != null && cache.isEnabled()) {
+            this.verified = Caffeine.newBuilder()
+                    .maximumSize(cache.getMaximumSize())
+                    .expireAfter(Expiry.creating((String key, Verified value) ->
+                            Duration.ofMillis(Math.max(0, value.expireAt() - System.currentTimeMillis()))
+                    ))
+                    .build();
+        }
+
+        this.revoked = Caffeine.newBuilder()
+                .maximumSize(properties.getRevocation().getMaximumSize())
+                .expireAfter(Expiry.creating((String key, Long expireAt) ->
+                        Duration.ofMillis(Math.max(0, expireAt - System.currentTimeMillis()))
+                ))
+                .build();
+        revocationBroadcaster.ifAvailable(it -> it.subscribe(this::onRevoked));
     }
 
     @Override
@@ -68,17 +117,99 @@ public class JwtTokenService implements TokenService, InitializingBean {
                 .compact();
     }
 
+    /**
+     * 命中缓存时跳过验签、注销名单与用户加载；返回副本，调用方写入的客户端信息不会污染缓存
+     */
     @Override
     public UserDetails parseToken(String token) {
 
+        String key = digest(token);
+        if (verified == null) {
+            Claims claims = verify(token);
+            rejectRevoked(key);
+            return authenticateService.loadUserById(claims.get("userid", Long.class));
+        }
+
+        Verified hit = verified.getIfPresent(key);
+        if (hit != null) {
+            return hit.user().toBuilder().build();
+        }
+
+        Claims claims = verify(token);
+        rejectRevoked(key);
+        Long userid = claims.get("userid", Long.class);
+        UserDetails user = userLoader.load(userid);
+        if (user == null) {
+            return null;
+        }
+        long expireAt = System.currentTimeMillis() + properties.getCache().getPrincipalTtl();
+        if (claims.getExpiration() != null) {
+            expireAt = Math.min(expireAt, claims.getExpiration().getTime());
+        }
+        verified.put(key, new Verified(userid, expireAt, user));
+        return user.toBuilder().build();
+    }
+
+    /**
+     * 注销 token：按摘要登记到本地注销名单，保留到 token 自身过期，并移除本地缓存
+     * <p>
+     * 注销名单不写入 TokenManager，按用户查询或删除 token 不会看到或移除注销记录；
+     * 存在 {@link JwtRevocationBroadcaster} 时同步到其他节点，否则只在本节点生效
+     */
+    public void revokeToken(String token) {
+
+        String key = digest(token);
+        if (verified != null) {
+            verified.invalidate(key);
+        }
+        Claims claims;
         try {
-            Claims claims = Jwts.parser()
-                    .verifyWith(secretKey)
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload();
-            Long userid = claims.get("userid", Long.class);
-            return authenticateService.loadUserById(userid);
+            claims = parser.parseSignedClaims(token).getPayload();
+        } catch (ExpiredJwtException e) {
+            // 已过期的 token 无法再通过验签，无需登记
+            return;
+        } catch (JwtException e) {
+            throw new TokenException("token无效");
+        }
+        long expireAt = claims.getExpiration() != null
+                        ? claims.getExpiration().getTime()
+                        : System.currentTimeMillis() + (properties.getExpiration() != null ? properties.getExpiration() : 86400000L);
+        onRevoked(key, expireAt);
+        revocationBroadcaster.ifAvailable(it -> it.publish(key, expireAt));
+    }
+
+    /**
+     * 用户权限或状态变更后移除该用户所有已缓存的 token
+     * <p>
+     * 只作用于本节点的缓存，其他节点最迟在 principalTtl 后重新加载用户；
+     * 需要立即全局生效时，由调用方在各节点上分别调用（例如通过消息广播）
+     */
+    public void evictUser(Long userId) {
+
+        if (verified != null && userId != null) {
+            verified.asMap().values().removeIf(it -> userId.equals(it.userId()));
+        }
+    }
+
+    private void onRevoked(String key, long expireAt) {
+
+        revoked.put(key, expireAt);
+        if (verified != null) {
+            verified.invalidate(key);
+        }
+    }
+
+    private void rejectRevoked(String key) {
+
+        if (revoked.getIfPresent(key) != null) {
+            throw new TokenException("token已注销");
+        }
+    }
+
+    private Claims verify(String token) {
+
+        try {
+            return parser.parseSignedClaims(token).getPayload();
         } catch (ExpiredJwtException e) {
             throw new TokenException("token已过期");
         } catch (JwtException e) {
@@ -86,4 +217,19 @@ public class JwtTokenService implements TokenService, InitializingBean {
         }
     }
 
+    /**
+     * token 的 SHA-256 摘要，作为缓存与注销名单的键
+     */
+    static String digest(String token) {
+
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record Verified(Long userId, long expireAt, UserDetails user) {}
+
 }
@@ -0,0 +1,63 @@
+package com.dev.lib.security.jwt;
+
+import org.redisson.api.RScoredSortedSet;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.protocol.ScoredEntry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * 基于 Redis 的注销名单同步，随 app.security.jwt.revocation.redis=true 启用
+ * <p>
+ * 注销记录存入有序集合，分数为 token 过期时间，订阅时清理已过期的记录并回放其余记录；
+ * 实时通知走发布订阅，消息体为发送节点 ID、摘要与过期时间，按换行分隔；忽略本节点发出的消息
+ */
+@Component
+@ConditionalOnClass(name = "org.redisson.api.RedissonClient")
+@ConditionalOnProperty(prefix = "app.security.jwt.revocation", name = "redis", havingValue = "true")
+public class RedisJwtRevocationBroadcaster implements JwtRevocationBroadcaster {
+
+    private static final String KEY = "jwt:revoked";
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final RScoredSortedSet<String> revoked;
+
+    private final RTopic topic;
+
+    public RedisJwtRevocationBroadcaster(RedissonClient redissonClient) {
+
+        this.revoked = redissonClient.getScoredSortedSet(KEY);
+        this.topic = redissonClient.getTopic(KEY);
+    }
+
+    @Override
+    public void publish(String digest, long expireAt) {
+
+        revoked.add(expireAt, digest);
+        topic.publish(nodeId + "\n" + digest + "\n" + expireAt);
+    }
+
+    @Override
+    public void subscribe(ObjLongConsumer<String> onRevoke) {
+
+        // 先订阅再回放，回放期间到达的通知重复登记不影响结果
+        topic.addListener(String.class, (channel, message) -> {
+            String[] parts = message.split("\n");
+            if (parts.length == 3 && !nodeId.equals(parts[0])) {
+                onRevoke.accept(parts[1], Long.parseLong(parts[2]));
+            }
+        });
+        long now = System.currentTimeMillis();
+        revoked.removeRangeByScore(0, true, now, true);
+        for (ScoredEntry<String> entry : revoked.entryRange(now, false, Double.POSITIVE_INFINITY, true)) {
+            onRevoke.accept(entry.getValue(), entry.getScore().longValue());
+        }
+    }
+
+}
@@ -0,0 +1,105 @@
+package com.dev.lib.security.jwt;
+
+import com.dev.lib.security.service.AuthenticateService;
+import com.dev.lib.security.util.UserDetails;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 合并并发的用户加载请求
+ * <p>
+ * 抢到锁的线程取走当前所有待加载 id，一次 batchLoadUserByIds；其间到达的请求排队进入下一批。
+ * 没有额外等待窗口，低并发时退化为单条加载，高并发时自然成批。
+ */
+class UserBatchLoader {
+
+    private final AuthenticateService authenticateService;
+
+    private final int maxBatchSize;
+
+    private final Map<Long, CompletableFuture<UserDetails>> pending = new ConcurrentHashMap<>();
+
+    private final ReentrantLock leader = new ReentrantLock();
+
+    UserBatchLoader(AuthenticateService authenticateService, int maxBatchSize) {
+
+        this.authenticateService = authenticateService;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    UserDetails load(Long id) {
+
+        CompletableFuture<UserDetails> created = new CompletableFuture<>();
+        CompletableFuture<UserDetails> existing = pending.putIfAbsent(id, created);
+        CompletableFuture<UserDetails> future = existing != null ? existing : created;
+
+        while (!future.isDone()) {
+            leader.lock();
+            try {
+                // 等锁期间可能已被上一批完成
+                if (!future.isDone()) {
+                    drain();
+                }
+            } finally {
+                leader.unlock();
+            }
+        }
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("用户加载被中断", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("用户加载失败", e.getCause());
+        }
+    }
+
+    private void drain() {
+
+        while (!pending.isEmpty()) {
+            Map<Long, CompletableFuture<UserDetails>> batch = new HashMap<>();
+            Iterator<Map.Entry<Long, CompletableFuture<UserDetails>>> it = pending.entrySet().iterator();
+            while (it.hasNext() && batch.size() < maxBatchSize) {
+                Map.Entry<Long, CompletableFuture<UserDetails>> entry = it.next();
+                batch.put(entry.getKey(), entry.getValue());
+                it.remove();
+            }
+            complete(batch);
+        }
+    }
+
+    private void complete(Map<Long, CompletableFuture<UserDetails>> batch) {
+
+        try {
+            Map<Long, UserDetails> loaded = new HashMap<>(batch.size() * 2);
+            if (batch.size() == 1) {
+                Long id = batch.keySet().iterator().next();
+                UserDetails user = authenticateService.loadUserById(id);
+                if (user != null) {
+                    loaded.put(id, user);
+                }
+            } else {
+                Collection<UserDetails> users = authenticateService.batchLoadUserByIds(batch.keySet());
+                if (users != null) {
+                    for (UserDetails user : users) {
+                        loaded.put(user.getId(), user);
+                    }
+                }
+            }
+            batch.forEach((id, future) -> future.complete(loaded.get(id)));
+        } catch (RuntimeException e) {
+            batch.values().forEach(future -> future.completeExceptionally(e));
+        }
+    }
+
+}
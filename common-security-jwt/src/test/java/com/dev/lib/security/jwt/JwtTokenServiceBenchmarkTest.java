@@ -0,0 +1,86 @@
+package com.dev.lib.security.jwt;
+
+import com.dev.lib.security.model.EndpointPermission;
+import com.dev.lib.security.service.AuthenticateService;
+import com.dev.lib.security.service.TokenManager;
+import com.dev.lib.security.util.UserDetails;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * 单请求认证开销基准：对比关闭缓存（每次验签 + 加载用户）与开启缓存时 parseToken 的耗时。
+ * 用户加载以 200µs 的停顿模拟一次数据库 / RPC 往返。
+ * <p>
+ * 默认跳过，执行：mvn -pl common-security-jwt test -Dbenchmark=true -Dtest=JwtTokenServiceBenchmarkTest
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class JwtTokenServiceBenchmarkTest {
+
+    private static final int USERS = 200;
+
+    private static final int REQUESTS = 20_000;
+
+    private static final int ROUNDS = 3;
+
+    private final AuthenticateService authenticateService = new AuthenticateService() {
+
+        @Override
+        public UserDetails loadUserById(Long id) {
+
+            LockSupport.parkNanos(200_000);
+            return JwtTokenServiceTest.user(id);
+        }
+
+        @Override
+        public Collection<UserDetails> batchLoadUserByIds(Set<Long> ids) {
+
+            LockSupport.parkNanos(200_000);
+            return ids.stream().map(JwtTokenServiceTest::user).toList();
+        }
+
+        @Override
+        public void registerPermissions(List<EndpointPermission> permissions) {
+
+        }
+
+    };
+
+    @Test
+    void authOverheadPerRequest() throws Exception {
+
+        long uncached = measure(false);
+        long cached = measure(true);
+
+        System.out.printf("uncached parseToken: %,d ns/request%n", uncached / REQUESTS);
+        System.out.printf("cached parseToken:   %,d ns/request%n", cached / REQUESTS);
+        assertThat(cached).isLessThan(uncached);
+    }
+
+    private long measure(boolean cacheEnabled) throws Exception {
+
+        JwtTokenService service = JwtTokenServiceTest.service(authenticateService, mock(TokenManager.class), cacheEnabled);
+        String[] tokens = new String[USERS];
+        for (int i = 0; i < USERS; i++) {
+            tokens[i] = service.generateToken(JwtTokenServiceTest.user(i + 1L));
+        }
+
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < REQUESTS; i++) {
+                service.parseToken(tokens[i % USERS]);
+            }
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+
+}
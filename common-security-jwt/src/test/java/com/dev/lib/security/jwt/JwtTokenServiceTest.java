@@ -1,11 +1,40 @@
 package com.dev.lib.security.jwt;
 
+import com.dev.lib.security.TokenException;
+import com.dev.lib.security.service.AuthenticateService;
+import com.dev.lib.security.service.TokenManager;
+import com.dev.lib.security.util.UserDetails;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.ObjLongConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
 
 class JwtTokenServiceTest {
 
+    private static final String SECRET = "jwt-secret-value-with-enough-length-for-hs256";
+
     @Test
     void shouldRejectMissingJwtSecret() {
 
@@ -13,11 +42,226 @@ class JwtTokenServiceTest {
         JwtTokenService service = new JwtTokenService(
                 properties,
                 null,
-                null
+                null,
+                broadcasters(null)
         );
 
         assertThatThrownBy(service::afterPropertiesSet)
                 .isInstanceOf(IllegalStateException.class)
                 .hasMessage("app.security.jwt.secret must be configured when using JWT security");
     }
+
+    @Test
+    void shouldServeRepeatedTokensFromCacheWithIsolatedCopies() throws Exception {
+
+        AuthenticateService authenticateService = mock(AuthenticateService.class);
+        when(authenticateService.loadUserById(7L)).thenAnswer(it -> user(7L));
+        JwtTokenService service = service(authenticateService, mock(TokenManager.class), true);
+        String token = service.generateToken(user(7L));
+
+        UserDetails first = service.parseToken(token);
+        first.setClientIp("10.0.0.1");
+        UserDetails second = service.parseToken(token);
+
+        verify(authenticateService, times(1)).loadUserById(7L);
+        assertThat(second).isNotSameAs(first);
+        assertThat(second.getClientIp()).isNull();
+        assertThat(second.getId()).isEqualTo(7L);
+    }
+
+    @Test
+    void shouldReloadAfterUserEviction() throws Exception {
+
+        AuthenticateService authenticateService = mock(AuthenticateService.class);
+        when(authenticateService.loadUserById(7L)).thenAnswer(it -> user(7L));
+        JwtTokenService service = service(authenticateService, mock(TokenManager.class), true);
+        String token = service.generateToken(user(7L));
+
+        service.parseToken(token);
+        service.parseToken(token);
+        service.evictUser(7L);
+        service.parseToken(token);
+
+        verify(authenticateService, times(2)).loadUserById(7L);
+    }
+
+    @Test
+    void shouldRejectRevokedTokenWithoutTouchingTokenManager() throws Exception {
+
+        AuthenticateService authenticateService = mock(AuthenticateService.class);
+        when(authenticateService.loadUserById(7L)).thenAnswer(it -> user(7L));
+        TokenManager tokenManager = mock(TokenManager.class);
+        JwtTokenService service = service(authenticateService, tokenManager, true);
+        JwtTokenService uncached = service(authenticateService, tokenManager, false);
+        String revoked = service.generateToken(user(7L));
+        String other = service.generateToken(user(7L));
+
+        service.parseToken(revoked);
+        service.revokeToken(revoked);
+
+        assertThatThrownBy(() -> service.parseToken(revoked))
+                .isInstanceOf(TokenException.class)
+                .hasMessage("token已注销");
+        assertThat(service.parseToken(other).getId()).isEqualTo(7L);
+        // 注销记录不进入 TokenManager，登出全部会话不会使其失效；未启用缓存时解析也不查询存储
+        uncached.parseToken(other);
+        verifyNoInteractions(tokenManager);
+    }
+
+    @Test
+    void shouldSyncRevocationToOtherNodesAndLateJoiners() throws Exception {
+
+        AuthenticateService authenticateService = mock(AuthenticateService.class);
+        when(authenticateService.loadUserById(7L)).thenAnswer(it -> user(7L));
+        InMemoryRevocationBroadcaster bus = new InMemoryRevocationBroadcaster();
+        JwtTokenService node1 = service(authenticateService, null, true, bus);
+        JwtTokenService node2 = service(authenticateService, null, true, bus);
+        String token = node1.generateToken(user(7L));
+
+        // 节点 2 已缓存解析结果，注销后应立即失效而不是等待 principalTtl
+        node2.parseToken(token);
+        node1.revokeToken(token);
+
+        assertThatThrownBy(() -> node2.parseToken(token)).hasMessage("token已注销");
+        JwtTokenService lateJoiner = service(authenticateService, null, false, bus);
+        assertThatThrownBy(() -> lateJoiner.parseToken(token)).hasMessage("token已注销");
+    }
+
+    @Test
+    void shouldIgnoreRevocationOfExpiredToken() throws Exception {
+
+        InMemoryRevocationBroadcaster bus = new InMemoryRevocationBroadcaster();
+        JwtSecurityProperties properties = new JwtSecurityProperties();
+        properties.setSecret(SECRET);
+        properties.setExpiration(-1_000L);
+        JwtTokenService service = new JwtTokenService(properties, null, mock(AuthenticateService.class), broadcasters(bus));
+        service.afterPropertiesSet();
+
+        service.revokeToken(service.generateToken(user(7L)));
+
+        assertThat(bus.revoked).isEmpty();
+    }
+
+    @Test
+    void shouldLoadEveryTimeWhenCacheDisabled() throws Exception {
+
+        AuthenticateService authenticateService = mock(AuthenticateService.class);
+        when(authenticateService.loadUserById(7L)).thenAnswer(it -> user(7L));
+        JwtTokenService service = service(authenticateService, mock(TokenManager.class), false);
+        String token = service.generateToken(user(7L));
+
+        service.parseToken(token);
+        service.parseToken(token);
+
+        verify(authenticateService, times(2)).loadUserById(7L);
+    }
+
+    @Test
+    void shouldCoalesceConcurrentUserLoadsIntoBatches() throws Exception {
+
+        CountDownLatch firstLoadStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirstLoad = new CountDownLatch(1);
+        AuthenticateService authenticateService = mock(AuthenticateService.class);
+        when(authenticateService.loadUserById(anyLong())).thenAnswer(it -> {
+            firstLoadStarted.countDown();
+            releaseFirstLoad.await();
+            return user(it.getArgument(0));
+        });
+        when(authenticateService.batchLoadUserByIds(any())).thenAnswer(it -> {
+            Set<Long> ids = it.getArgument(0);
+            return ids.stream().map(JwtTokenServiceTest::user).toList();
+        });
+        UserBatchLoader loader = new UserBatchLoader(authenticateService, 100);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<UserDetails> leader = executor.submit(() -> loader.load(1L));
+            firstLoadStarted.await();
+            List<Future<UserDetails>> followers = new ArrayList<>();
+            for (long id = 2; id <= 20; id++) {
+                long userId = id;
+                followers.add(executor.submit(() -> loader.load(userId)));
+            }
+            // 等待跟随者全部进入队列后放行首个加载
+            Thread.sleep(100);
+            releaseFirstLoad.countDown();
+
+            assertThat(leader.get().getId()).isEqualTo(1L);
+            for (int i = 0; i < followers.size(); i++) {
+                assertThat(followers.get(i).get().getId()).isEqualTo(i + 2L);
+            }
+        }
+
+        verify(authenticateService, times(1)).loadUserById(anyLong());
+        verify(authenticateService, times(1)).batchLoadUserByIds(any());
+        verify(authenticateService, never()).loadUserById(2L);
+    }
+
+    static JwtTokenService service(
+            AuthenticateService authenticateService,
+            TokenManager tokenManager,
+            boolean cacheEnabled
+    ) throws Exception {
+
+        return service(authenticateService, tokenManager, cacheEnabled, null);
+    }
+
+    static JwtTokenService service(
+            AuthenticateService authenticateService,
+            TokenManager tokenManager,
+            boolean cacheEnabled,
+            JwtRevocationBroadcaster broadcaster
+    ) throws Exception {
+
+        JwtSecurityProperties properties = new JwtSecurityProperties();
+        properties.setSecret(SECRET);
+        properties.getCache().setEnabled(cacheEnabled);
+        JwtTokenService service = new JwtTokenService(properties, tokenManager, authenticateService, broadcasters(broadcaster));
+        service.afterPropertiesSet();
+        return service;
+    }
+
+    static ObjectProvider<JwtRevocationBroadcaster> broadcasters(JwtRevocationBroadcaster broadcaster) {
+
+        DefaultListableBeanFactory factory = new DefaultListableBeanFactory();
+        if (broadcaster != null) {
+            factory.registerSingleton("jwtRevocationBroadcaster", broadcaster);
+        }
+        return factory.getBeanProvider(JwtRevocationBroadcaster.class);
+    }
+
+    /**
+     * 模拟各节点共享的 Redis：保存注销记录供后启动的节点回放，发布时通知其他订阅者
+     */
+    static final class InMemoryRevocationBroadcaster implements JwtRevocationBroadcaster {
+
+        final Map<String, Long> revoked = new ConcurrentHashMap<>();
+
+        private final List<ObjLongConsumer<String>> subscribers = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void publish(String digest, long expireAt) {
+
+            revoked.put(digest, expireAt);
+            subscribers.forEach(it -> it.accept(digest, expireAt));
+        }
+
+        @Override
+        public void subscribe(ObjLongConsumer<String> onRevoke) {
+
+            subscribers.add(onRevoke);
+            revoked.forEach(onRevoke::accept);
+        }
+
+    }
+
+    static UserDetails user(Long id) {
+
+        return UserDetails.builder()
+                .id(id)
+                .username("user" + id)
+                .roles(List.of("USER"))
+                .permissions(List.of("order:read"))
+                .build();
+    }
+
 }
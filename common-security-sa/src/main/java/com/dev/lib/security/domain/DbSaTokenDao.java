@@ -1,5 +1,6 @@
 package com.dev.lib.security.domain;
 
+import cn.dev33.satoken.dao.SaTokenDao;
 import cn.dev33.satoken.dao.auto.SaTokenDaoByStringFollowObject;
 import com.dev.lib.entity.EntityStatus;
 import com.dev.lib.security.model.TokenItem;
@@ -8,36 +9,69 @@ import com.dev.lib.security.service.TokenManager;
 import com.dev.lib.util.Jsons;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
-
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 分层 Sa-Token DAO：本地缓存 -> 共享缓存（可选）-> sys_access_token
+ * <p>
+ * - 读：本地命中直接返回（含不存在的 key），未命中再查共享缓存和数据库；本地条目最多保留 localTtl
+ * - 写值 / 删除：同步写库并更新各层缓存，再通过 {@link SaTokenInvalidationBroadcaster}（如有）让其他节点丢弃本地条目，
+ *   注销、踢人下线立即在所有节点生效；未配置广播时其他节点最多延迟 localTtl
+ * - 续期：只更新缓存，按 flushInterval 批量写库；库中过期时间为毫秒时间戳
+ * - 本地到期条目由时间轮回收，不随 key 总数做全量扫描
+ */
 @Slf4j
 @Component
 @RequiredArgsConstructor
-public class DbSaTokenDao implements SaTokenDaoByStringFollowObject {
+public class DbSaTokenDao implements SaTokenDaoByStringFollowObject, InitializingBean, DisposableBean {
+
+    /**
+     * 本地缓存中表示数据库不存在该 key
+     */
+    private static final SaTokenEntry ABSENT = new SaTokenEntry(null, SaTokenEntry.NEVER_EXPIRE);
 
     private final TokenManager tokenManager;
 
-    // ------------------------ Object 读写操作
+    private final SaTokenDaoProperties properties;
+
+    private final ObjectProvider<SaTokenRemoteTier> remoteTier;
+
+    private final ObjectProvider<SaTokenInvalidationBroadcaster> broadcaster;
+
+    private final Map<String, Local> local = new ConcurrentHashMap<>();
+
+    private final TimingWheel<String> wheel = new TimingWheel<>(1_000, System.currentTimeMillis());
+
+    /**
+     * 待落库的续期：key -> 过期时间戳
+     */
+    private final Map<String, Long> pendingExpireTimes = new ConcurrentHashMap<>();
+
     @Override
-    public Object getObject(String key) {
+    public void afterPropertiesSet() {
 
-        TokenItem token = tokenManager.getToken(key);
-        if (token == null) {
-            return null;
+        SaTokenInvalidationBroadcaster current = broadcaster.getIfAvailable();
+        if (current != null) {
+            current.subscribe(this::evictLocal);
         }
+    }
 
-        // ✅ 优先从 metadata 读取复杂对象
-        if (token.getMetadata() != null && !token.getMetadata().isEmpty()) {
-            return deserializeFromMetadata(token.getMetadata());
-        }
+    // ------------------------ Object 读写操作
+    @Override
+    public Object getObject(String key) {
 
-        // ✅ 否则从 token_value 读取简单字符串
-        return token.getTokenValue();
+        SaTokenEntry entry = lookup(key);
+        return entry == null ? null : entry.value();
     }
 
     @Override
@@ -50,10 +84,14 @@ public class DbSaTokenDao implements SaTokenDaoByStringFollowObject {
     @Override
     public void setObject(String key, Object object, long timeout) {
 
+        if (timeout == 0 || timeout <= SaTokenDao.NOT_VALUE_EXPIRE) {
+            return;
+        }
+        long expireAt = toExpireAt(timeout);
         try {
             TokenItem tokenItem = new TokenItem()
                     .setTokenKey(key)
-                    .setExpireTime(timeout)
+                    .setExpireTime(expireAt)
                     .setStatus(EntityStatus.ENABLE)
                     .setTokenType(TokenType.ACCESS);
 
@@ -81,6 +119,9 @@ public class DbSaTokenDao implements SaTokenDaoByStringFollowObject {
                     e
             );
         }
+        pendingExpireTimes.remove(key);
+        cache(key, new SaTokenEntry(object, expireAt), true);
+        broadcast(key);
     }
 
     @Override
@@ -104,28 +145,51 @@ public class DbSaTokenDao implements SaTokenDaoByStringFollowObject {
                     key,
                     e
             );
+            evict(key);
+            broadcast(key);
+            return;
         }
+        SaTokenEntry entry = lookup(key);
+        if (entry != null) {
+            cache(key, entry.withValue(object), true);
+        }
+        broadcast(key);
     }
 
     @Override
     public void deleteObject(String key) {
 
+        pendingExpireTimes.remove(key);
+        // 先删库再清缓存，避免其他节点在两步之间把旧值回填到共享缓存
         tokenManager.deleteToken(key);
+        evict(key);
+        broadcast(key);
     }
 
     @Override
     public long getObjectTimeout(String key) {
 
-        return Optional.ofNullable(tokenManager.getToken(key)).map(TokenItem::getExpireTime).orElse(0L);
+        SaTokenEntry entry = lookup(key);
+        if (entry == null) {
+            return SaTokenDao.NOT_VALUE_EXPIRE;
+        }
+        if (entry.expireAt() == SaTokenEntry.NEVER_EXPIRE) {
+            return SaTokenDao.NEVER_EXPIRE;
+        }
+        long remaining = (entry.expireAt() - System.currentTimeMillis()) / 1000;
+        return remaining > 0 ? remaining : SaTokenDao.NOT_VALUE_EXPIRE;
     }
 
     @Override
     public void updateObjectTimeout(String key, long timeout) {
 
-        tokenManager.refreshToken(
-                key,
-                timeout
-        );
+        SaTokenEntry entry = lookup(key);
+        if (entry == null) {
+            return;
+        }
+        long expireAt = toExpireAt(timeout);
+        cache(key, entry.withExpireAt(expireAt), true);
+        pendingExpireTimes.put(key, expireAt);
     }
 
     // --------- 会话管理
@@ -141,6 +205,137 @@ public class DbSaTokenDao implements SaTokenDaoByStringFollowObject {
         );
     }
 
+    // --------- 缓存层
+
+    private SaTokenEntry lookup(String key) {
+
+        long now = System.currentTimeMillis();
+        Local cached = local.get(key);
+        if (cached != null && cached.freshUntil() > now) {
+            return cached.entry() == ABSENT || cached.entry().expired(now) ? null : cached.entry();
+        }
+
+        SaTokenRemoteTier remote = remoteTier.getIfAvailable();
+        SaTokenEntry entry = remote == null ? null : remote.get(key);
+        if (entry == null) {
+            entry = load(key);
+            if (entry != null && remote != null) {
+                remote.put(key, entry);
+            }
+        }
+        cache(key, entry == null ? ABSENT : entry, false);
+        return entry == null || entry.expired(now) ? null : entry;
+    }
+
+    private SaTokenEntry load(String key) {
+
+        TokenItem token = tokenManager.getToken(key);
+        if (token == null) {
+            return null;
+        }
+        // ✅ 优先从 metadata 读取复杂对象，否则从 token_value 读取简单字符串
+        Object value = token.getMetadata() != null && !token.getMetadata().isEmpty()
+                       ? deserializeFromMetadata(token.getMetadata())
+                       : token.getTokenValue();
+        // 尚未落库的续期优先
+        Long expireAt = pendingExpireTimes.getOrDefault(key, token.getExpireTime());
+        return new SaTokenEntry(value, expireAt == null ? SaTokenEntry.NEVER_EXPIRE : expireAt);
+    }
+
+    private void cache(String key, SaTokenEntry entry, boolean propagate) {
+
+        long freshUntil = System.currentTimeMillis() + properties.getLocalTtl();
+        if (entry.expireAt() != SaTokenEntry.NEVER_EXPIRE) {
+            freshUntil = Math.min(freshUntil, entry.expireAt());
+        }
+        local.put(key, new Local(entry, freshUntil));
+        wheel.schedule(key, freshUntil);
+        if (propagate) {
+            SaTokenRemoteTier remote = remoteTier.getIfAvailable();
+            if (remote != null) {
+                remote.put(key, entry);
+            }
+        }
+    }
+
+    private void evict(String key) {
+
+        evictLocal(key);
+        SaTokenRemoteTier remote = remoteTier.getIfAvailable();
+        if (remote != null) {
+            remote.delete(key);
+        }
+    }
+
+    private void evictLocal(String key) {
+
+        local.remove(key);
+        wheel.cancel(key);
+    }
+
+    private void broadcast(String key) {
+
+        SaTokenInvalidationBroadcaster current = broadcaster.getIfAvailable();
+        if (current == null) {
+            return;
+        }
+        try {
+            current.publish(key);
+        } catch (RuntimeException e) {
+            // 数据已落库，广播失败时其他节点最多延迟 localTtl
+            log.warn("Failed to broadcast token invalidation for key: {}", key, e);
+        }
+    }
+
+    @Scheduled(fixedDelay = 1_000)
+    public void sweep() {
+
+        long now = System.currentTimeMillis();
+        for (String key : wheel.advance(now)) {
+            // 期间被重新写入的条目已重新调度，这里只移除确实过期的
+            local.computeIfPresent(key, (k, cached) -> cached.freshUntil() <= now ? null : cached);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.security.sa.dao.flush-interval:1000}")
+    public void flush() {
+
+        while (!pendingExpireTimes.isEmpty()) {
+            Map<String, Long> batch = new HashMap<>();
+            Iterator<Map.Entry<String, Long>> it = pendingExpireTimes.entrySet().iterator();
+            while (it.hasNext() && batch.size() < properties.getFlushBatchSize()) {
+                Map.Entry<String, Long> next = it.next();
+                // 取出期间被再次续期的 key 保留在队列中，下一轮写入新值
+                if (pendingExpireTimes.remove(next.getKey(), next.getValue())) {
+                    batch.put(next.getKey(), next.getValue());
+                }
+            }
+            try {
+                tokenManager.refreshTokens(batch);
+            } catch (RuntimeException e) {
+                // 放回队列等待下次落库，期间已有更新的 key 保留新值
+                batch.forEach(pendingExpireTimes::putIfAbsent);
+                log.warn("Failed to flush {} token timeouts, will retry", batch.size(), e);
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+
+        flush();
+    }
+
+    private static long toExpireAt(long timeoutSeconds) {
+
+        return timeoutSeconds == SaTokenDao.NEVER_EXPIRE
+               ? SaTokenEntry.NEVER_EXPIRE
+               : System.currentTimeMillis() + timeoutSeconds * 1000;
+    }
+
+    private record Local(SaTokenEntry entry, long freshUntil) {}
+
     /**
      * 判断是否为简单值
      */
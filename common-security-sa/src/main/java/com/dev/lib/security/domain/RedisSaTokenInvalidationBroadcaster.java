@@ -0,0 +1,49 @@
+package com.dev.lib.security.domain;
+
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * 基于 Redis 发布订阅的本地缓存失效广播，随 app.security.sa.dao.redis=true 启用
+ * 消息体为发送节点 ID 与 key，按换行分隔；忽略本节点发出的消息
+ */
+@Component
+@ConditionalOnClass(name = "org.redisson.api.RedissonClient")
+@ConditionalOnProperty(prefix = "app.security.sa.dao", name = "redis", havingValue = "true")
+public class RedisSaTokenInvalidationBroadcaster implements SaTokenInvalidationBroadcaster {
+
+    private static final String TOPIC = "satoken:invalidated";
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final RTopic topic;
+
+    public RedisSaTokenInvalidationBroadcaster(RedissonClient redissonClient) {
+
+        this.topic = redissonClient.getTopic(TOPIC);
+    }
+
+    @Override
+    public void publish(String key) {
+
+        topic.publish(nodeId + "\n" + key);
+    }
+
+    @Override
+    public void subscribe(Consumer<String> onInvalidate) {
+
+        topic.addListener(String.class, (channel, message) -> {
+            int split = message.indexOf('\n');
+            if (split > 0 && !nodeId.equals(message.substring(0, split))) {
+                onInvalidate.accept(message.substring(split + 1));
+            }
+        });
+    }
+
+}
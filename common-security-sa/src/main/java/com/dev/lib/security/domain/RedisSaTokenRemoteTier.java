@@ -0,0 +1,47 @@
+package com.dev.lib.security.domain;
+
+import com.dev.lib.cache.RedisCache;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 基于 common-cache 的共享缓存层，TTL 与 token 过期时间一致
+ */
+@Component
+@ConditionalOnClass(name = "com.dev.lib.cache.RedisCache")
+@ConditionalOnProperty(prefix = "app.security.sa.dao", name = "redis", havingValue = "true")
+public class RedisSaTokenRemoteTier implements SaTokenRemoteTier {
+
+    private static final String PREFIX = "satoken";
+
+    @Override
+    public SaTokenEntry get(String key) {
+
+        return RedisCache.key(PREFIX, key).<SaTokenEntry>get().value();
+    }
+
+    @Override
+    public void put(String key, SaTokenEntry entry) {
+
+        Duration ttl = null;
+        if (entry.expireAt() != SaTokenEntry.NEVER_EXPIRE) {
+            long remaining = entry.expireAt() - System.currentTimeMillis();
+            if (remaining <= 0) {
+                delete(key);
+                return;
+            }
+            ttl = Duration.ofMillis(remaining);
+        }
+        RedisCache.key(PREFIX, key).ttl(ttl).set(entry);
+    }
+
+    @Override
+    public void delete(String key) {
+
+        RedisCache.key(PREFIX, key).delete();
+    }
+
+}
@@ -0,0 +1,9 @@
+package com.dev.lib.security.domain;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(SaTokenDaoProperties.class)
+public class SaTokenDaoConfig {
+}
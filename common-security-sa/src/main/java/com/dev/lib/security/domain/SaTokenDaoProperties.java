@@ -0,0 +1,30 @@
+package com.dev.lib.security.domain;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "app.security.sa.dao")
+public class SaTokenDaoProperties {
+
+    /**
+     * 本地缓存最长保留时间（毫秒）；未启用失效广播时即注销等变更在其他节点的最大可见延迟
+     */
+    private long localTtl = 5_000;
+
+    /**
+     * 过期时间刷新批量落库的间隔（毫秒）
+     */
+    private long flushInterval = 1_000;
+
+    /**
+     * 单次落库的最大 key 数
+     */
+    private int flushBatchSize = 500;
+
+    /**
+     * 启用 Redis 共享缓存层与本地缓存失效广播（需引入 common-cache）
+     */
+    private boolean redis = false;
+
+}
@@ -0,0 +1,28 @@
+package com.dev.lib.security.domain;
+
+/**
+ * Sa-Token DAO 缓存条目
+ *
+ * @param value    已反序列化的值（字符串或 SaSession 等对象）
+ * @param expireAt 过期时间戳（毫秒），{@link #NEVER_EXPIRE} 表示永不过期
+ */
+public record SaTokenEntry(Object value, long expireAt) {
+
+    public static final long NEVER_EXPIRE = -1;
+
+    public boolean expired(long now) {
+
+        return expireAt != NEVER_EXPIRE && expireAt <= now;
+    }
+
+    public SaTokenEntry withValue(Object value) {
+
+        return new SaTokenEntry(value, expireAt);
+    }
+
+    public SaTokenEntry withExpireAt(long expireAt) {
+
+        return new SaTokenEntry(value, expireAt);
+    }
+
+}
@@ -0,0 +1,18 @@
+package com.dev.lib.security.domain;
+
+import java.util.function.Consumer;
+
+/**
+ * 本地缓存失效广播：值被删除或改写后通知其他节点丢弃本地条目，
+ * 使注销、踢人下线等操作不必等待 localTtl 即在所有节点生效
+ */
+public interface SaTokenInvalidationBroadcaster {
+
+    void publish(String key);
+
+    /**
+     * 订阅其他节点发出的失效通知，本节点发出的消息不会回调
+     */
+    void subscribe(Consumer<String> onInvalidate);
+
+}
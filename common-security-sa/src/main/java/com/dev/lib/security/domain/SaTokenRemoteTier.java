@@ -0,0 +1,14 @@
+package com.dev.lib.security.domain;
+
+/**
+ * Sa-Token DAO 的共享缓存层，位于本地缓存与数据库之间
+ */
+public interface SaTokenRemoteTier {
+
+    SaTokenEntry get(String key);
+
+    void put(String key, SaTokenEntry entry);
+
+    void delete(String key);
+
+}
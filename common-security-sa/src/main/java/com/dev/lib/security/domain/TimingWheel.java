@@ -0,0 +1,206 @@
+package com.dev.lib.security.domain;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 分层时间轮，用于回收本地缓存中到期的 key
+ * <p>
+ * - 4 层，每层 64 槽；第 0 层每槽一个 tick，上一层每槽覆盖下一层一整圈
+ * - 推进到上层槽边界时将该槽内的 key 按剩余时间重新分配到下层（级联）
+ * - 调度与取消 O(1)，推进成本与到期 key 数成正比，与总 key 数无关
+ * - 超出 64^4 个 tick 的截止时间放在最高层末槽，随级联逐步下沉
+ * - key 按哈希分到若干分段，每段一把锁，请求线程上的调度 / 取消只与同段的操作竞争
+ */
+final class TimingWheel<K> {
+
+    static final int DEFAULT_SHARDS = 16;
+
+    private static final int SLOT_BITS = 6;
+
+    private static final int SLOTS = 1 << SLOT_BITS;
+
+    private static final int MASK = SLOTS - 1;
+
+    private static final int LEVELS = 4;
+
+    private static final long SPAN = 1L << (SLOT_BITS * LEVELS);
+
+    private final Shard<K>[] shards;
+
+    TimingWheel(long tickMillis, long nowMillis) {
+
+        this(tickMillis, nowMillis, DEFAULT_SHARDS);
+    }
+
+    /**
+     * @param shardCount 分段数，需为 2 的幂
+     */
+    @SuppressWarnings("unchecked")
+    TimingWheel(long tickMillis, long nowMillis, int shardCount) {
+
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("tickMillis 必须大于 0");
+        }
+        if (shardCount <= 0 || Integer.bitCount(shardCount) != 1) {
+            throw new IllegalArgumentException("shardCount 必须是 2 的幂");
+        }
+        this.shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard<>(tickMillis, nowMillis / tickMillis);
+        }
+    }
+
+    /**
+     * 调度或重新调度 key，截止时间已过的 key 在下一个 tick 到期
+     */
+    void schedule(K key, long deadlineMillis) {
+
+        shard(key).schedule(key, deadlineMillis);
+    }
+
+    void cancel(K key) {
+
+        shard(key).cancel(key);
+    }
+
+    int size() {
+
+        int size = 0;
+        for (Shard<K> shard : shards) {
+            size += shard.size();
+        }
+        return size;
+    }
+
+    /**
+     * 推进到 nowMillis，返回期间到期的 key；各分段依次推进，每段只持有自己的锁
+     */
+    List<K> advance(long nowMillis) {
+
+        List<K> expired = new ArrayList<>();
+        for (Shard<K> shard : shards) {
+            shard.advance(nowMillis, expired);
+        }
+        return expired;
+    }
+
+    private Shard<K> shard(K key) {
+
+        int h = key.hashCode();
+        return shards[(h ^ (h >>> 16)) & (shards.length - 1)];
+    }
+
+    private static final class Shard<K> {
+
+        private final long tickMillis;
+
+        private final Set<K>[][] slots;
+
+        private final Map<K, Node> nodes = new HashMap<>();
+
+        private long currentTick;
+
+        @SuppressWarnings("unchecked")
+        Shard(long tickMillis, long currentTick) {
+
+            this.tickMillis = tickMillis;
+            this.currentTick = currentTick;
+            this.slots = new Set[LEVELS][SLOTS];
+            for (Set<K>[] level : slots) {
+                for (int i = 0; i < SLOTS; i++) {
+                    level[i] = new HashSet<>();
+                }
+            }
+        }
+
+        synchronized void schedule(K key, long deadlineMillis) {
+
+            unlink(key);
+            long deadlineTick = Math.max(Math.ceilDiv(deadlineMillis, tickMillis), currentTick + 1);
+            place(key, deadlineTick);
+        }
+
+        synchronized void cancel(K key) {
+
+            unlink(key);
+        }
+
+        synchronized int size() {
+
+            return nodes.size();
+        }
+
+        synchronized void advance(long nowMillis, List<K> expired) {
+
+            long target = nowMillis / tickMillis;
+            while (currentTick < target) {
+                currentTick++;
+                // 由高到低级联，高层下沉的 key 可能落入本 tick 需级联的低层槽
+                for (int level = cascadeLevel(currentTick); level >= 1; level--) {
+                    int slot = slotOf(currentTick, level);
+                    Set<K> bucket = slots[level][slot];
+                    slots[level][slot] = new HashSet<>();
+                    for (K key : bucket) {
+                        place(key, nodes.remove(key).deadlineTick());
+                    }
+                }
+                int slot = slotOf(currentTick, 0);
+                Set<K> due = slots[0][slot];
+                if (!due.isEmpty()) {
+                    slots[0][slot] = new HashSet<>();
+                    for (K key : due) {
+                        nodes.remove(key);
+                    }
+                    expired.addAll(due);
+                }
+            }
+        }
+
+        private void place(K key, long deadlineTick) {
+
+            long delta = deadlineTick - currentTick;
+            int level = 0;
+            while (level < LEVELS - 1 && delta >= 1L << (SLOT_BITS * (level + 1))) {
+                level++;
+            }
+            long tick = delta < SPAN ? deadlineTick : currentTick + SPAN - 1;
+            int slot = slotOf(tick, level);
+            slots[level][slot].add(key);
+            nodes.put(key, new Node(deadlineTick, level, slot));
+        }
+
+        private void unlink(K key) {
+
+            Node node = nodes.remove(key);
+            if (node != null) {
+                slots[node.level()][node.slot()].remove(key);
+            }
+        }
+
+    }
+
+    /**
+     * 当前 tick 处于哪几层的槽边界，返回最高层号（0 表示无需级联）
+     */
+    private static int cascadeLevel(long tick) {
+
+        int level = 0;
+        while (level < LEVELS - 1 && (tick & ((1L << (SLOT_BITS * (level + 1))) - 1)) == 0) {
+            level++;
+        }
+        return level;
+    }
+
+    private static int slotOf(long tick, int level) {
+
+        return (int) ((tick >>> (SLOT_BITS * level)) & MASK);
+    }
+
+    private record Node(long deadlineTick, int level, int slot) {}
+
+}
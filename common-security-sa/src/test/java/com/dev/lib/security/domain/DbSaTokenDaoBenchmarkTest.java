@@ -0,0 +1,129 @@
+package com.dev.lib.security.domain;
+
+import com.dev.lib.security.model.TokenItem;
+import com.dev.lib.security.service.TokenManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Sa-Token DAO 读路径基准：对比每次查库（localTtl=0）与本地缓存命中时 getObject 的耗时，
+ * 数据库查询以 200µs 的停顿模拟；另测 8 线程并发调度时单锁与分段时间轮的耗时。
+ * <p>
+ * 默认跳过，执行：mvn -pl common-security-sa test -Dbenchmark=true -Dtest=DbSaTokenDaoBenchmarkTest
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class DbSaTokenDaoBenchmarkTest {
+
+    private static final int KEYS = 200;
+
+    private static final int REQUESTS = 20_000;
+
+    private static final int ROUNDS = 3;
+
+    private static final int THREADS = 8;
+
+    private static final int SCHEDULES_PER_THREAD = 200_000;
+
+    @Test
+    void readOverheadPerRequest() {
+
+        long uncached = measureReads(0);
+        long cached = measureReads(60_000);
+
+        System.out.printf("uncached getObject: %,d ns/request%n", uncached / REQUESTS);
+        System.out.printf("cached getObject:   %,d ns/request%n", cached / REQUESTS);
+        assertThat(cached).isLessThan(uncached);
+    }
+
+    @Test
+    void concurrentScheduleContention() throws Exception {
+
+        long single = measureSchedules(1);
+        long striped = measureSchedules(TimingWheel.DEFAULT_SHARDS);
+        long total = (long) THREADS * SCHEDULES_PER_THREAD;
+
+        System.out.printf("single-lock wheel: %,d ns/schedule%n", single / total);
+        System.out.printf("striped wheel:     %,d ns/schedule%n", striped / total);
+    }
+
+    private long measureReads(long localTtl) {
+
+        Map<String, TokenItem> rows = new ConcurrentHashMap<>();
+        for (int i = 0; i < KEYS; i++) {
+            rows.put("token:" + i, DbSaTokenDaoTest.row("token:" + i, String.valueOf(i), 3_600));
+        }
+        TokenManager tokenManager = mock(TokenManager.class);
+        when(tokenManager.getToken(anyString())).thenAnswer(it -> {
+            LockSupport.parkNanos(200_000);
+            return rows.get(it.<String>getArgument(0));
+        });
+        SaTokenDaoProperties properties = new SaTokenDaoProperties();
+        properties.setLocalTtl(localTtl);
+        DbSaTokenDao dao = new DbSaTokenDao(
+                tokenManager,
+                properties,
+                DbSaTokenDaoTest.provider(SaTokenRemoteTier.class, null),
+                DbSaTokenDaoTest.provider(SaTokenInvalidationBroadcaster.class, null)
+        );
+
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < REQUESTS; i++) {
+                dao.getObject("token:" + (i % KEYS));
+            }
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+
+    private long measureSchedules(int shards) throws Exception {
+
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long now = System.currentTimeMillis();
+            TimingWheel<String> wheel = new TimingWheel<>(1_000, now, shards);
+            String[][] keys = new String[THREADS][1_000];
+            for (int t = 0; t < THREADS; t++) {
+                for (int i = 0; i < keys[t].length; i++) {
+                    keys[t][i] = "token:" + t + ":" + i;
+                }
+            }
+            CountDownLatch start = new CountDownLatch(1);
+            long elapsed;
+            try (ExecutorService executor = Executors.newFixedThreadPool(THREADS)) {
+                for (int t = 0; t < THREADS; t++) {
+                    String[] own = keys[t];
+                    executor.submit(() -> {
+                        start.await();
+                        for (int i = 0; i < SCHEDULES_PER_THREAD; i++) {
+                            wheel.schedule(own[i % own.length], now + 5_000 + i % 60_000);
+                        }
+                        return null;
+                    });
+                }
+                long begin = System.nanoTime();
+                start.countDown();
+                executor.shutdown();
+                executor.awaitTermination(1, TimeUnit.MINUTES);
+                elapsed = System.nanoTime() - begin;
+            }
+            best = Math.min(best, elapsed);
+        }
+        return best;
+    }
+
+}
@@ -0,0 +1,269 @@
+package com.dev.lib.security.domain;
+
+import cn.dev33.satoken.dao.SaTokenDao;
+import com.dev.lib.security.model.TokenItem;
+import com.dev.lib.security.service.TokenManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DbSaTokenDaoTest {
+
+    private final Map<String, TokenItem> rows = new ConcurrentHashMap<>();
+
+    private final TokenManager tokenManager = tokenManager(rows);
+
+    @Test
+    void shouldServeRepeatedReadsAndAbsentKeysFromLocalTier() {
+
+        rows.put("satoken:login:token:a", row("satoken:login:token:a", "1001", 60));
+        DbSaTokenDao dao = dao(60_000, null, null);
+
+        assertThat(dao.get("satoken:login:token:a")).isEqualTo("1001");
+        assertThat(dao.get("satoken:login:token:a")).isEqualTo("1001");
+        assertThat(dao.getObjectTimeout("satoken:login:token:a")).isBetween(58L, 60L);
+        assertThat(dao.get("missing")).isNull();
+        assertThat(dao.get("missing")).isNull();
+
+        verify(tokenManager, times(1)).getToken("satoken:login:token:a");
+        verify(tokenManager, times(1)).getToken("missing");
+    }
+
+    @Test
+    void shouldFallThroughRemoteTierBeforeDatabase() {
+
+        rows.put("k", row("k", "v", 60));
+        InMemoryRemoteTier remote = new InMemoryRemoteTier();
+        DbSaTokenDao first = dao(60_000, remote, null);
+        DbSaTokenDao second = dao(60_000, remote, null);
+
+        // 第一个节点：本地、共享缓存均未命中，查库后回填共享缓存
+        assertThat(first.get("k")).isEqualTo("v");
+        assertThat(remote.entries).containsKey("k");
+        // 第二个节点：本地未命中，共享缓存命中，不再查库
+        assertThat(second.get("k")).isEqualTo("v");
+
+        verify(tokenManager, times(1)).getToken("k");
+    }
+
+    @Test
+    void shouldReloadFromDatabaseAfterLocalTtl() {
+
+        rows.put("k", row("k", "v1", 60));
+        DbSaTokenDao dao = dao(0, null, null);
+
+        assertThat(dao.get("k")).isEqualTo("v1");
+        rows.put("k", row("k", "v2", 60));
+        assertThat(dao.get("k")).isEqualTo("v2");
+
+        verify(tokenManager, times(2)).getToken("k");
+    }
+
+    @Test
+    void shouldInvalidateOtherNodesLocalTierOnDelete() {
+
+        rows.put("k", row("k", "v", 60));
+        LocalBus bus = new LocalBus();
+        DbSaTokenDao first = dao(60_000, null, bus.node());
+        DbSaTokenDao second = dao(60_000, null, bus.node());
+        assertThat(second.get("k")).isEqualTo("v");
+
+        first.delete("k");
+
+        assertThat(rows).doesNotContainKey("k");
+        // 不等 localTtl：第二个节点的本地条目已被广播清除，重新查库得到不存在
+        assertThat(second.get("k")).isNull();
+        assertThat(bus.published).containsExactly("k");
+    }
+
+    @Test
+    void shouldInvalidateOtherNodesLocalTierOnOverwrite() {
+
+        rows.put("k", row("k", "v1", 60));
+        LocalBus bus = new LocalBus();
+        DbSaTokenDao first = dao(60_000, null, bus.node());
+        DbSaTokenDao second = dao(60_000, null, bus.node());
+        assertThat(second.get("k")).isEqualTo("v1");
+
+        first.set("k", "v2", 60);
+
+        assertThat(first.get("k")).isEqualTo("v2");
+        assertThat(second.get("k")).isEqualTo("v2");
+    }
+
+    @Test
+    void shouldKeepStaleLocalEntryWithoutBroadcasterUntilTtl() {
+
+        rows.put("k", row("k", "v", 60));
+        DbSaTokenDao first = dao(60_000, null, null);
+        DbSaTokenDao second = dao(60_000, null, null);
+        assertThat(second.get("k")).isEqualTo("v");
+
+        first.delete("k");
+
+        assertThat(second.get("k")).isEqualTo("v");
+    }
+
+    @Test
+    void shouldWriteBehindTimeoutRenewalsInBatches() {
+
+        rows.put("k", row("k", "v", 60));
+        DbSaTokenDao dao = dao(60_000, null, null);
+
+        dao.updateObjectTimeout("k", 3_600);
+        assertThat(dao.getObjectTimeout("k")).isBetween(3_598L, 3_600L);
+        verify(tokenManager, never()).refreshTokens(anyMap());
+
+        dao.flush();
+        verify(tokenManager, times(1)).refreshTokens(anyMap());
+        assertThat(rows.get("k").getExpireTime()).isGreaterThan(System.currentTimeMillis() + 3_500_000L);
+
+        dao.flush();
+        verify(tokenManager, times(1)).refreshTokens(anyMap());
+    }
+
+    @Test
+    void shouldIgnoreNonPositiveTimeoutsOnWrite() {
+
+        DbSaTokenDao dao = dao(60_000, null, null);
+
+        dao.set("k", "v", 0);
+        dao.set("k", "v", SaTokenDao.NOT_VALUE_EXPIRE);
+
+        assertThat(rows).isEmpty();
+        verify(tokenManager, never()).createToken(any());
+    }
+
+    private DbSaTokenDao dao(long localTtl, SaTokenRemoteTier remote, SaTokenInvalidationBroadcaster broadcaster) {
+
+        SaTokenDaoProperties properties = new SaTokenDaoProperties();
+        properties.setLocalTtl(localTtl);
+        DbSaTokenDao dao = new DbSaTokenDao(
+                tokenManager,
+                properties,
+                provider(SaTokenRemoteTier.class, remote),
+                provider(SaTokenInvalidationBroadcaster.class, broadcaster)
+        );
+        dao.afterPropertiesSet();
+        return dao;
+    }
+
+    static <T> ObjectProvider<T> provider(Class<T> type, T bean) {
+
+        DefaultListableBeanFactory factory = new DefaultListableBeanFactory();
+        if (bean != null) {
+            factory.registerSingleton(type.getSimpleName(), bean);
+        }
+        return factory.getBeanProvider(type);
+    }
+
+    /**
+     * 以 Map 模拟 sys_access_token，只实现 DAO 用到的方法
+     */
+    @SuppressWarnings("unchecked")
+    static TokenManager tokenManager(Map<String, TokenItem> rows) {
+
+        TokenManager tokenManager = mock(TokenManager.class);
+        when(tokenManager.createToken(any())).thenAnswer(it -> {
+            TokenItem item = it.getArgument(0);
+            rows.put(item.getTokenKey(), item);
+            return null;
+        });
+        when(tokenManager.getToken(anyString())).thenAnswer(it -> rows.get(it.<String>getArgument(0)));
+        doAnswer(it -> rows.remove(it.<String>getArgument(0))).when(tokenManager).deleteToken(anyString());
+        doAnswer(it -> {
+            ((Map<String, Long>) it.getArgument(0)).forEach((key, expireAt) -> {
+                TokenItem row = rows.get(key);
+                if (row != null) {
+                    row.setExpireTime(expireAt);
+                }
+            });
+            return null;
+        }).when(tokenManager).refreshTokens(anyMap());
+        return tokenManager;
+    }
+
+    static TokenItem row(String key, String value, long timeoutSeconds) {
+
+        return new TokenItem()
+                .setTokenKey(key)
+                .setTokenValue(value)
+                .setExpireTime(System.currentTimeMillis() + timeoutSeconds * 1000);
+    }
+
+    static final class InMemoryRemoteTier implements SaTokenRemoteTier {
+
+        final Map<String, SaTokenEntry> entries = new ConcurrentHashMap<>();
+
+        @Override
+        public SaTokenEntry get(String key) {
+
+            return entries.get(key);
+        }
+
+        @Override
+        public void put(String key, SaTokenEntry entry) {
+
+            entries.put(key, entry);
+        }
+
+        @Override
+        public void delete(String key) {
+
+            entries.remove(key);
+        }
+
+    }
+
+    /**
+     * 进程内模拟广播，发送方自身不回调
+     */
+    static final class LocalBus {
+
+        final List<String> published = new CopyOnWriteArrayList<>();
+
+        private final List<Consumer<String>> subscribers = new CopyOnWriteArrayList<>();
+
+        SaTokenInvalidationBroadcaster node() {
+
+            return new SaTokenInvalidationBroadcaster() {
+
+                private Consumer<String> self;
+
+                @Override
+                public void publish(String key) {
+
+                    published.add(key);
+                    subscribers.stream().filter(it -> it != self).forEach(it -> it.accept(key));
+                }
+
+                @Override
+                public void subscribe(Consumer<String> onInvalidate) {
+
+                    self = onInvalidate;
+                    subscribers.add(onInvalidate);
+                }
+
+            };
+        }
+
+    }
+
+}
@@ -0,0 +1,108 @@
+package com.dev.lib.security.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TimingWheelTest {
+
+    private static final long TICK = 1_000;
+
+    @Test
+    void shouldExpireExactlyAtDeadlineTickAcrossCascadeLevels() {
+
+        TimingWheel<String> wheel = new TimingWheel<>(TICK, 0);
+        // 第 0 层、1/2/3 层边界两侧，以及需要多次级联的截止时间
+        long[] ticks = {1, 63, 64, 65, 127, 4_095, 4_096, 4_097, 262_143, 262_144, 300_001};
+        for (long tick : ticks) {
+            wheel.schedule("k" + tick, tick * TICK);
+        }
+        assertThat(wheel.size()).isEqualTo(ticks.length);
+
+        long now = 0;
+        for (long tick : ticks) {
+            assertThat(wheel.advance(tick * TICK - 1)).as("before tick %d", tick).isEmpty();
+            assertThat(wheel.advance(tick * TICK)).as("at tick %d", tick).containsExactly("k" + tick);
+            now = tick * TICK;
+        }
+        assertThat(wheel.size()).isZero();
+        assertThat(wheel.advance(now + 1_000 * TICK)).isEmpty();
+    }
+
+    @Test
+    void shouldRoundPartialTicksUpAndExpirePastDeadlinesOnNextTick() {
+
+        TimingWheel<String> wheel = new TimingWheel<>(TICK, 10_500);
+        wheel.schedule("partial", 12_001);
+        wheel.schedule("past", 1_000);
+
+        assertThat(wheel.advance(10_999)).isEmpty();
+        assertThat(wheel.advance(11_000)).containsExactly("past");
+        assertThat(wheel.advance(12_999)).isEmpty();
+        assertThat(wheel.advance(13_000)).containsExactly("partial");
+    }
+
+    @Test
+    void shouldRescheduleAndCancel() {
+
+        TimingWheel<String> wheel = new TimingWheel<>(TICK, 0);
+        wheel.schedule("moved", 5 * TICK);
+        wheel.schedule("cancelled", 5 * TICK);
+        wheel.schedule("moved", 100 * TICK);
+        wheel.cancel("cancelled");
+
+        assertThat(wheel.size()).isEqualTo(1);
+        assertThat(wheel.advance(99 * TICK)).isEmpty();
+        assertThat(wheel.advance(100 * TICK)).containsExactly("moved");
+    }
+
+    @Test
+    void shouldSinkDeadlinesBeyondWheelSpan() {
+
+        // 单分段，避免逐 tick 推进 64^4 次时重复遍历多个分段
+        TimingWheel<String> wheel = new TimingWheel<>(1, 0, 1);
+        long span = 1L << 24;
+        wheel.schedule("far", span + 10);
+
+        assertThat(wheel.advance(span + 9)).isEmpty();
+        assertThat(wheel.size()).isEqualTo(1);
+        assertThat(wheel.advance(span + 10)).containsExactly("far");
+    }
+
+    @Test
+    void shouldCollectKeysScheduledConcurrentlyAcrossShards() throws Exception {
+
+        TimingWheel<String> wheel = new TimingWheel<>(TICK, 0);
+        int threads = 8;
+        int perThread = 1_000;
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                executor.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        wheel.schedule(thread + "-" + i, (1 + i % 200) * TICK);
+                    }
+                });
+            }
+        }
+
+        assertThat(wheel.size()).isEqualTo(threads * perThread);
+        List<String> expired = new ArrayList<>(wheel.advance(200 * TICK));
+        assertThat(expired).hasSize(threads * perThread).doesNotHaveDuplicates();
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void shouldRejectInvalidArguments() {
+
+        assertThatThrownBy(() -> new TimingWheel<String>(0, 0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new TimingWheel<String>(TICK, 0, 3)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+}
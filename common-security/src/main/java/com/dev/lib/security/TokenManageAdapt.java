@@ -92,6 +92,17 @@ public class TokenManageAdapt implements TokenManager {
         });
     }
 
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public void refreshTokens(Map<String, Long> expireTimes) {
+
+        if (expireTimes.isEmpty()) {
+            return;
+        }
+        repo.loads(new AccessTokenRepo.Q().setTokenKeyIn(expireTimes.keySet()))
+                .forEach(it -> it.setExpireTime(expireTimes.get(it.getTokenKey())));
+    }
+
     @Override
     public void deleteToken(String tokenKey) {
 
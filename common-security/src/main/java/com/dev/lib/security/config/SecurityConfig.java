@@ -3,6 +3,7 @@ package com.dev.lib.security.config;
 import com.dev.lib.security.config.properties.EndpointScannerProperties;
 import com.dev.lib.security.config.properties.SecurityValidProperties;
 import com.dev.lib.security.service.PermissionService;
+import com.dev.lib.security.util.PermissionBits;
 import com.dev.lib.security.util.SecurityContextHolder;
 import lombok.RequiredArgsConstructor;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
@@ -41,6 +42,19 @@ public class SecurityConfig {
                 }
                 return Arrays.stream(roles).anyMatch(SecurityContextHolder.get()::hasRole);
             }
+
+            @Override
+            public boolean hasPermission(PermissionBits permissions) {
+
+                return SecurityContextHolder.isLogin()
+                        && SecurityContextHolder.get().permissionBits().intersects(permissions);
+            }
+
+            @Override
+            public boolean hasRole(PermissionBits roles) {
+
+                return SecurityContextHolder.isLogin() && SecurityContextHolder.get().roleBits().intersects(roles);
+            }
         };
     }
 
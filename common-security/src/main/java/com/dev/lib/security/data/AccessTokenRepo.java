@@ -6,6 +6,8 @@ import com.dev.lib.jpa.entity.BaseRepository;
 import com.dev.lib.security.model.TokenType;
 import lombok.Data;
 
+import java.util.Collection;
+
 public interface AccessTokenRepo extends BaseRepository<AccessTokenPo> {
 
     QAccessTokenPo $ = QAccessTokenPo.accessTokenPo;
@@ -17,6 +19,8 @@ public interface AccessTokenRepo extends BaseRepository<AccessTokenPo> {
 
         private String       tokenKey;
 
+        private Collection<String> tokenKeyIn;
+
         private String       userId;
 
         private EntityStatus status;
@@ -0,0 +1,52 @@
+package com.dev.lib.security.interceptor;
+
+import com.dev.lib.security.service.annotation.Anonymous;
+import com.dev.lib.security.service.annotation.RequirePermission;
+import com.dev.lib.security.service.annotation.RequireRole;
+import com.dev.lib.security.util.PermissionBits;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+
+import java.lang.reflect.Method;
+
+/**
+ * 单个接口预编译的访问规则，注解解析只在编译时进行一次
+ * <p>
+ * 规则与注解优先级一致：方法级 @RequireRole 命中即结束；类级 @RequireRole 通过后继续校验权限；
+ * 方法级 @RequirePermission 优先于类级。各项为 null 表示未声明。
+ * 方法级注解按 HandlerMethod 的方式解析（含组合注解）；类级注解只读控制器类本身，
+ * 不搜索接口与父类上的声明，避免父类型上的 @Anonymous 放开子类接口。
+ *
+ * @param anonymous        方法或类标注了 @Anonymous
+ * @param methodRoles      方法级 @RequireRole
+ * @param classRoles       类级 @RequireRole
+ * @param methodPermission 方法级 @RequirePermission
+ * @param classPermission  类级 @RequirePermission
+ */
+public record EndpointAccessPlan(
+        boolean anonymous,
+        PermissionBits methodRoles,
+        PermissionBits classRoles,
+        PermissionBits methodPermission,
+        PermissionBits classPermission
+) {
+
+    public static EndpointAccessPlan compile(Class<?> beanType, Method method) {
+
+        boolean anonymous = AnnotatedElementUtils.hasAnnotation(method, Anonymous.class)
+                || beanType.isAnnotationPresent(Anonymous.class);
+
+        RequireRole methodRole = AnnotatedElementUtils.findMergedAnnotation(method, RequireRole.class);
+        RequireRole classRole = beanType.getAnnotation(RequireRole.class);
+        RequirePermission methodPermission = AnnotatedElementUtils.findMergedAnnotation(method, RequirePermission.class);
+        RequirePermission classPermission = beanType.getAnnotation(RequirePermission.class);
+
+        return new EndpointAccessPlan(
+                anonymous,
+                methodRole == null ? null : PermissionBits.of(methodRole.value()),
+                classRole == null ? null : PermissionBits.of(classRole.value()),
+                methodPermission == null ? null : PermissionBits.of(methodPermission.value()),
+                classPermission == null ? null : PermissionBits.of(classPermission.value())
+        );
+    }
+
+}
@@ -0,0 +1,51 @@
+package com.dev.lib.security.interceptor;
+
+import com.dev.lib.security.scanner.EndpointPermissionScanner;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 接口访问规则缓存：启动时经 EndpointPermissionScanner 预编译全部映射，
+ * 运行期注册的接口首次访问时编译
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class EndpointAccessPlans {
+
+    private final ObjectProvider<EndpointPermissionScanner> scanner;
+
+    private final Map<Key, EndpointAccessPlan> plans = new ConcurrentHashMap<>();
+
+    @EventListener(ContextRefreshedEvent.class)
+    public void precompile() {
+
+        scanner.ifAvailable(it -> {
+            it.forEachHandlerMethod(handler -> plan(handler.getBeanType(), handler.getMethod()));
+            log.info("Compiled {} endpoint access plans", plans.size());
+        });
+    }
+
+    public EndpointAccessPlan plan(HandlerMethod handlerMethod) {
+
+        return plan(handlerMethod.getBeanType(), handlerMethod.getMethod());
+    }
+
+    private EndpointAccessPlan plan(Class<?> beanType, Method method) {
+
+        // 继承的处理方法在不同子类上类级注解可能不同，键需包含 beanType
+        return plans.computeIfAbsent(new Key(beanType, method), key -> EndpointAccessPlan.compile(beanType, method));
+    }
+
+    private record Key(Class<?> beanType, Method method) {}
+
+}
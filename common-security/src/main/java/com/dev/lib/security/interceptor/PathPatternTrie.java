@@ -0,0 +1,133 @@
+package com.dev.lib.security.interceptor;
+
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 白名单路径匹配
+ * <p>
+ * 纯字面量路径与 "字面量前缀/**" 编译为按路径段组织的前缀树，匹配成本与路径段数成正比；
+ * 其余含通配符的模式保留 AntPathMatcher 逐个匹配。
+ */
+final class PathPatternTrie {
+
+    private static final String ANY_REST = "**";
+
+    private final Node root = new Node();
+
+    private final List<String> fallback = new ArrayList<>();
+
+    private final PathMatcher pathMatcher = new AntPathMatcher();
+
+    PathPatternTrie(Collection<String> patterns) {
+
+        for (String pattern : patterns) {
+            if (pattern != null && !pattern.isBlank()) {
+                add(pattern.trim());
+            }
+        }
+    }
+
+    boolean matches(String path) {
+
+        if (path == null) {
+            return false;
+        }
+        if (matchesTrie(path)) {
+            return true;
+        }
+        for (String pattern : fallback) {
+            if (pathMatcher.match(pattern, path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void add(String pattern) {
+
+        String[] segments = segments(pattern);
+        int literal = segments.length;
+        boolean anyRest = false;
+        if (literal > 0 && ANY_REST.equals(segments[literal - 1])) {
+            anyRest = true;
+            literal--;
+        }
+        for (int i = 0; i < literal; i++) {
+            if (isWildcard(segments[i])) {
+                fallback.add(pattern);
+                return;
+            }
+        }
+
+        Node node = root;
+        for (int i = 0; i < literal; i++) {
+            node = node.children.computeIfAbsent(segments[i], it -> new Node());
+        }
+        if (anyRest) {
+            node.anyRest = true;
+        } else if (pattern.endsWith("/") && literal > 0) {
+            node.exactWithSlash = true;
+        } else {
+            node.exact = true;
+        }
+    }
+
+    private boolean matchesTrie(String path) {
+
+        boolean trailingSlash = path.length() > 1 && path.endsWith("/");
+        Node node = root;
+        int start = 0;
+        int length = path.length();
+        while (true) {
+            if (node.anyRest) {
+                return true;
+            }
+            while (start < length && path.charAt(start) == '/') {
+                start++;
+            }
+            if (start >= length) {
+                return trailingSlash ? node.exactWithSlash : node.exact;
+            }
+            int end = path.indexOf('/', start);
+            if (end < 0) {
+                end = length;
+            }
+            node = node.children.get(path.substring(start, end));
+            if (node == null) {
+                return false;
+            }
+            start = end;
+        }
+    }
+
+    private static String[] segments(String pattern) {
+
+        return Arrays.stream(pattern.split("/")).filter(it -> !it.isEmpty()).toArray(String[]::new);
+    }
+
+    private static boolean isWildcard(String segment) {
+
+        return segment.indexOf('*') >= 0 || segment.indexOf('?') >= 0 || segment.indexOf('{') >= 0;
+    }
+
+    private static final class Node {
+
+        private final Map<String, Node> children = new HashMap<>();
+
+        private boolean exact;
+
+        private boolean exactWithSlash;
+
+        private boolean anyRest;
+
+    }
+
+}
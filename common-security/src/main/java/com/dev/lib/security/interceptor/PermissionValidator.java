@@ -6,9 +6,6 @@ import com.dev.lib.security.config.properties.SecurityValidProperties;
 import com.dev.lib.security.service.AuthenticateService;
 import com.dev.lib.security.service.PermissionService;
 import com.dev.lib.security.service.TokenService;
-import com.dev.lib.security.service.annotation.Anonymous;
-import com.dev.lib.security.service.annotation.RequirePermission;
-import com.dev.lib.security.service.annotation.RequireRole;
 import com.dev.lib.security.util.ClientInfoExtractor;
 import com.dev.lib.security.util.SecurityContextHolder;
 import com.dev.lib.security.util.UserDetails;
@@ -19,8 +16,6 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.stereotype.Component;
-import org.springframework.util.AntPathMatcher;
-import org.springframework.util.PathMatcher;
 import org.springframework.web.method.HandlerMethod;
 
 import java.util.Arrays;
@@ -38,18 +33,12 @@ public class PermissionValidator implements InitializingBean {
 
     private final SecurityValidProperties validProperties;
 
-    public boolean anonymous(HandlerMethod handlerMethod) {
-
-        Class<?> controllerClass = handlerMethod.getBeanType();
+    private final EndpointAccessPlans accessPlans;
 
-        // 2. 方法级别 @Anonymous 优先检查
-        if (handlerMethod.hasMethodAnnotation(Anonymous.class)) {
-            anonymous();
-            return true;
-        }
+    public boolean anonymous(HandlerMethod handlerMethod) {
 
-        // 3. 类级别 @Anonymous
-        if (controllerClass.isAnnotationPresent(Anonymous.class)) {
+        // 方法或类级别 @Anonymous
+        if (accessPlans.plan(handlerMethod).anonymous()) {
             anonymous();
             return true;
         }
@@ -59,7 +48,7 @@ public class PermissionValidator implements InitializingBean {
 
     public void valid(HandlerMethod handlerMethod) {
 
-        Class<?> controllerClass = handlerMethod.getBeanType();
+        EndpointAccessPlan plan = accessPlans.plan(handlerMethod);
 
         // 6. 必须登录
         if (!SecurityContextHolder.isLogin()) {
@@ -70,9 +59,8 @@ public class PermissionValidator implements InitializingBean {
         }
 
         // 7. 方法级别 @RequireRole
-        RequireRole methodRole = handlerMethod.getMethodAnnotation(RequireRole.class);
-        if (methodRole != null) {
-            if (!permissionService.hasRole(methodRole.value())) {
+        if (plan.methodRoles() != null) {
+            if (!permissionService.hasRole(plan.methodRoles())) {
                 throw new BizException(
                         StandardErrorCodes.PERMISSION_DENIED,
                         "无权限访问"
@@ -82,8 +70,7 @@ public class PermissionValidator implements InitializingBean {
         }
 
         // 8. 类级别 @RequireRole
-        RequireRole classRole = controllerClass.getAnnotation(RequireRole.class);
-        if (classRole != null && !permissionService.hasRole(classRole.value())) {
+        if (plan.classRoles() != null && !permissionService.hasRole(plan.classRoles())) {
             throw new BizException(
                     StandardErrorCodes.PERMISSION_DENIED,
                     "无权限访问"
@@ -91,9 +78,8 @@ public class PermissionValidator implements InitializingBean {
         }
 
         // 9. 方法级别 @RequirePermission
-        RequirePermission methodPermission = handlerMethod.getMethodAnnotation(RequirePermission.class);
-        if (methodPermission != null) {
-            if (!permissionService.hasPermission(methodPermission.value())) {
+        if (plan.methodPermission() != null) {
+            if (!permissionService.hasPermission(plan.methodPermission())) {
                 throw new BizException(
                         StandardErrorCodes.PERMISSION_DENIED,
                         "无权限访问"
@@ -103,8 +89,7 @@ public class PermissionValidator implements InitializingBean {
         }
 
         // 10. 类级别 @RequirePermission
-        RequirePermission classPermission = controllerClass.getAnnotation(RequirePermission.class);
-        if (classPermission != null && !permissionService.hasPermission(classPermission.value())) {
+        if (plan.classPermission() != null && !permissionService.hasPermission(plan.classPermission())) {
             throw new BizException(
                     StandardErrorCodes.PERMISSION_DENIED,
                     "无权限访问"
@@ -141,15 +126,14 @@ public class PermissionValidator implements InitializingBean {
             )
     );
 
-    private final PathMatcher pathMatcher = new AntPathMatcher();
+    /**
+     * 白名单编译结果，afterPropertiesSet 后不再变化
+     */
+    private PathPatternTrie whitelist;
 
     private boolean isWhitelistRequest(String uri) {
 
-        return whitelistPatterns.stream()
-                .anyMatch(pattern -> pathMatcher.match(
-                        pattern,
-                        uri
-                ));
+        return whitelist.matches(uri);
     }
 
     @Override
@@ -162,6 +146,8 @@ public class PermissionValidator implements InitializingBean {
         if (validProperties.getSkipPatterns() != null) {
             whitelistPatterns.addAll(validProperties.getSkipPatterns());
         }
+
+        whitelist = new PathPatternTrie(whitelistPatterns);
     }
 
     private String extractToken(HttpServletRequest request) {
@@ -21,6 +21,7 @@ import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
 import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
 
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
@@ -97,6 +98,13 @@ public class EndpointPermissionScanner {
         return permissions;
     }
 
+    /**
+     * Visit every mapped handler method, regardless of package filters
+     */
+    public void forEachHandlerMethod(Consumer<HandlerMethod> visitor) {
+        handlerMapping.getHandlerMethods().values().forEach(visitor);
+    }
+
     /**
      * Find all packages annotated with @SpringBootApplication
      */
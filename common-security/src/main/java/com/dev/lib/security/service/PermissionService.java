@@ -1,5 +1,7 @@
 package com.dev.lib.security.service;
 
+import com.dev.lib.security.util.PermissionBits;
+
 public interface PermissionService {
 
     /**
@@ -12,4 +14,20 @@ public interface PermissionService {
      */
     boolean hasRole(String... roles);
 
+    /**
+     * 当前用户是否拥有任一预编译权限，默认回退到字符串比较
+     */
+    default boolean hasPermission(PermissionBits permissions) {
+
+        return hasPermission(permissions.codes());
+    }
+
+    /**
+     * 当前用户是否拥有任一预编译角色，默认回退到字符串比较
+     */
+    default boolean hasRole(PermissionBits roles) {
+
+        return hasRole(roles.codes());
+    }
+
 }
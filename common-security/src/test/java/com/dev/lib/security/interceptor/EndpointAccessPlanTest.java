@@ -0,0 +1,121 @@
+package com.dev.lib.security.interceptor;
+
+import com.dev.lib.security.service.annotation.Anonymous;
+import com.dev.lib.security.service.annotation.RequirePermission;
+import com.dev.lib.security.service.annotation.RequireRole;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EndpointAccessPlanTest {
+
+    @Test
+    void shouldCompileMethodAndClassRequirementsSeparately() throws Exception {
+
+        EndpointAccessPlan plan = EndpointAccessPlan.compile(AdminController.class, method(AdminController.class, "audit"));
+
+        assertThat(plan.anonymous()).isFalse();
+        assertThat(plan.methodRoles().codes()).containsExactly("AUDITOR");
+        assertThat(plan.classRoles().codes()).containsExactly("ADMIN");
+        assertThat(plan.methodPermission().codes()).containsExactly("audit:read", "audit:export");
+        assertThat(plan.classPermission().codes()).containsExactly("admin:access");
+    }
+
+    @Test
+    void shouldLeaveUndeclaredRequirementsNull() throws Exception {
+
+        EndpointAccessPlan plan = EndpointAccessPlan.compile(AdminController.class, method(AdminController.class, "list"));
+
+        assertThat(plan.methodRoles()).isNull();
+        assertThat(plan.methodPermission()).isNull();
+        assertThat(plan.classRoles()).isNotNull();
+        assertThat(plan.classPermission()).isNotNull();
+    }
+
+    @Test
+    void shouldHonourAnonymousOnMethodOrOwnClass() throws Exception {
+
+        assertThat(EndpointAccessPlan.compile(AdminController.class, method(AdminController.class, "ping")).anonymous()).isTrue();
+        assertThat(EndpointAccessPlan.compile(PublicController.class, method(PublicController.class, "index")).anonymous()).isTrue();
+    }
+
+    @Test
+    void shouldNotInheritClassLevelAnnotationsFromSupertypes() throws Exception {
+
+        // 父类与接口上的 @Anonymous / @RequireRole 不作用于子类控制器
+        EndpointAccessPlan plan = EndpointAccessPlan.compile(ExtendingController.class, method(ExtendingController.class, "secret"));
+
+        assertThat(plan.anonymous()).isFalse();
+        assertThat(plan.classRoles()).isNull();
+        assertThat(plan.classPermission()).isNull();
+
+        EndpointAccessPlan viaInterface = EndpointAccessPlan.compile(ImplementingController.class, method(ImplementingController.class, "secret"));
+        assertThat(viaInterface.anonymous()).isFalse();
+    }
+
+    private static Method method(Class<?> type, String name) throws NoSuchMethodException {
+
+        return type.getMethod(name);
+    }
+
+    @RequireRole("ADMIN")
+    @RequirePermission("admin:access")
+    static class AdminController {
+
+        @RequireRole("AUDITOR")
+        @RequirePermission({"audit:read", "audit:export"})
+        public void audit() {
+
+        }
+
+        public void list() {
+
+        }
+
+        @Anonymous
+        public void ping() {
+
+        }
+
+    }
+
+    @Anonymous
+    static class PublicController {
+
+        public void index() {
+
+        }
+
+    }
+
+    @Anonymous
+    @RequireRole("PARENT")
+    @RequirePermission("parent:access")
+    static class BaseController {
+
+    }
+
+    static class ExtendingController extends BaseController {
+
+        public void secret() {
+
+        }
+
+    }
+
+    @Anonymous
+    interface AnonymousApi {
+
+    }
+
+    static class ImplementingController implements AnonymousApi {
+
+        public void secret() {
+
+        }
+
+    }
+
+}
@@ -0,0 +1,73 @@
+package com.dev.lib.security.interceptor;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PathPatternTrieTest {
+
+    @Test
+    void shouldMatchLiteralPathsExactly() {
+
+        PathPatternTrie trie = new PathPatternTrie(List.of("/login", "/api/health"));
+
+        assertThat(trie.matches("/login")).isTrue();
+        assertThat(trie.matches("/api/health")).isTrue();
+        assertThat(trie.matches("/api")).isFalse();
+        assertThat(trie.matches("/api/health/detail")).isFalse();
+        assertThat(trie.matches("/login2")).isFalse();
+        assertThat(trie.matches(null)).isFalse();
+    }
+
+    @Test
+    void shouldTreatTrailingSlashAsDistinctPath() {
+
+        PathPatternTrie trie = new PathPatternTrie(List.of("/docs", "/static/"));
+
+        assertThat(trie.matches("/docs")).isTrue();
+        assertThat(trie.matches("/docs/")).isFalse();
+        assertThat(trie.matches("/static/")).isTrue();
+        assertThat(trie.matches("/static")).isFalse();
+    }
+
+    @Test
+    void shouldMatchAnyRestUnderLiteralPrefix() {
+
+        PathPatternTrie trie = new PathPatternTrie(List.of("/public/**", "/api/open/**"));
+
+        assertThat(trie.matches("/public")).isTrue();
+        assertThat(trie.matches("/public/a/b/c")).isTrue();
+        assertThat(trie.matches("/api/open/v1/items")).isTrue();
+        assertThat(trie.matches("/api/openx/v1")).isFalse();
+        assertThat(trie.matches("/api/private/v1")).isFalse();
+    }
+
+    @Test
+    void shouldFallBackToAntMatchingForInSegmentWildcards() {
+
+        PathPatternTrie trie = new PathPatternTrie(List.of("/files/*.png", "/users/{id}/avatar", "/v?/ping", "/**/swagger-ui/**"));
+
+        assertThat(trie.matches("/files/logo.png")).isTrue();
+        assertThat(trie.matches("/files/logo.jpg")).isFalse();
+        assertThat(trie.matches("/users/42/avatar")).isTrue();
+        assertThat(trie.matches("/users/42/profile")).isFalse();
+        assertThat(trie.matches("/v1/ping")).isTrue();
+        assertThat(trie.matches("/v10/ping")).isFalse();
+        assertThat(trie.matches("/gateway/swagger-ui/index.html")).isTrue();
+    }
+
+    @Test
+    void shouldMatchRootAndIgnoreBlankPatterns() {
+
+        PathPatternTrie rootOnly = new PathPatternTrie(List.of("/", " ", ""));
+        assertThat(rootOnly.matches("/")).isTrue();
+        assertThat(rootOnly.matches("/anything")).isFalse();
+
+        PathPatternTrie everything = new PathPatternTrie(List.of("/**"));
+        assertThat(everything.matches("/")).isTrue();
+        assertThat(everything.matches("/a/b")).isTrue();
+    }
+
+}
@@ -1,19 +1,27 @@
 package com.dev.lib.config;
 
+import com.dev.lib.config.properties.AccessLogProperties;
+import com.dev.lib.config.properties.LatencyMetricsProperties;
 import com.dev.lib.config.properties.LogstashProperties;
 import io.github.linpeilie.annotations.ComponentModelConfig;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.AutoConfigurationExcludeFilter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.EnableAspectJAutoProxy;
+import org.springframework.context.annotation.FilterType;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.web.servlet.config.annotation.EnableWebMvc;
 
 @AutoConfiguration
-@ComponentScan("com.dev.lib")
+// 各模块的自动配置经 AutoConfiguration.imports 加载，扫描时排除，避免其中的 @ConditionalOnBean 提前求值
+@ComponentScan(
+        value = "com.dev.lib",
+        excludeFilters = @ComponentScan.Filter(type = FilterType.CUSTOM, classes = AutoConfigurationExcludeFilter.class)
+)
 public class CommonAutoConfiguration {
 
     @Bean
@@ -21,4 +29,16 @@ public class CommonAutoConfiguration {
     public LogstashProperties logstashProperties() {
         return new LogstashProperties();
     }
+
+    @Bean
+    @ConfigurationProperties(prefix = "app.access-log")
+    public AccessLogProperties accessLogProperties() {
+        return new AccessLogProperties();
+    }
+
+    @Bean
+    @ConfigurationProperties(prefix = "app.latency")
+    public LatencyMetricsProperties latencyMetricsProperties() {
+        return new LatencyMetricsProperties();
+    }
 }
@@ -0,0 +1,22 @@
+package com.dev.lib.config.properties;
+
+import lombok.Data;
+
+@Data
+public class AccessLogProperties {
+
+    /**
+     * 访问日志环形缓冲槽位数，向上取 2 的幂；写满时丢弃新日志，不阻塞请求
+     */
+    private int bufferSize = 4096;
+
+    /**
+     * 请求体最多缓存的字节数，超出部分截断
+     */
+    private int bodyLimit = 8 * 1024;
+
+    /**
+     * 采集请求体的比例（0~1），只对 POST/PUT 的 JSON 请求生效
+     */
+    private double bodySampleRate = 1.0;
+}
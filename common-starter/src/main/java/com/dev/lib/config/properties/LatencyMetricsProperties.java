@@ -0,0 +1,18 @@
+package com.dev.lib.config.properties;
+
+import lombok.Data;
+
+@Data
+public class LatencyMetricsProperties {
+
+    /**
+     * 每个分组最多导出为指标的 key 数，与记录上限（LatencyRegistry.maxKeys）分开；
+     * 超出的 key 仍会记录，可通过 latency 端点查看，溢出 key 始终导出
+     */
+    private int exportMaxKeys = 100;
+
+    /**
+     * 同一 key 的多个分位数指标在此时间（毫秒）内共用一次快照，一次抓取只对每个 key 统计一次
+     */
+    private long snapshotReuseMillis = 1000;
+}
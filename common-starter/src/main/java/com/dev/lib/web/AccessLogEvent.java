@@ -0,0 +1,53 @@
+package com.dev.lib.web;
+
+import java.util.Map;
+
+/**
+ * 访问日志槽位，随环形缓冲预先分配并反复复用；请求线程只填原始值，格式化交给写线程
+ */
+final class AccessLogEvent {
+
+    /**
+     * 请求线程结束前的 MDC 副本（含 trace_id），写线程输出时原样恢复
+     */
+    Map<String, String> mdc;
+
+    String method;
+
+    String path;
+
+    String sourceIp;
+
+    /**
+     * 未登录为 null
+     */
+    String userId;
+
+    String username;
+
+    String queryString;
+
+    /**
+     * 未采集为 null
+     */
+    byte[] body;
+
+    String bodyCharset;
+
+    boolean bodyTruncated;
+
+    void clear() {
+
+        mdc = null;
+        method = null;
+        path = null;
+        sourceIp = null;
+        userId = null;
+        username = null;
+        queryString = null;
+        body = null;
+        bodyCharset = null;
+        bodyTruncated = false;
+    }
+
+}
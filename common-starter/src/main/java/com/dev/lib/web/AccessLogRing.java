@@ -0,0 +1,159 @@
+package com.dev.lib.web;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * 多生产者单消费者的无锁环形缓冲（Disruptor 风格）
+ * <p>
+ * - 请求线程 CAS 领取序号、填写预分配槽位后发布，不加锁、不分配对象
+ * - 单个写线程按序号顺序消费；空闲时先自旋再短暂 park，生产者发现写线程 park 时唤醒它
+ * - 缓冲写满时丢弃新日志并计数，绝不阻塞请求
+ */
+@Slf4j
+final class AccessLogRing {
+
+    private static final int SPIN_TRIES = 100;
+
+    private static final long PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final AccessLogEvent[] slots;
+
+    /**
+     * 每个槽位最近一次发布的序号，等于待消费序号时表示可读
+     */
+    private final AtomicLongArray published;
+
+    private final int mask;
+
+    private final AtomicLong claimed = new AtomicLong(-1);
+
+    private volatile long consumed = -1;
+
+    private final LongAdder dropped = new LongAdder();
+
+    private final Consumer<AccessLogEvent> handler;
+
+    private final Thread writer;
+
+    private volatile boolean waiting;
+
+    private volatile boolean running = true;
+
+    AccessLogRing(String name, int bufferSize, Consumer<AccessLogEvent> handler) {
+
+        int capacity = Integer.highestOneBit(Math.max(bufferSize, 2) - 1) << 1;
+        this.slots = new AccessLogEvent[capacity];
+        this.published = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new AccessLogEvent();
+            published.set(i, -1);
+        }
+        this.mask = capacity - 1;
+        this.handler = handler;
+        this.writer = Thread.ofPlatform().name(name).daemon().start(this::run);
+    }
+
+    /**
+     * 领取序号，缓冲已满时返回 -1
+     */
+    long next() {
+
+        long current;
+        long next;
+        do {
+            current = claimed.get();
+            next = current + 1;
+            if (next - consumed > slots.length) {
+                dropped.increment();
+                return -1;
+            }
+        } while (!claimed.compareAndSet(current, next));
+        return next;
+    }
+
+    AccessLogEvent get(long sequence) {
+
+        return slots[(int) (sequence & mask)];
+    }
+
+    void publish(long sequence) {
+
+        published.set((int) (sequence & mask), sequence);
+        if (waiting) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    long dropped() {
+
+        return dropped.sum();
+    }
+
+    /**
+     * 等待已领取的日志全部写出
+     */
+    boolean awaitIdle(long timeout, TimeUnit unit) {
+
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (consumed < claimed.get()) {
+            if (System.nanoTime() - deadline > 0) {
+                return false;
+            }
+            LockSupport.parkNanos(PARK_NANOS);
+        }
+        return true;
+    }
+
+    void shutdown() {
+
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+
+        long next = consumed + 1;
+        int idle = 0;
+        while (true) {
+            int index = (int) (next & mask);
+            if (published.get(index) == next) {
+                AccessLogEvent event = slots[index];
+                try {
+                    handler.accept(event);
+                } catch (RuntimeException e) {
+                    log.warn("Failed to write access log", e);
+                } finally {
+                    event.clear();
+                }
+                consumed = next++;
+                idle = 0;
+                continue;
+            }
+            if (!running) {
+                return;
+            }
+            if (++idle < SPIN_TRIES) {
+                Thread.onSpinWait();
+                continue;
+            }
+            waiting = true;
+            if (published.get(index) != next) {
+                LockSupport.parkNanos(this, PARK_NANOS);
+            }
+            waiting = false;
+        }
+    }
+
+}
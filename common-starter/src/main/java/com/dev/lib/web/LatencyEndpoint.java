@@ -0,0 +1,65 @@
+package com.dev.lib.web;
+
+import com.dev.lib.util.latency.LatencyRegistry;
+import com.dev.lib.util.latency.LatencySnapshot;
+import org.jspecify.annotations.Nullable;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 延迟分布端点
+ * <p>
+ * GET /actuator/latency?top=N 各分组 p99 最高的前 N 个；GET /actuator/latency/sql?top=N 最慢的 SQL 指纹及调用位置
+ */
+@Component
+@Endpoint(id = "latency")
+public class LatencyEndpoint {
+
+    private static final int DEFAULT_TOP = 20;
+
+    @ReadOperation
+    public Map<String, List<Item>> latency(@Nullable Integer top) {
+
+        Map<String, List<Item>> result = new LinkedHashMap<>();
+        for (LatencyRegistry registry : LatencyRegistry.all()) {
+            result.put(registry.name(), top(registry, top));
+        }
+        return result;
+    }
+
+    @ReadOperation
+    public List<Item> group(@Selector String group, @Nullable Integer top) {
+
+        for (LatencyRegistry registry : LatencyRegistry.all()) {
+            if (registry.name().equals(group)) {
+                return top(registry, top);
+            }
+        }
+        return List.of();
+    }
+
+    private static List<Item> top(LatencyRegistry registry, Integer top) {
+
+        return registry.top(top != null ? top : DEFAULT_TOP)
+                .stream()
+                .map(ranked -> new Item(ranked.entry().key(), ranked.snapshot(), ranked.entry().callSites()))
+                .toList();
+    }
+
+    /**
+     * @param key       接口方法或 SQL 指纹
+     * @param latency   窗口内分布（毫秒）
+     * @param callSites 调用位置，仅 SQL 记录
+     */
+    public record Item(String key, LatencySnapshot latency, Set<String> callSites) {
+
+    }
+
+}
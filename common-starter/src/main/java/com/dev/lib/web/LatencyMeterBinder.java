@@ -0,0 +1,147 @@
+package com.dev.lib.web;
+
+import com.dev.lib.config.properties.LatencyMetricsProperties;
+import com.dev.lib.util.latency.LatencyHistogram;
+import com.dev.lib.util.latency.LatencyRegistry;
+import com.dev.lib.util.latency.LatencySnapshot;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.jspecify.annotations.NonNull;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * 把 {@link LatencyRegistry} 中的窗口分位数导出为 Micrometer 指标
+ * <p>
+ * - app.latency{group, key, quantile}（毫秒）与 app.latency.count{group, key}（窗口内样本数），新出现的 key 自动注册
+ * - 同一 key 的各个指标共用一份快照，抓取时每个 key 只统计一次
+ * - 每个分组导出的 key 数受 {@link LatencyMetricsProperties#getExportMaxKeys()} 限制，与记录上限无关
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnClass(name = "io.micrometer.core.instrument.binder.MeterBinder")
+public class LatencyMeterBinder implements MeterBinder, DisposableBean {
+
+    private final LatencyMetricsProperties properties;
+
+    private final List<LatencyRegistry.Listener> listeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry meterRegistry) {
+
+        // 分组 -> 已导出的 key；监听可能对同一 key 回调两次，按 key 去重计数
+        Map<String, Set<String>> exported = new ConcurrentHashMap<>();
+        LatencyRegistry.Listener listener = (registry, entry) -> {
+            if (admit(exported.computeIfAbsent(registry.name(), k -> ConcurrentHashMap.newKeySet()), entry.key())) {
+                register(meterRegistry, registry, entry);
+            }
+        };
+        listeners.add(listener);
+        LatencyRegistry.addListener(listener);
+    }
+
+    @Override
+    public void destroy() {
+
+        listeners.forEach(LatencyRegistry::removeListener);
+        listeners.clear();
+    }
+
+    private boolean admit(Set<String> keys, String key) {
+
+        if (LatencyRegistry.OVERFLOW_KEY.equals(key) || keys.contains(key)) {
+            return true;
+        }
+        synchronized (keys) {
+            if (keys.size() >= properties.getExportMaxKeys()) {
+                return false;
+            }
+            keys.add(key);
+            return true;
+        }
+    }
+
+    private void register(MeterRegistry meterRegistry, LatencyRegistry registry, LatencyRegistry.Entry entry) {
+
+        SharedSnapshot snapshot = new SharedSnapshot(
+                entry.histogram(),
+                TimeUnit.MILLISECONDS.toNanos(properties.getSnapshotReuseMillis())
+        );
+        quantile(meterRegistry, registry, entry, snapshot, "0.5", LatencySnapshot::p50);
+        quantile(meterRegistry, registry, entry, snapshot, "0.9", LatencySnapshot::p90);
+        quantile(meterRegistry, registry, entry, snapshot, "0.99", LatencySnapshot::p99);
+        quantile(meterRegistry, registry, entry, snapshot, "0.999", LatencySnapshot::p999);
+        quantile(meterRegistry, registry, entry, snapshot, "1.0", LatencySnapshot::max);
+        Gauge.builder("app.latency.count", snapshot, s -> s.get().count())
+                .tag("group", registry.name())
+                .tag("key", entry.tag())
+                .description("Samples in the current latency window")
+                .strongReference(true)
+                .register(meterRegistry);
+    }
+
+    private static void quantile(
+            MeterRegistry meterRegistry,
+            LatencyRegistry registry,
+            LatencyRegistry.Entry entry,
+            SharedSnapshot snapshot,
+            String quantile,
+            ToDoubleFunction<LatencySnapshot> value
+    ) {
+
+        Gauge.builder("app.latency", snapshot, s -> value.applyAsDouble(s.get()))
+                .tag("group", registry.name())
+                .tag("key", entry.tag())
+                .tag("quantile", quantile)
+                .baseUnit("milliseconds")
+                .description("Windowed latency percentile")
+                .strongReference(true)
+                .register(meterRegistry);
+    }
+
+    /**
+     * 同一 key 的各个 gauge 共用的快照，过期后由下一次读取重新统计；并发读取时偶尔重复统计，不影响结果
+     */
+    static final class SharedSnapshot {
+
+        private final LatencyHistogram histogram;
+
+        private final long reuseNanos;
+
+        private volatile Taken taken;
+
+        SharedSnapshot(LatencyHistogram histogram, long reuseNanos) {
+
+            this.histogram = histogram;
+            this.reuseNanos = reuseNanos;
+        }
+
+        LatencySnapshot get() {
+
+            long now = System.nanoTime();
+            Taken current = taken;
+            if (current == null || now - current.at() >= reuseNanos) {
+                current = new Taken(histogram.snapshot(), now);
+                taken = current;
+            }
+            return current.snapshot();
+        }
+
+        private record Taken(LatencySnapshot snapshot, long at) {
+
+        }
+
+    }
+
+}
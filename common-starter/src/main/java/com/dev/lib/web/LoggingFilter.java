@@ -1,5 +1,6 @@
 package com.dev.lib.web;
 
+import com.dev.lib.config.properties.AccessLogProperties;
 import com.dev.lib.entity.id.IDWorker;
 import com.dev.lib.entity.id.IntEncoder;
 import com.dev.lib.handler.ExceptionHandle;
@@ -11,56 +12,106 @@ import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import net.logstash.logback.argument.StructuredArgument;
 import org.jspecify.annotations.NonNull;
 import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 import org.springframework.web.util.ContentCachingRequestWrapper;
 
 import java.io.IOException;
-import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 
 import static net.logstash.logback.argument.StructuredArguments.keyValue;
+import static net.logstash.logback.argument.StructuredArguments.raw;
 
+/**
+ * 访问日志
+ * <p>
+ * - 请求线程只把原始字段写入 {@link AccessLogRing} 的预分配槽位，格式化与输出由后台写线程完成
+ * - 请求线程的 MDC 整体复制到槽位，写线程输出时恢复，访问日志与请求内日志带有相同的上下文字段
+ * - 只对采样命中的 POST/PUT JSON 请求缓存请求体，且有大小上限；仅在异常处理后才记录请求体
+ * - 请求体是合法 JSON 时原样嵌入日志，不再解析成对象树
+ */
 @Slf4j
 @Order(3)
 @Component
-@RequiredArgsConstructor
 public class LoggingFilter extends OncePerRequestFilter {
 
-    private static final int CACHE_LIMIT = 64 * 1024; // 64KB
-
     private static final String[] LOG_PATTERNS = {"/api/**"};
 
+    private final int bodyLimit;
+
+    private final double bodySampleRate;
+
+    private final AccessLogRing ring;
+
+    /**
+     * 仅写线程访问
+     */
+    private long reportedDrops;
+
+    public LoggingFilter() {
+
+        this(new AccessLogProperties());
+    }
+
+    @Autowired
+    public LoggingFilter(AccessLogProperties properties) {
+
+        this.bodyLimit = properties.getBodyLimit();
+        this.bodySampleRate = properties.getBodySampleRate();
+        this.ring = new AccessLogRing("access-log-writer", properties.getBufferSize(), this::write);
+    }
+
     @Override
     protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull FilterChain filterChain) throws ServletException, IOException {
 
-        ContentCachingRequestWrapper wrappedRequest = new ContentCachingRequestWrapper(request, CACHE_LIMIT);
-        String                       requestPath    = request.getServletPath();
+        String requestPath = request.getServletPath();
 
         if (!shouldLog(requestPath)) {
             filterChain.doFilter(request, response);
             return;
         }
+        ContentCachingRequestWrapper wrappedRequest = shouldCaptureBody(request)
+                                                      ? new ContentCachingRequestWrapper(request, bodyLimit)
+                                                      : null;
+        String traceId = request.getHeader("X-Trace-Id");
         try {
-            String traceId = request.getHeader("X-Trace-Id");
             if (traceId == null) {
                 traceId = IntEncoder.encode52(IDWorker.nextID());
             }
             MDC.put("trace_id", traceId);
             log.info("Request received");
-            filterChain.doFilter(wrappedRequest, response);
+            filterChain.doFilter(wrappedRequest != null ? wrappedRequest : request, response);
         } finally {
-            logRequest(wrappedRequest);
+            logRequest(request, wrappedRequest, traceId);
             MDC.clear();
         }
     }
 
+    @Override
+    public void destroy() {
+
+        ring.shutdown();
+    }
+
+    /**
+     * 等待已提交的访问日志写出
+     */
+    boolean awaitLogged(long timeout, TimeUnit unit) {
+
+        return ring.awaitIdle(timeout, unit);
+    }
+
     /**
      * 判断是否需要记录日志
      */
@@ -86,73 +137,152 @@ public class LoggingFilter extends OncePerRequestFilter {
         return path.equals(pattern);
     }
 
-    private void logRequest(ContentCachingRequestWrapper request) throws UnsupportedEncodingException {
+    /**
+     * 请求线程：只填原始字段，不构建 Map、不序列化
+     */
+    private void logRequest(HttpServletRequest request, ContentCachingRequestWrapper wrappedRequest, String traceId) {
 
-        Map<String, Object> requestInfo = new HashMap<>();
-        requestInfo.put("method", request.getMethod());
-        requestInfo.put("path", request.getRequestURI());
-        requestInfo.put("source_ip", ClientInfoExtractor.getClientIp(request));
-
-        List<StructuredArgument> args = new ArrayList<>(List.of(keyValue("context", requestInfo)));
-
-        if (SecurityContextHolder.isLogin()) {
-            UserDetails user = SecurityContextHolder.get();
-            Map<String, Object> userInfo = Map.of(
-                    "id",
-                    Optional.ofNullable(user.getId()).map(Objects::toString).orElse("/"),
-                    "username",
-                    Optional.ofNullable(user.getUsername()).orElse("Anonymous")
-            );
-            args.add(keyValue("user", userInfo));
-        }
-
-        Map<String, Object> business    = new HashMap<>();
-        boolean             hasBusiness = false;
-
-        if (shouldLogRequestBody(request)) {
-            byte[] content = request.getContentAsByteArray();
-            if (content.length > 0) {
-                boolean truncated = content.length >= CACHE_LIMIT;
-                try {
-                    String body = new String(content, request.getCharacterEncoding());
-                    business.put("request_body", truncated ? body : Jsons.parse(body));
-                    business.put("request_body_truncated", truncated);
-                    hasBusiness = true;
-                } catch (Exception e) {
-                    business.put("request_body", new String(content, request.getCharacterEncoding()));
-                    business.put("request_body_truncated", truncated);
-                    hasBusiness = true;
+        long sequence = ring.next();
+        if (sequence < 0) {
+            return;
+        }
+        AccessLogEvent event = ring.get(sequence);
+        try {
+            Map<String, String> mdc = MDC.getCopyOfContextMap();
+            // 下游可能清理过 MDC，trace_id 以过滤器生成的为准
+            event.mdc = mdc == null ? new HashMap<>(2) : mdc;
+            event.mdc.put("trace_id", traceId);
+            event.method = request.getMethod();
+            event.path = request.getRequestURI();
+            event.sourceIp = ClientInfoExtractor.getClientIp(request);
+            event.queryString = request.getQueryString();
+            if (SecurityContextHolder.isLogin()) {
+                UserDetails user = SecurityContextHolder.get();
+                event.userId = Optional.ofNullable(user.getId()).map(Objects::toString).orElse("/");
+                event.username = Optional.ofNullable(user.getUsername()).orElse("Anonymous");
+            }
+            if (wrappedRequest != null
+                    && Boolean.TRUE.equals(request.getAttribute(ExceptionHandle.EXCEPTION_HANDLED_ATTRIBUTE))) {
+                byte[] content = wrappedRequest.getContentAsByteArray();
+                if (content.length > 0) {
+                    event.body = content;
+                    event.bodyCharset = wrappedRequest.getCharacterEncoding();
+                    event.bodyTruncated = content.length >= bodyLimit;
                 }
             }
+        } finally {
+            // 无论填充是否成功都要发布，否则写线程会停在这个序号上
+            ring.publish(sequence);
         }
+    }
 
-        String queryString = request.getQueryString();
-        if (queryString != null && !queryString.isEmpty()) {
-            Map<String, Object> params = new HashMap<>();
-            request.getParameterMap().forEach((key, values) -> {
-                params.put(key, values.length == 1 ? values[0] : Arrays.asList(values));
-            });
-            business.put("query_params", params);
-            hasBusiness = true;
+    /**
+     * 写线程：组装结构化参数并输出
+     */
+    private void write(AccessLogEvent event) {
+
+        long dropped = ring.dropped();
+        if (dropped != reportedDrops) {
+            log.warn("Access log buffer full, dropped {} entries", dropped - reportedDrops);
+            reportedDrops = dropped;
         }
 
-        if (hasBusiness) {
-            args.add(keyValue("business", business));
+        Map<String, Object> requestInfo = new HashMap<>();
+        requestInfo.put("method", event.method);
+        requestInfo.put("path", event.path);
+        requestInfo.put("source_ip", event.sourceIp);
+
+        List<StructuredArgument> args = new ArrayList<>(3);
+        args.add(keyValue("context", requestInfo));
+
+        if (event.userId != null) {
+            args.add(keyValue("user", Map.of("id", event.userId, "username", event.username)));
         }
 
-        log.info("Request completed", args.toArray());
+        String business = business(event);
+        if (business != null) {
+            args.add(raw("business", business));
+        }
+
+        MDC.setContextMap(event.mdc);
+        try {
+            log.info("Request completed", args.toArray());
+        } finally {
+            MDC.clear();
+        }
     }
 
-    private boolean shouldLogRequestBody(ContentCachingRequestWrapper request) {
+    /**
+     * 直接拼出 business 的 JSON，合法的请求体原样嵌入
+     */
+    private static String business(AccessLogEvent event) {
 
-        if (!Boolean.TRUE.equals(request.getAttribute(ExceptionHandle.EXCEPTION_HANDLED_ATTRIBUTE))) {
-            return false;
+        StringBuilder json = new StringBuilder(64).append('{');
+        if (event.body != null) {
+            String body = new String(event.body, charset(event.bodyCharset));
+            json.append("\"request_body\":")
+                    .append(!event.bodyTruncated && Jsons.isWellFormed(body) ? body : Jsons.toJson(body))
+                    .append(",\"request_body_truncated\":")
+                    .append(event.bodyTruncated);
+        }
+        if (event.queryString != null && !event.queryString.isEmpty()) {
+            if (json.length() > 1) {
+                json.append(',');
+            }
+            json.append("\"query_params\":").append(Jsons.toJson(queryParams(event.queryString)));
+        }
+        return json.length() > 1 ? json.append('}').toString() : null;
+    }
+
+    private static Map<String, Object> queryParams(String queryString) {
+
+        Map<String, List<String>> values = new LinkedHashMap<>();
+        for (String pair : queryString.split("&")) {
+            if (pair.isEmpty()) {
+                continue;
+            }
+            int eq = pair.indexOf('=');
+            String key = decode(eq < 0 ? pair : pair.substring(0, eq));
+            String value = eq < 0 ? "" : decode(pair.substring(eq + 1));
+            values.computeIfAbsent(key, k -> new ArrayList<>(1)).add(value);
         }
+        Map<String, Object> params = new LinkedHashMap<>();
+        values.forEach((key, list) -> params.put(key, list.size() == 1 ? list.getFirst() : list));
+        return params;
+    }
+
+    private static String decode(String value) {
+
+        try {
+            return URLDecoder.decode(value, StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            return value;
+        }
+    }
+
+    private static Charset charset(String name) {
+
+        if (name == null) {
+            return StandardCharsets.UTF_8;
+        }
+        try {
+            return Charset.forName(name);
+        } catch (IllegalArgumentException e) {
+            return StandardCharsets.UTF_8;
+        }
+    }
+
+    private boolean shouldCaptureBody(HttpServletRequest request) {
+
         if (!"POST".equals(request.getMethod()) && !"PUT".equals(request.getMethod())) {
             return false;
         }
         String contentType = request.getContentType();
-        return contentType != null && contentType.toLowerCase(Locale.ROOT).contains("application/json");
+        if (contentType == null || !contentType.toLowerCase(Locale.ROOT).contains("application/json")) {
+            return false;
+        }
+        return bodySampleRate >= 1.0
+                || (bodySampleRate > 0 && ThreadLocalRandom.current().nextDouble() < bodySampleRate);
     }
 
 }
@@ -1,18 +1,35 @@
 package com.dev.lib.web;
 
+import com.dev.lib.util.latency.LatencyRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
 import org.springframework.stereotype.Component;
 
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
+/**
+ * 接口耗时：每次调用计入按接口方法分组的延迟直方图，超过阈值再打日志
+ */
 @Slf4j
 @Aspect
 @Component
 public class SlowRequestAspect {
 
+    public static final String LATENCY_GROUP = "http";
+
+    private final LatencyRegistry registry = LatencyRegistry.of(LATENCY_GROUP);
+
+    /**
+     * 方法 -> 直方图，避免每次调用拼接 key
+     */
+    private final Map<Method, LatencyRegistry.Entry> entries = new ConcurrentHashMap<>();
+
     @Around("@within(org.springframework.web.bind.annotation.RestController)")
     public Object monitSlowRequest(ProceedingJoinPoint joinPoint) throws Throwable {
 
@@ -20,11 +37,26 @@ public class SlowRequestAspect {
         try {
             return joinPoint.proceed();
         } finally {
-            long costMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            long costNanos = System.nanoTime() - start;
+            entry(joinPoint).histogram().record(costNanos);
+            long costMs = TimeUnit.NANOSECONDS.toMillis(costNanos);
             if (costMs > 500) {
                 log.warn("slow request signature={} costMs={}", joinPoint.getSignature(), costMs);
             }
         }
     }
 
+    private LatencyRegistry.Entry entry(ProceedingJoinPoint joinPoint) {
+
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        LatencyRegistry.Entry entry = entries.get(method);
+        if (entry == null) {
+            entry = entries.computeIfAbsent(
+                    method,
+                    m -> registry.entry(m.getDeclaringClass().getSimpleName() + "." + m.getName())
+            );
+        }
+        return entry;
+    }
+
 }
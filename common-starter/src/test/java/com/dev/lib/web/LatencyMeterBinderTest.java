@@ -0,0 +1,93 @@
+package com.dev.lib.web;
+
+import com.dev.lib.config.properties.LatencyMetricsProperties;
+import com.dev.lib.util.latency.LatencyRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LatencyMeterBinderTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private LatencyMeterBinder binder;
+
+    @AfterEach
+    void tearDown() {
+
+        if (binder != null) {
+            binder.destroy();
+        }
+        meterRegistry.close();
+    }
+
+    @Test
+    void shouldCapExportedKeysSeparatelyFromRecordedKeys() {
+
+        LatencyMetricsProperties properties = new LatencyMetricsProperties();
+        properties.setExportMaxKeys(2);
+        bind(properties);
+        String group = "export-cap-" + System.nanoTime();
+        LatencyRegistry registry = LatencyRegistry.of(group, 3, TimeUnit.MINUTES.toMillis(1), 6);
+
+        for (String key : new String[]{"a", "b", "c", "d"}) {
+            registry.record(key, TimeUnit.MILLISECONDS.toNanos(5));
+        }
+
+        assertThat(registry.entries()).hasSize(4);
+        assertThat(meterRegistry.find("app.latency.count").tag("group", group).gauges())
+                .extracting(gauge -> gauge.getId().getTag("key"))
+                .containsExactlyInAnyOrder("a", "b", LatencyRegistry.OVERFLOW_KEY);
+    }
+
+    @Test
+    void shouldShareOneSnapshotAcrossGaugesWithinReuseWindow() {
+
+        LatencyMetricsProperties properties = new LatencyMetricsProperties();
+        properties.setSnapshotReuseMillis(TimeUnit.MINUTES.toMillis(10));
+        bind(properties);
+        String group = "shared-" + System.nanoTime();
+        LatencyRegistry registry = LatencyRegistry.of(group);
+        registry.record("k", TimeUnit.MILLISECONDS.toNanos(5));
+
+        assertThat(gauge(group, "app.latency.count")).isEqualTo(1);
+        registry.record("k", TimeUnit.MILLISECONDS.toNanos(500));
+
+        // 仍在复用窗口内，各分位数与样本数来自同一份快照
+        assertThat(gauge(group, "app.latency.count")).isEqualTo(1);
+        assertThat(meterRegistry.get("app.latency").tag("group", group).tag("quantile", "1.0").gauge().value())
+                .isLessThan(100);
+    }
+
+    @Test
+    void shouldRefreshSnapshotAfterReuseWindow() {
+
+        LatencyMetricsProperties properties = new LatencyMetricsProperties();
+        properties.setSnapshotReuseMillis(0);
+        bind(properties);
+        String group = "refresh-" + System.nanoTime();
+        LatencyRegistry registry = LatencyRegistry.of(group);
+        registry.record("k", TimeUnit.MILLISECONDS.toNanos(5));
+
+        assertThat(gauge(group, "app.latency.count")).isEqualTo(1);
+        registry.record("k", TimeUnit.MILLISECONDS.toNanos(500));
+
+        assertThat(gauge(group, "app.latency.count")).isEqualTo(2);
+    }
+
+    private void bind(LatencyMetricsProperties properties) {
+
+        binder = new LatencyMeterBinder(properties);
+        binder.bindTo(meterRegistry);
+    }
+
+    private double gauge(String group, String name) {
+
+        return meterRegistry.get(name).tag("group", group).gauge().value();
+    }
+
+}
@@ -0,0 +1,151 @@
+package com.dev.lib.web;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.helpers.NOPAppender;
+import com.dev.lib.handler.ExceptionHandle;
+import com.dev.lib.util.Jsons;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletRequest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.util.ContentCachingRequestWrapper;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static net.logstash.logback.argument.StructuredArguments.keyValue;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 请求线程上的访问日志耗时：原同步实现（64KB 缓存包装、逐请求 HashMap、Jsons.parse 回解析请求体、当场输出）
+ * 与环形缓冲异步实现。请求均带异常标记以覆盖记录请求体的路径，输出接到 NOP appender 以排除 IO。
+ * <p>
+ * 默认跳过，执行：mvn -pl common-starter test -Dbenchmark=true -Dtest=LoggingFilterBenchmarkTest
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class LoggingFilterBenchmarkTest {
+
+    private static final int REQUESTS = 200_000;
+
+    private static final int WARMUP = 50_000;
+
+    private static final byte[] BODY = ("{\"name\":\"alice\",\"roles\":[\"admin\",\"ops\"],\"profile\":{\"age\":30,"
+            + "\"email\":\"alice@example.com\",\"tags\":[1,2,3,4,5,6,7,8]}}").getBytes(StandardCharsets.UTF_8);
+
+    private static final FilterChain CHAIN = (servletRequest, servletResponse) -> {
+        servletRequest.getInputStream().readAllBytes();
+        servletRequest.setAttribute(ExceptionHandle.EXCEPTION_HANDLED_ATTRIBUTE, Boolean.TRUE);
+    };
+
+    private static final org.slf4j.Logger LEGACY_LOG = LoggerFactory.getLogger(LoggingFilter.class);
+
+    @Test
+    void requestThreadLatency() throws Exception {
+
+        Logger logger = (Logger) LoggerFactory.getLogger(LoggingFilter.class);
+        NOPAppender<ILoggingEvent> nop = new NOPAppender<>();
+        nop.start();
+        Level level = logger.getLevel();
+        boolean additive = logger.isAdditive();
+        logger.setLevel(Level.INFO);
+        logger.setAdditive(false);
+        logger.addAppender(nop);
+
+        LoggingFilter filter = new LoggingFilter();
+        try {
+            long[] legacy = measure(() -> legacy(request()));
+            long[] ring = measure(() -> filter.doFilter(request(), new MockHttpServletResponse(), CHAIN));
+            assertThat(filter.awaitLogged(30, TimeUnit.SECONDS)).isTrue();
+
+            report("legacy synchronous", legacy);
+            report("ring buffer async", ring);
+        } finally {
+            filter.destroy();
+            logger.detachAppender(nop);
+            logger.setAdditive(additive);
+            logger.setLevel(level);
+        }
+    }
+
+    private static long[] measure(Request request) throws Exception {
+
+        for (int i = 0; i < WARMUP; i++) {
+            request.run();
+        }
+        long[] samples = new long[REQUESTS];
+        for (int i = 0; i < REQUESTS; i++) {
+            long start = System.nanoTime();
+            request.run();
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        return samples;
+    }
+
+    private static void report(String name, long[] samples) {
+
+        System.out.printf(
+                "%-20s p50=%,6d ns  p99=%,7d ns  p999=%,8d ns%n",
+                name,
+                samples[samples.length / 2],
+                samples[(int) (samples.length * 0.99)],
+                samples[(int) (samples.length * 0.999)]
+        );
+    }
+
+    private static MockHttpServletRequest request() {
+
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/users");
+        request.setServletPath("/api/users");
+        request.setQueryString("page=1&size=20");
+        request.setParameter("page", "1");
+        request.setParameter("size", "20");
+        request.setContentType("application/json");
+        request.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        request.setContent(BODY);
+        return request;
+    }
+
+    /**
+     * 原实现在请求线程上的工作
+     */
+    private static void legacy(HttpServletRequest request) throws Exception {
+
+        ContentCachingRequestWrapper wrapped = new ContentCachingRequestWrapper(request, 64 * 1024);
+        MDC.put("trace_id", "bench");
+        try {
+            CHAIN.doFilter(wrapped, new MockHttpServletResponse());
+        } finally {
+            Map<String, Object> requestInfo = new HashMap<>();
+            requestInfo.put("method", wrapped.getMethod());
+            requestInfo.put("path", wrapped.getRequestURI());
+            requestInfo.put("source_ip", wrapped.getRemoteAddr());
+            Map<String, Object> business = new HashMap<>();
+            String body = new String(wrapped.getContentAsByteArray(), wrapped.getCharacterEncoding());
+            business.put("request_body", Jsons.parse(body));
+            business.put("request_body_truncated", false);
+            Map<String, Object> params = new HashMap<>();
+            wrapped.getParameterMap().forEach((key, values) -> params.put(key, values.length == 1 ? values[0] : Arrays.asList(values)));
+            business.put("query_params", params);
+            LEGACY_LOG.info("Request completed", keyValue("context", requestInfo), keyValue("business", business));
+            MDC.clear();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Request {
+
+        void run() throws Exception;
+
+    }
+
+}
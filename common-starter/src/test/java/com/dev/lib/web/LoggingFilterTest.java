@@ -11,11 +11,13 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
 import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.mock.web.MockHttpServletResponse;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -58,6 +60,37 @@ class LoggingFilterTest {
                 .contains("alice");
     }
 
+    @Test
+    void shouldRestoreRequestMdcOnWriterThread() throws Exception {
+
+        LoggingFilter filter = new LoggingFilter();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/users");
+        request.setServletPath("/api/users");
+        request.addHeader("X-Trace-Id", "trace-1");
+        FilterChain chain = (servletRequest, servletResponse) -> {
+            MDC.put("tenant_id", "7");
+            MDC.put("span_id", "s-1");
+        };
+
+        try {
+            filter.doFilter(request, new MockHttpServletResponse(), chain);
+            assertThat(filter.awaitLogged(5, TimeUnit.SECONDS)).isTrue();
+        } finally {
+            filter.destroy();
+        }
+
+        ILoggingEvent completed = appender.list.stream()
+                .filter(event -> "Request completed".equals(event.getFormattedMessage()))
+                .findFirst()
+                .orElseThrow();
+        assertThat(completed.getThreadName()).isEqualTo("access-log-writer");
+        assertThat(completed.getMDCPropertyMap())
+                .containsEntry("trace_id", "trace-1")
+                .containsEntry("tenant_id", "7")
+                .containsEntry("span_id", "s-1");
+        assertThat(MDC.getCopyOfContextMap()).isNullOrEmpty();
+    }
+
     private void executeFilter(Boolean handledException) throws ServletException, IOException {
 
         LoggingFilter filter = new LoggingFilter();
@@ -75,7 +108,12 @@ class LoggingFilterTest {
             }
         };
 
-        filter.doFilter(request, response, chain);
+        try {
+            filter.doFilter(request, response, chain);
+            assertThat(filter.awaitLogged(5, TimeUnit.SECONDS)).isTrue();
+        } finally {
+            filter.destroy();
+        }
     }
 
     private String completedLog() {
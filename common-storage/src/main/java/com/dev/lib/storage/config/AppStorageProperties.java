@@ -106,6 +106,58 @@ public class AppStorageProperties {
          */
         private Boolean cowEnabled = true;
 
+        /**
+         * 是否启用内容寻址去重
+         * 启用后写入按 SHA-256 摘要复用底层对象，cp 与重复写入只修改元数据，
+         * 旧版本与删除操作改为释放引用，由 GC 回收引用归零的对象
+         */
+        private Boolean dedupEnabled = false;
+
+        /**
+         * 引用归零的 Blob 延迟回收时间（分钟），防止并发读取失败
+         */
+        private Long blobGcGraceMinutes = 5L;
+
+        /**
+         * 是否启用目录元数据索引（tree / ls / find -name / 通配符展开走内存 Trie）
+         */
+        private Boolean indexEnabled = true;
+
+        /**
+         * 单个索引快照及索引缓存总量的节点上限，超过时回退到数据库查询
+         */
+        private Long indexMaxNodes = 100000L;
+
+        /**
+         * 索引快照最长存活时间（秒），未开启 change-broadcast 时即多实例部署下其他节点写入造成的陈旧窗口
+         */
+        private Long indexTtlSeconds = 30L;
+
+        /**
+         * 跨节点目录索引失效通知：none（仅依赖 TTL）/ redis（需应用提供 RedissonClient）
+         */
+        private String changeBroadcast = "none";
+
+        /**
+         * 内容搜索（grep -r / findByContent）并发扫描的最大文件数
+         */
+        private Integer searchParallelism = 16;
+
+        /**
+         * 是否启用内容 Trigram 索引，写入时增量维护，搜索时跳过确定不包含关键字的文件
+         */
+        private Boolean contentIndexEnabled = false;
+
+        /**
+         * 单个文件参与内容索引的最大字节数，超过时该文件始终走全量扫描
+         */
+        private Long contentIndexMaxFileBytes = 1048576L;
+
+        /**
+         * 内容索引缓存的 trigram 总数上限，超过时按最近最少使用淘汰
+         */
+        private Long contentIndexMaxTrigrams = 10000000L;
+
     }
 
 }
@@ -3,6 +3,7 @@ package com.dev.lib.storage.data;
 import com.dev.lib.jpa.entity.JpaEntity;
 import com.dev.lib.storage.domain.model.StorageFile;
 import com.dev.lib.storage.domain.model.StorageType;
+import com.dev.lib.storage.domain.service.virtual.index.SysFileChangeListener;
 import com.dev.lib.storage.serialize.FileItem;
 import io.github.linpeilie.annotations.AutoMapper;
 import io.github.linpeilie.annotations.AutoMappers;
@@ -23,6 +24,7 @@ import java.util.List;
                 @Index(name = "idx_parent_path", columnList = "parentPath"),
                 @Index(name = "idx_virtual_path_prefix", columnList = "virtualPath")
         })
+@EntityListeners(SysFileChangeListener.class)
 @Data
 @AutoMappers({
         @AutoMapper(target = FileItem.class, reverseConvertGenerate = false),
@@ -45,6 +47,9 @@ public class SysFile extends JpaEntity {
 
     private Long size;              // 文件大小(字节)
 
+    @Column(length = 64)
+    private String contentHash;     // 内容摘要(SHA-256，开启去重时写入)
+
     @Column(length = 12)
     @Enumerated(EnumType.STRING)
     private StorageType storageType;     // 存储类型
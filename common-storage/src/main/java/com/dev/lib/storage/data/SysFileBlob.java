@@ -0,0 +1,41 @@
+package com.dev.lib.storage.data;
+
+import com.dev.lib.jpa.entity.JpaEntity;
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 内容寻址 Blob（按内容摘要去重）
+ *
+ * SysFile.storagePath / oldStoragePaths 中每出现一次即持有一个引用，
+ * refCount 归零后由 GC 在 deleteAfter 之后删除底层对象。
+ */
+@Entity
+@Table(name = "sys_storage_blob",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"serviceName", "digest"}),
+        indexes = {
+                @Index(name = "idx_blob_storage_path", columnList = "storagePath"),
+                @Index(name = "idx_blob_gc", columnList = "serviceName,refCount,deleteAfter")
+        })
+@Data
+public class SysFileBlob extends JpaEntity {
+
+    @Column(nullable = false, length = 64)
+    private String digest;          // SHA-256 十六进制摘要
+
+    @Column(nullable = false)
+    private String storagePath;     // 底层存储路径
+
+    private Long size;              // 内容大小(字节)
+
+    @Column(length = 128)
+    private String serviceName;     // 服务归属
+
+    @Column(nullable = false)
+    private Long refCount = 0L;     // 引用计数
+
+    private LocalDateTime deleteAfter; // 引用归零后的延迟删除时间
+
+}
@@ -0,0 +1,62 @@
+package com.dev.lib.storage.data;
+
+import com.dev.lib.entity.dsl.DslQuery;
+import com.dev.lib.jpa.entity.BaseRepository;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 内容寻址 Blob Repository
+ *
+ * 查询维度：
+ * - digest：内容摘要（去重键）
+ * - storagePath：底层存储路径（引用释放时反查）
+ * - refCountLe + deleteAfterLe：GC 候选
+ */
+public interface SysFileBlobRepository extends BaseRepository<SysFileBlob> {
+
+    @Data
+    class Query extends DslQuery<SysFileBlob> {
+
+        private String serviceName;
+
+        private String digest;
+
+        private String storagePath;
+
+        private Collection<String> storagePathIn;
+
+        private Long refCountLe;
+
+        private LocalDateTime deleteAfterLe;
+
+    }
+
+    default Optional<SysFileBlob> findByDigestForUpdate(String serviceName, String digest) {
+
+        return lockForUpdate().load(new Query().setServiceName(serviceName).setDigest(digest));
+    }
+
+    default Optional<SysFileBlob> findByStoragePathForUpdate(String serviceName, String storagePath) {
+
+        return lockForUpdate().load(new Query().setServiceName(serviceName).setStoragePath(storagePath));
+    }
+
+    default List<SysFileBlob> findByStoragePathsForUpdate(String serviceName, Collection<String> storagePaths) {
+
+        return lockForUpdate().loads(new Query().setServiceName(serviceName).setStoragePathIn(storagePaths));
+    }
+
+    /**
+     * GC 候选：引用归零且已过延迟删除时间
+     */
+    default List<SysFileBlob> findGarbage(String serviceName, LocalDateTime now) {
+
+        return loads(new Query().setServiceName(serviceName).setRefCountLe(0L).setDeleteAfterLe(now));
+    }
+
+}
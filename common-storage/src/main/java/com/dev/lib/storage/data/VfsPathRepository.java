@@ -3,7 +3,11 @@ package com.dev.lib.storage.data;
 import com.dev.lib.entity.dsl.DslQuery;
 import com.dev.lib.jpa.entity.BaseRepository;
 import lombok.Data;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
@@ -23,6 +27,11 @@ import java.util.Optional;
  */
 public interface VfsPathRepository extends BaseRepository<SysFile> {
 
+    /**
+     * 子树路径的 LIKE 转义字符
+     */
+    char LIKE_ESCAPE = '!';
+
     @Data
     class Query extends DslQuery<SysFile> {
 
@@ -36,6 +45,8 @@ public interface VfsPathRepository extends BaseRepository<SysFile> {
 
         private Collection<String> virtualPathIn;
 
+        private Boolean isDirectory;
+
         private String storagePath;       // 存储路径（用于 COW 检查）
 
     }
@@ -63,6 +74,11 @@ public interface VfsPathRepository extends BaseRepository<SysFile> {
         return loads(new Query().setServiceName(serviceName).setVirtualPathStartWith(prefix));
     }
 
+    default long countByVirtualPathStartingWith(String serviceName, String prefix) {
+
+        return count(new Query().setServiceName(serviceName).setVirtualPathStartWith(prefix));
+    }
+
     /**
      * 批量悲观锁查询
      */
@@ -79,6 +95,11 @@ public interface VfsPathRepository extends BaseRepository<SysFile> {
         return lockForUpdate().loads(new Query().setServiceName(serviceName).setVirtualPathStartWith(prefix));
     }
 
+    default List<SysFile> findAllByIdIn(String serviceName, Collection<Long> ids) {
+
+        return loads(new Query().setServiceName(serviceName).setIdIn(ids));
+    }
+
     /**
      * 按 storagePath 查询（用于 COW 检查）
      */
@@ -87,4 +108,69 @@ public interface VfsPathRepository extends BaseRepository<SysFile> {
         return loads(new Query().setServiceName(serviceName).setStoragePath(storagePath));
     }
 
+    // ==================== 子树批量操作（集合式 SQL） ====================
+
+    /**
+     * 按 id 游标分块获取子树记录 id
+     *
+     * @param subtreePattern 由 {@link #subtreePattern(String)} 生成的 LIKE 模式
+     * @param afterId        上一块的最后一个 id（首块传 0）
+     * @param pageable       块大小
+     */
+    @org.springframework.data.jpa.repository.Query(
+            "select f.id from SysFile f where f.serviceName = :serviceName and f.deleted = false "
+                    + "and f.virtualPath like :subtreePattern escape '!' and f.id > :afterId order by f.id"
+    )
+    List<Long> findSubtreeIdsAfter(
+            @Param("serviceName") String serviceName,
+            @Param("subtreePattern") String subtreePattern,
+            @Param("afterId") Long afterId,
+            Pageable pageable
+    );
+
+    /**
+     * 前缀改写：virtualPath / parentPath 中的 oldPrefix 替换为 newPrefix，限定在 [fromId, toId] 范围内
+     *
+     * @param cutFrom oldPrefix.length() + 1（JPQL substring 从 1 开始）
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @org.springframework.data.jpa.repository.Query(
+            "update SysFile f set "
+                    + "f.virtualPath = concat(:newPrefix, substring(f.virtualPath, :cutFrom)), "
+                    + "f.parentPath = concat(:newPrefix, substring(f.parentPath, :cutFrom)), "
+                    + "f.version = coalesce(f.version, 0) + 1, "
+                    + "f.updatedAt = :now "
+                    + "where f.serviceName = :serviceName and f.deleted = false "
+                    + "and f.virtualPath like :subtreePattern escape '!' "
+                    + "and f.id between :fromId and :toId"
+    )
+    int rewriteSubtreePrefix(
+            @Param("serviceName") String serviceName,
+            @Param("subtreePattern") String subtreePattern,
+            @Param("newPrefix") String newPrefix,
+            @Param("cutFrom") int cutFrom,
+            @Param("fromId") Long fromId,
+            @Param("toId") Long toId,
+            @Param("now") LocalDateTime now
+    );
+
+    /**
+     * 子树 LIKE 模式：目录自身不包含在内，只匹配 "dir/..." 下的后代
+     */
+    static String subtreePattern(String dirPath) {
+
+        if ("/".equals(dirPath)) {
+            return "/%";
+        }
+        StringBuilder sb = new StringBuilder(dirPath.length() + 2);
+        for (int i = 0; i < dirPath.length(); i++) {
+            char c = dirPath.charAt(i);
+            if (c == LIKE_ESCAPE || c == '%' || c == '_') {
+                sb.append(LIKE_ESCAPE);
+            }
+            sb.append(c);
+        }
+        return sb.append("/%").toString();
+    }
+
 }
@@ -6,6 +6,7 @@ import com.dev.lib.storage.data.SysFileToStorageFileMapper;
 import com.dev.lib.storage.domain.model.StorageFile;
 import com.dev.lib.storage.domain.model.StorageFileToSysFileMapper;
 import com.dev.lib.storage.domain.service.virtual.StorageServiceNameProvider;
+import com.dev.lib.storage.domain.service.virtual.index.VfsChangeVersion;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
@@ -90,6 +91,7 @@ public class StorageFileAdapt implements StorageFileRepo {
             return;
         }
         fileRepository.deleteAllByBizIdInAndServiceName(ids, serviceNameProvider.currentServiceName());
+        VfsChangeVersion.bump();
     }
 
 }
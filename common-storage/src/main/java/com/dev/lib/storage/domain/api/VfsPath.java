@@ -7,6 +7,7 @@ import com.dev.lib.storage.domain.model.VfsNode;
 import com.dev.lib.storage.domain.model.VfsStat;
 import com.dev.lib.storage.domain.service.virtual.core.VfsCoreDirectoryService;
 import com.dev.lib.storage.domain.service.virtual.core.VfsFileService;
+import com.dev.lib.storage.domain.service.virtual.search.VfsContentSearcher;
 import lombok.RequiredArgsConstructor;
 
 import java.io.IOException;
@@ -265,6 +266,13 @@ public class VfsPath {
         return directoryService.findByContent(ctx, path, content);
     }
 
+    /**
+     * grep（递归搜索模式）- 在文件或目录子树中按行搜索，并发扫描，支持命中上限
+     */
+    public List<VfsContentSearcher.FileMatch> grep(VfsContentSearcher.Query query) {
+        return directoryService.grep(ctx, path, query);
+    }
+
     // ========== 文件信息 ==========
 
     /**
@@ -29,6 +29,8 @@ public class StorageFile {
 
     private Long size;              // 文件大小(字节)
 
+    private String contentHash;     // 内容摘要(开启去重时写入)
+
     @Column(length = 12)
     @Enumerated(EnumType.STRING)
     private StorageType storageType;     // 存储类型
@@ -43,4 +45,6 @@ public class StorageFile {
 
     private LocalDateTime createAt;
 
+    private LocalDateTime updatedAt;
+
 }
@@ -5,6 +5,7 @@ import com.dev.lib.storage.data.VfsPathRepository;
 import com.dev.lib.storage.data.SysFile;
 import com.dev.lib.storage.domain.service.virtual.StorageServiceNameProvider;
 import com.dev.lib.storage.domain.service.write.SysFileCowService;
+import com.dev.lib.storage.domain.service.virtual.index.VfsChangeVersion;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -53,6 +54,8 @@ public abstract class AbstractChainStorage {
 
         Optional<SysFile> existing = fileRepository.findByVirtualPathForUpdate(serviceName, virtualPath);
         SysFile savedFile;
+        // MinIO/OSS 以 virtualPath 作为 storagePath，覆盖写复用同一路径
+        sysFileCowService.contentChanged(storagePath);
 
         if (existing.isPresent()) {
             // 文件已存在，使用 COW 更新
@@ -72,6 +75,8 @@ public abstract class AbstractChainStorage {
                     file.setSize(size);
                 }
             }
+            // 内容已被覆盖，旧摘要失效
+            file.setContentHash(null);
 
             if (file.getServiceName() == null || file.getServiceName().isBlank()) {
                 file.setServiceName(serviceNameProvider.currentServiceName());
@@ -158,10 +163,12 @@ public abstract class AbstractChainStorage {
         String virtualPath = bucketName + "/" + objectKey;
 
         Optional<SysFile> existing = fileRepository.findByVirtualPath(serviceName, virtualPath);
+        sysFileCowService.contentChanged(storagePath);
         if (existing.isPresent()) {
             SysFile file = existing.get();
             file.setStoragePath(storagePath);
             file.setSize(newSize);
+            file.setContentHash(null);
             SysFile savedFile = fileRepository.save(file);
             return savedFile.getBizId();
         } else {
@@ -180,7 +187,10 @@ public abstract class AbstractChainStorage {
 
         String serviceName = serviceNameProvider.currentServiceName();
         String virtualPath = bucketName + "/" + objectKey;
-        fileRepository.findByVirtualPath(serviceName, virtualPath).ifPresent(fileRepository::delete);
+        fileRepository.findByVirtualPath(serviceName, virtualPath).ifPresent(file -> {
+            fileRepository.delete(file);
+            VfsChangeVersion.bump(virtualPath);
+        });
     }
 
     // ==================== 路径提取工具方法 ====================
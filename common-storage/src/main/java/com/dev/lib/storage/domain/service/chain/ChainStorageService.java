@@ -1,6 +1,8 @@
 package com.dev.lib.storage.domain.service.chain;
 
 import com.dev.lib.storage.Storage;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
@@ -45,6 +47,20 @@ public interface ChainStorageService {
      */
     InputStream download(String bucketName, String objectKey) throws IOException;
 
+    /**
+     * 以 Resource 形式打开文件
+     * <p>默认包装 {@link #download} 的输入流；本地存储覆盖为文件资源，支持 FileChannel 零拷贝与按区间读取</p>
+     *
+     * @param bucketName 桶名称
+     * @param objectKey  对象键
+     * @return 文件资源
+     * @throws IOException 打开失败
+     */
+    default Resource openResource(String bucketName, String objectKey) throws IOException {
+
+        return new InputStreamResource(download(bucketName, objectKey));
+    }
+
     /**
      * 删除文件
      *
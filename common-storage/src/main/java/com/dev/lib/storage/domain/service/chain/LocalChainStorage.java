@@ -9,6 +9,8 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Primary;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
@@ -87,6 +89,15 @@ public class LocalChainStorage extends AbstractChainStorage implements ChainStor
         return Files.newInputStream(filePath);
     }
 
+    @Override
+    public Resource openResource(String bucketName, String objectKey) throws IOException {
+        Path filePath = resolvePath(bucketName, objectKey);
+        if (!Files.isRegularFile(filePath)) {
+            throw new FileNotFoundException("Local file not found: " + filePath);
+        }
+        return new FileSystemResource(filePath);
+    }
+
     @Override
     @Transactional(rollbackFor = Exception.class)
     public void delete(String bucketName, String objectKey) {
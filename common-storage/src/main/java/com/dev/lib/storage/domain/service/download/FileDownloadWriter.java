@@ -0,0 +1,278 @@
+package com.dev.lib.storage.domain.service.download;
+
+import com.dev.lib.storage.domain.model.StorageFile;
+import com.dev.lib.storage.domain.service.virtual.storage.VfsFileStorageService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * 文件下载输出
+ * <p>
+ * - ETag / Last-Modified 取自文件元数据（contentHash 优先，否则由 storagePath + size + updatedAt 生成弱 ETag），
+ * 命中 If-None-Match / If-Modified-Since 返回 304
+ * - 支持单区间与多区间 Range（multipart/byteranges），If-Range 不匹配时回退整文件
+ * - 本地文件：容器支持 sendfile（Tomcat NIO）时交给容器零拷贝发送，否则 FileChannel.transferTo 写出；
+ * 其他存储按流拷贝区间
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FileDownloadWriter {
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    /**
+     * 小于该大小的区间直接拷贝，sendfile 的额外开销不划算（与 Tomcat DefaultServlet 默认值一致）
+     */
+    private static final long SENDFILE_THRESHOLD = 48 * 1024L;
+
+    private final VfsFileStorageService storageService;
+
+    public void write(StorageFile file, String filename, HttpServletRequest request, HttpServletResponse response) throws IOException {
+
+        // 条件请求只依赖元数据，命中 304 时不打开底层对象
+        long size = file.getSize() == null ? -1L : file.getSize();
+        String etag = etag(file, size);
+        long lastModified = file.getUpdatedAt() == null ? -1L
+                : file.getUpdatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        if (new ServletWebRequest(request, response).checkNotModified(etag, lastModified)) {
+            return;
+        }
+
+        Resource resource = storageService.openResource(file.getStoragePath());
+        Path localPath = resource.isFile() ? resource.getFile().toPath() : null;
+        long length = localPath != null ? resource.contentLength() : size;
+
+        MediaType contentType = contentType(file);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, length >= 0 ? "bytes" : "none");
+        response.setHeader(
+                HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment().filename(filename, StandardCharsets.UTF_8).build().toString()
+        );
+
+        List<HttpRange> ranges = length >= 0 ? requestedRanges(request, etag, lastModified, length) : List.of();
+        if (ranges == null) {
+            closeQuietly(resource, localPath);
+            response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+            return;
+        }
+        if (localPath == null && ranges.size() > 1) {
+            // 非本地存储只能顺序读取一次，多区间退化为整文件
+            ranges = List.of();
+        }
+
+        if (ranges.isEmpty()) {
+            response.setStatus(HttpServletResponse.SC_OK);
+            response.setContentType(contentType.toString());
+            if (length >= 0) {
+                response.setContentLengthLong(length);
+            }
+            writeRegion(resource, localPath, 0, length, request, response, true);
+            return;
+        }
+
+        response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+        if (ranges.size() == 1) {
+            long start = ranges.getFirst().getRangeStart(length);
+            long end = ranges.getFirst().getRangeEnd(length);
+            response.setContentType(contentType.toString());
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            response.setContentLengthLong(end - start + 1);
+            writeRegion(resource, localPath, start, end - start + 1, request, response, true);
+            return;
+        }
+
+        writeMultipart(resource, localPath, ranges, length, contentType, request, response);
+    }
+
+    // ==================== Range ====================
+
+    /**
+     * @return 空列表表示返回整文件；null 表示区间不可满足（416）
+     */
+    private List<HttpRange> requestedRanges(HttpServletRequest request, String etag, long lastModified, long length) {
+
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader == null || rangeHeader.isBlank()) {
+            return List.of();
+        }
+        if (!ifRangeMatches(request.getHeader(HttpHeaders.IF_RANGE), etag, lastModified)) {
+            return List.of();
+        }
+        try {
+            List<HttpRange> ranges = HttpRange.parseRanges(rangeHeader);
+            long total = 0;
+            for (HttpRange range : ranges) {
+                total += range.getRangeEnd(length) - range.getRangeStart(length) + 1;
+            }
+            // 与 HttpRange.toResourceRegions 一致：区间总和超过文件大小视为滥用
+            return ranges.size() > 1 && total > length ? null : ranges;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private boolean ifRangeMatches(String ifRange, String etag, long lastModified) {
+
+        if (ifRange == null || ifRange.isBlank()) {
+            return true;
+        }
+        String value = ifRange.strip();
+        if (value.startsWith("\"") || value.startsWith("W/")) {
+            // If-Range 只接受强校验
+            return !etag.startsWith("W/") && value.equals(etag);
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.IF_MODIFIED_SINCE, value);
+        long since = headers.getIfModifiedSince();
+        return since >= 0 && lastModified >= 0 && lastModified / 1000 == since / 1000;
+    }
+
+    private void writeMultipart(
+            Resource resource,
+            Path localPath,
+            List<HttpRange> ranges,
+            long length,
+            MediaType contentType,
+            HttpServletRequest request,
+            HttpServletResponse response
+    ) throws IOException {
+
+        String boundary = new String(MimeTypeUtils.generateMultipartBoundary(), StandardCharsets.US_ASCII);
+        response.setContentType("multipart/byteranges; boundary=" + boundary);
+
+        OutputStream out = response.getOutputStream();
+        for (HttpRange range : ranges) {
+            long start = range.getRangeStart(length);
+            long end = range.getRangeEnd(length);
+            String partHeader = "\r\n--" + boundary + "\r\n"
+                    + HttpHeaders.CONTENT_TYPE + ": " + contentType + "\r\n"
+                    + HttpHeaders.CONTENT_RANGE + ": bytes " + start + "-" + end + "/" + length + "\r\n\r\n";
+            out.write(partHeader.getBytes(StandardCharsets.US_ASCII));
+            writeRegion(resource, localPath, start, end - start + 1, request, response, false);
+        }
+        out.write(("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+    }
+
+    // ==================== 输出 ====================
+
+    private void writeRegion(
+            Resource resource,
+            Path localPath,
+            long position,
+            long count,
+            HttpServletRequest request,
+            HttpServletResponse response,
+            boolean wholeBody
+    ) throws IOException {
+
+        if (localPath != null && wholeBody && count >= SENDFILE_THRESHOLD && sendfileSupported(request)) {
+            // 交给容器在响应提交后以 sendfile 发送，不经过用户态缓冲
+            request.setAttribute(SENDFILE_FILENAME, localPath.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, position);
+            request.setAttribute(SENDFILE_END, position + count);
+            return;
+        }
+
+        OutputStream out = response.getOutputStream();
+        if (localPath != null) {
+            try (FileChannel channel = FileChannel.open(localPath, StandardOpenOption.READ)) {
+                WritableByteChannel target = Channels.newChannel(out);
+                long end = count < 0 ? channel.size() : position + count;
+                long written = position;
+                while (written < end) {
+                    long n = channel.transferTo(written, end - written, target);
+                    if (n <= 0) {
+                        break;
+                    }
+                    written += n;
+                }
+            }
+            out.flush();
+            return;
+        }
+
+        try (InputStream in = resource.getInputStream()) {
+            if (count < 0) {
+                StreamUtils.copy(in, out);
+            } else {
+                StreamUtils.copyRange(in, out, position, position + count - 1);
+            }
+        }
+        out.flush();
+    }
+
+    private static boolean sendfileSupported(HttpServletRequest request) {
+
+        return Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT));
+    }
+
+    // ==================== 元数据 ====================
+
+    private static String etag(StorageFile file, long length) {
+
+        if (file.getContentHash() != null && !file.getContentHash().isBlank()) {
+            return "\"" + file.getContentHash() + "\"";
+        }
+        long updated = file.getUpdatedAt() == null ? 0L
+                : file.getUpdatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        String seed = file.getStoragePath() + ":" + length + ":" + updated;
+        return "W/\"" + Integer.toHexString(seed.hashCode()) + "-" + Long.toHexString(length) + "\"";
+    }
+
+    private static void closeQuietly(Resource resource, Path localPath) {
+
+        if (localPath != null) {
+            return;
+        }
+        try {
+            resource.getInputStream().close();
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Failed to close download stream", e);
+        }
+    }
+
+    private static MediaType contentType(StorageFile file) {
+
+        if (file.getContentType() != null && !file.getContentType().isBlank()) {
+            try {
+                return MediaType.parseMediaType(file.getContentType());
+            } catch (IllegalArgumentException e) {
+                log.debug("Invalid content type {} for file {}", file.getContentType(), file.getBizId());
+            }
+        }
+        return MediaType.APPLICATION_OCTET_STREAM;
+    }
+
+}
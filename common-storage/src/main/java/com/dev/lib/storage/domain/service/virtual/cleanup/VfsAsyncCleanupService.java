@@ -2,7 +2,9 @@ package com.dev.lib.storage.domain.service.virtual.cleanup;
 
 import com.dev.lib.storage.data.SysFileBizIdRepository;
 import com.dev.lib.storage.domain.service.virtual.StorageServiceNameProvider;
+import com.dev.lib.storage.domain.service.virtual.storage.VfsBlobStore;
 import com.dev.lib.storage.domain.service.virtual.storage.VfsFileStorageService;
+import com.dev.lib.storage.domain.service.virtual.index.VfsChangeVersion;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Async;
@@ -16,6 +18,9 @@ import java.util.Objects;
 
 /**
  * VFS 异步清理服务
+ * <p>
+ * 旧版本与过期临时文件统一通过 VfsBlobStore 释放：
+ * 未开启去重时直接删除底层对象，开启后只扣减引用，由 {@link #collectBlobGarbage()} 回收
  */
 @Slf4j
 @Component
@@ -26,6 +31,8 @@ public class VfsAsyncCleanupService {
 
     private final VfsFileStorageService storageService;
 
+    private final VfsBlobStore blobStore;
+
     private final StorageServiceNameProvider serviceNameProvider;
 
     /**
@@ -51,7 +58,7 @@ public class VfsAsyncCleanupService {
             }
 
             try {
-                storageService.deleteAll(new ArrayList<>(oldPaths));
+                blobStore.release(new ArrayList<>(oldPaths));
                 file.setOldStoragePaths(null);
                 file.setDeleteAfter(null);
                 sysFileRepository.save(file);
@@ -85,13 +92,27 @@ public class VfsAsyncCleanupService {
             List<String> paths = storageService.collectStoragePaths(file);
             try {
                 if (!paths.isEmpty()) {
-                    storageService.deleteAll(paths);
+                    blobStore.release(paths);
                 }
                 sysFileRepository.delete(file);
+                VfsChangeVersion.bump(file.getVirtualPath());
             } catch (Exception e) {
                 log.warn("Failed to cleanup expired temporary file {}", file.getVirtualPath(), e);
             }
         });
     }
 
+    /**
+     * 异步回收引用归零的 Blob（仅去重模式生效）
+     */
+    @Async
+    public void collectBlobGarbage() {
+
+        try {
+            blobStore.collectGarbage();
+        } catch (Exception e) {
+            log.warn("Failed to collect VFS blob garbage", e);
+        }
+    }
+
 }
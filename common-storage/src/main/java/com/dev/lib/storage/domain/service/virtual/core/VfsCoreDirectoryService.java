@@ -6,20 +6,27 @@ import com.dev.lib.storage.domain.model.VfsContext;
 import com.dev.lib.storage.domain.model.VfsNode;
 import com.dev.lib.storage.domain.service.virtual.StorageServiceNameProvider;
 import com.dev.lib.storage.domain.service.virtual.VfsPathUtils;
+import com.dev.lib.storage.domain.service.virtual.index.VfsChangeVersion;
+import com.dev.lib.storage.domain.service.virtual.index.VfsDirectoryIndex;
 import com.dev.lib.storage.domain.service.virtual.path.VfsPathResolver;
+import com.dev.lib.storage.domain.service.virtual.search.VfsContentSearcher;
 import com.dev.lib.storage.domain.service.virtual.repository.VfsFileRepository;
+import com.dev.lib.storage.domain.service.virtual.storage.VfsBlobStore;
 import com.dev.lib.storage.domain.service.virtual.storage.VfsFileStorageService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.io.IOException;
-import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
@@ -31,9 +38,12 @@ import java.util.stream.Collectors;
  * - 目录列表（ls, tree）
  * - 文件移动/复制/删除（mv, cp, rm）
  * - 通配符展开（expandWildcard）
+ * - tree / find -name / 内容搜索优先由 VfsDirectoryIndex 提供（未缓存时构建）；ls / 通配符只复用已有快照，未命中走单层子节点查询
+ * - 内容搜索（grep / findByContent）交给 VfsContentSearcher 并发扫描
  * <p>
  * 设计原则：
  * - 迭代替代递归创建目录（避免栈溢出）
+ * - 子树移动/删除/复制使用集合式 SQL，按 id 分块，避免逐行往返
  * - 嵌套深度控制在 3-4 层
  */
 @Slf4j
@@ -41,11 +51,15 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class VfsCoreDirectoryService {
 
+    private static final int SUBTREE_CHUNK_SIZE = 1000;
+
     private final VfsFileRepository fileRepository;
     private final VfsPathResolver pathResolver;
     private final StorageServiceNameProvider serviceNameProvider;
     private final VfsFileStorageService storageService;
-    private final ObjectProvider<VfsFileService> fileServiceProvider;
+    private final VfsBlobStore blobStore;
+    private final VfsDirectoryIndex directoryIndex;
+    private final VfsContentSearcher contentSearcher;
 
     // ========== 目录创建 ==========
 
@@ -110,6 +124,19 @@ public class VfsCoreDirectoryService {
             return expandWildcard(fullPath, showHidden);
         }
 
+        // 优先走目录索引
+        Optional<VfsDirectoryIndex.Node> indexed = directoryIndex.lookup(fullPath.isEmpty() ? "/" : fullPath);
+        if (indexed.isPresent()) {
+            VfsDirectoryIndex.Node node = indexed.get();
+            if (!node.isDirectory()) {
+                return List.of(node.toVfsNode());
+            }
+            return node.children().stream()
+                .filter(child -> showHidden || !child.isHidden())
+                .map(VfsDirectoryIndex.Node::toVfsNode)
+                .collect(Collectors.toList());
+        }
+
         // 根目录
         if ("/".equals(fullPath) || fullPath.isEmpty()) {
             return fileRepository.findChildren("/").stream()
@@ -139,7 +166,13 @@ public class VfsCoreDirectoryService {
         String fullPath = pathResolver.resolve(ctx, virtualPath);
         StringBuilder sb = new StringBuilder();
         sb.append(pathResolver.getName(fullPath)).append("\n");
-        buildTree(fullPath, "", 0, maxDepth, sb);
+
+        Optional<VfsDirectoryIndex.Node> indexed = directoryIndex.lookupSubtree(fullPath);
+        if (indexed.isPresent()) {
+            buildTree(indexed.get(), "", 0, maxDepth, sb);
+        } else {
+            buildTree(fullPath, "", 0, maxDepth, sb);
+        }
         return sb.toString();
     }
 
@@ -160,21 +193,26 @@ public class VfsCoreDirectoryService {
             throw new IllegalArgumentException("Destination already exists: " + destPath);
         }
 
+        if (Boolean.TRUE.equals(srcFile.getIsDirectory()) && pathResolver.isSubPath(srcFullPath, destFullPath)) {
+            throw new IllegalArgumentException("Cannot move directory into itself: " + srcPath);
+        }
+
         // 确保目标父目录存在
         String destParent = pathResolver.getParent(destFullPath);
         if (destParent != null && !"/".equals(destParent)) {
             mkdirp(ctx, destParent);
         }
 
-        // 更新路径
+        // 更新路径（实体回调只能看到新路径，源路径所在分段在此失效）
+        VfsChangeVersion.bump(srcFullPath);
         srcFile.setVirtualPath(destFullPath);
         srcFile.setParentPath(destParent);
         srcFile.setOriginalName(pathResolver.getName(destFullPath));
         fileRepository.save(srcFile);
 
-        // 如果是目录，递归更新子路径
+        // 如果是目录，按 id 分块集合式改写子树路径前缀
         if (Boolean.TRUE.equals(srcFile.getIsDirectory())) {
-            updateChildrenPaths(srcFullPath, destFullPath);
+            rewriteSubtreePaths(srcFullPath, destFullPath);
         }
     }
 
@@ -210,21 +248,19 @@ public class VfsCoreDirectoryService {
             .orElseThrow(() -> new IllegalArgumentException("File not found: " + virtualPath));
 
         if (Boolean.TRUE.equals(file.getIsDirectory())) {
-            List<SysFile> children = fileRepository.findChildren(fullPath);
-            if (!children.isEmpty() && !recursive) {
+            if (!recursive && !fileRepository.findSubtreeIdsAfter(fullPath, 0L, 1).isEmpty()) {
                 throw new IllegalArgumentException("Directory not empty: " + virtualPath);
             }
 
-            // 递归删除子文件和子目录
-            for (SysFile child : children) {
-                delete(ctx, child.getVirtualPath(), true);
-            }
+            // 按 id 分块批量删除子树
+            deleteSubtree(fullPath);
 
             // 删除目录记录
             fileRepository.delete(file);
         } else {
-            // 删除文件
-            fileService().delete(ctx, file.getVirtualPath());
+            // 删除文件（释放存储引用）
+            blobStore.release(storageService.collectStoragePaths(file));
+            fileRepository.delete(file);
         }
     }
 
@@ -250,6 +286,15 @@ public class VfsCoreDirectoryService {
         String dir = lastSlash > 0 ? fullPattern.substring(0, lastSlash) : "/";
         String filePattern = fullPattern.substring(lastSlash + 1);
 
+        Optional<VfsDirectoryIndex.Node> indexed = directoryIndex.lookup(dir);
+        if (indexed.isPresent()) {
+            return indexed.get().children().stream()
+                .filter(child -> showHidden || !child.isHidden())
+                .filter(child -> VfsPathUtils.matchPattern(child.name(), filePattern))
+                .map(VfsDirectoryIndex.Node::toVfsNode)
+                .collect(Collectors.toList());
+        }
+
         if (fileRepository.findByPath(dir).isEmpty() && !"/".equals(dir)) {
             return List.of();
         }
@@ -271,6 +316,21 @@ public class VfsCoreDirectoryService {
     @Transactional(readOnly = true)
     public List<VfsNode> findByPattern(VfsContext ctx, String basePath, String pattern) {
         String fullBasePath = pathResolver.resolve(ctx, basePath);
+
+        Optional<VfsDirectoryIndex.Node> indexed = directoryIndex.lookupSubtree(fullBasePath);
+        if (indexed.isPresent()) {
+            List<VfsNode> matched = new ArrayList<>();
+            if (VfsPathUtils.matchPattern(indexed.get().name(), pattern)) {
+                matched.add(indexed.get().toVfsNode());
+            }
+            indexed.get().forEachDescendant(node -> {
+                if (VfsPathUtils.matchPattern(node.name(), pattern)) {
+                    matched.add(node.toVfsNode());
+                }
+            });
+            return matched;
+        }
+
         List<SysFile> descendants = fileRepository.findDescendants(fullBasePath);
 
         return descendants.stream()
@@ -280,50 +340,32 @@ public class VfsCoreDirectoryService {
     }
 
     /**
-     * 按内容搜索（流式读取，不加载到内存）
+     * 按内容搜索（流式读取，并发扫描，命中一行即停止读取该文件）
      */
     @Transactional(readOnly = true)
     public List<VfsNode> findByContent(VfsContext ctx, String basePath, String content) {
-        String fullBasePath = pathResolver.resolve(ctx, basePath);
-        List<SysFile> descendants = fileRepository.findDescendants(fullBasePath);
-        List<VfsNode> results = new ArrayList<>();
-
-        for (SysFile file : descendants) {
-            if (Boolean.TRUE.equals(file.getIsDirectory())) continue;
-
-            try (InputStream input = storageService.download(file.getStoragePath());
-                 var reader = new java.io.BufferedReader(new java.io.InputStreamReader(input, java.nio.charset.StandardCharsets.UTF_8))) {
+        List<SearchCandidate> candidates = collectSearchCandidates(pathResolver.resolve(ctx, basePath));
+        Map<String, VfsNode> byPath = new HashMap<>();
+        candidates.forEach(candidate -> byPath.put(candidate.node().getPath(), candidate.node()));
 
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    if (line.contains(content)) {
-                        results.add(toVfsNode(file));
-                        break;
-                    }
-                }
-            } catch (IOException e) {
-                log.warn("Failed to search content in file: {}", file.getVirtualPath(), e);
-            }
-        }
+        return contentSearcher.search(toTargets(candidates), VfsContentSearcher.Query.literal(content, false, true)).stream()
+            .map(match -> byPath.get(match.path()))
+            .collect(Collectors.toList());
+    }
 
-        return results;
+    /**
+     * grep - 在文件或目录子树中按行搜索（目录下递归全部文件）
+     */
+    @Transactional(readOnly = true)
+    public List<VfsContentSearcher.FileMatch> grep(VfsContext ctx, String basePath, VfsContentSearcher.Query query) {
+        return contentSearcher.search(toTargets(collectSearchCandidates(pathResolver.resolve(ctx, basePath))), query);
     }
 
     // ========== 私有辅助方法 ==========
 
     private void createSingleDirectory(VfsContext ctx, String fullPath) {
         try {
-            String name = pathResolver.getName(fullPath);
-            SysFile dir = new SysFile();
-            dir.setBizId(IDWorker.newId());
-            dir.setVirtualPath(fullPath);
-            dir.setParentPath(pathResolver.getParent(fullPath));
-            dir.setIsDirectory(true);
-            dir.setOriginalName(name);
-            dir.setStorageName(name);
-            dir.setHidden(name.startsWith("."));
-            dir.setServiceName(serviceNameProvider.resolve(ctx));
-            fileRepository.save(dir);
+            fileRepository.save(newDirectory(ctx, fullPath));
         } catch (DataIntegrityViolationException e) {
             if (fileRepository.findByPath(fullPath).isEmpty()) {
                 throw new RuntimeException("Failed to create directory: " + fullPath, e);
@@ -332,6 +374,22 @@ public class VfsCoreDirectoryService {
         }
     }
 
+    private void buildTree(VfsDirectoryIndex.Node node, String prefix, int depth, int maxDepth, StringBuilder sb) {
+        if (depth >= maxDepth) return;
+
+        List<VfsDirectoryIndex.Node> children = new ArrayList<>(node.children());
+        for (int i = 0; i < children.size(); i++) {
+            boolean isLast = (i == children.size() - 1);
+            VfsDirectoryIndex.Node child = children.get(i);
+
+            sb.append(prefix).append(isLast ? "└── " : "├── ").append(child.name()).append("\n");
+
+            if (child.isDirectory()) {
+                buildTree(child, prefix + (isLast ? "    " : "│   "), depth + 1, maxDepth, sb);
+            }
+        }
+    }
+
     private void buildTree(String path, String prefix, int depth, int maxDepth, StringBuilder sb) {
         if (depth >= maxDepth) return;
 
@@ -351,18 +409,46 @@ public class VfsCoreDirectoryService {
         }
     }
 
-    private void updateChildrenPaths(String oldParent, String newParent) {
-        List<SysFile> children = fileRepository.findChildren(oldParent);
-        for (SysFile child : children) {
-            String oldPath = child.getVirtualPath();
-            String newPath = newParent + oldPath.substring(oldParent.length());
-            child.setVirtualPath(newPath);
-            child.setParentPath(newParent);
-            fileRepository.save(child);
+    /**
+     * 子树路径前缀改写：按 id 游标分块，每块一条 UPDATE，避免逐行 SELECT + UPDATE
+     */
+    private void rewriteSubtreePaths(String oldDir, String newDir) {
+        long afterId = 0L;
+        while (true) {
+            List<Long> ids = fileRepository.findSubtreeIdsAfter(oldDir, afterId, SUBTREE_CHUNK_SIZE);
+            if (ids.isEmpty()) {
+                return;
+            }
+            fileRepository.rewriteSubtreePrefix(oldDir, newDir, ids.getFirst(), ids.getLast());
+            if (ids.size() < SUBTREE_CHUNK_SIZE) {
+                return;
+            }
+            afterId = ids.getLast();
+        }
+    }
+
+    /**
+     * 子树批量删除：按 id 分块释放存储引用并批量软删除
+     */
+    private void deleteSubtree(String dirPath) {
+        long afterId = 0L;
+        while (true) {
+            List<Long> ids = fileRepository.findSubtreeIdsAfter(dirPath, afterId, SUBTREE_CHUNK_SIZE);
+            if (ids.isEmpty()) {
+                return;
+            }
 
-            if (Boolean.TRUE.equals(child.getIsDirectory())) {
-                updateChildrenPaths(oldPath, newPath);
+            List<String> storagePaths = new ArrayList<>();
+            for (SysFile file : fileRepository.findAllByIds(ids)) {
+                storagePaths.addAll(storageService.collectStoragePaths(file));
             }
+            blobStore.release(storagePaths);
+            fileRepository.deleteAllByIds(dirPath, ids);
+
+            if (ids.size() < SUBTREE_CHUNK_SIZE) {
+                return;
+            }
+            afterId = ids.getLast();
         }
     }
 
@@ -372,48 +458,138 @@ public class VfsCoreDirectoryService {
             mkdirp(ctx, destParent);
         }
 
-        // 复制存储层文件
-        String newStoragePath = null;
-        if (srcFile.getStoragePath() != null) {
-            try {
-                newStoragePath = storageService.generateStoragePath(pathResolver.getName(destFullPath), null);
-                storageService.copy(srcFile.getStoragePath(), newStoragePath);
-            } catch (IOException e) {
-                throw new RuntimeException("Failed to copy file content: " + srcFile.getVirtualPath(), e);
+        // 复制存储层文件（去重模式下只追加引用，不复制字节）
+        String newStoragePath = blobStore.retain(srcFile.getStoragePath())
+                                ? srcFile.getStoragePath()
+                                : copyContent(srcFile, destFullPath);
+
+        fileRepository.save(cloneFile(ctx, srcFile, destFullPath, newStoragePath));
+    }
+
+    /**
+     * 目录复制：一次查询取出整棵子树，内存中生成副本后批量插入
+     */
+    private void copyDirectory(VfsContext ctx, String srcFullPath, String destFullPath) {
+        mkdirp(ctx, destFullPath);
+
+        List<SysFile> subtree = fileRepository.findSubtree(srcFullPath);
+        if (subtree.isEmpty()) {
+            return;
+        }
+
+        List<String> contentPaths = subtree.stream()
+            .filter(file -> !Boolean.TRUE.equals(file.getIsDirectory()))
+            .map(SysFile::getStoragePath)
+            .filter(Objects::nonNull)
+            .toList();
+        Set<String> shared = blobStore.retainAll(contentPaths);
+
+        List<SysFile> copies = new ArrayList<>(subtree.size());
+        for (SysFile child : subtree) {
+            String destChildPath = destFullPath + child.getVirtualPath().substring(srcFullPath.length());
+            if (Boolean.TRUE.equals(child.getIsDirectory())) {
+                copies.add(newDirectory(ctx, destChildPath));
+                continue;
             }
+            String storagePath = shared.contains(child.getStoragePath())
+                                 ? child.getStoragePath()
+                                 : copyContent(child, destChildPath);
+            copies.add(cloneFile(ctx, child, destChildPath, storagePath));
         }
+        fileRepository.saveAll(copies);
+    }
 
-        // 创建新的文件记录
+    private String copyContent(SysFile srcFile, String destFullPath) {
+        if (srcFile.getStoragePath() == null) {
+            return null;
+        }
+        try {
+            String newStoragePath = storageService.generateStoragePath(pathResolver.getName(destFullPath), null);
+            storageService.copy(srcFile.getStoragePath(), newStoragePath);
+            return newStoragePath;
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to copy file content: " + srcFile.getVirtualPath(), e);
+        }
+    }
+
+    private SysFile newDirectory(VfsContext ctx, String fullPath) {
+        String name = pathResolver.getName(fullPath);
+        SysFile dir = new SysFile();
+        dir.setBizId(IDWorker.newId());
+        dir.setVirtualPath(fullPath);
+        dir.setParentPath(pathResolver.getParent(fullPath));
+        dir.setIsDirectory(true);
+        dir.setOriginalName(name);
+        dir.setStorageName(name);
+        dir.setHidden(name.startsWith("."));
+        dir.setServiceName(serviceNameProvider.resolve(ctx));
+        return dir;
+    }
+
+    private SysFile cloneFile(VfsContext ctx, SysFile srcFile, String destFullPath, String storagePath) {
+        String name = pathResolver.getName(destFullPath);
         SysFile copy = new SysFile();
         copy.setBizId(IDWorker.newId());
         copy.setVirtualPath(destFullPath);
-        copy.setParentPath(destParent);
+        copy.setParentPath(pathResolver.getParent(destFullPath));
         copy.setIsDirectory(false);
-        copy.setOriginalName(pathResolver.getName(destFullPath));
+        copy.setOriginalName(name);
         copy.setStorageName(srcFile.getStorageName());
-        copy.setStoragePath(newStoragePath);
+        copy.setStoragePath(storagePath);
+        copy.setContentHash(srcFile.getContentHash());
         copy.setExtension(srcFile.getExtension());
         copy.setContentType(srcFile.getContentType());
         copy.setSize(srcFile.getSize());
         copy.setStorageType(srcFile.getStorageType());
+        copy.setHidden(name.startsWith("."));
         copy.setServiceName(serviceNameProvider.resolve(ctx));
-        fileRepository.save(copy);
+        return copy;
     }
 
-    private void copyDirectory(VfsContext ctx, String srcFullPath, String destFullPath) {
-        mkdirp(ctx, destFullPath);
+    private record SearchCandidate(VfsNode node, String storagePath) {}
 
-        List<SysFile> children = fileRepository.findChildren(srcFullPath);
-        for (SysFile child : children) {
-            String childName = pathResolver.getName(child.getVirtualPath());
-            String destChildPath = destFullPath + "/" + childName;
+    /**
+     * 收集待搜索文件：优先走目录索引，回退到一次子树查询
+     */
+    private List<SearchCandidate> collectSearchCandidates(String fullPath) {
+        List<SearchCandidate> candidates = new ArrayList<>();
+
+        Optional<VfsDirectoryIndex.Node> indexed = directoryIndex.lookupSubtree(fullPath);
+        if (indexed.isPresent()) {
+            if (!indexed.get().isDirectory()) {
+                candidates.add(new SearchCandidate(indexed.get().toVfsNode(), indexed.get().storagePath()));
+                return candidates;
+            }
+            indexed.get().forEachDescendant(node -> {
+                if (!node.isDirectory()) {
+                    candidates.add(new SearchCandidate(node.toVfsNode(), node.storagePath()));
+                }
+            });
+            return candidates;
+        }
 
-            if (Boolean.TRUE.equals(child.getIsDirectory())) {
-                copyDirectory(ctx, child.getVirtualPath(), destChildPath);
-            } else {
-                copyFile(ctx, child, destChildPath);
+        if (!"/".equals(fullPath)) {
+            SysFile file = fileRepository.findByPath(fullPath).orElse(null);
+            if (file == null) {
+                return candidates;
+            }
+            if (!Boolean.TRUE.equals(file.getIsDirectory())) {
+                candidates.add(new SearchCandidate(toVfsNode(file), file.getStoragePath()));
+                return candidates;
+            }
+        }
+        for (SysFile file : fileRepository.findSubtree(fullPath)) {
+            if (!Boolean.TRUE.equals(file.getIsDirectory())) {
+                candidates.add(new SearchCandidate(toVfsNode(file), file.getStoragePath()));
             }
         }
+        return candidates;
+    }
+
+    private static List<VfsContentSearcher.Target> toTargets(List<SearchCandidate> candidates) {
+        return candidates.stream()
+            .map(candidate -> new VfsContentSearcher.Target(candidate.node().getPath(), candidate.storagePath()))
+            .collect(Collectors.toList());
     }
 
     private VfsNode toVfsNode(SysFile file) {
@@ -427,13 +603,4 @@ public class VfsCoreDirectoryService {
         node.setModifiedAt(file.getUpdatedAt());
         return node;
     }
-
-    private VfsFileService fileService() {
-
-        VfsFileService fileService = fileServiceProvider.getIfAvailable();
-        if (fileService == null) {
-            throw new IllegalStateException("VfsFileService not available");
-        }
-        return fileService;
-    }
 }
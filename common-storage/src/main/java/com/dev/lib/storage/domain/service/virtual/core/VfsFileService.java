@@ -8,6 +8,7 @@ import com.dev.lib.storage.domain.model.VfsStat;
 import com.dev.lib.storage.domain.service.virtual.StorageServiceNameProvider;
 import com.dev.lib.storage.domain.service.virtual.path.VfsPathResolver;
 import com.dev.lib.storage.domain.service.virtual.repository.VfsFileRepository;
+import com.dev.lib.storage.domain.service.virtual.storage.VfsBlobStore;
 import com.dev.lib.storage.domain.service.virtual.storage.VfsFileStorageService;
 import com.dev.lib.storage.domain.service.write.SysFileCowService;
 import lombok.RequiredArgsConstructor;
@@ -42,6 +43,7 @@ public class VfsFileService {
 
     private final VfsFileRepository fileRepository;
     private final VfsFileStorageService storageService;
+    private final VfsBlobStore blobStore;
     private final VfsPathResolver pathResolver;
     private final StorageServiceNameProvider serviceNameProvider;
     private final SysFileCowService cowService;
@@ -357,9 +359,9 @@ public class VfsFileService {
             throw new IllegalArgumentException("Cannot delete directory with file service, use directory service");
         }
 
-        // 删除存储层文件
+        // 释放存储层文件（去重模式下只扣减引用）
         List<String> allPaths = storageService.collectStoragePaths(file);
-        storageService.deleteAll(allPaths);
+        blobStore.release(allPaths);
 
         fileRepository.delete(file);
     }
@@ -378,7 +380,7 @@ public class VfsFileService {
         String extension = pathResolver.getExtension(fileName);
 
         try {
-            String storagePath = storageService.upload(input, fileName, null);
+            VfsBlobStore.BlobRef ref = blobStore.store(input, fileName);
 
             SysFile file = new SysFile();
             file.setBizId(IDWorker.newId());
@@ -387,9 +389,10 @@ public class VfsFileService {
             file.setIsDirectory(false);
             file.setOriginalName(fileName);
             file.setStorageName(fileName);
-            file.setStoragePath(storagePath);
+            file.setStoragePath(ref.storagePath());
+            file.setContentHash(ref.digest());
             file.setExtension(extension);
-            file.setSize(-1L); // 大小由存储层设置
+            file.setSize(ref.size());
             file.setStorageType(storageService.getStorageProperties().getType());
             file.setHidden(fileName.startsWith("."));
             file.setServiceName(serviceNameProvider.resolve(ctx));
@@ -0,0 +1,52 @@
+package com.dev.lib.storage.domain.service.virtual.index;
+
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * 基于 Redis 发布订阅的 VFS 变更广播，app.storage.vfs.change-broadcast=redis 时启用
+ * 消息体为发送节点 ID 与顶层目录名，按换行分隔；忽略本节点发出的消息
+ */
+@Component
+@ConditionalOnClass(name = "org.redisson.api.RedissonClient")
+@ConditionalOnProperty(prefix = "app.storage.vfs", name = "change-broadcast", havingValue = "redis")
+public class RedisVfsChangeBroadcaster implements VfsChangeBroadcaster {
+
+    private static final String TOPIC = "vfs:changed";
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final RTopic topic;
+
+    public RedisVfsChangeBroadcaster(RedissonClient redissonClient) {
+
+        this.topic = redissonClient.getTopic(TOPIC);
+    }
+
+    @Override
+    public void publish(Collection<String> roots) {
+
+        topic.publish(roots.isEmpty() ? nodeId : nodeId + "\n" + String.join("\n", roots));
+    }
+
+    @Override
+    public void subscribe(Consumer<Collection<String>> onChange) {
+
+        topic.addListener(String.class, (channel, message) -> {
+            List<String> parts = Arrays.asList(message.split("\n"));
+            if (!nodeId.equals(parts.getFirst())) {
+                onChange.accept(parts.subList(1, parts.size()));
+            }
+        });
+    }
+
+}
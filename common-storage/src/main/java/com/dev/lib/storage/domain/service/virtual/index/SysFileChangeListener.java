@@ -0,0 +1,26 @@
+package com.dev.lib.storage.domain.service.virtual.index;
+
+import com.dev.lib.storage.data.SysFile;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreRemove;
+import jakarta.persistence.PreUpdate;
+
+/**
+ * SysFile 实体变更监听：逐行写入时递增 VFS 元数据版本
+ * 批量 UPDATE / 软删除不触发实体回调、路径变更只能看到新路径，由调用方显式 {@link VfsChangeVersion#bump(String...)}
+ */
+public class SysFileChangeListener {
+
+    @PrePersist
+    @PreUpdate
+    @PreRemove
+    public void onChange(Object entity) {
+
+        if (entity instanceof SysFile file) {
+            VfsChangeVersion.bump(file.getVirtualPath());
+        } else {
+            VfsChangeVersion.bump();
+        }
+    }
+
+}
@@ -0,0 +1,24 @@
+package com.dev.lib.storage.domain.service.virtual.index;
+
+import java.util.Collection;
+import java.util.function.Consumer;
+
+/**
+ * 跨节点 VFS 元数据变更通知
+ * 未提供实现（无消息中间件）时各节点的目录索引依赖 app.storage.vfs.index-ttl-seconds 过期
+ */
+public interface VfsChangeBroadcaster {
+
+    /**
+     * 通知其他节点失效相关快照
+     *
+     * @param roots 变更涉及的顶层目录名，为空表示全部失效
+     */
+    void publish(Collection<String> roots);
+
+    /**
+     * 注册收到其他节点变更通知时的回调
+     */
+    void subscribe(Consumer<Collection<String>> onChange);
+
+}
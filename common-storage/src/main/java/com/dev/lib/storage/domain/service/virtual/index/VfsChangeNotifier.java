@@ -0,0 +1,44 @@
+package com.dev.lib.storage.domain.service.virtual.index;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * 将 {@link VfsChangeVersion} 接到跨节点广播：本节点提交的变更发布出去，其他节点的变更递增本地版本
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class VfsChangeNotifier implements InitializingBean, DisposableBean {
+
+    private final ObjectProvider<VfsChangeBroadcaster> broadcasterProvider;
+
+    @Override
+    public void afterPropertiesSet() {
+
+        VfsChangeBroadcaster broadcaster = broadcasterProvider.getIfAvailable();
+        if (broadcaster == null) {
+            return;
+        }
+        broadcaster.subscribe(VfsChangeVersion::applyRemote);
+        VfsChangeVersion.setPublisher(roots -> {
+            try {
+                broadcaster.publish(roots);
+            } catch (RuntimeException e) {
+                // 通知失败不影响写入，其他节点由 TTL 兜底
+                log.warn("Failed to broadcast VFS change", e);
+            }
+        });
+    }
+
+    @Override
+    public void destroy() {
+
+        VfsChangeVersion.setPublisher(null);
+    }
+
+}
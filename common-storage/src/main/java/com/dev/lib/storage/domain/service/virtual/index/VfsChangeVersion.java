@@ -0,0 +1,225 @@
+package com.dev.lib.storage.domain.service.virtual.index;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+
+/**
+ * VFS 元数据版本戳（按顶层目录分段）
+ * <p>
+ * - 写入按路径的顶层目录递增对应分段，目录索引只在所属分段版本一致时复用快照，其他顶层目录的写入互不影响
+ * - 顶层目录名按哈希映射到固定数量的分段，冲突只会多失效，不会漏失效
+ * - 根目录快照对任何写入都失效；无法确定路径的写入（按 id 批量删除等）使全部快照失效
+ * - 事务内写入会在事务结束后再递增一次，避免提交前被其他线程按旧数据重建的快照沿用新版本号；
+ *   提交后通过 {@link #setPublisher} 注册的回调通知其他节点
+ */
+public final class VfsChangeVersion {
+
+    private static final int STRIPES = 1024;
+
+    /**
+     * 任意写入都递增，根目录快照使用
+     */
+    private static final AtomicLong ANY = new AtomicLong();
+
+    /**
+     * 无法确定路径的写入递增，所有快照失效
+     */
+    private static final AtomicLong GLOBAL = new AtomicLong();
+
+    private static final AtomicLongArray ROOTS = new AtomicLongArray(STRIPES);
+
+    private static final Object TX_KEY = new Object();
+
+    private static volatile Consumer<Collection<String>> publisher;
+
+    private VfsChangeVersion() {
+
+    }
+
+    /**
+     * 覆盖 path 的快照应比对的版本号
+     */
+    public static long current(String path) {
+
+        String root = rootOf(path);
+        if (root == null) {
+            return ANY.get();
+        }
+        return GLOBAL.get() + ROOTS.get(stripe(root));
+    }
+
+    /**
+     * 路径未知的写入，使全部快照失效
+     */
+    public static void bump() {
+
+        record(Changes.all());
+    }
+
+    /**
+     * 记录涉及这些路径的写入（移动需同时传入源路径与目标路径）
+     */
+    public static void bump(String... paths) {
+
+        Changes changes = new Changes();
+        for (String path : paths) {
+            changes.add(path);
+        }
+        record(changes);
+    }
+
+    public static void bump(Collection<String> paths) {
+
+        Changes changes = new Changes();
+        for (String path : paths) {
+            changes.add(path);
+        }
+        record(changes);
+    }
+
+    /**
+     * 应用其他节点发来的变更，不再转发
+     *
+     * @param roots 顶层目录名，为空表示全部失效
+     */
+    public static void applyRemote(Collection<String> roots) {
+
+        Changes changes = new Changes();
+        if (roots == null || roots.isEmpty()) {
+            changes.all = true;
+        } else {
+            changes.roots.addAll(roots);
+        }
+        apply(changes);
+    }
+
+    /**
+     * 注册变更生效后的跨节点通知，参数为顶层目录名，为空表示全部失效
+     */
+    public static void setPublisher(Consumer<Collection<String>> publisher) {
+
+        VfsChangeVersion.publisher = publisher;
+    }
+
+    private static void record(Changes changes) {
+
+        if (changes.isEmpty()) {
+            return;
+        }
+        apply(changes);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publish(changes);
+            return;
+        }
+
+        Changes pending = (Changes) TransactionSynchronizationManager.getResource(TX_KEY);
+        if (pending != null) {
+            pending.merge(changes);
+            return;
+        }
+
+        // 每个事务只注册一次，事务结束时汇总递增并通知
+        Changes collected = new Changes().merge(changes);
+        TransactionSynchronizationManager.bindResource(TX_KEY, collected);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+
+                TransactionSynchronizationManager.unbindResourceIfPossible(TX_KEY);
+                apply(collected);
+                if (status == STATUS_COMMITTED) {
+                    publish(collected);
+                }
+            }
+        });
+    }
+
+    private static void apply(Changes changes) {
+
+        if (changes.all) {
+            GLOBAL.incrementAndGet();
+        } else {
+            for (String root : changes.roots) {
+                ROOTS.incrementAndGet(stripe(root));
+            }
+        }
+        ANY.incrementAndGet();
+    }
+
+    private static void publish(Changes changes) {
+
+        Consumer<Collection<String>> current = publisher;
+        if (current != null) {
+            current.accept(changes.all ? Set.of() : Set.copyOf(changes.roots));
+        }
+    }
+
+    /**
+     * 顶层目录名："/a/b/c" → "a"，根目录或空路径返回 null
+     */
+    static String rootOf(String path) {
+
+        if (path == null) {
+            return null;
+        }
+        int start = path.startsWith("/") ? 1 : 0;
+        if (start >= path.length()) {
+            return null;
+        }
+        int end = path.indexOf('/', start);
+        return end < 0 ? path.substring(start) : path.substring(start, end);
+    }
+
+    private static int stripe(String root) {
+
+        int h = root.hashCode();
+        return (h ^ (h >>> 16)) & (STRIPES - 1);
+    }
+
+    private static final class Changes {
+
+        private final Set<String> roots = new HashSet<>();
+
+        private boolean all;
+
+        static Changes all() {
+
+            Changes changes = new Changes();
+            changes.all = true;
+            return changes;
+        }
+
+        void add(String path) {
+
+            String root = rootOf(path);
+            if (root == null) {
+                all = true;
+            } else if (!all) {
+                roots.add(root);
+            }
+        }
+
+        Changes merge(Changes other) {
+
+            all |= other.all;
+            if (!all) {
+                roots.addAll(other.roots);
+            }
+            return this;
+        }
+
+        boolean isEmpty() {
+
+            return !all && roots.isEmpty();
+        }
+
+    }
+
+}
@@ -0,0 +1,389 @@
+package com.dev.lib.storage.domain.service.virtual.index;
+
+import com.dev.lib.storage.config.AppStorageProperties;
+import com.dev.lib.storage.data.SysFile;
+import com.dev.lib.storage.domain.model.VfsNode;
+import com.dev.lib.storage.domain.service.virtual.StorageServiceNameProvider;
+import com.dev.lib.storage.domain.service.virtual.VfsPathUtils;
+import com.dev.lib.storage.domain.service.virtual.repository.VfsFileRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * VFS 目录元数据索引
+ * <p>
+ * 以一次 findSubtree 查询构建路径 Trie，按 (serviceName, 根路径) 缓存，
+ * 快照记录构建时所属顶层目录的 {@link VfsChangeVersion}，版本不一致即失效；
+ * 其他节点的写入经 {@link VfsChangeBroadcaster} 通知后失效，未配置广播时以 TTL 兜底。
+ * <p>
+ * {@link #lookup} 只读已有快照，未命中由调用方按单层子节点查询；
+ * 本就需要整棵子树的调用（tree / find / 内容搜索）使用 {@link #lookupSubtree}，未命中时构建并缓存。
+ * <p>
+ * 子树节点数超过 storage.vfs.index-max-nodes 时不建索引，调用方回退到数据库查询。
+ * 可写事务内构建的快照只在当前调用中使用，不进入缓存，避免缓存未提交数据。
+ */
+@Slf4j
+@Component
+public class VfsDirectoryIndex {
+
+    private static final long DEFAULT_MAX_NODES = 100_000L;
+
+    private static final long DEFAULT_TTL_SECONDS = 30L;
+
+    private final VfsFileRepository fileRepository;
+
+    private final StorageServiceNameProvider serviceNameProvider;
+
+    private final AppStorageProperties storageProperties;
+
+    private final Cache<String, Snapshot> snapshots;
+
+    public VfsDirectoryIndex(
+            VfsFileRepository fileRepository,
+            StorageServiceNameProvider serviceNameProvider,
+            AppStorageProperties storageProperties
+    ) {
+
+        this.fileRepository = fileRepository;
+        this.serviceNameProvider = serviceNameProvider;
+        this.storageProperties = storageProperties;
+        this.snapshots = Caffeine.newBuilder()
+                .maximumWeight(maxNodes())
+                .weigher((String key, Snapshot snapshot) -> snapshot.weight())
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds()))
+                .build();
+    }
+
+    // ==================== 查询入口 ====================
+
+    /**
+     * 从已有快照中获取覆盖 path 的索引节点，不触发构建
+     *
+     * @return 空表示无法由索引提供（未启用 / 未缓存 / 子树过大），调用方应回退到数据库单层查询
+     */
+    public Optional<Node> lookup(String path) {
+
+        return find(path, false);
+    }
+
+    /**
+     * 获取覆盖 path 的索引节点，未缓存时按 path 构建整棵子树
+     *
+     * @return 空表示无法由索引提供（未启用 / 子树过大 / 路径不存在），调用方应回退到数据库
+     */
+    public Optional<Node> lookupSubtree(String path) {
+
+        return find(path, true);
+    }
+
+    private Optional<Node> find(String path, boolean build) {
+
+        if (!isEnabled()) {
+            return Optional.empty();
+        }
+
+        String serviceName = serviceNameProvider.currentServiceName();
+
+        // 优先复用祖先目录的快照
+        for (String candidate = path; candidate != null; candidate = VfsPathUtils.getParentPath(candidate)) {
+            Snapshot cached = snapshots.getIfPresent(cacheKey(serviceName, candidate));
+            if (cached == null || cached.version() != VfsChangeVersion.current(candidate)) {
+                continue;
+            }
+            if (cached.tooLarge()) {
+                // 祖先子树过大不代表当前子树过大，继续尝试
+                if (candidate.equals(path)) {
+                    return Optional.empty();
+                }
+                continue;
+            }
+            Node node = cached.root().find(path);
+            if (node != null) {
+                return Optional.of(node);
+            }
+        }
+
+        if (!build) {
+            return Optional.empty();
+        }
+
+        long version = VfsChangeVersion.current(path);
+        Snapshot built = build(path, version);
+        if (canCache(path, version)) {
+            snapshots.put(cacheKey(serviceName, path), built);
+        }
+        return built.tooLarge() || built.root() == null ? Optional.empty() : Optional.of(built.root());
+    }
+
+    /**
+     * 主动失效全部快照
+     */
+    public void invalidateAll() {
+
+        snapshots.invalidateAll();
+    }
+
+    // ==================== 构建 ====================
+
+    private Snapshot build(String rootPath, long version) {
+
+        long count = fileRepository.countSubtree(rootPath);
+        if (count > maxNodes()) {
+            log.debug("VFS index skipped for {}: {} nodes exceeds cap {}", rootPath, count, maxNodes());
+            return new Snapshot(null, version, true, 1);
+        }
+
+        Node root;
+        if ("/".equals(rootPath)) {
+            root = Node.directory("/", "/");
+        } else {
+            SysFile rootFile = fileRepository.findByPath(rootPath).orElse(null);
+            if (rootFile == null) {
+                return new Snapshot(null, version, false, 1);
+            }
+            root = Node.of(rootFile);
+        }
+
+        List<SysFile> subtree = new ArrayList<>(fileRepository.findSubtree(rootPath));
+        // 先按路径深度排序，保证父节点先于子节点挂载，同层保持查询顺序
+        subtree.sort(Comparator.comparingInt(file -> depth(file.getVirtualPath())));
+        Map<String, Node> byPath = new HashMap<>(subtree.size() * 2);
+        byPath.put(rootPath, root);
+        for (SysFile file : subtree) {
+            Node parent = byPath.get(file.getParentPath());
+            if (parent == null) {
+                continue;
+            }
+            Node node = Node.of(file);
+            parent.addChild(node);
+            byPath.put(file.getVirtualPath(), node);
+        }
+        return new Snapshot(root, version, false, byPath.size());
+    }
+
+    private boolean canCache(String path, long version) {
+
+        if (VfsChangeVersion.current(path) != version) {
+            return false;
+        }
+        return !TransactionSynchronizationManager.isActualTransactionActive()
+                || TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+
+    private static int depth(String path) {
+
+        int depth = 0;
+        for (int i = 0; i < path.length(); i++) {
+            if (path.charAt(i) == '/') {
+                depth++;
+            }
+        }
+        return depth;
+    }
+
+    private static String cacheKey(String serviceName, String path) {
+
+        return serviceName + ":" + path;
+    }
+
+    // ==================== 配置 ====================
+
+    private boolean isEnabled() {
+
+        return storageProperties.getVfs() == null || !Boolean.FALSE.equals(storageProperties.getVfs().getIndexEnabled());
+    }
+
+    private long maxNodes() {
+
+        if (storageProperties.getVfs() == null || storageProperties.getVfs().getIndexMaxNodes() == null) {
+            return DEFAULT_MAX_NODES;
+        }
+        return Math.max(1L, storageProperties.getVfs().getIndexMaxNodes());
+    }
+
+    private long ttlSeconds() {
+
+        if (storageProperties.getVfs() == null || storageProperties.getVfs().getIndexTtlSeconds() == null) {
+            return DEFAULT_TTL_SECONDS;
+        }
+        return Math.max(1L, storageProperties.getVfs().getIndexTtlSeconds());
+    }
+
+    // ==================== 数据结构 ====================
+
+    private record Snapshot(Node root, long version, boolean tooLarge, int weight) {}
+
+    /**
+     * Trie 节点（只读视图，对外通过 {@link #toVfsNode()} 复制）
+     */
+    public static final class Node {
+
+        private final String id;
+
+        private final String name;
+
+        private final String path;
+
+        private final boolean directory;
+
+        private final boolean hidden;
+
+        private final Long size;
+
+        private final String storagePath;
+
+        private final String extension;
+
+        private final LocalDateTime modifiedAt;
+
+        private Map<String, Node> children;
+
+        private Node(
+                String id,
+                String name,
+                String path,
+                boolean directory,
+                boolean hidden,
+                Long size,
+                String storagePath,
+                String extension,
+                LocalDateTime modifiedAt
+        ) {
+
+            this.id = id;
+            this.name = name;
+            this.path = path;
+            this.directory = directory;
+            this.hidden = hidden;
+            this.size = size;
+            this.storagePath = storagePath;
+            this.extension = extension;
+            this.modifiedAt = modifiedAt;
+        }
+
+        static Node of(SysFile file) {
+
+            return new Node(
+                    file.getBizId(),
+                    VfsPathUtils.getName(file.getVirtualPath()),
+                    file.getVirtualPath(),
+                    Boolean.TRUE.equals(file.getIsDirectory()),
+                    Boolean.TRUE.equals(file.getHidden()),
+                    file.getSize(),
+                    file.getStoragePath(),
+                    file.getExtension(),
+                    file.getUpdatedAt()
+            );
+        }
+
+        static Node directory(String name, String path) {
+
+            return new Node(null, name, path, true, false, null, null, null, null);
+        }
+
+        void addChild(Node child) {
+
+            if (children == null) {
+                children = new LinkedHashMap<>();
+            }
+            children.put(child.name, child);
+        }
+
+        /**
+         * 按绝对路径逐段查找
+         */
+        Node find(String targetPath) {
+
+            if (targetPath.equals(path)) {
+                return this;
+            }
+            String prefix = "/".equals(path) ? "/" : path + "/";
+            if (!targetPath.startsWith(prefix)) {
+                return null;
+            }
+            Node current = this;
+            for (String segment : targetPath.substring(prefix.length()).split("/")) {
+                if (current.children == null) {
+                    return null;
+                }
+                current = current.children.get(segment);
+                if (current == null) {
+                    return null;
+                }
+            }
+            return current;
+        }
+
+        public Collection<Node> children() {
+
+            return children == null ? List.of() : children.values();
+        }
+
+        /**
+         * 深度优先遍历全部后代（不含自身）
+         */
+        public void forEachDescendant(Consumer<Node> consumer) {
+
+            Deque<Node> stack = new ArrayDeque<>();
+            stack.push(this);
+            while (!stack.isEmpty()) {
+                Node node = stack.pop();
+                if (node != this) {
+                    consumer.accept(node);
+                }
+                List<Node> list = new ArrayList<>(node.children());
+                for (int i = list.size() - 1; i >= 0; i--) {
+                    stack.push(list.get(i));
+                }
+            }
+        }
+
+        public String name() {
+
+            return name;
+        }
+
+        public String path() {
+
+            return path;
+        }
+
+        public boolean isDirectory() {
+
+            return directory;
+        }
+
+        public boolean isHidden() {
+
+            return hidden;
+        }
+
+        public String storagePath() {
+
+            return storagePath;
+        }
+
+        public VfsNode toVfsNode() {
+
+            VfsNode node = new VfsNode();
+            node.setId(id);
+            node.setName(name);
+            node.setPath(path);
+            node.setIsDirectory(directory);
+            node.setSize(size);
+            node.setExtension(extension);
+            node.setModifiedAt(modifiedAt);
+            return node;
+        }
+
+    }
+
+}
@@ -3,9 +3,13 @@ package com.dev.lib.storage.domain.service.virtual.repository;
 import com.dev.lib.storage.data.VfsPathRepository;
 import com.dev.lib.storage.data.SysFile;
 import com.dev.lib.storage.domain.service.virtual.StorageServiceNameProvider;
+import com.dev.lib.storage.domain.service.virtual.index.VfsChangeVersion;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Component;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -60,25 +64,90 @@ public class VfsFileRepository {
         return vfsPathRepository.findByStoragePath(currentService(), storagePath);
     }
 
+    // ==================== 子树批量操作 ====================
+
+    /**
+     * 目录下全部后代（不含目录自身，单次查询）
+     */
+    public List<SysFile> findSubtree(String dirPath) {
+
+        String prefix = "/".equals(dirPath) ? "/" : dirPath + "/";
+        return vfsPathRepository.findByVirtualPathStartingWith(currentService(), prefix);
+    }
+
+    public long countSubtree(String dirPath) {
+
+        String prefix = "/".equals(dirPath) ? "/" : dirPath + "/";
+        return vfsPathRepository.countByVirtualPathStartingWith(currentService(), prefix);
+    }
+
+    /**
+     * 按 id 游标分块获取后代 id
+     */
+    public List<Long> findSubtreeIdsAfter(String dirPath, Long afterId, int chunkSize) {
+
+        return vfsPathRepository.findSubtreeIdsAfter(
+                currentService(),
+                VfsPathRepository.subtreePattern(dirPath),
+                afterId == null ? 0L : afterId,
+                PageRequest.ofSize(chunkSize)
+        );
+    }
+
+    /**
+     * 将 [fromId, toId] 范围内后代的路径前缀从 oldDir 改写为 newDir
+     */
+    public int rewriteSubtreePrefix(String oldDir, String newDir, Long fromId, Long toId) {
+
+        VfsChangeVersion.bump(oldDir, newDir);
+        return vfsPathRepository.rewriteSubtreePrefix(
+                currentService(),
+                VfsPathRepository.subtreePattern(oldDir),
+                newDir,
+                oldDir.length() + 1,
+                fromId,
+                toId,
+                LocalDateTime.now()
+        );
+    }
+
+    public List<SysFile> findAllByIds(Collection<Long> ids) {
+
+        return vfsPathRepository.findAllByIdIn(currentService(), ids);
+    }
+
+    /**
+     * 按 id 批量删除 dirPath 子树内的记录
+     */
+    public void deleteAllByIds(String dirPath, Collection<Long> ids) {
+
+        VfsChangeVersion.bump(dirPath);
+        vfsPathRepository.deleteAllById(ids);
+    }
+
     // ==================== 保存和删除 ====================
 
     public void save(SysFile file) {
 
+        VfsChangeVersion.bump(file.getVirtualPath());
         vfsPathRepository.save(file);
     }
 
     public void saveAll(List<SysFile> files) {
 
+        VfsChangeVersion.bump(files.stream().map(SysFile::getVirtualPath).toList());
         vfsPathRepository.saveAll(files);
     }
 
     public void delete(SysFile file) {
 
+        VfsChangeVersion.bump(file.getVirtualPath());
         vfsPathRepository.delete(file);
     }
 
     public void deleteAll(List<SysFile> files) {
 
+        VfsChangeVersion.bump(files.stream().map(SysFile::getVirtualPath).toList());
         vfsPathRepository.deleteAll(files);
     }
 
@@ -0,0 +1,213 @@
+package com.dev.lib.storage.domain.service.virtual.search;
+
+import com.dev.lib.storage.config.AppStorageProperties;
+import com.dev.lib.storage.domain.service.virtual.storage.VfsFileStorageService;
+import com.dev.lib.util.Dispatcher;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+/**
+ * VFS 内容搜索（grep -r / findByContent）
+ * <p>
+ * - 候选文件先经 {@link VfsTrigramIndex} 剪枝，确定不包含字面量的文件不下载
+ * - 其余文件在虚拟线程上并发扫描，并发度由 storage.vfs.search-parallelism 限制
+ * - 命中数达到上限后停止调度与扫描（early termination）
+ * - 结果按候选文件的输入顺序返回，读取失败的文件记录告警后跳过
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class VfsContentSearcher {
+
+    private static final int DEFAULT_PARALLELISM = 16;
+
+    private final VfsFileStorageService storageService;
+
+    private final VfsTrigramIndex trigramIndex;
+
+    private final AppStorageProperties storageProperties;
+
+    /**
+     * 待搜索文件
+     *
+     * @param path        展示路径
+     * @param storagePath 底层存储路径
+     */
+    public record Target(String path, String storagePath) {}
+
+    /**
+     * 行命中
+     */
+    public record LineMatch(int lineNumber, String line) {}
+
+    /**
+     * 文件命中
+     */
+    public record FileMatch(String path, List<LineMatch> lines) {}
+
+    /**
+     * 搜索条件
+     *
+     * @param lineMatcher    行匹配
+     * @param literal        命中行必然包含的字面量，用于 trigram 剪枝；为 null 时不剪枝
+     * @param ignoreCase     literal 是否按忽略大小写匹配
+     * @param firstMatchOnly 每个文件命中一行即停止（grep -l / findByContent）
+     * @param maxFiles       最多返回的命中文件数，&lt;= 0 表示不限制；
+     *                       并发扫描下返回的不一定是输入顺序中最靠前的文件
+     */
+    public record Query(
+            Predicate<String> lineMatcher,
+            String literal,
+            boolean ignoreCase,
+            boolean firstMatchOnly,
+            int maxFiles
+    ) {
+
+        /**
+         * 固定字符串搜索
+         */
+        public static Query literal(String text, boolean ignoreCase, boolean firstMatchOnly) {
+
+            String lowered = text.toLowerCase();
+            Predicate<String> matcher = ignoreCase
+                    ? line -> line.toLowerCase().contains(lowered)
+                    : line -> line.contains(text);
+            return new Query(matcher, text, ignoreCase, firstMatchOnly, 0);
+        }
+
+        public Query withMaxFiles(int maxFiles) {
+
+            return new Query(lineMatcher, literal, ignoreCase, firstMatchOnly, maxFiles);
+        }
+
+    }
+
+    // ==================== 搜索 ====================
+
+    public List<FileMatch> search(List<Target> targets, Query query) {
+
+        if (targets.isEmpty()) {
+            return List.of();
+        }
+
+        int[] literalTrigrams = VfsTrigramIndex.literalTrigrams(query.literal(), query.ignoreCase());
+        FileMatch[] slots = new FileMatch[targets.size()];
+        Semaphore permits = new Semaphore(parallelism());
+        AtomicInteger matchedFiles = new AtomicInteger();
+        AtomicBoolean stopped = new AtomicBoolean();
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+
+        for (int i = 0; i < targets.size() && !stopped.get(); i++) {
+            Target target = targets.get(i);
+            if (!trigramIndex.mayContain(target.storagePath(), literalTrigrams)) {
+                continue;
+            }
+
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                stopped.set(true);
+                break;
+            }
+            if (stopped.get()) {
+                permits.release();
+                break;
+            }
+
+            int slot = i;
+            futures.add(CompletableFuture.runAsync(() -> {
+                try {
+                    FileMatch match = scan(target, query, stopped);
+                    if (match != null) {
+                        slots[slot] = match;
+                        if (query.maxFiles() > 0 && matchedFiles.incrementAndGet() >= query.maxFiles()) {
+                            stopped.set(true);
+                        }
+                    }
+                } finally {
+                    permits.release();
+                }
+            }, Dispatcher.IO));
+        }
+
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+
+        List<FileMatch> results = new ArrayList<>();
+        for (FileMatch match : slots) {
+            if (match != null) {
+                results.add(match);
+                if (query.maxFiles() > 0 && results.size() >= query.maxFiles()) {
+                    break;
+                }
+            }
+        }
+        return results;
+    }
+
+    // ==================== 私有辅助方法 ====================
+
+    private FileMatch scan(Target target, Query query, AtomicBoolean stopped) {
+
+        if (target.storagePath() == null) {
+            return null;
+        }
+
+        List<LineMatch> lines = new ArrayList<>();
+        VfsTrigramIndex.Collector collector = null;
+        boolean complete = true;
+        try {
+            collector = trigramIndex.tee(storageService.download(target.storagePath()));
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(collector, StandardCharsets.UTF_8))) {
+                String line;
+                int lineNumber = 0;
+                while ((line = reader.readLine()) != null) {
+                    lineNumber++;
+                    if (query.lineMatcher().test(line)) {
+                        lines.add(new LineMatch(lineNumber, line));
+                        if (query.firstMatchOnly()) {
+                            complete = false;
+                            break;
+                        }
+                    }
+                    if (stopped.get()) {
+                        complete = false;
+                        break;
+                    }
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // 存储客户端的失败常以非受检异常抛出，同样只跳过该文件
+            log.warn("Failed to search content in file: {}", target.path(), e);
+            return null;
+        }
+
+        // 完整读取过的未索引文件顺带补齐索引
+        if (complete) {
+            collector.commit(target.storagePath());
+        }
+        return lines.isEmpty() ? null : new FileMatch(target.path(), lines);
+    }
+
+    private int parallelism() {
+
+        if (storageProperties.getVfs() == null || storageProperties.getVfs().getSearchParallelism() == null) {
+            return DEFAULT_PARALLELISM;
+        }
+        return Math.max(1, storageProperties.getVfs().getSearchParallelism());
+    }
+
+}
@@ -0,0 +1,340 @@
+package com.dev.lib.storage.domain.service.virtual.search;
+
+import com.dev.lib.storage.config.AppStorageProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.stereotype.Component;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * VFS 内容 Trigram 索引（可选，storage.vfs.content-index-enabled=true 开启）
+ * <p>
+ * 以 storagePath 为键保存内容的字节级 trigram 集合（ASCII 转小写后取连续 3 字节），按容量淘汰。
+ * VFS 的 COW 写入每次生成新路径，但 Storage API 的覆盖、追加、按行替换会在原路径上改写内容，
+ * 这些写入路径通过 {@link #invalidate(String)} 丢弃条目，避免按旧内容错误剪枝。
+ * <p>
+ * 维护方式：
+ * - SysFileCowService 写入时边上传边收集（{@link #tee(InputStream)}）
+ * - 追加写基于旧条目 + 追加字节增量合并（{@link #append}）
+ * - 内容搜索完整读完未索引文件时顺带补齐（{@link #tee(InputStream)}）
+ * <p>
+ * 查询时若文件已建索引且不包含查询字面量的全部 trigram，则跳过该文件，无需下载。
+ */
+@Component
+public class VfsTrigramIndex {
+
+    private static final long DEFAULT_MAX_FILE_BYTES = 1024L * 1024L;
+
+    private static final long DEFAULT_MAX_TRIGRAMS = 10_000_000L;
+
+    private final AppStorageProperties storageProperties;
+
+    private final Cache<String, Entry> entries;
+
+    public VfsTrigramIndex(AppStorageProperties storageProperties) {
+
+        this.storageProperties = storageProperties;
+        this.entries = Caffeine.newBuilder()
+                .maximumWeight(maxTrigrams())
+                .weigher((String key, Entry entry) -> Math.max(1, entry.trigrams().length))
+                .build();
+    }
+
+    // ==================== 写入 ====================
+
+    /**
+     * 包装输入流，读取过程中收集 trigram；流读完后调用 {@link Collector#commit(String)} 写入索引
+     * 未启用或内容超出单文件上限时 commit 为空操作
+     */
+    public Collector tee(InputStream input) {
+
+        return new Collector(input, isEnabled() ? maxFileBytes() : -1L);
+    }
+
+    /**
+     * 追加写：旧对象已建索引时，合并追加字节的 trigram 作为新对象的索引
+     */
+    public void append(String oldStoragePath, String newStoragePath, byte[] appended) {
+
+        if (!isEnabled() || oldStoragePath == null || newStoragePath == null || appended == null) {
+            return;
+        }
+        Entry old = entries.getIfPresent(oldStoragePath);
+        if (old == null || old.length() + appended.length > maxFileBytes()) {
+            return;
+        }
+
+        TrigramBuffer buffer = new TrigramBuffer(old.tail(), old.tailLength());
+        buffer.update(appended, 0, appended.length);
+        int[] merged = union(old.trigrams(), buffer.sortedUnique());
+        entries.put(newStoragePath, new Entry(merged, old.length() + appended.length, buffer.tail(), buffer.tailLength()));
+    }
+
+    /**
+     * storagePath 上的内容被原地改写或删除后丢弃条目
+     */
+    public void invalidate(String storagePath) {
+
+        if (storagePath != null) {
+            entries.invalidate(storagePath);
+        }
+    }
+
+    // ==================== 查询 ====================
+
+    /**
+     * 判断文件是否可能包含字面量
+     *
+     * @return false 表示已建索引且确定不包含，可跳过；未建索引或无法判断时返回 true
+     */
+    public boolean mayContain(String storagePath, int[] literalTrigrams) {
+
+        if (!isEnabled() || storagePath == null || literalTrigrams == null || literalTrigrams.length == 0) {
+            return true;
+        }
+        Entry entry = entries.getIfPresent(storagePath);
+        if (entry == null) {
+            return true;
+        }
+        for (int trigram : literalTrigrams) {
+            if (Arrays.binarySearch(entry.trigrams(), trigram) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 计算字面量的 trigram（已排序去重）
+     * 忽略大小写且包含非 ASCII 字符时无法与索引对齐，返回空数组表示不剪枝
+     */
+    public static int[] literalTrigrams(String literal, boolean ignoreCase) {
+
+        if (literal == null || literal.indexOf('\uFFFD') >= 0) {
+            return new int[0];
+        }
+        if (ignoreCase && !literal.chars().allMatch(c -> c < 0x80)) {
+            return new int[0];
+        }
+        byte[] bytes = literal.getBytes(StandardCharsets.UTF_8);
+        TrigramBuffer buffer = new TrigramBuffer(0, 0);
+        buffer.update(bytes, 0, bytes.length);
+        return buffer.sortedUnique();
+    }
+
+    public boolean isEnabled() {
+
+        return storageProperties.getVfs() != null && Boolean.TRUE.equals(storageProperties.getVfs().getContentIndexEnabled());
+    }
+
+    // ==================== 配置 ====================
+
+    private long maxFileBytes() {
+
+        if (storageProperties.getVfs() == null || storageProperties.getVfs().getContentIndexMaxFileBytes() == null) {
+            return DEFAULT_MAX_FILE_BYTES;
+        }
+        return Math.max(0L, storageProperties.getVfs().getContentIndexMaxFileBytes());
+    }
+
+    private long maxTrigrams() {
+
+        if (storageProperties.getVfs() == null || storageProperties.getVfs().getContentIndexMaxTrigrams() == null) {
+            return DEFAULT_MAX_TRIGRAMS;
+        }
+        return Math.max(1L, storageProperties.getVfs().getContentIndexMaxTrigrams());
+    }
+
+    // ==================== 数据结构 ====================
+
+    /**
+     * @param trigrams   已排序去重的 trigram
+     * @param length     内容字节数
+     * @param tail       末尾最多 2 个字节（已转小写），用于追加写时拼接跨边界的 trigram
+     * @param tailLength tail 有效字节数
+     */
+    private record Entry(int[] trigrams, long length, int tail, int tailLength) {}
+
+    private static int[] union(int[] a, int[] b) {
+
+        int[] out = new int[a.length + b.length];
+        int i = 0, j = 0, n = 0;
+        while (i < a.length || j < b.length) {
+            int next;
+            if (j >= b.length || (i < a.length && a[i] < b[j])) {
+                next = a[i++];
+            } else if (i >= a.length || b[j] < a[i]) {
+                next = b[j++];
+            } else {
+                next = a[i++];
+                j++;
+            }
+            out[n++] = next;
+        }
+        return n == out.length ? out : Arrays.copyOf(out, n);
+    }
+
+    /**
+     * 增量收集 trigram：保留上一段的末尾 2 字节，跨块边界同样能产生完整的 trigram
+     */
+    private static final class TrigramBuffer {
+
+        private int[] values = new int[256];
+
+        private int size;
+
+        private int window;
+
+        private int filled;
+
+        TrigramBuffer(int tail, int tailLength) {
+
+            this.window = tail;
+            this.filled = tailLength;
+        }
+
+        void update(byte[] bytes, int off, int len) {
+
+            for (int i = off; i < off + len; i++) {
+                int b = bytes[i] & 0xFF;
+                if (b >= 'A' && b <= 'Z') {
+                    b += 'a' - 'A';
+                }
+                window = ((window << 8) | b) & 0xFFFFFF;
+                if (filled < 2) {
+                    filled++;
+                    continue;
+                }
+                if (size == values.length) {
+                    // 达到一定规模先去重压缩，避免大文件重复 trigram 占满内存
+                    compact();
+                    if (size * 2 > values.length) {
+                        values = Arrays.copyOf(values, values.length * 2);
+                    }
+                }
+                values[size++] = window;
+            }
+        }
+
+        int[] sortedUnique() {
+
+            compact();
+            return Arrays.copyOf(values, size);
+        }
+
+        int tail() {
+
+            return window & 0xFFFF;
+        }
+
+        int tailLength() {
+
+            return Math.min(filled, 2);
+        }
+
+        private void compact() {
+
+            Arrays.sort(values, 0, size);
+            int n = 0;
+            for (int i = 0; i < size; i++) {
+                if (n == 0 || values[n - 1] != values[i]) {
+                    values[n++] = values[i];
+                }
+            }
+            size = n;
+        }
+
+    }
+
+    /**
+     * 读取时收集 trigram 的输入流，超出单文件上限后停止收集
+     */
+    public final class Collector extends FilterInputStream {
+
+        private final long limit;
+
+        private final TrigramBuffer buffer = new TrigramBuffer(0, 0);
+
+        private long count;
+
+        private boolean overflow;
+
+        private boolean eof;
+
+        private Collector(InputStream in, long limit) {
+
+            super(in);
+            this.limit = limit;
+            this.overflow = limit < 0;
+        }
+
+        @Override
+        public int read() throws IOException {
+
+            int b = super.read();
+            if (b == -1) {
+                eof = true;
+            } else {
+                collect(new byte[]{(byte) b}, 0, 1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+
+            int n = super.read(b, off, len);
+            if (n < 0) {
+                eof = true;
+            } else if (n > 0) {
+                collect(b, off, n);
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+
+            // 跳过的内容无法收集，放弃本次索引
+            overflow = true;
+            return super.skip(n);
+        }
+
+        @Override
+        public boolean markSupported() {
+
+            return false;
+        }
+
+        /**
+         * 内容已完整读取时写入索引
+         */
+        public void commit(String storagePath) {
+
+            if (overflow || !eof || storagePath == null) {
+                return;
+            }
+            entries.put(storagePath, new Entry(buffer.sortedUnique(), count, buffer.tail(), buffer.tailLength()));
+        }
+
+        private void collect(byte[] b, int off, int n) {
+
+            if (overflow) {
+                return;
+            }
+            count += n;
+            if (count > limit) {
+                overflow = true;
+                return;
+            }
+            buffer.update(b, off, n);
+        }
+
+    }
+
+}
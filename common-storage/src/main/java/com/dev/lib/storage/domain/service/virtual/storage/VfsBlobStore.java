@@ -0,0 +1,383 @@
+package com.dev.lib.storage.domain.service.virtual.storage;
+
+import com.dev.lib.entity.id.IDWorker;
+import com.dev.lib.storage.config.AppStorageProperties;
+import com.dev.lib.storage.data.SysFileBlob;
+import com.dev.lib.storage.data.SysFileBlobRepository;
+import com.dev.lib.storage.domain.service.virtual.StorageServiceNameProvider;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * VFS 内容寻址存储（可选，storage.vfs.dedup-enabled=true 开启）
+ * <p>
+ * 职责：
+ * - 上传时流式计算 SHA-256，相同内容只保留一个底层对象
+ * - 按 SysFile.storagePath / oldStoragePaths 的出现次数维护引用计数
+ * - 引用归零后延迟删除，由 {@link #collectGarbage()} 统一回收
+ * <p>
+ * 未开启去重时退化为普通上传 / 直接删除，调用方无需区分。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class VfsBlobStore {
+
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+
+    private static final long DEFAULT_GC_GRACE_MINUTES = 5L;
+
+    private final VfsFileStorageService storageService;
+
+    private final SysFileBlobRepository blobRepository;
+
+    private final StorageServiceNameProvider serviceNameProvider;
+
+    private final AppStorageProperties storageProperties;
+
+    /**
+     * 存储结果
+     *
+     * @param storagePath 底层存储路径
+     * @param size        内容大小（字节）
+     * @param digest      内容摘要，未开启去重时为 null
+     */
+    public record BlobRef(String storagePath, long size, String digest) {}
+
+    // ==================== 写入 ====================
+
+    /**
+     * 存储内容并持有一个引用
+     * 开启去重时：边上传边计算摘要，已存在相同内容则删除刚上传的对象并复用已有 Blob
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public BlobRef store(InputStream input, String fileName) throws IOException {
+
+        if (!isEnabled()) {
+            // 未开启去重时摘要无人使用，只统计字节数
+            DigestingInputStream counting = new DigestingInputStream(input, null);
+            String storagePath = storageService.upload(counting, fileName, null);
+            return new BlobRef(storagePath, counting.count(), null);
+        }
+
+        DigestingInputStream digesting = new DigestingInputStream(input, newDigest());
+        String stagedPath = storageService.upload(digesting, fileName, null);
+
+        String digest = HexFormat.of().formatHex(digesting.digest());
+        long size = digesting.count();
+        String serviceName = serviceNameProvider.currentServiceName();
+
+        Optional<SysFileBlob> existing = blobRepository.findByDigestForUpdate(serviceName, digest);
+        if (existing.isPresent()) {
+            storageService.delete(stagedPath);
+            return retain(existing.get());
+        }
+
+        SysFileBlob blob = new SysFileBlob();
+        blob.setBizId(IDWorker.newId());
+        blob.setDigest(digest);
+        blob.setStoragePath(stagedPath);
+        blob.setSize(size);
+        blob.setServiceName(serviceName);
+        blob.setRefCount(1L);
+        try {
+            blobRepository.saveAndFlush(blob);
+            return new BlobRef(stagedPath, size, digest);
+        } catch (DataIntegrityViolationException e) {
+            // 并发写入相同内容，复用先提交的 Blob
+            SysFileBlob winner = blobRepository.findByDigestForUpdate(serviceName, digest)
+                    .orElseThrow(() -> new IllegalStateException("Failed to register blob: " + digest, e));
+            storageService.delete(stagedPath);
+            return retain(winner);
+        }
+    }
+
+    /**
+     * 为已有存储路径追加一个引用（cp 等元数据复制场景）
+     *
+     * @return true 表示该路径由 Blob 管理，调用方可直接复用；false 表示需要自行复制字节
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public boolean retain(String storagePath) {
+
+        if (!isEnabled() || storagePath == null) {
+            return false;
+        }
+        return blobRepository.findByStoragePathForUpdate(serviceNameProvider.currentServiceName(), storagePath)
+                .map(blob -> {
+                    retain(blob);
+                    return true;
+                })
+                .orElse(false);
+    }
+
+    /**
+     * 批量追加引用（目录复制），每个路径出现一次即追加一次
+     *
+     * @return 由 Blob 管理、可直接复用的路径集合；其余路径需调用方自行复制字节
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public Set<String> retainAll(List<String> storagePaths) {
+
+        if (!isEnabled() || storagePaths == null || storagePaths.isEmpty()) {
+            return Set.of();
+        }
+
+        Map<String, Long> occurrences = new HashMap<>();
+        for (String path : storagePaths) {
+            if (path != null) {
+                occurrences.merge(path, 1L, Long::sum);
+            }
+        }
+
+        List<SysFileBlob> blobs = blobRepository.findByStoragePathsForUpdate(
+                serviceNameProvider.currentServiceName(),
+                occurrences.keySet()
+        );
+        Set<String> managed = new HashSet<>();
+        for (SysFileBlob blob : blobs) {
+            blob.setRefCount(blob.getRefCount() + occurrences.get(blob.getStoragePath()));
+            blob.setDeleteAfter(null);
+            managed.add(blob.getStoragePath());
+        }
+        if (!blobs.isEmpty()) {
+            blobRepository.saveAll(blobs);
+        }
+        return managed;
+    }
+
+    /**
+     * 按存储路径查询内容摘要
+     */
+    public Optional<String> digestOf(String storagePath) {
+
+        if (!isEnabled() || storagePath == null) {
+            return Optional.empty();
+        }
+        return blobRepository.load(new SysFileBlobRepository.Query()
+                        .setServiceName(serviceNameProvider.currentServiceName())
+                        .setStoragePath(storagePath))
+                .map(SysFileBlob::getDigest);
+    }
+
+    // ==================== 释放 ====================
+
+    /**
+     * 释放引用（每个路径出现一次即释放一次）
+     * Blob 管理的路径只扣减引用，归零后交给 GC；其余路径保持原有行为直接删除
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public void release(List<String> storagePaths) {
+
+        if (storagePaths == null || storagePaths.isEmpty()) {
+            return;
+        }
+        if (!isEnabled()) {
+            storageService.deleteAll(storagePaths);
+            return;
+        }
+
+        Map<String, SysFileBlob> blobs = new HashMap<>();
+        for (SysFileBlob blob : blobRepository.findByStoragePathsForUpdate(
+                serviceNameProvider.currentServiceName(),
+                new HashSet<>(storagePaths)
+        )) {
+            blobs.put(blob.getStoragePath(), blob);
+        }
+
+        List<String> unmanaged = new ArrayList<>();
+        LocalDateTime deleteAfter = LocalDateTime.now().plusMinutes(gcGraceMinutes());
+        for (String path : storagePaths) {
+            SysFileBlob blob = blobs.get(path);
+            if (blob == null) {
+                unmanaged.add(path);
+                continue;
+            }
+            long remaining = Math.max(0L, blob.getRefCount() - 1);
+            blob.setRefCount(remaining);
+            if (remaining == 0L) {
+                blob.setDeleteAfter(deleteAfter);
+            }
+        }
+
+        if (!blobs.isEmpty()) {
+            blobRepository.saveAll(blobs.values());
+        }
+        storageService.deleteAll(unmanaged);
+    }
+
+    // ==================== GC ====================
+
+    /**
+     * 回收引用归零且超过延迟时间的 Blob
+     * 加锁后二次校验引用数，期间被重新引用的 Blob 会被跳过；
+     * 底层对象在事务提交后才删除，回滚时行记录与对象都保持不变
+     *
+     * @return 回收数量
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public int collectGarbage() {
+
+        if (!isEnabled()) {
+            return 0;
+        }
+
+        String serviceName = serviceNameProvider.currentServiceName();
+        LocalDateTime now = LocalDateTime.now();
+        List<String> collectedPaths = new ArrayList<>();
+
+        for (SysFileBlob candidate : blobRepository.findGarbage(serviceName, now)) {
+            SysFileBlob blob = blobRepository.findByDigestForUpdate(serviceName, candidate.getDigest()).orElse(null);
+            if (blob == null || blob.getRefCount() > 0
+                    || blob.getDeleteAfter() == null || blob.getDeleteAfter().isAfter(now)) {
+                continue;
+            }
+            blobRepository.physicalDelete().delete(blob);
+            collectedPaths.add(blob.getStoragePath());
+        }
+
+        if (!collectedPaths.isEmpty()) {
+            deleteAfterCommit(collectedPaths);
+            log.debug("VFS blob GC collected {} blobs", collectedPaths.size());
+        }
+        return collectedPaths.size();
+    }
+
+    private void deleteAfterCommit(List<String> storagePaths) {
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            storageService.deleteAll(storagePaths);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+
+                storageService.deleteAll(storagePaths);
+            }
+        });
+    }
+
+    // ==================== 配置 ====================
+
+    public boolean isEnabled() {
+
+        return storageProperties.getVfs() != null && Boolean.TRUE.equals(storageProperties.getVfs().getDedupEnabled());
+    }
+
+    private long gcGraceMinutes() {
+
+        if (storageProperties.getVfs() == null || storageProperties.getVfs().getBlobGcGraceMinutes() == null) {
+            return DEFAULT_GC_GRACE_MINUTES;
+        }
+        return Math.max(0L, storageProperties.getVfs().getBlobGcGraceMinutes());
+    }
+
+    // ==================== 私有辅助方法 ====================
+
+    private BlobRef retain(SysFileBlob blob) {
+
+        blob.setRefCount(blob.getRefCount() + 1);
+        blob.setDeleteAfter(null);
+        blobRepository.save(blob);
+        return new BlobRef(blob.getStoragePath(), blob.getSize() == null ? -1L : blob.getSize(), blob.getDigest());
+    }
+
+    private static MessageDigest newDigest() {
+
+        try {
+            return MessageDigest.getInstance(DIGEST_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(DIGEST_ALGORITHM + " not available", e);
+        }
+    }
+
+    /**
+     * 边读边计算摘要和字节数，不缓冲内容；digest 为 null 时只计数
+     */
+    private static final class DigestingInputStream extends FilterInputStream {
+
+        private final MessageDigest digest;
+
+        private long count;
+
+        DigestingInputStream(InputStream in, MessageDigest digest) {
+
+            super(in);
+            this.digest = digest;
+        }
+
+        @Override
+        public int read() throws IOException {
+
+            int b = super.read();
+            if (b != -1) {
+                if (digest != null) {
+                    digest.update((byte) b);
+                }
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                if (digest != null) {
+                    digest.update(b, off, n);
+                }
+                count += n;
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+
+            // 跳过的字节同样需要参与摘要
+            byte[] buffer = new byte[8192];
+            long skipped = 0;
+            while (skipped < n) {
+                int r = read(buffer, 0, (int) Math.min(buffer.length, n - skipped));
+                if (r < 0) {
+                    break;
+                }
+                skipped += r;
+            }
+            return skipped;
+        }
+
+        @Override
+        public boolean markSupported() {
+
+            return false;
+        }
+
+        byte[] digest() {
+
+            return digest.digest();
+        }
+
+        long count() {
+
+            return count;
+        }
+
+    }
+
+}
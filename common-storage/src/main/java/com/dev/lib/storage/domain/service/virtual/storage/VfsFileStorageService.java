@@ -4,8 +4,10 @@ import com.dev.lib.storage.Storage;
 import com.dev.lib.storage.config.AppStorageProperties;
 import com.dev.lib.storage.data.SysFile;
 import com.dev.lib.storage.domain.service.chain.ChainStorageService;
+import com.dev.lib.storage.domain.service.virtual.search.VfsTrigramIndex;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
@@ -27,6 +29,7 @@ public class VfsFileStorageService {
 
     private final VfsStoragePathManager pathManager;
     private final ChainStorageService chainStorage;
+    private final VfsTrigramIndex trigramIndex;
 
     // ==================== 上传操作 ====================
 
@@ -75,6 +78,14 @@ public class VfsFileStorageService {
         return chainStorage.download(ref.bucket(), ref.objectKey());
     }
 
+    /**
+     * 以 Resource 形式打开文件，本地存储返回可获取 FileChannel 的文件资源
+     */
+    public Resource openResource(String storagePath) throws IOException {
+        StorageRef ref = toStorageRef(storagePath);
+        return chainStorage.openResource(ref.bucket(), ref.objectKey());
+    }
+
     // ==================== 复制操作 ====================
 
     /**
@@ -84,6 +95,7 @@ public class VfsFileStorageService {
         StorageRef srcRef = toStorageRef(srcPath);
         StorageRef dstRef = toStorageRef(destPath);
         chainStorage.copyObject(srcRef.bucket(), srcRef.objectKey(), dstRef.objectKey());
+        trigramIndex.invalidate(destPath);
     }
 
     // ==================== 删除操作 ====================
@@ -95,6 +107,7 @@ public class VfsFileStorageService {
         StorageRef ref = toStorageRef(storagePath);
         try {
             chainStorage.removeObject(ref.bucket(), ref.objectKey());
+            trigramIndex.invalidate(storagePath);
         } catch (IOException e) {
             log.warn("Failed to delete storage object: {}", storagePath, e);
         }
@@ -142,9 +155,16 @@ public class VfsFileStorageService {
         return pathManager.getStorageProperties();
     }
 
+    /**
+     * 原地改写内容，该路径的内容索引随之失效
+     */
     public String replaceLines(String storagePath, Storage.LineTransformer transformer) throws IOException {
         StorageRef ref = toStorageRef(storagePath);
-        return chainStorage.replaceLines(ref.bucket(), ref.objectKey(), transformer);
+        try {
+            return chainStorage.replaceLines(ref.bucket(), ref.objectKey(), transformer);
+        } finally {
+            trigramIndex.invalidate(storagePath);
+        }
     }
 
     public String getPresignedUrl(String storagePath, int expireSeconds) {
@@ -2,6 +2,8 @@ package com.dev.lib.storage.domain.service.write;
 
 import com.dev.lib.storage.config.AppStorageProperties;
 import com.dev.lib.storage.data.SysFile;
+import com.dev.lib.storage.domain.service.virtual.search.VfsTrigramIndex;
+import com.dev.lib.storage.domain.service.virtual.storage.VfsBlobStore;
 import com.dev.lib.storage.domain.service.virtual.storage.VfsFileStorageService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -9,8 +11,10 @@ import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.SequenceInputStream;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -24,6 +28,9 @@ import java.util.List;
  * 2. 版本管理：最多保留 10 个旧版本，自动清理
  * 3. 延迟删除：5 分钟后异步清理，防止并发读取失败
  * 4. 配置开关：支持禁用 COW（storage.vfs.cow-enabled=false）
+ * 5. 内容去重：开启 storage.vfs.dedup-enabled 后写入经 VfsBlobStore 按摘要复用对象，
+ *    旧版本淘汰改为释放引用
+ * 6. 内容索引：开启 storage.vfs.content-index-enabled 后写入时增量维护 VfsTrigramIndex
  *
  * 使用场景：
  * - VFS 写入：Vfs.path("/bucket/data.txt").write("content")
@@ -40,7 +47,9 @@ public class SysFileCowService {
     private static final long DELAY_DELETE_MINUTES = 5L;
 
     private final ObjectProvider<VfsFileStorageService> storageServiceProvider;
+    private final ObjectProvider<VfsBlobStore> blobStoreProvider;
     private final AppStorageProperties storageProperties;
+    private final VfsTrigramIndex trigramIndex;
 
     // ==================== 写入操作（COW）====================
 
@@ -62,7 +71,20 @@ public class SysFileCowService {
         }
 
         String oldStoragePath = file.getStoragePath();
-        String newStoragePath = storageService().upload(contentStream, fileName, null);
+        // 上传的同时收集内容索引
+        VfsTrigramIndex.Collector collector = trigramIndex.tee(contentStream);
+
+        if (blobStore().isEnabled()) {
+            VfsBlobStore.BlobRef ref = blobStore().store(collector, fileName);
+            collector.commit(ref.storagePath());
+            applyBlob(file, oldStoragePath, ref, size);
+            return ref.storagePath();
+        }
+
+        String newStoragePath = storageService().upload(collector, fileName, null);
+        collector.commit(newStoragePath);
+        // 内容已变化，旧摘要不再对应新内容（否则会被当作强 ETag 命中 304）
+        file.setContentHash(null);
 
         // 应用 COW 逻辑
         applyCOW(file, oldStoragePath, newStoragePath, size);
@@ -87,13 +109,30 @@ public class SysFileCowService {
         }
 
         String oldStoragePath = file.getStoragePath();
+        long newSize = file.getSize() == null ? contentBytes.length : file.getSize() + contentBytes.length;
+
+        if (blobStore().isEnabled() && oldStoragePath != null) {
+            // 追加后的内容需要重新计算摘要，旧内容 + 新内容按流拼接上传
+            try (InputStream merged = new SequenceInputStream(
+                    storageService().download(oldStoragePath),
+                    new ByteArrayInputStream(contentBytes)
+            )) {
+                VfsTrigramIndex.Collector collector = trigramIndex.tee(merged);
+                VfsBlobStore.BlobRef ref = blobStore().store(collector, fileName);
+                collector.commit(ref.storagePath());
+                applyBlob(file, oldStoragePath, ref, -1);
+                return ref.storagePath();
+            }
+        }
+
         String newStoragePath = storageService().appendAndUpload(
                 file.getStoragePath(),
                 contentBytes,
                 fileName
         );
+        trigramIndex.append(oldStoragePath, newStoragePath, contentBytes);
+        file.setContentHash(null);
 
-        long newSize = file.getSize() == null ? contentBytes.length : file.getSize() + contentBytes.length;
         applyCOW(file, oldStoragePath, newStoragePath, newSize);
 
         return newStoragePath;
@@ -101,6 +140,30 @@ public class SysFileCowService {
 
     // ==================== COW 核心逻辑 ====================
 
+    /**
+     * 应用去重写入结果
+     * 新旧内容相同（复用同一 Blob）时只释放本次多持有的引用，不产生新版本；
+     * 未启用 COW 时直接释放旧内容引用
+     */
+    private void applyBlob(SysFile file, String oldStoragePath, VfsBlobStore.BlobRef ref, long size) {
+
+        file.setContentHash(ref.digest());
+        long newSize = size >= 0 ? size : ref.size();
+
+        if (ref.storagePath().equals(oldStoragePath)) {
+            blobStore().release(List.of(oldStoragePath));
+            if (newSize >= 0) {
+                file.setSize(newSize);
+            }
+            return;
+        }
+
+        if (!isCOWEnabled() && oldStoragePath != null) {
+            blobStore().release(List.of(oldStoragePath));
+        }
+        applyCOW(file, oldStoragePath, ref.storagePath(), newSize);
+    }
+
     /**
      * 应用 COW 逻辑
      * 1. 更新 storagePath 为新路径
@@ -159,7 +222,7 @@ public class SysFileCowService {
                     MAX_OLD_VERSIONS, VERSIONS_TO_DELETE);
 
             List<String> toDelete = oldPaths.subList(0, VERSIONS_TO_DELETE);
-            storageService().deleteAll(new ArrayList<>(toDelete));
+            blobStore().release(new ArrayList<>(toDelete));
             toDelete.clear();
         }
 
@@ -202,11 +265,19 @@ public class SysFileCowService {
 
         log.info("Cleaning up {} old versions for file: {}", file.getOldStoragePaths().size(), file.getVirtualPath());
 
-        storageService().deleteAll(new ArrayList<>(file.getOldStoragePaths()));
+        blobStore().release(new ArrayList<>(file.getOldStoragePaths()));
         file.setOldStoragePaths(null);
         file.setDeleteAfter(null);
     }
 
+    /**
+     * 对象在原存储路径上被改写（Storage API 的覆盖、追加、按行替换）后调用，丢弃该路径的内容索引
+     */
+    public void contentChanged(String storagePath) {
+
+        trigramIndex.invalidate(storagePath);
+    }
+
     /**
      * 手动添加旧版本到文件记录
      * 用于 Storage API 的 COW 支持
@@ -237,4 +308,13 @@ public class SysFileCowService {
         }
         return storageService;
     }
+
+    private VfsBlobStore blobStore() {
+
+        VfsBlobStore blobStore = blobStoreProvider.getIfAvailable();
+        if (blobStore == null) {
+            throw new IllegalStateException("VfsBlobStore not available");
+        }
+        return blobStore;
+    }
 }
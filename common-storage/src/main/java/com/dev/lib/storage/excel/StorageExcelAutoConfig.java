@@ -0,0 +1,29 @@
+package com.dev.lib.storage.excel;
+
+import com.dev.lib.excel.storage.ExcelExportStorage;
+import com.dev.lib.storage.domain.service.chain.ChainStorageService;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * common-excel 在类路径上且存在存储服务时，提供异步导出的存储实现
+ * <p>
+ * {@link ConditionalOnBean} 只在自动配置阶段可靠（此时用户配置与组件扫描的 Bean 均已注册），
+ * 因此不放在组件扫描里。
+ */
+@AutoConfiguration
+@ConditionalOnClass(name = "com.dev.lib.excel.storage.ExcelExportStorage")
+public class StorageExcelAutoConfig {
+
+    @Bean
+    @ConditionalOnBean(ChainStorageService.class)
+    @ConditionalOnMissingBean(ExcelExportStorage.class)
+    public StorageExcelExportStorage storageExcelExportStorage(ChainStorageService chainStorageService) {
+
+        return new StorageExcelExportStorage(chainStorageService);
+    }
+
+}
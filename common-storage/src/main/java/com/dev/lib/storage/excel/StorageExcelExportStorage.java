@@ -0,0 +1,26 @@
+package com.dev.lib.storage.excel;
+
+import com.dev.lib.excel.storage.ExcelExportStorage;
+import com.dev.lib.storage.domain.service.chain.ChainStorageService;
+import lombok.RequiredArgsConstructor;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Excel 异步导出写入存储，返回预签名链接，由 {@link StorageExcelAutoConfig} 注册
+ */
+@RequiredArgsConstructor
+public class StorageExcelExportStorage implements ExcelExportStorage {
+
+    private final ChainStorageService chainStorageService;
+
+    @Override
+    public StoredFile store(String bucket, String objectKey, InputStream content, int expireSeconds) throws IOException {
+
+        String fileId = chainStorageService.upload(bucket, objectKey, content);
+        String url    = chainStorageService.getPresignedUrl(bucket, objectKey, expireSeconds);
+        return new StoredFile(fileId, bucket + "/" + objectKey, url);
+    }
+
+}
@@ -2,17 +2,17 @@ package com.dev.lib.storage.trigger.controller;
 
 import com.dev.lib.storage.domain.adapter.StorageFileRepo;
 import com.dev.lib.storage.domain.model.StorageFile;
+import com.dev.lib.storage.domain.service.download.FileDownloadWriter;
 import com.dev.lib.storage.domain.service.virtual.storage.VfsFileStorageService;
 import com.dev.lib.util.parallel.ParallelExecutor;
 import com.dev.lib.web.model.ServerResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
-import org.springframework.core.io.InputStreamResource;
 import org.springframework.http.*;
 import org.springframework.web.bind.annotation.*;
 
 import java.io.IOException;
-import java.io.InputStream;
-import java.nio.charset.StandardCharsets;
 import java.util.Collection;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -30,6 +30,8 @@ public class FileController {
 
     private final VfsFileStorageService storageService;
 
+    private final FileDownloadWriter downloadWriter;
+
 //    /**
 //     * 文件上传（支持多文件、文件夹结构保留）
 //     * @param files 文件数组（前端传 webkitRelativePath 作为 filename）
@@ -74,30 +76,20 @@ public class FileController {
 
     /**
      * 文件下载
+     * 支持 Range（单/多区间）与 ETag / Last-Modified 条件请求，本地存储走零拷贝发送
      */
     @GetMapping("/{id}")
-    public ResponseEntity<InputStreamResource> download(
+    public void download(
             @PathVariable String id,
-            @RequestParam(required = false) String name
+            @RequestParam(required = false) String name,
+            HttpServletRequest request,
+            HttpServletResponse response
     ) throws IOException {
 
         StorageFile file = storageFileRepo.findByBizId(id);
-        InputStream is   = downloadByStoragePath(file.getStoragePath());
-
         String filename = (name != null && !name.isBlank()) ? name : file.getOriginalName();
 
-        return ResponseEntity.ok()
-                .contentType(MediaType.APPLICATION_OCTET_STREAM)
-                .header(
-                        HttpHeaders.CONTENT_DISPOSITION,
-                        ContentDisposition.attachment()
-                                .filename(
-                                        filename,
-                                        StandardCharsets.UTF_8
-                                )
-                                .build().toString()
-                )
-                .body(new InputStreamResource(is));
+        downloadWriter.write(file, filename, request, response);
     }
 
     /**
@@ -135,11 +127,6 @@ public class FileController {
         return ServerResponse.success(result);
     }
 
-    private InputStream downloadByStoragePath(String storagePath) throws IOException {
-
-        return storageService.download(storagePath);
-    }
-
     private String presignedUrlByStoragePath(String storagePath, int expireSeconds) {
 
         return storageService.getPresignedUrl(storagePath, expireSeconds);
@@ -16,6 +16,7 @@ import java.util.List;
  * VFS 清理调度任务：
  * 1. 触发旧版本文件异步清理
  * 2. 触发过期临时文件异步清理
+ * 3. 触发引用归零 Blob 的异步回收（去重模式）
  */
 @Slf4j
 @Component
@@ -37,6 +38,8 @@ public class VfsCleanupTask {
         LocalDateTime now = LocalDateTime.now();
         String serviceName = serviceNameProvider.currentServiceName();
 
+        asyncCleanupService.collectBlobGarbage();
+
         List<SysFile> oldVersionFiles = sysFileRepository.loads(
                 new SysFileBizIdRepository.Query()
                         .setServiceName(serviceName)
@@ -0,0 +1,190 @@
+package com.dev.lib.storage.domain.service.download;
+
+import com.dev.lib.storage.domain.model.StorageFile;
+import com.dev.lib.storage.domain.service.virtual.storage.VfsFileStorageService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.StreamUtils;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class FileDownloadWriterTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path source;
+
+    private StorageFile file;
+
+    private FileDownloadWriter writer;
+
+    @BeforeEach
+    void setUp() throws Exception {
+
+        source = tempDir.resolve("data.bin");
+        Files.writeString(source, "0123456789abcdefghij", StandardCharsets.US_ASCII);
+
+        file = new StorageFile();
+        file.setBizId("f1");
+        file.setStoragePath("bucket/data.bin");
+        file.setSize(20L);
+        file.setContentHash("abc123");
+        file.setUpdatedAt(LocalDateTime.of(2026, 1, 1, 0, 0));
+
+        VfsFileStorageService storageService = mock(VfsFileStorageService.class);
+        when(storageService.openResource("bucket/data.bin")).thenAnswer(invocation -> new FileSystemResource(source));
+        writer = new FileDownloadWriter(storageService);
+    }
+
+    @Test
+    void shouldServeWholeFileWithValidators() throws Exception {
+
+        MockHttpServletResponse response = download(new MockHttpServletRequest("GET", "/sys/files/f1"));
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentAsString()).isEqualTo("0123456789abcdefghij");
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isEqualTo("\"abc123\"");
+        assertThat(response.getHeader(HttpHeaders.ACCEPT_RANGES)).isEqualTo("bytes");
+        assertThat(response.getHeader(HttpHeaders.LAST_MODIFIED)).isNotNull();
+    }
+
+    @Test
+    void shouldReturnNotModifiedForMatchingEtag() throws Exception {
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/sys/files/f1");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"abc123\"");
+
+        MockHttpServletResponse response = download(request);
+
+        assertThat(response.getStatus()).isEqualTo(304);
+        assertThat(response.getContentAsByteArray()).isEmpty();
+    }
+
+    @Test
+    void shouldServeSingleRange() throws Exception {
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/sys/files/f1");
+        request.addHeader(HttpHeaders.RANGE, "bytes=5-9");
+
+        MockHttpServletResponse response = download(request);
+
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getHeader(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes 5-9/20");
+        assertThat(response.getContentAsString()).isEqualTo("56789");
+    }
+
+    @Test
+    void shouldServeMultipleRangesAsMultipart() throws Exception {
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/sys/files/f1");
+        request.addHeader(HttpHeaders.RANGE, "bytes=0-1,-3");
+
+        MockHttpServletResponse response = download(request);
+
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getContentType()).startsWith("multipart/byteranges; boundary=");
+        String body = response.getContentAsString();
+        assertThat(body).contains("Content-Range: bytes 0-1/20\r\n\r\n01");
+        assertThat(body).contains("Content-Range: bytes 17-19/20\r\n\r\nhij");
+    }
+
+    @Test
+    void shouldIgnoreRangeWhenIfRangeDoesNotMatch() throws Exception {
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/sys/files/f1");
+        request.addHeader(HttpHeaders.RANGE, "bytes=5-9");
+        request.addHeader(HttpHeaders.IF_RANGE, "\"stale\"");
+
+        MockHttpServletResponse response = download(request);
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentAsString()).hasSize(20);
+    }
+
+    @Test
+    void shouldRejectUnsatisfiableRange() throws Exception {
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/sys/files/f1");
+        request.addHeader(HttpHeaders.RANGE, "bytes=50-60");
+
+        MockHttpServletResponse response = download(request);
+
+        assertThat(response.getStatus()).isEqualTo(416);
+        assertThat(response.getHeader(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes */20");
+    }
+
+    /**
+     * 吞吐基准：FileChannel.transferTo 与原有流拷贝对比。
+     * 默认跳过，执行：mvn -pl common-storage test -Dbenchmark=true -Dtest=FileDownloadWriterTest
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void transferToShouldOutperformStreamCopy() throws Exception {
+
+        Path large = tempDir.resolve("large.bin");
+        byte[] chunk = new byte[1024 * 1024];
+        new Random(42).nextBytes(chunk);
+        try (OutputStream out = Files.newOutputStream(large)) {
+            for (int i = 0; i < 512; i++) {
+                out.write(chunk);
+            }
+        }
+        long size = Files.size(large);
+        int rounds = 5;
+
+        long streamNanos = 0;
+        long channelNanos = 0;
+        for (int round = 0; round < rounds; round++) {
+            Path target = tempDir.resolve("out-" + round);
+
+            long start = System.nanoTime();
+            try (InputStream in = Files.newInputStream(large); OutputStream out = Files.newOutputStream(target)) {
+                StreamUtils.copy(in, out);
+            }
+            streamNanos += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            try (FileChannel in = FileChannel.open(large, StandardOpenOption.READ);
+                 FileChannel out = FileChannel.open(target, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                long position = 0;
+                while (position < size) {
+                    position += in.transferTo(position, size - position, out);
+                }
+            }
+            channelNanos += System.nanoTime() - start;
+        }
+
+        double streamMbps = size * rounds / 1048576.0 / (streamNanos / 1e9);
+        double channelMbps = size * rounds / 1048576.0 / (channelNanos / 1e9);
+        System.out.printf("%d MB x %d: stream copy=%.0f MB/s, transferTo=%.0f MB/s%n", size >> 20, rounds, streamMbps, channelMbps);
+
+        assertThat(channelMbps).isGreaterThan(0);
+    }
+
+    private MockHttpServletResponse download(MockHttpServletRequest request) throws Exception {
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        writer.write(file, "data.bin", request, response);
+        return response;
+    }
+
+}
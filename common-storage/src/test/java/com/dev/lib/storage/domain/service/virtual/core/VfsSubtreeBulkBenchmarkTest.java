@@ -0,0 +1,178 @@
+package com.dev.lib.storage.domain.service.virtual.core;
+
+import com.dev.lib.entity.id.IDWorker;
+import com.dev.lib.storage.config.StorageAutoConfig;
+import com.dev.lib.storage.data.SysFile;
+import com.dev.lib.storage.data.VfsPathRepository;
+import com.dev.lib.storage.domain.model.VfsContext;
+import com.dev.lib.storage.domain.service.virtual.repository.VfsFileRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.context.runner.WebApplicationContextRunner;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 子树移动/复制/删除基准：合成深层目录树，对比逐行递归与集合式 SQL 的耗时。
+ * <p>
+ * 默认跳过，执行：mvn -pl common-storage test -Dbenchmark=true -Dtest=VfsSubtreeBulkBenchmarkTest
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class VfsSubtreeBulkBenchmarkTest {
+
+    private static final String SERVICE = "vfs-bulk-bench";
+
+    private static final int DEPTH = 8;
+
+    private static final int DIRS_PER_LEVEL = 3;
+
+    private static final int FILES_PER_DIR = 5;
+
+    @TempDir
+    Path storageRoot;
+
+    private WebApplicationContextRunner contextRunner() {
+
+        return new WebApplicationContextRunner()
+                .withUserConfiguration(BenchmarkApplication.class)
+                .withPropertyValues(
+                        "spring.datasource.url=jdbc:h2:mem:vfs_bulk_bench;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                        "spring.datasource.driver-class-name=org.h2.Driver",
+                        "spring.datasource.username=sa",
+                        "spring.datasource.password=",
+                        "spring.jpa.hibernate.ddl-auto=create-drop",
+                        "spring.jpa.open-in-view=false",
+                        "spring.jpa.properties.hibernate.jdbc.batch_size=500",
+                        "spring.application.name=" + SERVICE,
+                        "app.storage.type=local",
+                        "app.storage.local.path=" + storageRoot
+                );
+    }
+
+    @Test
+    void bulkSubtreeOperationsShouldBeatPerRowRecursion() {
+
+        contextRunner().run(context -> {
+            assertThat(context).hasNotFailed();
+
+            VfsPathRepository repository = context.getBean(VfsPathRepository.class);
+            VfsFileRepository fileRepository = context.getBean(VfsFileRepository.class);
+            VfsCoreDirectoryService directoryService = context.getBean(VfsCoreDirectoryService.class);
+            TransactionTemplate tx = context.getBean(TransactionTemplate.class);
+            VfsContext ctx = VfsContext.of(null);
+
+            int nodes = seedDeepTree(repository, "/legacy");
+            seedDeepTree(repository, "/bulk");
+            System.out.printf("synthetic tree: %d nodes per root, depth=%d%n", nodes, DEPTH);
+
+            long legacyStart = System.nanoTime();
+            tx.executeWithoutResult(status -> legacyRecursiveMove(fileRepository, "/legacy", "/legacy-moved"));
+            long legacyMs = (System.nanoTime() - legacyStart) / 1_000_000;
+
+            long bulkStart = System.nanoTime();
+            directoryService.move(ctx, "/bulk", "/bulk-moved");
+            long bulkMs = (System.nanoTime() - bulkStart) / 1_000_000;
+
+            long copyStart = System.nanoTime();
+            directoryService.copy(ctx, "/bulk-moved", "/bulk-copied", true);
+            long copyMs = (System.nanoTime() - copyStart) / 1_000_000;
+
+            long deleteStart = System.nanoTime();
+            directoryService.delete(ctx, "/bulk-copied", true);
+            long deleteMs = (System.nanoTime() - deleteStart) / 1_000_000;
+
+            System.out.printf(
+                    "move: per-row recursion=%d ms, set-based=%d ms; copy=%d ms; delete=%d ms%n",
+                    legacyMs, bulkMs, copyMs, deleteMs
+            );
+
+            assertThat(fileRepository.findSubtree("/bulk")).isEmpty();
+            assertThat(fileRepository.findSubtree("/bulk-moved")).hasSize(nodes - 1);
+            assertThat(fileRepository.findSubtree("/bulk-copied")).isEmpty();
+            assertThat(fileRepository.findSubtree("/bulk-moved"))
+                    .allSatisfy(file -> assertThat(file.getParentPath()).startsWith("/bulk-moved"));
+        });
+    }
+
+    /**
+     * 直接批量写入元数据，构造 DEPTH 层、每层 DIRS_PER_LEVEL 个子目录的树
+     */
+    private static int seedDeepTree(VfsPathRepository repository, String root) {
+
+        List<SysFile> batch = new ArrayList<>();
+        batch.add(record(root, true));
+        List<String> level = List.of(root);
+        for (int depth = 0; depth < DEPTH; depth++) {
+            List<String> next = new ArrayList<>();
+            for (String dir : level) {
+                for (int f = 0; f < FILES_PER_DIR; f++) {
+                    batch.add(record(dir + "/file-" + f + ".txt", false));
+                }
+                for (int d = 0; d < DIRS_PER_LEVEL && depth < DEPTH - 1; d++) {
+                    String child = dir + "/dir-" + d;
+                    batch.add(record(child, true));
+                    next.add(child);
+                }
+            }
+            level = next;
+        }
+        repository.saveAll(batch);
+        return batch.size();
+    }
+
+    private static SysFile record(String path, boolean directory) {
+
+        String name = path.substring(path.lastIndexOf('/') + 1);
+        SysFile file = new SysFile();
+        file.setBizId(IDWorker.newId());
+        file.setVirtualPath(path);
+        file.setParentPath(path.lastIndexOf('/') <= 0 ? "/" : path.substring(0, path.lastIndexOf('/')));
+        file.setIsDirectory(directory);
+        file.setOriginalName(name);
+        file.setStorageName(name);
+        file.setServiceName(SERVICE);
+        return file;
+    }
+
+    /**
+     * 原实现：逐目录 findChildren + 逐行 save
+     */
+    private static void legacyRecursiveMove(VfsFileRepository fileRepository, String oldParent, String newParent) {
+
+        fileRepository.findByPath(oldParent).ifPresent(dir -> {
+            dir.setVirtualPath(newParent);
+            fileRepository.save(dir);
+        });
+        legacyUpdateChildren(fileRepository, oldParent, newParent);
+    }
+
+    private static void legacyUpdateChildren(VfsFileRepository fileRepository, String oldParent, String newParent) {
+
+        for (SysFile child : fileRepository.findChildren(oldParent)) {
+            String oldPath = child.getVirtualPath();
+            String newPath = newParent + oldPath.substring(oldParent.length());
+            child.setVirtualPath(newPath);
+            child.setParentPath(newParent);
+            fileRepository.save(child);
+            if (Boolean.TRUE.equals(child.getIsDirectory())) {
+                legacyUpdateChildren(fileRepository, oldPath, newPath);
+            }
+        }
+    }
+
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    @Import(StorageAutoConfig.class)
+    static class BenchmarkApplication {
+    }
+
+}
@@ -0,0 +1,144 @@
+package com.dev.lib.storage.domain.service.virtual.core;
+
+import com.dev.lib.entity.id.IDWorker;
+import com.dev.lib.storage.config.StorageAutoConfig;
+import com.dev.lib.storage.data.SysFile;
+import com.dev.lib.storage.data.VfsPathRepository;
+import com.dev.lib.storage.domain.model.VfsContext;
+import com.dev.lib.storage.domain.service.virtual.repository.VfsFileRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.context.runner.WebApplicationContextRunner;
+import org.springframework.context.annotation.Import;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 嵌套子树的移动 / 复制 / 删除：校验集合式 SQL 改写后的路径、父路径与删除标记
+ */
+class VfsSubtreeOperationsTest {
+
+    private static final String SERVICE = "vfs-subtree-ops";
+
+    private static final List<String> TREE = List.of(
+            "/src",
+            "/src/a.txt",
+            "/src/docs",
+            "/src/docs/readme.md",
+            "/src/docs/guide",
+            "/src/docs/guide/intro.md",
+            "/src/docs/guide/deep",
+            "/src/docs/guide/deep/leaf.txt",
+            "/src/empty"
+    );
+
+    @TempDir
+    Path storageRoot;
+
+    private WebApplicationContextRunner contextRunner() {
+
+        return new WebApplicationContextRunner()
+                .withUserConfiguration(TestApplication.class)
+                .withPropertyValues(
+                        "spring.datasource.url=jdbc:h2:mem:vfs_subtree_ops;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                        "spring.datasource.driver-class-name=org.h2.Driver",
+                        "spring.datasource.username=sa",
+                        "spring.datasource.password=",
+                        "spring.jpa.hibernate.ddl-auto=create-drop",
+                        "spring.jpa.open-in-view=false",
+                        "spring.application.name=" + SERVICE,
+                        "app.storage.type=local",
+                        "app.storage.local.path=" + storageRoot
+                );
+    }
+
+    @Test
+    void shouldRewritePathsParentsAndDeletedFlagsForNestedSubtree() {
+
+        contextRunner().run(context -> {
+            assertThat(context).hasNotFailed();
+
+            VfsPathRepository repository = context.getBean(VfsPathRepository.class);
+            VfsFileRepository fileRepository = context.getBean(VfsFileRepository.class);
+            VfsCoreDirectoryService directoryService = context.getBean(VfsCoreDirectoryService.class);
+            VfsContext ctx = VfsContext.of(null);
+
+            repository.saveAll(TREE.stream().map(VfsSubtreeOperationsTest::record).toList());
+
+            // 移动：原路径下不再有存活记录，新路径下结构一致
+            directoryService.move(ctx, "/src", "/moved");
+            assertThat(fileRepository.findByPath("/src")).isEmpty();
+            assertThat(fileRepository.findSubtree("/src")).isEmpty();
+            assertThat(fileRepository.findByPath("/moved")).isPresent();
+            assertSubtree(fileRepository.findSubtree("/moved"), "/moved");
+
+            // 复制：源保持不变，副本结构一致且为独立记录
+            directoryService.copy(ctx, "/moved", "/copied", true);
+            assertSubtree(fileRepository.findSubtree("/moved"), "/moved");
+            List<SysFile> copies = fileRepository.findSubtree("/copied");
+            assertSubtree(copies, "/copied");
+            assertThat(copies).extracting(SysFile::getId)
+                    .doesNotContainAnyElementsOf(fileRepository.findSubtree("/moved").stream().map(SysFile::getId).toList());
+
+            // 删除：副本整棵子树（含根）标记删除，源不受影响
+            directoryService.delete(ctx, "/copied", true);
+            assertThat(fileRepository.findByPath("/copied")).isEmpty();
+            assertThat(fileRepository.findSubtree("/copied")).isEmpty();
+            List<SysFile> deleted = repository.withDeleted().loads(new VfsPathRepository.Query()
+                    .setServiceName(SERVICE)
+                    .setVirtualPathStartWith("/copied"));
+            assertThat(deleted).hasSize(TREE.size())
+                    .allSatisfy(file -> assertThat(file.getDeleted()).isTrue());
+            assertSubtree(fileRepository.findSubtree("/moved"), "/moved");
+        });
+    }
+
+    /**
+     * 子树（不含根）与 TREE 去掉根后一一对应，且每条记录的父路径与自身路径匹配
+     */
+    private static void assertSubtree(List<SysFile> subtree, String root) {
+
+        List<String> expected = new ArrayList<>();
+        for (String path : TREE.subList(1, TREE.size())) {
+            expected.add(root + path.substring("/src".length()));
+        }
+        assertThat(subtree).extracting(SysFile::getVirtualPath).containsExactlyInAnyOrderElementsOf(expected);
+        assertThat(subtree).allSatisfy(file -> {
+            assertThat(file.getParentPath()).isEqualTo(parentOf(file.getVirtualPath()));
+            assertThat(file.getDeleted()).isFalse();
+        });
+    }
+
+    private static String parentOf(String path) {
+
+        int slash = path.lastIndexOf('/');
+        return slash <= 0 ? "/" : path.substring(0, slash);
+    }
+
+    private static SysFile record(String path) {
+
+        String name = path.substring(path.lastIndexOf('/') + 1);
+        SysFile file = new SysFile();
+        file.setBizId(IDWorker.newId());
+        file.setVirtualPath(path);
+        file.setParentPath(parentOf(path));
+        file.setIsDirectory(!name.contains("."));
+        file.setOriginalName(name);
+        file.setStorageName(name);
+        file.setServiceName(SERVICE);
+        return file;
+    }
+
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    @Import(StorageAutoConfig.class)
+    static class TestApplication {
+    }
+
+}
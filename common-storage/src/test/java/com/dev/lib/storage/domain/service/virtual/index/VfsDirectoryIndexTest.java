@@ -0,0 +1,183 @@
+package com.dev.lib.storage.domain.service.virtual.index;
+
+import com.dev.lib.storage.config.AppStorageProperties;
+import com.dev.lib.storage.data.SysFile;
+import com.dev.lib.storage.domain.service.virtual.StorageServiceNameProvider;
+import com.dev.lib.storage.domain.service.virtual.repository.VfsFileRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class VfsDirectoryIndexTest {
+
+    private VfsFileRepository fileRepository;
+
+    private VfsDirectoryIndex index;
+
+    @BeforeEach
+    void setUp() {
+
+        fileRepository = mock(VfsFileRepository.class);
+        index = new VfsDirectoryIndex(fileRepository, new StorageServiceNameProvider("vfs-index-test"), new AppStorageProperties());
+
+        when(fileRepository.countSubtree("/a")).thenReturn(3L);
+        when(fileRepository.findByPath("/a")).thenReturn(Optional.of(file("/a", true)));
+        when(fileRepository.findSubtree("/a")).thenReturn(List.of(
+                file("/a/b", true),
+                file("/a/b/c.txt", false),
+                file("/a/d.txt", false)
+        ));
+    }
+
+    @AfterEach
+    void tearDown() {
+
+        VfsChangeVersion.setPublisher(null);
+    }
+
+    @Test
+    void lookupMissShouldNotBuildSubtree() {
+
+        assertThat(index.lookup("/a")).isEmpty();
+
+        verify(fileRepository, never()).countSubtree(anyString());
+        verify(fileRepository, never()).findSubtree(anyString());
+    }
+
+    @Test
+    void lookupSubtreeShouldBuildOnceAndServeDescendantsFromSnapshot() {
+
+        assertThat(index.lookupSubtree("/a")).hasValueSatisfying(node ->
+                assertThat(node.children()).extracting(VfsDirectoryIndex.Node::name).containsExactly("b", "d.txt"));
+
+        assertThat(index.lookup("/a/b")).hasValueSatisfying(node ->
+                assertThat(node.children()).extracting(VfsDirectoryIndex.Node::path).containsExactly("/a/b/c.txt"));
+        assertThat(index.lookupSubtree("/a/b/c.txt")).hasValueSatisfying(node -> assertThat(node.isDirectory()).isFalse());
+
+        verify(fileRepository, times(1)).findSubtree("/a");
+    }
+
+    @Test
+    void writesShouldOnlyInvalidateSnapshotsOfTheSameRoot() {
+
+        index.lookupSubtree("/a");
+
+        VfsChangeVersion.bump("/other/file.txt");
+        assertThat(index.lookup("/a")).isPresent();
+
+        VfsChangeVersion.bump("/a/b/new.txt");
+        assertThat(index.lookup("/a")).isEmpty();
+    }
+
+    @Test
+    void moveShouldInvalidateSourceAndDestinationRoots() {
+
+        index.lookupSubtree("/a");
+
+        VfsChangeVersion.bump("/x/moved", "/a/b");
+        assertThat(index.lookup("/a")).isEmpty();
+    }
+
+    @Test
+    void unknownPathAndRemoteChangesShouldInvalidate() {
+
+        index.lookupSubtree("/a");
+        VfsChangeVersion.applyRemote(List.of("other"));
+        assertThat(index.lookup("/a")).isPresent();
+
+        VfsChangeVersion.applyRemote(List.of("a"));
+        assertThat(index.lookup("/a")).isEmpty();
+
+        index.lookupSubtree("/a");
+        VfsChangeVersion.bump();
+        assertThat(index.lookup("/a")).isEmpty();
+    }
+
+    @Test
+    void rootSnapshotShouldBeInvalidatedByAnyWrite() {
+
+        long before = VfsChangeVersion.current("/");
+        VfsChangeVersion.bump("/any/where");
+
+        assertThat(VfsChangeVersion.current("/")).isNotEqualTo(before);
+    }
+
+    @Test
+    void transactionalChangesShouldBePublishedOnceAfterCommit() {
+
+        List<Collection<String>> published = new ArrayList<>();
+        VfsChangeVersion.setPublisher(published::add);
+
+        runInSynchronization(TransactionSynchronization.STATUS_COMMITTED, () -> {
+            VfsChangeVersion.bump("/a/one.txt");
+            VfsChangeVersion.bump("/b/two.txt", "/a/three.txt");
+            assertThat(published).isEmpty();
+        });
+        assertThat(published).hasSize(1);
+        assertThat(published.getFirst()).containsExactlyInAnyOrder("a", "b");
+
+        published.clear();
+        runInSynchronization(TransactionSynchronization.STATUS_ROLLED_BACK, () -> VfsChangeVersion.bump("/a/x"));
+        assertThat(published).isEmpty();
+
+        VfsChangeVersion.bump();
+        assertThat(published).hasSize(1);
+        assertThat(published.getFirst()).isEmpty();
+    }
+
+    @Test
+    void transactionShouldBumpAgainAfterCompletion() {
+
+        long start = VfsChangeVersion.current("/a");
+        long[] inside = new long[1];
+        runInSynchronization(TransactionSynchronization.STATUS_COMMITTED, () -> {
+            VfsChangeVersion.bump("/a/file.txt");
+            inside[0] = VfsChangeVersion.current("/a");
+        });
+
+        assertThat(inside[0]).isGreaterThan(start);
+        assertThat(VfsChangeVersion.current("/a")).isGreaterThan(inside[0]);
+    }
+
+    private static void runInSynchronization(int status, Runnable body) {
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            body.run();
+            TransactionSynchronizationUtils.invokeAfterCompletion(
+                    TransactionSynchronizationManager.getSynchronizations(),
+                    status
+            );
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private static SysFile file(String path, boolean directory) {
+
+        int slash = path.lastIndexOf('/');
+        SysFile file = new SysFile();
+        file.setBizId(path);
+        file.setVirtualPath(path);
+        file.setParentPath(slash <= 0 ? "/" : path.substring(0, slash));
+        file.setIsDirectory(directory);
+        return file;
+    }
+
+}
@@ -0,0 +1,169 @@
+package com.dev.lib.storage.domain.service.virtual.search;
+
+import com.dev.lib.entity.id.IDWorker;
+import com.dev.lib.storage.config.StorageAutoConfig;
+import com.dev.lib.storage.data.SysFile;
+import com.dev.lib.storage.data.VfsPathRepository;
+import com.dev.lib.storage.domain.model.VfsContext;
+import com.dev.lib.storage.domain.model.VfsNode;
+import com.dev.lib.storage.domain.service.virtual.core.VfsCoreDirectoryService;
+import com.dev.lib.storage.domain.service.virtual.repository.VfsFileRepository;
+import com.dev.lib.storage.domain.service.virtual.storage.VfsFileStorageService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.context.runner.WebApplicationContextRunner;
+import org.springframework.context.annotation.Import;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 内容搜索基准：合成大量小文件，对比逐个顺序扫描、并发扫描与 trigram 索引剪枝后的耗时。
+ * <p>
+ * 默认跳过，执行：mvn -pl common-storage test -Dbenchmark=true -Dtest=VfsContentSearchBenchmarkTest
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class VfsContentSearchBenchmarkTest {
+
+    private static final String SERVICE = "vfs-search-bench";
+
+    private static final int FILES = 50_000;
+
+    private static final int NEEDLE_EVERY = 5_000;
+
+    @TempDir
+    Path storageRoot;
+
+    private WebApplicationContextRunner contextRunner() {
+
+        return new WebApplicationContextRunner()
+                .withUserConfiguration(BenchmarkApplication.class)
+                .withPropertyValues(
+                        "spring.datasource.url=jdbc:h2:mem:vfs_search_bench;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                        "spring.datasource.driver-class-name=org.h2.Driver",
+                        "spring.datasource.username=sa",
+                        "spring.datasource.password=",
+                        "spring.jpa.hibernate.ddl-auto=create-drop",
+                        "spring.jpa.open-in-view=false",
+                        "spring.jpa.properties.hibernate.jdbc.batch_size=500",
+                        "spring.application.name=" + SERVICE,
+                        "app.storage.type=local",
+                        "app.storage.local.path=" + storageRoot,
+                        "app.storage.vfs.content-index-enabled=true",
+                        "app.storage.vfs.search-parallelism=64"
+                );
+    }
+
+    @Test
+    void parallelIndexedSearchShouldBeatSequentialScan() {
+
+        contextRunner().run(context -> {
+            assertThat(context).hasNotFailed();
+
+            VfsPathRepository repository = context.getBean(VfsPathRepository.class);
+            VfsFileRepository fileRepository = context.getBean(VfsFileRepository.class);
+            VfsFileStorageService storageService = context.getBean(VfsFileStorageService.class);
+            VfsCoreDirectoryService directoryService = context.getBean(VfsCoreDirectoryService.class);
+            VfsContext ctx = VfsContext.of(null);
+
+            seedFiles(repository, storageService);
+            String needle = "needle-token";
+
+            long sequentialStart = System.nanoTime();
+            int sequentialHits = sequentialScan(fileRepository, storageService, needle);
+            long sequentialMs = (System.nanoTime() - sequentialStart) / 1_000_000;
+
+            // 首次并发扫描同时补齐索引
+            long parallelStart = System.nanoTime();
+            List<VfsNode> parallelHits = directoryService.findByContent(ctx, "/docs", needle);
+            long parallelMs = (System.nanoTime() - parallelStart) / 1_000_000;
+
+            long indexedStart = System.nanoTime();
+            List<VfsNode> indexedHits = directoryService.findByContent(ctx, "/docs", needle);
+            long indexedMs = (System.nanoTime() - indexedStart) / 1_000_000;
+
+            System.out.printf(
+                    "%d files: sequential=%d ms, parallel=%d ms, trigram-pruned=%d ms%n",
+                    FILES, sequentialMs, parallelMs, indexedMs
+            );
+
+            assertThat(parallelHits).hasSize(sequentialHits);
+            assertThat(indexedHits).hasSize(sequentialHits);
+            assertThat(indexedMs).isLessThan(sequentialMs);
+        });
+    }
+
+    private static void seedFiles(VfsPathRepository repository, VfsFileStorageService storageService) throws Exception {
+
+        List<SysFile> batch = new ArrayList<>();
+        batch.add(record("/docs", true, null));
+        for (int i = 0; i < FILES; i++) {
+            String body = "line one of file " + i + "\nsome ordinary content\n"
+                    + (i % NEEDLE_EVERY == 0 ? "contains needle-token here\n" : "nothing to see\n");
+            String storagePath = storageService.upload(
+                    new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)),
+                    "file-" + i + ".txt"
+            );
+            batch.add(record("/docs/dir-" + (i % 100) + "/file-" + i + ".txt", false, storagePath));
+        }
+        for (int d = 0; d < 100; d++) {
+            batch.add(record("/docs/dir-" + d, true, null));
+        }
+        repository.saveAll(batch);
+    }
+
+    /**
+     * 原实现：逐个文件顺序下载并逐行匹配
+     */
+    private static int sequentialScan(VfsFileRepository fileRepository, VfsFileStorageService storageService, String needle) throws Exception {
+
+        int hits = 0;
+        for (SysFile file : fileRepository.findDescendants("/docs")) {
+            if (Boolean.TRUE.equals(file.getIsDirectory())) continue;
+            try (InputStream input = storageService.download(file.getStoragePath());
+                 BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.contains(needle)) {
+                        hits++;
+                        break;
+                    }
+                }
+            }
+        }
+        return hits;
+    }
+
+    private static SysFile record(String path, boolean directory, String storagePath) {
+
+        String name = path.substring(path.lastIndexOf('/') + 1);
+        SysFile file = new SysFile();
+        file.setBizId(IDWorker.newId());
+        file.setVirtualPath(path);
+        file.setParentPath(path.lastIndexOf('/') <= 0 ? "/" : path.substring(0, path.lastIndexOf('/')));
+        file.setIsDirectory(directory);
+        file.setOriginalName(name);
+        file.setStorageName(name);
+        file.setStoragePath(storagePath);
+        file.setServiceName(SERVICE);
+        return file;
+    }
+
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    @Import(StorageAutoConfig.class)
+    static class BenchmarkApplication {
+    }
+
+}
@@ -0,0 +1,80 @@
+package com.dev.lib.storage.domain.service.virtual.search;
+
+import com.dev.lib.storage.config.AppStorageProperties;
+import com.dev.lib.storage.domain.service.virtual.storage.VfsFileStorageService;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class VfsContentSearcherTest {
+
+    @Test
+    void shouldSkipFileWhoseDownloadThrowsRuntimeException() throws Exception {
+
+        VfsFileStorageService storage = mock(VfsFileStorageService.class);
+        content(storage, "s/a", "needle in a\n");
+        when(storage.download("s/b")).thenThrow(new IllegalStateException("object store unavailable"));
+        content(storage, "s/c", "no match\nneedle in c\n");
+        VfsContentSearcher searcher = searcher(storage, properties(true));
+
+        List<VfsContentSearcher.FileMatch> matches = searcher.search(
+                List.of(target("a"), target("b"), target("c")),
+                VfsContentSearcher.Query.literal("needle", false, false)
+        );
+
+        assertThat(matches).extracting(VfsContentSearcher.FileMatch::path).containsExactly("/a", "/c");
+        assertThat(matches.get(1).lines()).containsExactly(new VfsContentSearcher.LineMatch(2, "needle in c"));
+    }
+
+    @Test
+    void shouldNotDownloadFilesPrunedByIndex() throws Exception {
+
+        VfsFileStorageService storage = mock(VfsFileStorageService.class);
+        content(storage, "s/a", "alpha\n");
+        content(storage, "s/b", "beta needle\n");
+        AppStorageProperties properties = properties(true);
+        VfsTrigramIndex index = new VfsTrigramIndex(properties);
+        VfsContentSearcher searcher = new VfsContentSearcher(storage, index, properties);
+        List<VfsContentSearcher.Target> targets = List.of(target("a"), target("b"));
+
+        // 第一次完整扫描顺带建立索引
+        searcher.search(targets, VfsContentSearcher.Query.literal("needle", false, false));
+        List<VfsContentSearcher.FileMatch> matches = searcher.search(targets, VfsContentSearcher.Query.literal("needle", false, false));
+
+        assertThat(matches).extracting(VfsContentSearcher.FileMatch::path).containsExactly("/b");
+        verify(storage, times(1)).download("s/a");
+        verify(storage, times(2)).download("s/b");
+    }
+
+    private static void content(VfsFileStorageService storage, String storagePath, String text) throws Exception {
+
+        when(storage.download(storagePath)).thenAnswer(it -> new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static VfsContentSearcher.Target target(String name) {
+
+        return new VfsContentSearcher.Target("/" + name, "s/" + name);
+    }
+
+    private static VfsContentSearcher searcher(VfsFileStorageService storage, AppStorageProperties properties) {
+
+        return new VfsContentSearcher(storage, new VfsTrigramIndex(properties), properties);
+    }
+
+    private static AppStorageProperties properties(boolean indexEnabled) {
+
+        AppStorageProperties properties = new AppStorageProperties();
+        properties.getVfs().setContentIndexEnabled(indexEnabled);
+        properties.getVfs().setSearchParallelism(2);
+        return properties;
+    }
+
+}
@@ -0,0 +1,121 @@
+package com.dev.lib.storage.domain.service.virtual.search;
+
+import com.dev.lib.storage.config.AppStorageProperties;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VfsTrigramIndexTest {
+
+    @Test
+    void shouldPruneIndexedFileMissingLiteral() throws IOException {
+
+        VfsTrigramIndex index = index(true);
+        indexFully(index, "p1", "Hello World\nsecond line\n", 8192);
+
+        assertThat(index.mayContain("p1", VfsTrigramIndex.literalTrigrams("world", false))).isTrue();
+        assertThat(index.mayContain("p1", VfsTrigramIndex.literalTrigrams("second", false))).isTrue();
+        assertThat(index.mayContain("p1", VfsTrigramIndex.literalTrigrams("absent", false))).isFalse();
+        // 未建索引或字面量不足 3 字节时无法判断
+        assertThat(index.mayContain("unknown", VfsTrigramIndex.literalTrigrams("absent", false))).isTrue();
+        assertThat(index.mayContain("p1", VfsTrigramIndex.literalTrigrams("zz", false))).isTrue();
+    }
+
+    @Test
+    void shouldCollectTrigramsSpanningReadChunks() throws IOException {
+
+        VfsTrigramIndex index = index(true);
+        // 每次只读 1 字节，任何 trigram 都跨越读取边界
+        indexFully(index, "p1", "abcdef", 1);
+
+        assertThat(index.mayContain("p1", VfsTrigramIndex.literalTrigrams("cde", false))).isTrue();
+        assertThat(index.mayContain("p1", VfsTrigramIndex.literalTrigrams("abcdef", false))).isTrue();
+        assertThat(index.mayContain("p1", VfsTrigramIndex.literalTrigrams("ace", false))).isFalse();
+    }
+
+    @Test
+    void shouldMergeAppendedBytesAcrossTailBoundary() throws IOException {
+
+        VfsTrigramIndex index = index(true);
+        indexFully(index, "v1", "abc", 8192);
+
+        index.append("v1", "v2", "def".getBytes(StandardCharsets.UTF_8));
+
+        // bcd、cde 只在拼接处出现
+        assertThat(index.mayContain("v2", VfsTrigramIndex.literalTrigrams("bcd", false))).isTrue();
+        assertThat(index.mayContain("v2", VfsTrigramIndex.literalTrigrams("cde", false))).isTrue();
+        assertThat(index.mayContain("v2", VfsTrigramIndex.literalTrigrams("xyz", false))).isFalse();
+        // 旧版本的条目保持不变
+        assertThat(index.mayContain("v1", VfsTrigramIndex.literalTrigrams("cde", false))).isFalse();
+    }
+
+    @Test
+    void shouldNotPruneCaseInsensitiveNonAsciiLiteral() throws IOException {
+
+        VfsTrigramIndex index = index(true);
+        indexFully(index, "p1", "ÄRGER im Büro\n", 8192);
+
+        // 非 ASCII 字符的大小写折叠与字节级索引不对齐，忽略大小写时不剪枝
+        assertThat(VfsTrigramIndex.literalTrigrams("ärger", true)).isEmpty();
+        assertThat(index.mayContain("p1", VfsTrigramIndex.literalTrigrams("ärger", true))).isTrue();
+        // 区分大小写时按原始字节剪枝
+        assertThat(index.mayContain("p1", VfsTrigramIndex.literalTrigrams("Büro", false))).isTrue();
+        assertThat(index.mayContain("p1", VfsTrigramIndex.literalTrigrams("ärger", false))).isFalse();
+        // ASCII 字面量忽略大小写时仍可剪枝
+        assertThat(index.mayContain("p1", VfsTrigramIndex.literalTrigrams("IM B", true))).isTrue();
+        assertThat(index.mayContain("p1", VfsTrigramIndex.literalTrigrams("HAUS", true))).isFalse();
+    }
+
+    @Test
+    void shouldDropEntryOnInvalidate() throws IOException {
+
+        VfsTrigramIndex index = index(true);
+        indexFully(index, "bucket/data.txt", "old content", 8192);
+        int[] literal = VfsTrigramIndex.literalTrigrams("new", false);
+        assertThat(index.mayContain("bucket/data.txt", literal)).isFalse();
+
+        // 原地改写后不能再按旧内容剪枝
+        index.invalidate("bucket/data.txt");
+
+        assertThat(index.mayContain("bucket/data.txt", literal)).isTrue();
+    }
+
+    @Test
+    void shouldSkipCommitWhenDisabledOrNotFullyRead() throws IOException {
+
+        VfsTrigramIndex disabled = index(false);
+        indexFully(disabled, "p1", "abc", 8192);
+        assertThat(disabled.mayContain("p1", VfsTrigramIndex.literalTrigrams("xyz", false))).isTrue();
+
+        VfsTrigramIndex index = index(true);
+        VfsTrigramIndex.Collector partial = index.tee(new ByteArrayInputStream("abcdef".getBytes(StandardCharsets.UTF_8)));
+        partial.readNBytes(3);
+        partial.commit("p2");
+        assertThat(index.mayContain("p2", VfsTrigramIndex.literalTrigrams("xyz", false))).isTrue();
+    }
+
+    private static void indexFully(VfsTrigramIndex index, String storagePath, String content, int chunk) throws IOException {
+
+        VfsTrigramIndex.Collector collector = index.tee(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+        byte[] buffer = new byte[chunk];
+        try (InputStream in = collector) {
+            while (in.read(buffer, 0, chunk) >= 0) {
+                // 读完即可
+            }
+        }
+        collector.commit(storagePath);
+    }
+
+    private static VfsTrigramIndex index(boolean enabled) {
+
+        AppStorageProperties properties = new AppStorageProperties();
+        properties.getVfs().setContentIndexEnabled(enabled);
+        return new VfsTrigramIndex(properties);
+    }
+
+}
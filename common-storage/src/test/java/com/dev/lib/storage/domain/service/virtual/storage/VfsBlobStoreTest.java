@@ -0,0 +1,247 @@
+package com.dev.lib.storage.domain.service.virtual.storage;
+
+import com.dev.lib.storage.config.StorageAutoConfig;
+import com.dev.lib.storage.data.SysFile;
+import com.dev.lib.storage.data.SysFileBlob;
+import com.dev.lib.storage.data.SysFileBlobRepository;
+import com.dev.lib.storage.domain.service.write.SysFileCowService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.context.runner.WebApplicationContextRunner;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 去重模式下 SysFileCowService 与 VfsBlobStore 的引用计数：复用、同内容重写、旧版本淘汰、追加与 GC
+ */
+class VfsBlobStoreTest {
+
+    private static final String SERVICE = "vfs-blob-store";
+
+    @TempDir
+    Path storageRoot;
+
+    private WebApplicationContextRunner contextRunner(String database) {
+
+        return new WebApplicationContextRunner()
+                .withUserConfiguration(TestApplication.class)
+                .withPropertyValues(
+                        "spring.datasource.url=jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                        "spring.datasource.driver-class-name=org.h2.Driver",
+                        "spring.datasource.username=sa",
+                        "spring.datasource.password=",
+                        "spring.jpa.hibernate.ddl-auto=create-drop",
+                        "spring.jpa.open-in-view=false",
+                        "spring.application.name=" + SERVICE,
+                        "app.storage.type=local",
+                        "app.storage.local.path=" + storageRoot,
+                        "app.storage.vfs.dedup-enabled=true",
+                        "app.storage.vfs.blob-gc-grace-minutes=0"
+                );
+    }
+
+    @Test
+    void shouldReuseOneBlobForIdenticalContent() {
+
+        contextRunner("vfs_blob_dedup").run(context -> {
+            assertThat(context).hasNotFailed();
+            SysFileCowService cow = context.getBean(SysFileCowService.class);
+
+            SysFile first = new SysFile();
+            SysFile second = new SysFile();
+            String firstPath = cow.writeWithCOW(first, stream("hello"), -1, "a.txt");
+            String secondPath = cow.writeWithCOW(second, stream("hello"), -1, "b.txt");
+
+            assertThat(secondPath).isEqualTo(firstPath);
+            assertThat(first.getContentHash()).isEqualTo(sha256("hello")).isEqualTo(second.getContentHash());
+            assertThat(second.getSize()).isEqualTo(5L);
+            assertThat(blobs(context)).singleElement().satisfies(blob -> {
+                assertThat(blob.getStoragePath()).isEqualTo(firstPath);
+                assertThat(blob.getRefCount()).isEqualTo(2L);
+            });
+            // 重复上传的对象已删除，只保留一个底层对象
+            assertThat(exists(context, firstPath)).isTrue();
+        });
+    }
+
+    @Test
+    void shouldReleaseExactlyOneRefWhenRewritingSameContent() {
+
+        contextRunner("vfs_blob_same_path").run(context -> {
+            assertThat(context).hasNotFailed();
+            SysFileCowService cow = context.getBean(SysFileCowService.class);
+
+            SysFile file = new SysFile();
+            SysFile other = new SysFile();
+            String path = cow.writeWithCOW(file, stream("hello"), -1, "a.txt");
+            cow.writeWithCOW(other, stream("hello"), -1, "b.txt");
+
+            assertThat(cow.writeWithCOW(file, stream("hello"), -1, "a.txt")).isEqualTo(path);
+
+            // 本次写入多持有的引用已释放，也没有把当前内容记为旧版本
+            assertThat(blob(context, path).getRefCount()).isEqualTo(2L);
+            assertThat(file.getOldStoragePaths()).isNullOrEmpty();
+            assertThat(file.getStoragePath()).isEqualTo(path);
+        });
+    }
+
+    @Test
+    void shouldReleaseRefsOfTrimmedOldVersions() {
+
+        contextRunner("vfs_blob_trim").run(context -> {
+            assertThat(context).hasNotFailed();
+            SysFileCowService cow = context.getBean(SysFileCowService.class);
+
+            SysFile file = new SysFile();
+            List<String> versions = new ArrayList<>();
+            for (int i = 0; i <= 10; i++) {
+                versions.add(cow.writeWithCOW(file, stream("v" + i), -1, "a.txt"));
+            }
+            assertThat(file.getOldStoragePaths()).containsExactlyElementsOf(versions.subList(0, 10));
+            assertThat(versions).allSatisfy(path -> assertThat(blob(context, path).getRefCount()).isEqualTo(1L));
+
+            // 第 11 个旧版本入列时淘汰最老的 5 个
+            String latest = cow.writeWithCOW(file, stream("v11"), -1, "a.txt");
+
+            assertThat(file.getStoragePath()).isEqualTo(latest);
+            assertThat(file.getOldStoragePaths()).containsExactlyElementsOf(versions.subList(5, 11));
+            for (String trimmed : versions.subList(0, 5)) {
+                SysFileBlob blob = blob(context, trimmed);
+                assertThat(blob.getRefCount()).isZero();
+                assertThat(blob.getDeleteAfter()).isNotNull();
+            }
+            for (String kept : versions.subList(5, 11)) {
+                assertThat(blob(context, kept).getRefCount()).isEqualTo(1L);
+            }
+        });
+    }
+
+    @Test
+    void shouldStoreAppendedContentAsBlob() {
+
+        contextRunner("vfs_blob_append").run(context -> {
+            assertThat(context).hasNotFailed();
+            SysFileCowService cow = context.getBean(SysFileCowService.class);
+
+            SysFile existing = new SysFile();
+            String mergedPath = cow.writeWithCOW(existing, stream("hello world"), -1, "existing.txt");
+            SysFile file = new SysFile();
+            String oldPath = cow.writeWithCOW(file, stream("hello"), -1, "a.txt");
+
+            String newPath = cow.appendWithCOW(file, " world".getBytes(StandardCharsets.UTF_8), "a.txt");
+
+            // 追加结果与已有内容相同，复用已有 Blob
+            assertThat(newPath).isEqualTo(mergedPath);
+            assertThat(file.getStoragePath()).isEqualTo(mergedPath);
+            assertThat(file.getContentHash()).isEqualTo(sha256("hello world"));
+            assertThat(file.getSize()).isEqualTo(11L);
+            assertThat(read(context, newPath)).isEqualTo("hello world");
+            assertThat(blob(context, mergedPath).getRefCount()).isEqualTo(2L);
+            // 旧内容作为旧版本继续持有引用
+            assertThat(file.getOldStoragePaths()).containsExactly(oldPath);
+            assertThat(blob(context, oldPath).getRefCount()).isEqualTo(1L);
+
+            String appendedAgain = cow.appendWithCOW(file, "!".getBytes(StandardCharsets.UTF_8), "a.txt");
+            assertThat(read(context, appendedAgain)).isEqualTo("hello world!");
+            assertThat(blob(context, appendedAgain).getDigest()).isEqualTo(sha256("hello world!"));
+        });
+    }
+
+    @Test
+    void shouldCollectOnlyUnreferencedBlobsAndDeleteObjectsAfterCommit() {
+
+        contextRunner("vfs_blob_gc").run(context -> {
+            assertThat(context).hasNotFailed();
+            SysFileCowService cow = context.getBean(SysFileCowService.class);
+            VfsBlobStore blobStore = context.getBean(VfsBlobStore.class);
+            TransactionTemplate tx = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+
+            String garbage = cow.writeWithCOW(new SysFile(), stream("garbage"), -1, "a.txt");
+            String live = cow.writeWithCOW(new SysFile(), stream("live"), -1, "b.txt");
+            blobStore.release(List.of(garbage));
+
+            // 回滚时行记录与对象都保持不变
+            tx.executeWithoutResult(status -> {
+                assertThat(blobStore.collectGarbage()).isEqualTo(1);
+                status.setRollbackOnly();
+            });
+            assertThat(blob(context, garbage)).isNotNull();
+            assertThat(exists(context, garbage)).isTrue();
+
+            tx.executeWithoutResult(status -> {
+                assertThat(blobStore.collectGarbage()).isEqualTo(1);
+                // 提交前对象仍可读
+                assertThat(exists(context, garbage)).isTrue();
+            });
+
+            assertThat(blob(context, garbage)).isNull();
+            assertThat(exists(context, garbage)).isFalse();
+            assertThat(blob(context, live).getRefCount()).isEqualTo(1L);
+            assertThat(exists(context, live)).isTrue();
+            assertThat(blobStore.collectGarbage()).isZero();
+        });
+    }
+
+    private static List<SysFileBlob> blobs(ApplicationContext context) {
+
+        return context.getBean(SysFileBlobRepository.class)
+                .loads(new SysFileBlobRepository.Query().setServiceName(SERVICE));
+    }
+
+    private static SysFileBlob blob(ApplicationContext context, String storagePath) {
+
+        return context.getBean(SysFileBlobRepository.class)
+                .load(new SysFileBlobRepository.Query().setServiceName(SERVICE).setStoragePath(storagePath))
+                .orElse(null);
+    }
+
+    private static boolean exists(ApplicationContext context, String storagePath) {
+
+        try (InputStream ignored = context.getBean(VfsFileStorageService.class).download(storagePath)) {
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static String read(ApplicationContext context, String storagePath) throws IOException {
+
+        try (InputStream in = context.getBean(VfsFileStorageService.class).download(storagePath)) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static InputStream stream(String content) {
+
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String sha256(String content) throws NoSuchAlgorithmException {
+
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    @Import(StorageAutoConfig.class)
+    static class TestApplication {
+    }
+
+}
@@ -0,0 +1,41 @@
+package com.dev.lib.storage.excel;
+
+import com.dev.lib.excel.storage.ExcelExportStorage;
+import com.dev.lib.storage.domain.service.chain.ChainStorageService;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class StorageExcelAutoConfigTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(StorageExcelAutoConfig.class));
+
+    @Test
+    void shouldRegisterStorageWhenChainStorageServicePresent() {
+
+        contextRunner.withBean(ChainStorageService.class, () -> mock(ChainStorageService.class))
+                .run(context -> assertThat(context).hasSingleBean(ExcelExportStorage.class)
+                        .getBean(ExcelExportStorage.class)
+                        .isInstanceOf(StorageExcelExportStorage.class));
+    }
+
+    @Test
+    void shouldBackOffWithoutChainStorageService() {
+
+        contextRunner.run(context -> assertThat(context).doesNotHaveBean(ExcelExportStorage.class));
+    }
+
+    @Test
+    void shouldBackOffWhenApplicationProvidesStorage() {
+
+        contextRunner.withBean(ChainStorageService.class, () -> mock(ChainStorageService.class))
+                .withBean(ExcelExportStorage.class, () -> (bucket, objectKey, content, expireSeconds) -> null)
+                .run(context -> assertThat(context).hasSingleBean(ExcelExportStorage.class)
+                        .doesNotHaveBean(StorageExcelExportStorage.class));
+    }
+
+}
@@ -7,8 +7,9 @@ import lombok.Getter;
 @Getter
 @AllArgsConstructor
 public enum UserError implements CodeEnums {
+    DEPT_NOT_FOUND(2101, "部门不存在"),
+    DEPT_MOVE_INTO_SUBTREE(2102, "不能移动到自身或下级部门");
 
-    ;
     private final Integer code;
     private final String message;
 }
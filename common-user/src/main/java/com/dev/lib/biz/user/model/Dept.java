@@ -4,6 +4,7 @@ import com.dev.lib.domain.AggregateRoot;
 import lombok.Getter;
 import lombok.Setter;
 
+import java.util.ArrayList;
 import java.util.List;
 
 @Getter
@@ -12,5 +13,12 @@ public class Dept extends AggregateRoot {
 
     private String name;
 
-    private List<Dept> subdepts;
+    private Long parentId;
+
+    /**
+     * 物化路径，形如 "/1/5/12/"
+     */
+    private String path;
+
+    private List<Dept> subdepts = new ArrayList<>();
 }
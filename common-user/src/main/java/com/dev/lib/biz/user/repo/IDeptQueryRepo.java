@@ -1,4 +1,27 @@
 package com.dev.lib.biz.user.repo;
 
+import com.dev.lib.biz.user.model.Dept;
+
+import java.util.List;
+import java.util.Set;
+
 public interface IDeptQueryRepo {
+
+    /**
+     * 部门物化路径，部门不存在返回 null
+     * <p>
+     * 读自部门树快照，其他节点的改动最多滞后快照过期时间，不要用于权限判断
+     */
+    String pathOf(Long deptId);
+
+    /**
+     * 部门自身及全部下级部门的 ID
+     */
+    Set<Long> subtreeIds(Long deptId);
+
+    /**
+     * 完整部门树
+     */
+    List<Dept> tree();
+
 }
@@ -0,0 +1,12 @@
+package com.dev.lib.biz.user.repo;
+
+public interface IDeptRepo {
+
+    Long create(String name, Long parentId);
+
+    /**
+     * 移动到新的上级部门，parentId 为 null 表示移到根
+     */
+    void move(Long deptId, Long parentId);
+
+}
@@ -1,11 +1,31 @@
 package com.dev.lib.biz.user.service.department;
 
+import com.dev.lib.biz.user.repo.IDeptRepo;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
 
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class DepartmentCommandService {
+
+    private final IDeptRepo deptRepo;
+
+    @Transactional(rollbackFor = Exception.class)
+    public Long create(String name, Long parentId) {
+
+        return deptRepo.create(name, parentId);
+    }
+
+    /**
+     * 移动部门，自身与全部下级的路径在同一事务内改写
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public void move(Long deptId, Long parentId) {
+
+        deptRepo.move(deptId, parentId);
+        log.info("Dept {} moved under {}", deptId, parentId);
+    }
 }
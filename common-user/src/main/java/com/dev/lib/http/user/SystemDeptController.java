@@ -1,12 +1,27 @@
 package com.dev.lib.http.user;
 
+import com.dev.lib.biz.user.model.Dept;
+import com.dev.lib.biz.user.repo.IDeptQueryRepo;
+import com.dev.lib.web.model.ServerResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.List;
+
 @Slf4j
 @RestController
 @RequiredArgsConstructor
 public class SystemDeptController {
 
+    private final IDeptQueryRepo deptQueryRepo;
+
+    // 部门树（缓存快照）
+    @GetMapping("/api/system/dept/tree")
+    public ServerResponse<List<Dept>> tree() {
+
+        return ServerResponse.success(deptQueryRepo.tree());
+    }
+
 }
@@ -1,11 +1,211 @@
 package com.dev.lib.persist.adapt;
 
+import com.dev.lib.biz.user.UserError;
+import com.dev.lib.biz.user.UserException;
+import com.dev.lib.biz.user.model.Dept;
+import com.dev.lib.biz.user.repo.IDeptQueryRepo;
+import com.dev.lib.biz.user.repo.IDeptRepo;
+import com.dev.lib.entity.id.IDWorker;
+import com.dev.lib.persist.user.DeptMapper;
+import com.dev.lib.persist.user.DeptNode;
+import com.dev.lib.persist.user.DeptPo;
+import com.dev.lib.util.TreeBuilder;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 部门持久化与部门树缓存
+ * <p>
+ * - 部门树整表加载为只读快照，按路径排序，子树查询是一次有序区间扫描
+ * - 本节点写入后在事务结束时失效快照；其他节点的写入依赖快照过期时间，快照只用于展示，
+ *   数据权限判断直接查库（见 {@link com.dev.lib.persist.user.DeptDataScopePlugin}）
+ * - 写入时锁定相关部门行，创建锁上级，移动锁两端，保证路径在并发移动下保持一致
+ */
 @Slf4j
 @Component
 @RequiredArgsConstructor
-public class DeptAdapt {
+public class DeptAdapt implements IDeptQueryRepo, IDeptRepo {
+
+    private static final long SNAPSHOT_TTL_NANOS = TimeUnit.MINUTES.toNanos(5);
+
+    private final DeptMapper deptMapper;
+
+    private final AtomicLong version = new AtomicLong();
+
+    private volatile Snapshot snapshot;
+
+    @Override
+    public String pathOf(Long deptId) {
+
+        if (deptId == null) {
+            return null;
+        }
+        DeptNode node = snapshot().byId().get(deptId);
+        return node == null ? null : node.path();
+    }
+
+    @Override
+    public Set<Long> subtreeIds(Long deptId) {
+
+        String path = pathOf(deptId);
+        if (path == null) {
+            return Set.of();
+        }
+        return Set.copyOf(snapshot().byPath().subMap(path, true, path + Character.MAX_VALUE, false).values());
+    }
+
+    @Override
+    public List<Dept> tree() {
+
+        Snapshot current = snapshot();
+        List<Dept> flat = new ArrayList<>(current.byId().size());
+        for (Long id : current.byPath().values()) {
+            DeptNode node = current.byId().get(id);
+            Dept dept = new Dept();
+            dept.setId(node.id());
+            dept.setParentId(node.parentId());
+            dept.setName(node.name());
+            dept.setPath(node.path());
+            flat.add(dept);
+        }
+        return TreeBuilder.build(
+                flat,
+                Dept::getId,
+                Dept::getParentId,
+                (parent, children) -> parent.getSubdepts().addAll(children),
+                dept -> dept.getParentId() == null || !current.byId().containsKey(dept.getParentId())
+        );
+    }
+
+    @Override
+    public Long create(String name, Long parentId) {
+
+        // 锁定上级，避免上级同时被移动时按旧路径生成子路径
+        DeptPo parent = parentId == null ? null : lock(parentId);
+        DeptPo dept = new DeptPo();
+        dept.setId(IDWorker.nextID());
+        dept.setName(name);
+        dept.setParent(parent);
+        dept.setPath(DeptPo.childPath(parent == null ? null : parent.getPath(), dept.getId()));
+        deptMapper.save(dept);
+        invalidate();
+        return dept.getId();
+    }
+
+    @Override
+    public void move(Long deptId, Long parentId) {
+
+        // 按 ID 顺序锁定两端，避免并发交叉移动形成环
+        DeptPo dept;
+        DeptPo parent = null;
+        if (parentId != null && parentId < deptId) {
+            parent = lock(parentId);
+            dept = lock(deptId);
+        } else {
+            dept = lock(deptId);
+            if (parentId != null) {
+                parent = lock(parentId);
+            }
+        }
+
+        String oldPrefix = dept.getPath();
+        if (parent != null && parent.getPath().startsWith(oldPrefix)) {
+            throw new UserException(UserError.DEPT_MOVE_INTO_SUBTREE);
+        }
+        String newPrefix = DeptPo.childPath(parent == null ? null : parent.getPath(), dept.getId());
+        if (newPrefix.equals(oldPrefix)) {
+            return;
+        }
+
+        dept.setParent(parent);
+        int rows = deptMapper.rewriteSubtreePath(oldPrefix + "%", newPrefix, oldPrefix.length() + 1, LocalDateTime.now());
+        log.debug("Dept {} path {} -> {}, {} rows rewritten", deptId, oldPrefix, newPrefix, rows);
+        invalidate();
+    }
+
+    private DeptPo lock(Long id) {
+
+        return deptMapper.findByIdForUpdate(id).orElseThrow(() -> new UserException(UserError.DEPT_NOT_FOUND));
+    }
+
+    private Snapshot snapshot() {
+
+        Snapshot current = snapshot;
+        if (current != null && current.valid(version.get())) {
+            return current;
+        }
+        synchronized (this) {
+            current = snapshot;
+            long expected = version.get();
+            if (current == null || !current.valid(expected)) {
+                current = load(expected);
+                snapshot = current;
+            }
+            return current;
+        }
+    }
+
+    private Snapshot load(long loadedVersion) {
+
+        List<DeptNode> nodes = deptMapper.findAllNodes();
+        Map<Long, DeptNode> byId = new HashMap<>(nodes.size() * 2);
+        NavigableMap<String, Long> byPath = new TreeMap<>();
+        for (DeptNode node : nodes) {
+            if (node.path() == null || node.path().isEmpty()) {
+                // 尚未回填路径的历史数据，等待 DeptPathBackfill
+                continue;
+            }
+            byId.put(node.id(), node);
+            byPath.put(node.path(), node.id());
+        }
+        log.debug("Dept tree loaded, {} nodes", nodes.size());
+        return new Snapshot(
+                loadedVersion,
+                System.nanoTime(),
+                Collections.unmodifiableMap(byId),
+                Collections.unmodifiableNavigableMap(byPath)
+        );
+    }
+
+    /**
+     * 立即失效，事务内写入在事务结束后再失效一次，避免提交前按旧数据重建的快照被沿用
+     */
+    private void invalidate() {
+
+        version.incrementAndGet();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+
+                    version.incrementAndGet();
+                }
+            });
+        }
+    }
+
+    private record Snapshot(long version, long loadedAt, Map<Long, DeptNode> byId, NavigableMap<String, Long> byPath) {
+
+        boolean valid(long currentVersion) {
+
+            return version == currentVersion && System.nanoTime() - loadedAt < SNAPSHOT_TTL_NANOS;
+        }
+
+    }
+
 }
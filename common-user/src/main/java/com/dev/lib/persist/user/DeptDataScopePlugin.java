@@ -0,0 +1,75 @@
+package com.dev.lib.persist.user;
+
+import com.dev.lib.jpa.entity.JpaEntity;
+import com.dev.lib.jpa.entity.dsl.plugin.DataScope;
+import com.dev.lib.jpa.entity.dsl.plugin.QueryPlugin;
+import com.dev.lib.jpa.entity.dsl.plugin.QueryPluginChain;
+import com.dev.lib.security.util.SecurityContextHolder;
+import com.dev.lib.security.util.UserDetails;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.PathBuilder;
+import com.querydsl.jpa.JPAExpressions;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@link DataScope} 实体的部门数据权限
+ * <p>
+ * 按当前用户部门的物化路径追加一个可走索引的前缀条件：{@code deptId in (select id from sys_dept where path like '/1/5/%')}。
+ * 用户部门的路径每次按主键查库，不使用部门树快照，部门移动后立即在所有节点生效。
+ * 无用户上下文（后台任务）、超级管理员与内部调用不过滤；用户没有部门或部门不存在时不返回数据
+ */
+@Component
+@RequiredArgsConstructor
+public class DeptDataScopePlugin implements QueryPlugin, InitializingBean {
+
+    private static final PathBuilder<DeptPo> SCOPE_DEPT = new PathBuilder<>(DeptPo.class, "scopeDept");
+
+    private final DeptMapper deptMapper;
+
+    @Override
+    public void afterPropertiesSet() {
+
+        QueryPluginChain.getInstance().register(this);
+    }
+
+    @Override
+    public int getOrder() {
+
+        return 100;
+    }
+
+    @Override
+    public boolean supports(Class<? extends JpaEntity> entityClass) {
+
+        return entityClass.isAnnotationPresent(DataScope.class);
+    }
+
+    @Override
+    public BooleanExpression apply(PathBuilder<?> path, Class<?> entityClass) {
+
+        UserDetails user = SecurityContextHolder.get();
+        if (user == null || user.isSuperAdmin() || user.isInternal()) {
+            return null;
+        }
+        String deptPath = user.isRealUser() && user.getDeptId() != null
+                          ? deptMapper.findPathById(user.getDeptId()).orElse(null)
+                          : null;
+        if (deptPath == null || deptPath.isEmpty()) {
+            // id 不会为空，恒假
+            return path.getNumber("id", Long.class).isNull();
+        }
+
+        DataScope scope = entityClass.getAnnotation(DataScope.class);
+        return path.getNumber(scope.deptField(), Long.class).in(
+                JPAExpressions.select(SCOPE_DEPT.getNumber("id", Long.class))
+                        .from(SCOPE_DEPT)
+                        .where(
+                                SCOPE_DEPT.getString("path").startsWith(deptPath),
+                                SCOPE_DEPT.getBoolean("deleted").isFalse()
+                        )
+        );
+    }
+
+}
@@ -2,12 +2,70 @@ package com.dev.lib.persist.user;
 
 import com.dev.lib.entity.dsl.DslQuery;
 import com.dev.lib.jpa.entity.BaseRepository;
+import lombok.Data;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface DeptMapper extends BaseRepository<DeptPo> {
 
+    @Data
     class LoadDept extends DslQuery<DeptPo> {
 
+        private Long id;
+
+    }
+
+    /**
+     * 悲观锁查询，用于创建与移动部门
+     */
+    default Optional<DeptPo> findByIdForUpdate(Long id) {
+
+        return lockForUpdate().load(new LoadDept().setId(id));
     }
+
+    @Query("select new com.dev.lib.persist.user.DeptNode(d.id, p.id, d.name, d.path) "
+            + "from DeptPo d left join d.parent p where d.deleted = false")
+    List<DeptNode> findAllNodes();
+
+    /**
+     * 含已删除部门，回填路径时已删除的上级也要参与计算
+     */
+    @Query("select new com.dev.lib.persist.user.DeptNode(d.id, p.id, d.name, d.path) "
+            + "from DeptPo d left join d.parent p")
+    List<DeptNode> findAllNodesIncludingDeleted();
+
+    /**
+     * 按主键读取当前路径，不经缓存，用于数据权限判断
+     */
+    @Query("select d.path from DeptPo d where d.id = :id and d.deleted = false")
+    Optional<String> findPathById(@Param("id") Long id);
+
+    /**
+     * 只回填仍为空的路径，多个节点同时回填时结果一致
+     */
+    @Modifying
+    @Query("update DeptPo d set d.path = :path where d.id = :id and (d.path is null or d.path = '')")
+    int fillPath(@Param("id") Long id, @Param("path") String path);
+
+    /**
+     * 子树路径前缀改写：移动部门时，自身及全部下级的 path 中 oldPrefix 替换为 newPrefix
+     *
+     * @param cutFrom oldPrefix.length() + 1（JPQL substring 从 1 开始）
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update DeptPo d set d.path = concat(:newPrefix, substring(d.path, :cutFrom)), d.updatedAt = :now "
+            + "where d.path like :subtreePattern")
+    int rewriteSubtreePath(
+            @Param("subtreePattern") String subtreePattern,
+            @Param("newPrefix") String newPrefix,
+            @Param("cutFrom") int cutFrom,
+            @Param("now") LocalDateTime now
+    );
 }
@@ -0,0 +1,8 @@
+package com.dev.lib.persist.user;
+
+/**
+ * 部门树缓存节点
+ */
+public record DeptNode(Long id, Long parentId, String name, String path) {
+
+}
@@ -0,0 +1,96 @@
+package com.dev.lib.persist.user;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 回填 sys_dept.path
+ * <p>
+ * 启动完成后从根部门向下逐层计算缺失的路径，已有路径保持不变；只写仍为空的行，可重复执行，多个节点同时启动也不会写出不同结果。
+ * 上级链成环的异常数据无法从根到达，保持为空并告警，这些部门在数据权限中不匹配任何数据
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DeptPathBackfill {
+
+    private final DeptMapper deptMapper;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(rollbackFor = Exception.class)
+    public void onReady() {
+
+        int filled = backfill();
+        if (filled > 0) {
+            log.info("Backfilled path of {} departments", filled);
+        }
+    }
+
+    /**
+     * @return 本次写入的行数
+     */
+    public int backfill() {
+
+        List<DeptNode> nodes = deptMapper.findAllNodesIncludingDeleted();
+        if (nodes.stream().noneMatch(DeptPathBackfill::missing)) {
+            return 0;
+        }
+
+        Map<Long, DeptNode> byId = new HashMap<>(nodes.size() * 2);
+        Map<Long, List<DeptNode>> children = new HashMap<>();
+        for (DeptNode node : nodes) {
+            byId.put(node.id(), node);
+            if (node.parentId() != null) {
+                children.computeIfAbsent(node.parentId(), k -> new ArrayList<>()).add(node);
+            }
+        }
+
+        // 根：没有上级，或上级已不存在
+        Deque<DeptNode> queue = new ArrayDeque<>();
+        Map<Long, String> paths = new HashMap<>(nodes.size() * 2);
+        for (DeptNode node : nodes) {
+            if (node.parentId() == null || !byId.containsKey(node.parentId())) {
+                queue.add(node);
+                paths.put(node.id(), missing(node) ? DeptPo.childPath(null, node.id()) : node.path());
+            }
+        }
+
+        int filled = 0;
+        while (!queue.isEmpty()) {
+            DeptNode node = queue.poll();
+            String path = paths.get(node.id());
+            if (missing(node)) {
+                filled += deptMapper.fillPath(node.id(), path);
+            }
+            for (DeptNode child : children.getOrDefault(node.id(), List.of())) {
+                if (!paths.containsKey(child.id())) {
+                    paths.put(child.id(), missing(child) ? DeptPo.childPath(path, child.id()) : child.path());
+                    queue.add(child);
+                }
+            }
+        }
+
+        long unreachable = nodes.stream().filter(node -> !paths.containsKey(node.id())).count();
+        if (unreachable > 0) {
+            log.warn("{} departments are not reachable from a root (parent cycle), path left empty", unreachable);
+        }
+        return filled;
+    }
+
+    private static boolean missing(DeptNode node) {
+
+        return node.path() == null || node.path().isEmpty();
+    }
+
+}
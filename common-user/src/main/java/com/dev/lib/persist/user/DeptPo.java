@@ -1,8 +1,10 @@
 package com.dev.lib.persist.user;
 
 import com.dev.lib.jpa.entity.JpaEntity;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
+import jakarta.persistence.Index;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
 import lombok.Getter;
@@ -13,14 +15,29 @@ import java.util.Set;
 @Getter
 @Setter
 @Entity
-@Table(name = "sys_dept")
+@Table(name = "sys_dept", indexes = @Index(name = "idx_dept_path", columnList = "path"))
 public class DeptPo extends JpaEntity {
 
+    private String name;
+
     @ManyToOne(fetch = FetchType.LAZY)
     private DeptPo parent;
 
+    /**
+     * 物化路径：祖先到自身的 ID，形如 "/1/5/12/"；前缀匹配 "/1/5/%" 即可命中部门 5 及其全部下级
+     * <p>
+     * 写入时总会设置；列本身允许为空，以便在已有数据的表上增加此列，历史数据由 {@link DeptPathBackfill} 回填
+     */
+    @Column(length = 512)
+    private String path;
+
     @ManyToOne
     private UserPo manager;
 
     private Set<UserPo> users;
+
+    public static String childPath(String parentPath, Long id) {
+
+        return (parentPath == null ? "/" : parentPath) + id + "/";
+    }
 }
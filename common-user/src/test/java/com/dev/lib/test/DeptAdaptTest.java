@@ -0,0 +1,143 @@
+package com.dev.lib.test;
+
+import com.dev.lib.biz.user.UserError;
+import com.dev.lib.biz.user.UserException;
+import com.dev.lib.persist.adapt.DeptAdapt;
+import com.dev.lib.persist.user.DeptMapper;
+import com.dev.lib.persist.user.DeptPo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class DeptAdaptTest {
+
+    @Mock
+    private DeptMapper deptMapper;
+
+    @InjectMocks
+    private DeptAdapt deptAdapt;
+
+    /**
+     * 以 Map 模拟 sys_dept：1 -> 5 -> 12，另有根部门 2
+     */
+    private final Map<Long, DeptPo> rows = new HashMap<>();
+
+    @BeforeEach
+    public void setUp() {
+
+        DeptPo root = dept(1L, null);
+        DeptPo middle = dept(5L, root);
+        dept(12L, middle);
+        dept(2L, null);
+
+        when(deptMapper.findByIdForUpdate(anyLong())).thenAnswer(it -> Optional.ofNullable(rows.get(it.<Long>getArgument(0))));
+        when(deptMapper.save(any(DeptPo.class))).thenAnswer(it -> {
+            DeptPo saved = it.getArgument(0);
+            rows.put(saved.getId(), saved);
+            return saved;
+        });
+        // 按 JPQL 语义执行：path like :subtreePattern 的行改为 concat(:newPrefix, substring(path, :cutFrom))
+        when(deptMapper.rewriteSubtreePath(anyString(), anyString(), anyInt(), any())).thenAnswer(it -> {
+            String prefix = it.<String>getArgument(0).replace("%", "");
+            String newPrefix = it.getArgument(1);
+            int cutFrom = it.getArgument(2);
+            int count = 0;
+            for (DeptPo row : rows.values()) {
+                if (row.getPath().startsWith(prefix)) {
+                    row.setPath(newPrefix + row.getPath().substring(cutFrom - 1));
+                    count++;
+                }
+            }
+            return count;
+        });
+    }
+
+    @Test
+    @DisplayName("移动部门时改写自身及全部下级的路径")
+    public void moveRewritesSubtreePaths() {
+
+        deptAdapt.move(5L, 2L);
+
+        assertEquals("/2/5/", rows.get(5L).getPath());
+        assertEquals("/2/5/12/", rows.get(12L).getPath());
+        assertEquals("/1/", rows.get(1L).getPath());
+        assertEquals("/2/", rows.get(2L).getPath());
+        assertSame(rows.get(2L), rows.get(5L).getParent());
+    }
+
+    @Test
+    @DisplayName("移动到根部门")
+    public void moveToRoot() {
+
+        deptAdapt.move(12L, null);
+
+        assertEquals("/12/", rows.get(12L).getPath());
+        assertNull(rows.get(12L).getParent());
+    }
+
+    @Test
+    @DisplayName("不能移动到自身或下级部门")
+    public void moveIntoOwnSubtreeIsRejected() {
+
+        var intoChild = assertThrows(UserException.class, () -> deptAdapt.move(1L, 12L));
+        var intoSelf = assertThrows(UserException.class, () -> deptAdapt.move(5L, 5L));
+
+        assertEquals(UserError.DEPT_MOVE_INTO_SUBTREE.getCode(), intoChild.getCoder());
+        assertEquals(UserError.DEPT_MOVE_INTO_SUBTREE.getCode(), intoSelf.getCoder());
+        assertEquals("/1/5/12/", rows.get(12L).getPath());
+        verify(deptMapper, never()).rewriteSubtreePath(anyString(), anyString(), anyInt(), any());
+    }
+
+    @Test
+    @DisplayName("创建部门时锁定上级并按上级路径生成路径")
+    public void createLocksParent() {
+
+        Long id = deptAdapt.create("研发部", 5L);
+
+        verify(deptMapper).findByIdForUpdate(5L);
+        assertEquals("/1/5/" + id + "/", rows.get(id).getPath());
+        assertSame(rows.get(5L), rows.get(id).getParent());
+    }
+
+    @Test
+    @DisplayName("上级部门不存在")
+    public void createUnderMissingParentIsRejected() {
+
+        var exception = assertThrows(UserException.class, () -> deptAdapt.create("研发部", 99L));
+
+        assertEquals(UserError.DEPT_NOT_FOUND.getCode(), exception.getCoder());
+    }
+
+    private DeptPo dept(Long id, DeptPo parent) {
+
+        DeptPo dept = new DeptPo();
+        dept.setId(id);
+        dept.setName("dept-" + id);
+        dept.setParent(parent);
+        dept.setPath(DeptPo.childPath(parent == null ? null : parent.getPath(), id));
+        rows.put(id, dept);
+        return dept;
+    }
+
+}
@@ -0,0 +1,151 @@
+package com.dev.lib.test;
+
+import com.dev.lib.jpa.entity.JpaEntity;
+import com.dev.lib.jpa.entity.dsl.plugin.DataScope;
+import com.dev.lib.persist.user.DeptDataScopePlugin;
+import com.dev.lib.persist.user.DeptMapper;
+import com.dev.lib.security.model.UserType;
+import com.dev.lib.security.util.SecurityContextHolder;
+import com.dev.lib.security.util.UserDetails;
+import com.querydsl.core.types.Operation;
+import com.querydsl.core.types.Ops;
+import com.querydsl.core.types.SubQueryExpression;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.PathBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class DeptDataScopePluginTest {
+
+    private static final PathBuilder<OrderPo> ORDER = new PathBuilder<>(OrderPo.class, "orderPo");
+
+    @Mock
+    private DeptMapper deptMapper;
+
+    @InjectMocks
+    private DeptDataScopePlugin plugin;
+
+    @AfterEach
+    public void tearDown() {
+
+        SecurityContextHolder.clear();
+    }
+
+    @Test
+    @DisplayName("只对标注 @DataScope 的实体生效")
+    public void supportsAnnotatedEntitiesOnly() {
+
+        assertTrue(plugin.supports(OrderPo.class));
+        assertFalse(plugin.supports(PlainPo.class));
+    }
+
+    @Test
+    @DisplayName("按部门路径前缀限制到本部门及下级")
+    public void restrictsToDeptSubtree() {
+
+        when(deptMapper.findPathById(5L)).thenReturn(Optional.of("/1/5/"));
+        SecurityContextHolder.set(user(5L));
+
+        Operation<?> predicate = (Operation<?>) plugin.apply(ORDER, OrderPo.class);
+
+        assertEquals(Ops.IN, predicate.getOperator());
+        assertEquals("orderPo.deptId", predicate.getArg(0).toString());
+        assertEquals("startsWith(scopeDept.path,/1/5/) && scopeDept.deleted = false", subqueryWhere(predicate));
+    }
+
+    @Test
+    @DisplayName("每次查询都读取部门当前路径，部门移动后立即生效")
+    public void readsCurrentPathOnEveryQuery() {
+
+        when(deptMapper.findPathById(5L)).thenReturn(Optional.of("/1/5/"), Optional.of("/2/5/"));
+        SecurityContextHolder.set(user(5L));
+
+        String before = subqueryWhere((Operation<?>) plugin.apply(ORDER, OrderPo.class));
+        String after = subqueryWhere((Operation<?>) plugin.apply(ORDER, OrderPo.class));
+
+        assertTrue(before.contains("/1/5/"), before);
+        assertTrue(after.contains("/2/5/"), after);
+        verify(deptMapper, times(2)).findPathById(5L);
+    }
+
+    @Test
+    @DisplayName("使用注解指定的部门字段")
+    public void usesConfiguredDeptField() {
+
+        when(deptMapper.findPathById(5L)).thenReturn(Optional.of("/1/5/"));
+        SecurityContextHolder.set(user(5L));
+
+        Operation<?> predicate = (Operation<?>) plugin.apply(new PathBuilder<>(OwnedPo.class, "ownedPo"), OwnedPo.class);
+
+        assertEquals("ownedPo.ownerDeptId", predicate.getArg(0).toString());
+    }
+
+    @Test
+    @DisplayName("没有部门或部门不存在时不返回数据")
+    public void matchesNothingWithoutDept() {
+
+        when(deptMapper.findPathById(7L)).thenReturn(Optional.empty());
+
+        SecurityContextHolder.set(user(null));
+        assertEquals("orderPo.id is null", plugin.apply(ORDER, OrderPo.class).toString());
+
+        SecurityContextHolder.set(user(7L));
+        assertEquals("orderPo.id is null", plugin.apply(ORDER, OrderPo.class).toString());
+    }
+
+    @Test
+    @DisplayName("无用户上下文、超级管理员与内部调用不过滤")
+    public void skipsUnscopedCallers() {
+
+        assertNull(plugin.apply(ORDER, OrderPo.class));
+
+        SecurityContextHolder.set(user(5L).setUserType(UserType.SYSTEM_ADMINISTRATOR));
+        assertNull(plugin.apply(ORDER, OrderPo.class));
+
+        SecurityContextHolder.set(UserDetails.Internal);
+        BooleanExpression internal = plugin.apply(ORDER, OrderPo.class);
+        assertNull(internal);
+
+        verify(deptMapper, never()).findPathById(any());
+    }
+
+    private static String subqueryWhere(Operation<?> predicate) {
+
+        return ((SubQueryExpression<?>) predicate.getArg(1)).getMetadata().getWhere().toString();
+    }
+
+    private static UserDetails user(Long deptId) {
+
+        return new UserDetails().setId(1001L).setUsername("alice").setDeptId(deptId).setUserType(UserType.ORDINARY_USER);
+    }
+
+    @DataScope
+    static class OrderPo extends JpaEntity {
+
+    }
+
+    @DataScope(deptField = "ownerDeptId")
+    static class OwnedPo extends JpaEntity {
+
+    }
+
+    static class PlainPo extends JpaEntity {
+
+    }
+
+}
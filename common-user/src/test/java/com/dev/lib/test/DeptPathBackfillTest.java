@@ -0,0 +1,81 @@
+package com.dev.lib.test;
+
+import com.dev.lib.persist.user.DeptMapper;
+import com.dev.lib.persist.user.DeptNode;
+import com.dev.lib.persist.user.DeptPathBackfill;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class DeptPathBackfillTest {
+
+    @Mock
+    private DeptMapper deptMapper;
+
+    @InjectMocks
+    private DeptPathBackfill backfill;
+
+    @Test
+    @DisplayName("从根向下回填缺失的路径，保留已有路径")
+    public void fillsMissingPathsTopDown() {
+
+        when(deptMapper.findAllNodesIncludingDeleted()).thenReturn(List.of(
+                new DeptNode(12L, 5L, "c", null),
+                new DeptNode(5L, 1L, "b", ""),
+                new DeptNode(1L, null, "a", null),
+                new DeptNode(2L, null, "d", "/2/"),
+                new DeptNode(20L, 2L, "e", null),
+                // 上级已不存在，视为根
+                new DeptNode(30L, 99L, "f", null)
+        ));
+        when(deptMapper.fillPath(anyLong(), anyString())).thenReturn(1);
+
+        assertEquals(5, backfill.backfill());
+
+        verify(deptMapper).fillPath(1L, "/1/");
+        verify(deptMapper).fillPath(5L, "/1/5/");
+        verify(deptMapper).fillPath(12L, "/1/5/12/");
+        verify(deptMapper).fillPath(20L, "/2/20/");
+        verify(deptMapper).fillPath(30L, "/30/");
+        verify(deptMapper, never()).fillPath(2L, "/2/");
+    }
+
+    @Test
+    @DisplayName("上级成环的部门无法到达，保持为空")
+    public void leavesCyclesUnfilled() {
+
+        when(deptMapper.findAllNodesIncludingDeleted()).thenReturn(List.of(
+                new DeptNode(1L, 2L, "a", null),
+                new DeptNode(2L, 1L, "b", null)
+        ));
+
+        assertEquals(0, backfill.backfill());
+
+        verify(deptMapper, never()).fillPath(anyLong(), anyString());
+    }
+
+    @Test
+    @DisplayName("没有缺失路径时不写入")
+    public void noopWhenAllPathsPresent() {
+
+        when(deptMapper.findAllNodesIncludingDeleted()).thenReturn(List.of(new DeptNode(1L, null, "a", "/1/")));
+
+        assertEquals(0, backfill.backfill());
+
+        verify(deptMapper, never()).fillPath(anyLong(), anyString());
+    }
+
+}
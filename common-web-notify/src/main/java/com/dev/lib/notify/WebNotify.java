@@ -23,6 +23,11 @@ import org.springframework.stereotype.Component;
  * WebNotify.topic("notification")
  *     .message(new NotifyMessage("Hello"))
  *     .send();
+ *
+ * // 发布给订阅了该主题的所有连接（含其他节点）
+ * WebNotify.topic("order.status")
+ *     .message(new OrderStatusMessage(order))
+ *     .publish();
  * </pre>
  */
 @Slf4j
@@ -140,6 +145,20 @@ public class WebNotify implements InitializingBean {
             return success;
         }
 
+        /**
+         * 发布给订阅了该主题的连接
+         *
+         * @return 本节点进入发送队列的连接数量
+         */
+        public int publish() {
+
+            if (instance == null) {
+                log.error("WebNotify instance not initialized");
+                return 0;
+            }
+            return instance.emitterManager.publish(topic, message);
+        }
+
     }
 
 }
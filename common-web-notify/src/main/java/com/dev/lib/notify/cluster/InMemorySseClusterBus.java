@@ -0,0 +1,34 @@
+package com.dev.lib.notify.cluster;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * 进程内总线，未配置跨节点实现时使用；同一进程内多个管理器之间也可互通
+ */
+public class InMemorySseClusterBus implements SseClusterBus {
+
+    private final List<Consumer<SseEnvelope>> listeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(SseEnvelope envelope) {
+
+        for (Consumer<SseEnvelope> listener : listeners) {
+            listener.accept(envelope);
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<SseEnvelope> listener) {
+
+        listeners.add(listener);
+    }
+
+    @Override
+    public boolean distributed() {
+
+        return false;
+    }
+
+}
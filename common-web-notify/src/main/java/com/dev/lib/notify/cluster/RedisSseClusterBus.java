@@ -0,0 +1,49 @@
+package com.dev.lib.notify.cluster;
+
+import com.dev.lib.util.Jsons;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Consumer;
+
+/**
+ * 基于 Redis 发布订阅的总线，sse.cluster-bus=redis 时启用
+ */
+@Slf4j
+@Component
+@ConditionalOnClass(name = "org.redisson.api.RedissonClient")
+@ConditionalOnProperty(prefix = "sse", name = "cluster-bus", havingValue = "redis")
+public class RedisSseClusterBus implements SseClusterBus {
+
+    private static final String TOPIC = "sse:bus";
+
+    private final RTopic topic;
+
+    public RedisSseClusterBus(RedissonClient redissonClient) {
+
+        this.topic = redissonClient.getTopic(TOPIC);
+    }
+
+    @Override
+    public void publish(SseEnvelope envelope) {
+
+        topic.publish(Jsons.toJson(envelope));
+    }
+
+    @Override
+    public void subscribe(Consumer<SseEnvelope> listener) {
+
+        topic.addListener(String.class, (channel, payload) -> {
+            try {
+                listener.accept(Jsons.parse(payload, SseEnvelope.class));
+            } catch (RuntimeException e) {
+                log.warn("Failed to handle SSE bus message", e);
+            }
+        });
+    }
+
+}
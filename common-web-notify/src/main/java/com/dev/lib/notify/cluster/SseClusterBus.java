@@ -0,0 +1,27 @@
+package com.dev.lib.notify.cluster;
+
+import java.util.function.Consumer;
+
+/**
+ * 跨节点 SSE 消息总线
+ * <p>
+ * 连接只存在于某一个节点，消息经总线送达所有节点，由持有连接/订阅的节点投递；发送节点本地已投递，收到自己的消息时忽略
+ */
+public interface SseClusterBus {
+
+    void publish(SseEnvelope envelope);
+
+    /**
+     * 注册收到总线消息时的回调，回调需快速返回
+     */
+    void subscribe(Consumer<SseEnvelope> listener);
+
+    /**
+     * 是否真正跨节点；单机实现下本地找不到的连接即视为离线
+     */
+    default boolean distributed() {
+
+        return true;
+    }
+
+}
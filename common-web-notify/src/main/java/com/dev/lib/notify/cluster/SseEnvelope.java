@@ -0,0 +1,33 @@
+package com.dev.lib.notify.cluster;
+
+/**
+ * 总线上传输的消息，frame 为已编码的 SSE 事件文本
+ *
+ * @param origin  发送节点 ID
+ * @param kind    投递方式
+ * @param target  DIRECT 为 clientId，TOPIC 为主题，BROADCAST 为空
+ * @param eventId 用于续传比较的事件 ID
+ * @param frame   SSE 事件文本
+ */
+public record SseEnvelope(String origin, Kind kind, String target, long eventId, String frame) {
+
+    public enum Kind {
+
+        /**
+         * 指定客户端
+         */
+        DIRECT,
+
+        /**
+         * 主题订阅者
+         */
+        TOPIC,
+
+        /**
+         * 所有连接
+         */
+        BROADCAST
+
+    }
+
+}
@@ -29,4 +29,62 @@ public class SseProperties {
      */
     private Integer maxConnections = 0;
 
+    /**
+     * 未注册 {@link com.dev.lib.notify.core.TopicAuthorizer} 时是否允许订阅任意主题
+     * <p>
+     * 默认拒绝带主题的订阅请求，确认所有主题都可公开订阅时再开启
+     */
+    private Boolean allowUnauthorizedTopics = false;
+
+    /**
+     * 每个连接的待发送队列长度
+     * <p>
+     * 消息先入队再由该连接自己的虚拟线程写出，慢连接不会阻塞广播和其他连接
+     */
+    private Integer queueCapacity = 256;
+
+    /**
+     * 队列写满时的处理策略
+     */
+    private SlowConsumerPolicy slowConsumerPolicy = SlowConsumerPolicy.DROP_OLDEST;
+
+    /**
+     * 每个主题保留的最近消息数，用于按 Last-Event-ID 续传，0 表示不保留
+     */
+    private Integer replaySize = 100;
+
+    /**
+     * 最多为多少个主题保留最近消息，超出后按最近最少使用淘汰
+     */
+    private Integer replayMaxTopics = 10_000;
+
+    /**
+     * 主题多久（秒）没有发布或续传后丢弃其最近消息
+     */
+    private Integer replayExpireSeconds = 3_600;
+
+    /**
+     * 跨节点总线：memory（单机）或 redis（Redis 发布订阅，需要 common-cache）
+     */
+    private String clusterBus = "memory";
+
+    public enum SlowConsumerPolicy {
+
+        /**
+         * 丢弃队列中最旧的消息，保留最新消息
+         */
+        DROP_OLDEST,
+
+        /**
+         * 丢弃新消息
+         */
+        DROP_NEWEST,
+
+        /**
+         * 断开连接，由客户端重连
+         */
+        DISCONNECT
+
+    }
+
 }
@@ -1,18 +1,26 @@
 package com.dev.lib.notify.controller;
 
+import com.dev.lib.exceptions.BizException;
+import com.dev.lib.notify.config.SseProperties;
 import com.dev.lib.notify.core.SseEmitterManager;
+import com.dev.lib.notify.core.TopicAuthorizer;
 import com.dev.lib.security.util.SecurityContextHolder;
+import com.dev.lib.web.model.StandardErrorCodes;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.util.Set;
+
 /**
  * SSE 通知接口
  * 提供 SSE 连接注册端点
@@ -26,6 +34,10 @@ public class SseController implements InitializingBean {
 
     private final SseEmitterManager emitterManager;
 
+    private final ObjectProvider<TopicAuthorizer> topicAuthorizer;
+
+    private final SseProperties sseProperties;
+
     @Override
     public void afterPropertiesSet() {
 
@@ -36,20 +48,46 @@ public class SseController implements InitializingBean {
      * 注册 SSE 连接
      * 前端调用此接口建立 SSE 连接
      *
-     * @param clientId 可选，客户端 ID。如果不提供，自动生成
+     * @param clientId    可选，客户端 ID。如果不提供，自动生成
+     * @param topics      可选，订阅的主题
+     * @param lastEventId 浏览器重连时自动携带，用于续传断线期间的主题消息
      * @return SseEmitter
      */
     @GetMapping(value = "/subscribe", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
     public SseEmitter subscribe(
-            @RequestParam(required = false) String clientId
+            @RequestParam(required = false) String clientId,
+            @RequestParam(required = false) Set<String> topics,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId
     ) {
 
         if (clientId == null || clientId.isEmpty()) {
             Long userId = SecurityContextHolder.getUserId();
             clientId = userId != null ? String.valueOf(userId) : "";
         }
+        authorize(clientId, topics);
         log.info("New SSE subscription request from client: {}", clientId);
-        return emitterManager.createEmitter(clientId);
+        return emitterManager.createEmitter(clientId, topics, lastEventId);
+    }
+
+    private void authorize(String clientId, Set<String> topics) {
+
+        if (topics == null || topics.isEmpty()) {
+            return;
+        }
+        TopicAuthorizer authorizer = topicAuthorizer.getIfAvailable();
+        if (authorizer == null) {
+            if (Boolean.TRUE.equals(sseProperties.getAllowUnauthorizedTopics())) {
+                return;
+            }
+            log.warn("SSE client {} denied subscription to topics {}: no TopicAuthorizer registered", clientId, topics);
+            throw new BizException(StandardErrorCodes.PERMISSION_DENIED, "未配置主题订阅授权，无法订阅主题: " + String.join(",", topics));
+        }
+        for (String topic : topics) {
+            if (!authorizer.canSubscribe(clientId, topic)) {
+                log.warn("SSE client {} denied subscription to topic: {}", clientId, topic);
+                throw new BizException(StandardErrorCodes.PERMISSION_DENIED, "无权订阅主题: " + topic);
+            }
+        }
     }
 
 }
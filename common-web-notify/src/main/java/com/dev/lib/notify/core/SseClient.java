@@ -0,0 +1,168 @@
+package com.dev.lib.notify.core;
+
+import com.dev.lib.notify.config.SseProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * 单个 SSE 连接
+ * <p>
+ * - 发送只入队，不在调用线程写网络
+ * - 队列非空时启动一个虚拟线程依次写出，写完即退出；同一连接同一时刻只有一个写线程，保证顺序
+ * - 队列写满按 {@link SseProperties.SlowConsumerPolicy} 处理
+ */
+@Slf4j
+final class SseClient {
+
+    private final String clientId;
+
+    private final SseEmitter emitter;
+
+    private final BlockingQueue<SseFrame> queue;
+
+    private final SseProperties.SlowConsumerPolicy policy;
+
+    private final Consumer<SseClient> onBroken;
+
+    private final AtomicBoolean draining = new AtomicBoolean();
+
+    private final LongAdder dropped = new LongAdder();
+
+    /**
+     * 订阅的主题，由管理器维护，连接移除时据此清理主题索引
+     */
+    private final Set<String> topics = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean closed = false;
+
+    SseClient(
+            String clientId,
+            SseEmitter emitter,
+            int queueCapacity,
+            SseProperties.SlowConsumerPolicy policy,
+            Consumer<SseClient> onBroken
+    ) {
+
+        this.clientId = clientId;
+        this.emitter = emitter;
+        this.queue = new ArrayBlockingQueue<>(Math.max(queueCapacity, 1));
+        this.policy = policy;
+        this.onBroken = onBroken;
+    }
+
+    String clientId() {
+
+        return clientId;
+    }
+
+    SseEmitter emitter() {
+
+        return emitter;
+    }
+
+    Set<String> topics() {
+
+        return topics;
+    }
+
+    long dropped() {
+
+        return dropped.sum();
+    }
+
+    /**
+     * 入队，返回是否被接受
+     */
+    boolean offer(SseFrame frame) {
+
+        if (closed) {
+            return false;
+        }
+        if (!queue.offer(frame)) {
+            switch (policy) {
+                case DROP_NEWEST -> {
+                    dropped.increment();
+                    return false;
+                }
+                case DROP_OLDEST -> {
+                    // 并发入队时可能再次失败，此时按丢弃新消息处理
+                    if (queue.poll() != null) {
+                        dropped.increment();
+                    }
+                    if (!queue.offer(frame)) {
+                        dropped.increment();
+                        return false;
+                    }
+                }
+                case DISCONNECT -> {
+                    log.warn("SSE client {} too slow, queue full ({}), disconnecting", clientId, queue.size());
+                    onBroken.accept(this);
+                    return false;
+                }
+            }
+        }
+        scheduleDrain();
+        return true;
+    }
+
+    /**
+     * 心跳只在连接空闲时发送：有待发消息本身就能保活
+     */
+    void offerHeartbeat() {
+
+        if (idle()) {
+            offer(SseFrame.HEARTBEAT);
+        }
+    }
+
+    /**
+     * 没有待发消息，也没有正在写出的线程
+     */
+    boolean idle() {
+
+        return queue.isEmpty() && !draining.get();
+    }
+
+    void close() {
+
+        closed = true;
+        queue.clear();
+    }
+
+    private void scheduleDrain() {
+
+        if (draining.compareAndSet(false, true)) {
+            Thread.ofVirtual().name("sse-" + clientId).start(this::drain);
+        }
+    }
+
+    private void drain() {
+
+        do {
+            SseFrame frame;
+            while (!closed && (frame = queue.poll()) != null) {
+                try {
+                    emitter.send(frame.parts());
+                } catch (IOException | IllegalStateException e) {
+                    log.warn("Failed to send to SSE client: {}, removing: {}", clientId, e.getMessage());
+                    closed = true;
+                    draining.set(false);
+                    onBroken.accept(this);
+                    return;
+                }
+            }
+            draining.set(false);
+            // 释放标记后再检查一次，避免与并发入队互相错过
+        } while (!closed && !queue.isEmpty() && draining.compareAndSet(false, true));
+    }
+
+}
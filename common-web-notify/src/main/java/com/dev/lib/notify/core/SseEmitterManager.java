@@ -1,39 +1,76 @@
 package com.dev.lib.notify.core;
 
+import com.dev.lib.entity.id.IntEncoder;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.dev.lib.notify.cluster.InMemorySseClusterBus;
+import com.dev.lib.notify.cluster.SseClusterBus;
+import com.dev.lib.notify.cluster.SseEnvelope;
 import com.dev.lib.notify.config.SseProperties;
 import com.dev.lib.notify.model.Message;
-import com.dev.lib.util.Jsons;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Component;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
 /**
  * SSE Emitter 管理器
  * 管理所有客户端的 SSE 连接
+ * <p>
+ * - 消息只编码一次，按连接入队后由各连接的虚拟线程并行写出，单个慢连接不影响其他连接
+ * - 主题发布只触达订阅者；每个主题保留最近消息，重连时按 Last-Event-ID 续传（重连瞬间可能重复，客户端按 id 去重）
+ * - 发送经 {@link SseClusterBus} 送达其他节点，由持有连接的节点投递
  */
 @Slf4j
 @Component
 @RequiredArgsConstructor
-public class SseEmitterManager {
+public class SseEmitterManager implements InitializingBean, DisposableBean {
 
     private final SseProperties sseProperties;
 
+    private final ObjectProvider<SseClusterBus> busProvider;
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private SseClusterBus bus;
+
+    /**
+     * 主题 -> 订阅连接
+     */
+    private final Map<String, Set<SseClient>> subscribers = new ConcurrentHashMap<>();
+
+    /**
+     * 主题 -> 最近消息；主题名来自业务，数量有界，长期无人发布或续传的主题会被淘汰
+     */
+    private Cache<String, TopicReplayBuffer> replayBuffers;
+
     /**
-     * 存储 clientId -> SseEmitter 的映射
+     * 存储 clientId -> 连接 的映射
      */
-    private final Map<String, SseEmitter> emitters = new ConcurrentHashMap<>();
+    private final Map<String, SseClient> clients = new ConcurrentHashMap<>();
 
     /**
-     * 心跳线程池
+     * 心跳调度（只负责入队，不写网络）
      */
-    private final ScheduledThreadPoolExecutor heartbeatExecutor = new ScheduledThreadPoolExecutor(1);
+    private final ScheduledExecutorService heartbeatExecutor = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofVirtual().name("sse-heartbeat").factory()
+    );
 
     /**
      * 初始化心跳任务
@@ -52,11 +89,30 @@ public class SseEmitterManager {
                 TimeUnit.SECONDS
         );
         log.info(
-                "SSE initialized with non-expiring connections, heartbeat: {}s",
-                sseProperties.getHeartbeatInterval()
+                "SSE initialized with non-expiring connections, heartbeat: {}s, queue: {}, slow consumer: {}",
+                sseProperties.getHeartbeatInterval(),
+                sseProperties.getQueueCapacity(),
+                sseProperties.getSlowConsumerPolicy()
         );
     }
 
+    @Override
+    public void afterPropertiesSet() {
+
+        replayBuffers = Caffeine.newBuilder()
+                .maximumSize(sseProperties.getReplayMaxTopics())
+                .expireAfterAccess(Duration.ofSeconds(sseProperties.getReplayExpireSeconds()))
+                .build();
+        bus = busProvider.getIfAvailable(InMemorySseClusterBus::new);
+        bus.subscribe(this::onEnvelope);
+    }
+
+    @Override
+    public void destroy() {
+
+        heartbeatExecutor.shutdownNow();
+    }
+
     /**
      * 创建新的 SSE 连接
      *
@@ -64,30 +120,56 @@ public class SseEmitterManager {
      * @return SseEmitter
      */
     public SseEmitter createEmitter(String clientId) {
+
+        return createEmitter(clientId, Set.of(), null);
+    }
+
+    /**
+     * 创建新的 SSE 连接并订阅主题
+     *
+     * @param clientId    客户端 ID
+     * @param topics      订阅的主题
+     * @param lastEventId 重连时浏览器携带的 Last-Event-ID，不为空时续传订阅主题中此后的消息
+     * @return SseEmitter
+     */
+    public SseEmitter createEmitter(String clientId, Collection<String> topics, String lastEventId) {
         // 检查连接数限制
         if (sseProperties.getMaxConnections() > 0
-                && emitters.size() >= sseProperties.getMaxConnections()) {
+                && clients.size() >= sseProperties.getMaxConnections()) {
             log.warn("Max connections limit reached: {}", sseProperties.getMaxConnections());
             throw new IllegalStateException("Maximum SSE connections reached");
         }
 
         SseEmitter emitter = new SseEmitter(Long.MAX_VALUE);
-        emitters.put(clientId, emitter);
+        SseClient client = new SseClient(
+                clientId,
+                emitter,
+                sseProperties.getQueueCapacity(),
+                sseProperties.getSlowConsumerPolicy(),
+                this::disconnect
+        );
+        SseClient previous = clients.put(clientId, client);
+        if (previous != null) {
+            // 同一客户端重连，关闭旧连接
+            unindex(previous);
+            previous.close();
+            previous.emitter().complete();
+        }
 
-        // 设置超时和完成回调
+        // 回调只移除自己，避免重连后误删新连接
         emitter.onCompletion(() -> {
             log.debug("SSE connection completed for client: {}", clientId);
-            removeEmitter(clientId);
+            remove(client);
         });
 
         emitter.onTimeout(() -> {
             log.debug("SSE connection timeout for client: {}", clientId);
-            removeEmitter(clientId);
+            remove(client);
         });
 
         emitter.onError((e) -> {
             log.error("SSE connection error for client: {}", clientId, e);
-            removeEmitter(clientId);
+            remove(client);
         });
 
         log.info(
@@ -96,9 +178,61 @@ public class SseEmitterManager {
         );
 
         sendConnected(clientId);
+        long after = parseLastEventId(clientId, lastEventId);
+        if (after < 0) {
+            subscribe(client, topics);
+            return emitter;
+        }
+        // 先续传再加入订阅，断线期间的消息排在实时消息之前；
+        // 续传与订阅之间发布的消息只进入了主题缓冲，订阅后再补发一次
+        long replayed = replay(client, topics, after);
+        subscribe(client, topics);
+        replay(client, topics, replayed);
         return emitter;
     }
 
+    /**
+     * 为本节点上的连接追加订阅；服务端直接调用，不经 {@link TopicAuthorizer} 校验
+     */
+    public void subscribe(String clientId, Collection<String> topics) {
+
+        SseClient client = clients.get(clientId);
+        if (client != null) {
+            subscribe(client, topics);
+        }
+    }
+
+    /**
+     * 取消本节点上连接的订阅
+     */
+    public void unsubscribe(String clientId, Collection<String> topics) {
+
+        SseClient client = clients.get(clientId);
+        if (client == null || topics == null) {
+            return;
+        }
+        for (String topic : topics) {
+            client.topics().remove(topic);
+            Set<SseClient> set = subscribers.get(topic);
+            if (set != null) {
+                set.remove(client);
+            }
+        }
+    }
+
+    /**
+     * 发布到主题：本节点订阅者立即入队，其他节点经总线投递给各自的订阅者
+     *
+     * @return 本节点进入发送队列的连接数量
+     */
+    public int publish(String topic, Message message) {
+
+        SseFrame frame = SseFrame.message(topic, message);
+        int accepted = deliverTopic(topic, frame);
+        bus.publish(new SseEnvelope(nodeId, SseEnvelope.Kind.TOPIC, topic, frame.eventId(), frame.text()));
+        return accepted;
+    }
+
     /**
      * 移除 SSE 连接
      *
@@ -106,9 +240,11 @@ public class SseEmitterManager {
      */
     public void removeEmitter(String clientId) {
 
-        SseEmitter emitter = emitters.remove(clientId);
-        if (emitter != null) {
-            emitter.complete();
+        SseClient client = clients.remove(clientId);
+        if (client != null) {
+            unindex(client);
+            client.close();
+            client.emitter().complete();
         }
         log.info("SSE connection removed for client: {}", clientId);
     }
@@ -119,48 +255,51 @@ public class SseEmitterManager {
      * @param clientId 客户端 ID
      * @param topic    事件名称（topic）
      * @param message  消息
-     * @return 是否发送成功
+     * @return 是否进入发送队列；连接在其他节点时为是否已交给总线
      */
     public boolean sendMessage(String clientId, String topic, Message message) {
 
-        SseEmitter emitter = emitters.get(clientId);
-        if (emitter == null) {
-            log.warn("No SSE connection found for client: {}", clientId);
-            return false;
+        SseFrame frame = SseFrame.message(topic, message);
+        SseClient client = clients.get(clientId);
+        if (client != null) {
+            return client.offer(frame);
         }
-
-        try {
-            // 使用 topic 作为事件名称，message 只提供数据
-            String data = Jsons.toJson(message.getData());
-            emitter.send(SseEmitter.event()
-                                 .name(topic)
-                                 .data(data)
-                                 .id(message.getMessageId())
-            );
-            log.debug("Message sent to client: {}, event: {}, data: {}", clientId, topic, data);
-            return true;
-        } catch (IOException e) {
-            log.error("Failed to send message to client: {}", clientId, e);
-            removeEmitter(clientId);
+        if (!bus.distributed()) {
+            log.warn("No SSE connection found for client: {}", clientId);
             return false;
         }
+        bus.publish(new SseEnvelope(nodeId, SseEnvelope.Kind.DIRECT, clientId, frame.eventId(), frame.text()));
+        return true;
     }
 
     /**
-     * 广播消息给所有客户端
+     * 广播消息给所有客户端（含其他节点）
      *
      * @param topic   事件名称（topic）
      * @param message 消息
-     * @return 成功发送的客户端数量
+     * @return 本节点进入发送队列的客户端数量
      */
     public int broadcast(String topic, Message message) {
 
+        SseFrame frame = SseFrame.message(topic, message);
+        int successCount = broadcastLocal(topic, frame);
+        bus.publish(new SseEnvelope(nodeId, SseEnvelope.Kind.BROADCAST, null, frame.eventId(), frame.text()));
+        return successCount;
+    }
+
+    private int broadcastLocal(String topic, SseFrame frame) {
+
+        long start = System.nanoTime();
         int successCount = 0;
-        for (String clientId : emitters.keySet()) {
-            if (sendMessage(clientId, topic, message)) {
+        for (SseClient client : clients.values()) {
+            if (client.offer(frame)) {
                 successCount++;
             }
         }
+        log.debug(
+                "Broadcast {} queued to {}/{} clients in {} µs",
+                topic, successCount, clients.size(), TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start)
+        );
         return successCount;
     }
 
@@ -172,18 +311,8 @@ public class SseEmitterManager {
      */
     private void sendHeartbeat() {
 
-        for (String clientId : emitters.keySet()) {
-            SseEmitter emitter = emitters.get(clientId);
-            if (emitter != null) {
-                try {
-                    // 使用 comment() 而非 data()，避免客户端误处理
-                    emitter.send(SseEmitter.event().comment("heartbeat"));
-                    log.trace("Heartbeat sent to client: {}", clientId);
-                } catch (IOException e) {
-                    log.warn("Failed to send heartbeat to client: {}, removing", clientId, e);
-                    removeEmitter(clientId);
-                }
-            }
+        for (SseClient client : clients.values()) {
+            client.offerHeartbeat();
         }
     }
 
@@ -192,7 +321,20 @@ public class SseEmitterManager {
      */
     public int getConnectionCount() {
 
-        return emitters.size();
+        return clients.size();
+    }
+
+    /**
+     * 本节点所有连接的发送队列是否均已写空
+     */
+    boolean drained() {
+
+        for (SseClient client : clients.values()) {
+            if (!client.idle()) {
+                return false;
+            }
+        }
+        return true;
     }
 
     /**
@@ -200,7 +342,7 @@ public class SseEmitterManager {
      */
     public boolean isOnline(String clientId) {
 
-        return emitters.containsKey(clientId);
+        return clients.containsKey(clientId);
     }
 
     /**
@@ -210,29 +352,159 @@ public class SseEmitterManager {
      */
     public void sendConnected(String clientId) {
 
-        SseEmitter emitter = emitters.get(clientId);
-        if (emitter != null) {
-            try {
-                emitter.send(SseEmitter.event()
-                                     .name("_connected")
-                                     .data("{\"clientId\":\"" + clientId + "\",\"timestamp\":" + System.currentTimeMillis() + "}")
-                );
-                log.debug("Connected message sent to client: {}", clientId);
-            } catch (IOException e) {
-                log.warn("Failed to send connected message to client: {}", clientId, e);
-            }
+        SseClient client = clients.get(clientId);
+        if (client != null) {
+            client.offer(SseFrame.of(SseEmitter.event()
+                                             .name("_connected")
+                                             .data("{\"clientId\":\"" + clientId + "\",\"timestamp\":" + System.currentTimeMillis() + "}")
+            ));
+            log.debug("Connected message queued to client: {}", clientId);
         }
     }
 
     /**
      * 获取原始 SseEmitter（用于流式传输等高级场景）
+     * <p>
+     * 直接写入会绕过发送队列，与队列中的消息没有顺序保证
      *
      * @param clientId 客户端 ID
      * @return SseEmitter
      */
     public SseEmitter getEmitter(String clientId) {
 
-        return emitters.get(clientId);
+        SseClient client = clients.get(clientId);
+        return client == null ? null : client.emitter();
+    }
+
+    private void remove(SseClient client) {
+
+        if (clients.remove(client.clientId(), client)) {
+            log.info("SSE connection removed for client: {}", client.clientId());
+        }
+        unindex(client);
+        client.close();
+    }
+
+    private void subscribe(SseClient client, Collection<String> topics) {
+
+        if (topics == null) {
+            return;
+        }
+        for (String topic : topics) {
+            if (topic != null && !topic.isEmpty()) {
+                client.topics().add(topic);
+                subscribers.computeIfAbsent(topic, k -> ConcurrentHashMap.newKeySet()).add(client);
+            }
+        }
+    }
+
+    private void unindex(SseClient client) {
+
+        for (String topic : client.topics()) {
+            subscribers.computeIfPresent(topic, (k, set) -> {
+                set.remove(client);
+                return set.isEmpty() ? null : set;
+            });
+        }
+    }
+
+    /**
+     * 记录到主题缓冲并投递给本节点订阅者
+     */
+    private int deliverTopic(String topic, SseFrame frame) {
+
+        if (sseProperties.getReplaySize() > 0) {
+            replayBuffers.get(topic, k -> new TopicReplayBuffer(sseProperties.getReplaySize())).append(frame);
+        }
+        Set<SseClient> set = subscribers.get(topic);
+        if (set == null) {
+            return 0;
+        }
+        int accepted = 0;
+        for (SseClient client : set) {
+            if (client.offer(frame)) {
+                accepted++;
+            }
+        }
+        return accepted;
+    }
+
+    /**
+     * @return Last-Event-ID 对应的事件 ID，未携带或无法解析时为 -1
+     */
+    private static long parseLastEventId(String clientId, String lastEventId) {
+
+        if (lastEventId == null || lastEventId.isEmpty()) {
+            return -1L;
+        }
+        try {
+            return IntEncoder.decode36(lastEventId);
+        } catch (RuntimeException e) {
+            log.debug("Ignore invalid Last-Event-ID from client {}: {}", clientId, lastEventId);
+            return -1L;
+        }
+    }
+
+    /**
+     * 按事件 ID 顺序补发主题缓冲中 after 之后的消息
+     *
+     * @return 已补发的最大事件 ID，没有补发时为 after
+     */
+    private long replay(SseClient client, Collection<String> topics, long after) {
+
+        if (topics == null || topics.isEmpty()) {
+            return after;
+        }
+        List<SseFrame> missed = new ArrayList<>();
+        for (String topic : topics) {
+            TopicReplayBuffer buffer = topic == null ? null : replayBuffers.getIfPresent(topic);
+            if (buffer != null) {
+                buffer.collectAfter(after, missed);
+            }
+        }
+        if (missed.isEmpty()) {
+            return after;
+        }
+        missed.sort(Comparator.comparingLong(SseFrame::eventId));
+        for (SseFrame frame : missed) {
+            client.offer(frame);
+        }
+        log.debug("Replayed {} events to client {} after {}", missed.size(), client.clientId(), after);
+        return missed.getLast().eventId();
+    }
+
+    /**
+     * 其他节点经总线转发的消息
+     */
+    private void onEnvelope(SseEnvelope envelope) {
+
+        if (nodeId.equals(envelope.origin())) {
+            return;
+        }
+        SseFrame frame = SseFrame.ofText(envelope.frame(), envelope.eventId());
+        switch (envelope.kind()) {
+            case DIRECT -> {
+                SseClient client = clients.get(envelope.target());
+                if (client != null) {
+                    client.offer(frame);
+                }
+            }
+            case TOPIC -> deliverTopic(envelope.target(), frame);
+            case BROADCAST -> broadcastLocal("broadcast", frame);
+        }
+    }
+
+    /**
+     * 写失败或慢连接被断开
+     */
+    private void disconnect(SseClient client) {
+
+        remove(client);
+        try {
+            client.emitter().complete();
+        } catch (RuntimeException e) {
+            log.debug("Complete SSE emitter failed for client: {}", client.clientId(), e);
+        }
     }
 
 }
@@ -0,0 +1,92 @@
+package com.dev.lib.notify.core;
+
+import com.dev.lib.entity.id.IntEncoder;
+import com.dev.lib.notify.model.Message;
+import com.dev.lib.util.Jsons;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+
+/**
+ * 预编码的 SSE 事件帧
+ * <p>
+ * 事件的各个字段在创建时拼成一段完整的文本，广播时所有连接共享同一个实例，不再逐个连接序列化；
+ * 跨节点转发时直接传输这段文本
+ */
+final class SseFrame {
+
+    private static final MediaType TEXT_PLAIN = new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8);
+
+    static final SseFrame HEARTBEAT = of(SseEmitter.event().comment("heartbeat"));
+
+    private final String text;
+
+    /**
+     * 消息 ID 解码后的雪花 ID，用于 Last-Event-ID 续传比较；非业务消息为 0
+     */
+    private final long eventId;
+
+    private final Set<ResponseBodyEmitter.DataWithMediaType> parts;
+
+    private SseFrame(String text, long eventId) {
+
+        this.text = text;
+        this.eventId = eventId;
+        this.parts = Set.of(new ResponseBodyEmitter.DataWithMediaType(text, TEXT_PLAIN));
+    }
+
+    /**
+     * topic 作为事件名称，message 只提供数据
+     */
+    static SseFrame message(String topic, Message message) {
+
+        return of(
+                SseEmitter.event()
+                        .name(topic)
+                        .data(Jsons.toJson(message.getData()))
+                        .id(message.getMessageId()),
+                IntEncoder.decode36(message.getMessageId())
+        );
+    }
+
+    static SseFrame of(SseEmitter.SseEventBuilder builder) {
+
+        return of(builder, 0);
+    }
+
+    static SseFrame of(SseEmitter.SseEventBuilder builder, long eventId) {
+
+        StringBuilder text = new StringBuilder();
+        for (ResponseBodyEmitter.DataWithMediaType part : builder.build()) {
+            text.append(part.getData());
+        }
+        return new SseFrame(text.toString(), eventId);
+    }
+
+    /**
+     * 由其他节点转发的已编码文本还原
+     */
+    static SseFrame ofText(String text, long eventId) {
+
+        return new SseFrame(text, eventId);
+    }
+
+    String text() {
+
+        return text;
+    }
+
+    long eventId() {
+
+        return eventId;
+    }
+
+    Set<ResponseBodyEmitter.DataWithMediaType> parts() {
+
+        return parts;
+    }
+
+}
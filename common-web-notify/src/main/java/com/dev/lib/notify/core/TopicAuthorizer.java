@@ -0,0 +1,19 @@
+package com.dev.lib.notify.core;
+
+/**
+ * SSE 主题订阅授权
+ * <p>
+ * 注册为 Bean 后，{@code /api/sse/subscribe} 请求中的每个主题都需通过校验，任一主题被拒绝则整个连接被拒绝；
+ * 未注册时拒绝所有主题订阅，除非开启 sse.allow-unauthorized-topics。校验在请求线程上执行，可通过 SecurityContextHolder 取当前用户
+ */
+@FunctionalInterface
+public interface TopicAuthorizer {
+
+    /**
+     * @param clientId 连接的客户端 ID
+     * @param topic    请求订阅的主题
+     * @return 是否允许订阅
+     */
+    boolean canSubscribe(String clientId, String topic);
+
+}
@@ -0,0 +1,44 @@
+package com.dev.lib.notify.core;
+
+import java.util.List;
+
+/**
+ * 主题最近消息环形缓冲，供断线重连按 Last-Event-ID 续传
+ */
+final class TopicReplayBuffer {
+
+    private final SseFrame[] ring;
+
+    private int next;
+
+    private int size;
+
+    TopicReplayBuffer(int capacity) {
+
+        this.ring = new SseFrame[capacity];
+    }
+
+    synchronized void append(SseFrame frame) {
+
+        ring[next] = frame;
+        next = (next + 1) % ring.length;
+        if (size < ring.length) {
+            size++;
+        }
+    }
+
+    /**
+     * 追加 eventId 之后的消息，按写入顺序
+     */
+    synchronized void collectAfter(long eventId, List<SseFrame> out) {
+
+        int start = (next - size + ring.length) % ring.length;
+        for (int i = 0; i < size; i++) {
+            SseFrame frame = ring[(start + i) % ring.length];
+            if (frame.eventId() > eventId) {
+                out.add(frame);
+            }
+        }
+    }
+
+}
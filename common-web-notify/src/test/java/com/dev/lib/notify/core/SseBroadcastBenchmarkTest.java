@@ -0,0 +1,140 @@
+package com.dev.lib.notify.core;
+
+import com.dev.lib.notify.cluster.SseClusterBus;
+import com.dev.lib.notify.config.SseProperties;
+import com.dev.lib.notify.model.Message;
+import com.dev.lib.util.Jsons;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 广播基准：10k 个连接，对比逐连接序列化并在调用线程依次写出（原实现）与编码一次、按连接入队的耗时，
+ * 分别统计调用方返回耗时与全部连接写完的耗时。
+ * <p>
+ * 连接未绑定真实响应，写出的事件由 SseEmitter 暂存在内存中，结果只反映编码与调度开销，不含网络写。
+ * <p>
+ * 默认跳过，执行：mvn -pl common-web-notify test -Dbenchmark=true -Dtest=SseBroadcastBenchmarkTest
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class SseBroadcastBenchmarkTest {
+
+    private static final int CONNECTIONS = 10_000;
+
+    private static final int MESSAGES = 20;
+
+    private static final int ROUNDS = 3;
+
+    @Test
+    void broadcastLatencyAcrossTenThousandConnections() {
+
+        long sequential = Long.MAX_VALUE;
+        long enqueue = Long.MAX_VALUE;
+        long delivered = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            SseEmitterManager manager = manager();
+            List<SseEmitter> emitters = connect(manager, "round-" + round);
+
+            sequential = Math.min(sequential, sequentialBroadcast(emitters));
+
+            awaitDrained(manager);
+            long start = System.nanoTime();
+            for (int i = 0; i < MESSAGES; i++) {
+                assertThat(manager.broadcast("bench", new BenchMessage(i))).isEqualTo(CONNECTIONS);
+            }
+            enqueue = Math.min(enqueue, System.nanoTime() - start);
+            awaitDrained(manager);
+            delivered = Math.min(delivered, System.nanoTime() - start);
+
+            emitters.forEach(SseEmitter::complete);
+        }
+
+        System.out.printf("connections: %,d, messages per round: %d%n", CONNECTIONS, MESSAGES);
+        System.out.printf("sequential send per broadcast:  %,d µs%n", sequential / MESSAGES / 1_000);
+        System.out.printf("queued broadcast caller return: %,d µs%n", enqueue / MESSAGES / 1_000);
+        System.out.printf("queued broadcast all delivered: %,d µs%n", delivered / MESSAGES / 1_000);
+    }
+
+    private static SseEmitterManager manager() {
+
+        SseProperties properties = new SseProperties();
+        // 队列容纳一轮全部消息，避免丢弃影响计数
+        properties.setQueueCapacity(MESSAGES * 2);
+        SseEmitterManager manager = new SseEmitterManager(
+                properties,
+                new DefaultListableBeanFactory().getBeanProvider(SseClusterBus.class)
+        );
+        manager.afterPropertiesSet();
+        return manager;
+    }
+
+    private static List<SseEmitter> connect(SseEmitterManager manager, String prefix) {
+
+        List<SseEmitter> emitters = new ArrayList<>(CONNECTIONS);
+        for (int i = 0; i < CONNECTIONS; i++) {
+            emitters.add(manager.createEmitter(prefix + "-" + i));
+        }
+        assertThat(manager.getConnectionCount()).isEqualTo(CONNECTIONS);
+        return emitters;
+    }
+
+    /**
+     * 原实现：每个连接各自序列化一次，在调用线程上依次写出
+     */
+    private static long sequentialBroadcast(List<SseEmitter> emitters) {
+
+        long start = System.nanoTime();
+        for (int i = 0; i < MESSAGES; i++) {
+            BenchMessage message = new BenchMessage(i);
+            for (SseEmitter emitter : emitters) {
+                try {
+                    emitter.send(SseEmitter.event()
+                                         .name("bench")
+                                         .data(Jsons.toJson(message.getData()))
+                                         .id(message.getMessageId()));
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static void awaitDrained(SseEmitterManager manager) {
+
+        long deadline = System.nanoTime() + 60_000_000_000L;
+        while (!manager.drained()) {
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException("SSE queues not drained within 60s");
+            }
+            LockSupport.parkNanos(50_000);
+        }
+    }
+
+    static final class BenchMessage extends Message {
+
+        private final Map<String, Object> data;
+
+        BenchMessage(int seq) {
+
+            this.data = Map.of("seq", seq, "title", "订单已发货", "body", "x".repeat(200));
+        }
+
+        @Override
+        public Object getData() {
+
+            return data;
+        }
+
+    }
+
+}
@@ -0,0 +1,202 @@
+package com.dev.lib.notify.core;
+
+import com.dev.lib.notify.config.SseProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SseClientTest {
+
+    @Test
+    void shouldDropNewestWhenQueueIsFull() throws Exception {
+
+        RecordingEmitter emitter = new RecordingEmitter(true);
+        List<SseClient> broken = new CopyOnWriteArrayList<>();
+        SseClient client = new SseClient("c1", emitter, 2, SseProperties.SlowConsumerPolicy.DROP_NEWEST, broken::add);
+
+        fillWhileWriterBlocked(client, emitter);
+
+        assertThat(client.offer(frame("4"))).isFalse();
+        assertThat(client.dropped()).isEqualTo(1);
+
+        emitter.release();
+        await(client::idle);
+        assertThat(emitter.sent).containsExactly("1", "2", "3");
+        assertThat(broken).isEmpty();
+    }
+
+    @Test
+    void shouldDropOldestWhenQueueIsFull() throws Exception {
+
+        RecordingEmitter emitter = new RecordingEmitter(true);
+        List<SseClient> broken = new CopyOnWriteArrayList<>();
+        SseClient client = new SseClient("c1", emitter, 2, SseProperties.SlowConsumerPolicy.DROP_OLDEST, broken::add);
+
+        fillWhileWriterBlocked(client, emitter);
+
+        assertThat(client.offer(frame("4"))).isTrue();
+        assertThat(client.dropped()).isEqualTo(1);
+
+        emitter.release();
+        await(client::idle);
+        assertThat(emitter.sent).containsExactly("1", "3", "4");
+        assertThat(broken).isEmpty();
+    }
+
+    @Test
+    void shouldDisconnectWhenQueueIsFull() throws Exception {
+
+        RecordingEmitter emitter = new RecordingEmitter(true);
+        List<SseClient> broken = new CopyOnWriteArrayList<>();
+        SseClient client = new SseClient("c1", emitter, 2, SseProperties.SlowConsumerPolicy.DISCONNECT, it -> {
+            broken.add(it);
+            it.close();
+        });
+
+        fillWhileWriterBlocked(client, emitter);
+
+        assertThat(client.offer(frame("4"))).isFalse();
+        assertThat(broken).containsExactly(client);
+        assertThat(client.offer(frame("5"))).isFalse();
+
+        emitter.release();
+        await(client::idle);
+        // 断开后队列中的消息不再写出
+        assertThat(emitter.sent).containsExactly("1");
+    }
+
+    @Test
+    void shouldWriteInOrderFromSingleWriter() {
+
+        RecordingEmitter emitter = new RecordingEmitter(false);
+        SseClient client = new SseClient("c1", emitter, 1_000, SseProperties.SlowConsumerPolicy.DROP_NEWEST, it -> {
+        });
+        List<String> expected = IntStream.range(0, 500).mapToObj(String::valueOf).toList();
+
+        for (String data : expected) {
+            assertThat(client.offer(frame(data))).isTrue();
+            if (Integer.parseInt(data) % 50 == 0) {
+                // 让写线程在中途写空退出，下一次入队重新启动
+                await(client::idle);
+            }
+        }
+
+        await(client::idle);
+        assertThat(emitter.sent).containsExactlyElementsOf(expected);
+        assertThat(emitter.maxConcurrent).hasValue(1);
+        assertThat(client.dropped()).isZero();
+    }
+
+    @Test
+    void shouldReportBrokenConnectionOnWriteFailure() {
+
+        RecordingEmitter emitter = new RecordingEmitter(false);
+        emitter.failOn = "2";
+        List<SseClient> broken = new CopyOnWriteArrayList<>();
+        SseClient client = new SseClient("c1", emitter, 10, SseProperties.SlowConsumerPolicy.DROP_NEWEST, it -> {
+            broken.add(it);
+            it.close();
+        });
+
+        client.offer(frame("1"));
+        client.offer(frame("2"));
+        client.offer(frame("3"));
+
+        await(() -> !broken.isEmpty() && client.idle());
+        assertThat(broken).containsExactly(client);
+        assertThat(emitter.sent).containsExactly("1");
+        assertThat(client.offer(frame("4"))).isFalse();
+    }
+
+    /**
+     * 写线程取走第一条并阻塞在写出上，随后两条填满容量为 2 的队列
+     */
+    private static void fillWhileWriterBlocked(SseClient client, RecordingEmitter emitter) throws InterruptedException {
+
+        assertThat(client.offer(frame("1"))).isTrue();
+        assertThat(emitter.entered.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(client.offer(frame("2"))).isTrue();
+        assertThat(client.offer(frame("3"))).isTrue();
+    }
+
+    private static SseFrame frame(String data) {
+
+        return SseFrame.of(SseEmitter.event().data(data));
+    }
+
+    private static void await(BooleanSupplier condition) {
+
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("condition not met in time");
+            }
+            LockSupport.parkNanos(1_000_000);
+        }
+    }
+
+    /**
+     * 记录写出的事件数据；blocking 时第一次写出阻塞到 {@link #release()}
+     */
+    static final class RecordingEmitter extends SseEmitter {
+
+        final List<String> sent = new CopyOnWriteArrayList<>();
+
+        final CountDownLatch entered = new CountDownLatch(1);
+
+        final AtomicInteger maxConcurrent = new AtomicInteger();
+
+        private final AtomicInteger concurrent = new AtomicInteger();
+
+        private final CountDownLatch gate;
+
+        volatile String failOn;
+
+        RecordingEmitter(boolean blocking) {
+
+            super(Long.MAX_VALUE);
+            this.gate = new CountDownLatch(blocking ? 1 : 0);
+        }
+
+        void release() {
+
+            gate.countDown();
+        }
+
+        @Override
+        public void send(Set<ResponseBodyEmitter.DataWithMediaType> items) throws IOException {
+
+            maxConcurrent.accumulateAndGet(concurrent.incrementAndGet(), Math::max);
+            try {
+                entered.countDown();
+                gate.await();
+                String text = items.iterator().next().getData().toString();
+                String data = text.substring("data:".length()).trim();
+                if (data.equals(failOn)) {
+                    throw new IOException("broken pipe");
+                }
+                sent.add(data);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            } finally {
+                concurrent.decrementAndGet();
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,263 @@
+package com.dev.lib.notify.core;
+
+import com.dev.lib.exceptions.BizException;
+import com.dev.lib.notify.cluster.InMemorySseClusterBus;
+import com.dev.lib.notify.cluster.SseClusterBus;
+import com.dev.lib.notify.config.SseProperties;
+import com.dev.lib.notify.controller.SseController;
+import com.dev.lib.notify.model.Message;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+class SseEmitterManagerTest {
+
+    private static final TopicAuthorizer ALLOW_ALL = (clientId, topic) -> true;
+
+    @Test
+    void shouldReplayTopicMessagesAfterLastEventId() throws Exception {
+
+        SseEmitterManager manager = manager(new InMemorySseClusterBus());
+        MockMvc mvc = mvc(manager, ALLOW_ALL);
+        TextMessage first = new TextMessage("first");
+        TextMessage second = new TextMessage("second");
+        TextMessage third = new TextMessage("third");
+        manager.publish("orders", first);
+        manager.publish("orders", second);
+        manager.publish("news", new TextMessage("unrelated"));
+        manager.publish("orders", third);
+
+        MvcResult result = connect(mvc, "c1", "orders", first.getMessageId());
+
+        String content = await(manager, result, it -> it.contains("id:" + third.getMessageId()));
+        assertThat(content).doesNotContain("id:" + first.getMessageId()).doesNotContain("unrelated");
+        assertThat(content.indexOf("id:" + second.getMessageId())).isPositive()
+                .isLessThan(content.indexOf("id:" + third.getMessageId()));
+    }
+
+    @Test
+    void shouldNotReplayWithoutLastEventId() throws Exception {
+
+        SseEmitterManager manager = manager(new InMemorySseClusterBus());
+        MockMvc mvc = mvc(manager, ALLOW_ALL);
+        manager.publish("orders", new TextMessage("before-connect"));
+
+        MvcResult result = connect(mvc, "c1", "orders", null);
+        manager.publish("orders", new TextMessage("after-connect"));
+
+        String content = await(manager, result, it -> it.contains("after-connect"));
+        assertThat(content).contains("_connected").doesNotContain("before-connect");
+    }
+
+    @Test
+    void shouldFanOutTopicToSubscribersOnly() throws Exception {
+
+        SseEmitterManager manager = manager(new InMemorySseClusterBus());
+        MockMvc mvc = mvc(manager, ALLOW_ALL);
+        MvcResult orders1 = connect(mvc, "c1", "orders", null);
+        MvcResult orders2 = connect(mvc, "c2", "orders,news", null);
+        MvcResult news = connect(mvc, "c3", "news", null);
+
+        assertThat(manager.publish("orders", new TextMessage("shipped"))).isEqualTo(2);
+        manager.unsubscribe("c2", List.of("orders"));
+        assertThat(manager.publish("orders", new TextMessage("delivered"))).isEqualTo(1);
+
+        assertThat(await(manager, orders1, it -> it.contains("delivered"))).contains("event:orders").contains("shipped");
+        assertThat(await(manager, orders2, it -> it.contains("shipped"))).doesNotContain("delivered");
+        assertThat(await(manager, news, it -> it.contains("_connected"))).doesNotContain("shipped");
+    }
+
+    @Test
+    void shouldFanOutTopicToSubscribersOnOtherNodes() throws Exception {
+
+        InMemorySseClusterBus bus = new InMemorySseClusterBus();
+        SseEmitterManager publisher = manager(bus);
+        SseEmitterManager holder = manager(bus);
+        MvcResult remote = connect(mvc(holder, ALLOW_ALL), "c1", "orders", null);
+
+        // 发布节点本地没有订阅者，由持有连接的节点投递
+        assertThat(publisher.publish("orders", new TextMessage("shipped"))).isZero();
+
+        assertThat(await(holder, remote, it -> it.contains("shipped"))).contains("event:orders");
+    }
+
+    @Test
+    void shouldRejectSubscriptionDeniedByTopicAuthorizer() throws Exception {
+
+        SseEmitterManager manager = manager(new InMemorySseClusterBus());
+        MockMvc mvc = mvc(manager, (clientId, topic) -> !topic.startsWith("admin"));
+
+        assertThatThrownBy(() -> connect(mvc, "c1", "orders,admin.audit", null))
+                .rootCause()
+                .isInstanceOf(BizException.class)
+                .hasMessageContaining("admin.audit");
+        assertThat(manager.isOnline("c1")).isFalse();
+
+        connect(mvc, "c2", "orders", null);
+        assertThat(manager.isOnline("c2")).isTrue();
+    }
+
+    @Test
+    void shouldDenyTopicsWithoutTopicAuthorizerUnlessAllowed() throws Exception {
+
+        SseEmitterManager manager = manager(new InMemorySseClusterBus());
+
+        assertThatThrownBy(() -> connect(mvc(manager, null), "c1", "orders", null))
+                .rootCause()
+                .isInstanceOf(BizException.class)
+                .hasMessageContaining("orders");
+        assertThat(manager.isOnline("c1")).isFalse();
+
+        SseProperties properties = new SseProperties().setAllowUnauthorizedTopics(true);
+        connect(mvc(manager, null, properties), "c1", "orders", null);
+        assertThat(manager.isOnline("c1")).isTrue();
+    }
+
+    @Test
+    void shouldSendReplayBeforeLiveMessages() throws Exception {
+
+        SseEmitterManager manager = manager(new InMemorySseClusterBus());
+        MockMvc mvc = mvc(manager, ALLOW_ALL);
+        TextMessage first = new TextMessage("first");
+        TextMessage missed = new TextMessage("missed");
+        manager.publish("orders", first);
+        manager.publish("orders", missed);
+
+        MvcResult result = connect(mvc, "c1", "orders", first.getMessageId());
+        TextMessage live = new TextMessage("live");
+        assertThat(manager.publish("orders", live)).isEqualTo(1);
+
+        String content = await(manager, result, it -> it.contains("id:" + live.getMessageId()));
+        int connected = content.indexOf("_connected");
+        int replayed = content.indexOf("id:" + missed.getMessageId());
+        int delivered = content.indexOf("id:" + live.getMessageId());
+        assertThat(connected).isNotNegative().isLessThan(replayed);
+        assertThat(replayed).isLessThan(delivered);
+        assertThat(content.indexOf("id:" + missed.getMessageId(), replayed + 1)).isNegative();
+    }
+
+    @Test
+    void shouldKeepReconnectedClientWhenOldConnectionCompletesOrTimesOut() throws Exception {
+
+        SseEmitterManager manager = manager(new InMemorySseClusterBus());
+        MockMvc mvc = mvc(manager, ALLOW_ALL);
+        MvcResult old = connect(mvc, "c1", "orders", null);
+        MvcResult current = connect(mvc, "c1", "orders", null);
+
+        // 旧连接的容器回调晚于重连到达
+        finish(old, true);
+        finish(old, false);
+
+        assertThat(manager.isOnline("c1")).isTrue();
+        assertThat(manager.publish("orders", new TextMessage("after-reconnect"))).isEqualTo(1);
+        assertThat(await(manager, current, it -> it.contains("after-reconnect"))).contains("event:orders");
+
+        // 当前连接自己的回调仍会移除连接
+        finish(current, false);
+        assertThat(manager.isOnline("c1")).isFalse();
+        assertThat(manager.publish("orders", new TextMessage("after-close"))).isZero();
+    }
+
+    private static SseEmitterManager manager(SseClusterBus bus) {
+
+        DefaultListableBeanFactory factory = new DefaultListableBeanFactory();
+        factory.registerSingleton("sseClusterBus", bus);
+        SseEmitterManager manager = new SseEmitterManager(new SseProperties(), factory.getBeanProvider(SseClusterBus.class));
+        manager.afterPropertiesSet();
+        return manager;
+    }
+
+    private static MockMvc mvc(SseEmitterManager manager, TopicAuthorizer authorizer) {
+
+        return mvc(manager, authorizer, new SseProperties());
+    }
+
+    private static MockMvc mvc(SseEmitterManager manager, TopicAuthorizer authorizer, SseProperties properties) {
+
+        DefaultListableBeanFactory factory = new DefaultListableBeanFactory();
+        if (authorizer != null) {
+            factory.registerSingleton("topicAuthorizer", authorizer);
+        }
+        ObjectProvider<TopicAuthorizer> provider = factory.getBeanProvider(TopicAuthorizer.class);
+        return MockMvcBuilders.standaloneSetup(new SseController(manager, provider, properties)).build();
+    }
+
+    private static MvcResult connect(MockMvc mvc, String clientId, String topics, String lastEventId) throws Exception {
+
+        var builder = get("/api/sse/subscribe").param("clientId", clientId).param("topics", topics);
+        if (lastEventId != null) {
+            builder.header("Last-Event-ID", lastEventId);
+        }
+        return mvc.perform(builder).andExpect(request().asyncStarted()).andReturn();
+    }
+
+    /**
+     * 模拟容器触发异步请求的超时或完成回调
+     */
+    private static void finish(MvcResult result, boolean timeout) throws IOException {
+
+        MockAsyncContext context = (MockAsyncContext) result.getRequest().getAsyncContext();
+        AsyncEvent event = new AsyncEvent(context);
+        for (AsyncListener listener : List.copyOf(context.getListeners())) {
+            if (timeout) {
+                listener.onTimeout(event);
+            } else {
+                listener.onComplete(event);
+            }
+        }
+    }
+
+    /**
+     * 消息由各连接的虚拟线程异步写出，等到内容满足条件且队列写空
+     */
+    private static String await(SseEmitterManager manager, MvcResult result, Predicate<String> condition) throws Exception {
+
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (true) {
+            String content = result.getResponse().getContentAsString(StandardCharsets.UTF_8);
+            if (condition.test(content) && manager.drained()) {
+                return content;
+            }
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("SSE content not received in time: " + content);
+            }
+            LockSupport.parkNanos(10_000_000);
+        }
+    }
+
+    static final class TextMessage extends Message {
+
+        private final String text;
+
+        TextMessage(String text) {
+
+            this.text = text;
+        }
+
+        @Override
+        public Object getData() {
+
+            return Map.of("text", text);
+        }
+
+    }
+
+}